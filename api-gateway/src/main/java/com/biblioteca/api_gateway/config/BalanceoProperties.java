@@ -0,0 +1,63 @@
+package com.biblioteca.api_gateway.config;
+
+import com.biblioteca.api_gateway.loadbalancer.EstrategiaBalanceo;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "biblioteca.gateway.balanceo")
+public class BalanceoProperties {
+
+    private EstrategiaBalanceo estrategia = EstrategiaBalanceo.POWER_OF_TWO;
+
+    // Fallos seguidos (error de conexión o 5xx) antes de expulsar una instancia
+    private int fallosConsecutivos = 3;
+
+    // Tiempo de expulsión; se multiplica por el número de expulsiones seguidas
+    private Duration tiempoExpulsion = Duration.ofSeconds(30);
+
+    private Duration tiempoExpulsionMaximo = Duration.ofMinutes(5);
+
+    // Nunca se expulsa más de este porcentaje de las instancias de un servicio
+    private int maxPorcentajeExpulsadas = 50;
+
+    public EstrategiaBalanceo getEstrategia() {
+        return estrategia;
+    }
+
+    public void setEstrategia(EstrategiaBalanceo estrategia) {
+        this.estrategia = estrategia;
+    }
+
+    public int getFallosConsecutivos() {
+        return fallosConsecutivos;
+    }
+
+    public void setFallosConsecutivos(int fallosConsecutivos) {
+        this.fallosConsecutivos = fallosConsecutivos;
+    }
+
+    public Duration getTiempoExpulsion() {
+        return tiempoExpulsion;
+    }
+
+    public void setTiempoExpulsion(Duration tiempoExpulsion) {
+        this.tiempoExpulsion = tiempoExpulsion;
+    }
+
+    public Duration getTiempoExpulsionMaximo() {
+        return tiempoExpulsionMaximo;
+    }
+
+    public void setTiempoExpulsionMaximo(Duration tiempoExpulsionMaximo) {
+        this.tiempoExpulsionMaximo = tiempoExpulsionMaximo;
+    }
+
+    public int getMaxPorcentajeExpulsadas() {
+        return maxPorcentajeExpulsadas;
+    }
+
+    public void setMaxPorcentajeExpulsadas(int maxPorcentajeExpulsadas) {
+        this.maxPorcentajeExpulsadas = maxPorcentajeExpulsadas;
+    }
+}
@@ -0,0 +1,41 @@
+package com.biblioteca.api_gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "biblioteca.gateway.hedging")
+public class HedgingProperties {
+
+    // Porcentaje máximo de peticiones extra (hedges) respecto al tráfico de la ventana
+    private double porcentajePresupuesto = 5.0;
+
+    // Hedges permitidos por segundo aunque haya poco tráfico
+    private int minimoPorSegundo = 1;
+
+    private Duration ventana = Duration.ofSeconds(10);
+
+    public double getPorcentajePresupuesto() {
+        return porcentajePresupuesto;
+    }
+
+    public void setPorcentajePresupuesto(double porcentajePresupuesto) {
+        this.porcentajePresupuesto = porcentajePresupuesto;
+    }
+
+    public int getMinimoPorSegundo() {
+        return minimoPorSegundo;
+    }
+
+    public void setMinimoPorSegundo(int minimoPorSegundo) {
+        this.minimoPorSegundo = minimoPorSegundo;
+    }
+
+    public Duration getVentana() {
+        return ventana;
+    }
+
+    public void setVentana(Duration ventana) {
+        this.ventana = ventana;
+    }
+}
@@ -0,0 +1,38 @@
+package com.biblioteca.api_gateway.config;
+
+import com.biblioteca.api_gateway.filter.HedgingGatewayFilterFactory;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import java.util.List;
+
+/**
+ * Metadatos de alcanzabilidad para la imagen nativa (mvn -Pnative). Spring Cloud
+ * Gateway solo registra para reflexión sus propias factorías de predicados y
+ * filtros; las del proyecto se enlazan igual desde la configuración de las rutas
+ * (p. ej. {@code Hedging=80ms} rellena su {@code Config} por sus setters), así que
+ * cada factoría nueva y su clase de configuración tienen que añadirse aquí.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(ImagenNativaConfig.FactoriasGateway.class)
+public class ImagenNativaConfig {
+
+    static class FactoriasGateway implements RuntimeHintsRegistrar {
+
+        static final List<Class<?>> TIPOS = List.of(
+                HedgingGatewayFilterFactory.class,
+                HedgingGatewayFilterFactory.Config.class);
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            // Las mismas categorías que usa el gateway para las suyas
+            TIPOS.forEach(tipo -> hints.reflection().registerType(tipo,
+                    MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_METHODS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS));
+        }
+    }
+}
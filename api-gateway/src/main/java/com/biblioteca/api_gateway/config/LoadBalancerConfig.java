@@ -0,0 +1,12 @@
+package com.biblioteca.api_gateway.config;
+
+import com.biblioteca.api_gateway.loadbalancer.UpstreamLoadBalancerConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(BalanceoProperties.class)
+@LoadBalancerClients(defaultConfiguration = UpstreamLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+}
@@ -0,0 +1,262 @@
+package com.biblioteca.api_gateway.filter;
+
+import com.biblioteca.api_gateway.loadbalancer.EstadisticasUpstream;
+import com.biblioteca.api_gateway.loadbalancer.UpstreamLoadBalancer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.AbstractServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebExchangeDecorator;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Hedging para rutas lb:// con peticiones GET idempotentes: si la instancia
+ * elegida no responde en {@code retraso}, se lanza la misma petición contra
+ * otra instancia y se queda la primera respuesta. Cada hedge consume del
+ * {@link PresupuestoReintentos} global. El resto de métodos sigue la cadena normal.
+ *
+ * <p>Cada intento recorre el resto de la cadena (balanceo, NettyRoutingFilter,
+ * timeouts de la ruta) sobre una copia del exchange con sus propios atributos y
+ * una respuesta que solo recoge estado y cabeceras. El ganador se vuelca en el
+ * exchange real y NettyWriteResponseFilter copia su cuerpo en streaming; la
+ * conexión del perdedor se cierra.
+ *
+ * <pre>
+ * filters:
+ *   - Hedging=80ms
+ * </pre>
+ */
+@Component
+public class HedgingGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<HedgingGatewayFilterFactory.Config> {
+
+    private final PresupuestoReintentos presupuesto;
+    private final EstadisticasUpstream estadisticas;
+    private final MeterRegistry meterRegistry;
+
+    public HedgingGatewayFilterFactory(PresupuestoReintentos presupuesto,
+                                       EstadisticasUpstream estadisticas,
+                                       MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.presupuesto = presupuesto;
+        this.estadisticas = estadisticas;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("retraso");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+            if (exchange.getRequest().getMethod() != HttpMethod.GET
+                    || route == null || !"lb".equalsIgnoreCase(route.getUri().getScheme())) {
+                return chain.filter(exchange);
+            }
+
+            presupuesto.registrarPeticion();
+            contador("gateway.hedging.peticiones", route).increment();
+
+            Intento principal = new Intento(exchange);
+            Intento hedge = new Intento(exchange);
+            Mono<Intento> segundo = Mono.delay(config.getRetraso())
+                    .then(Mono.defer(() -> {
+                        if (!presupuesto.intentarReintento()) {
+                            contador("gateway.hedging.denegados", route).increment();
+                            return Mono.empty();
+                        }
+                        contador("gateway.hedging.enviados", route).increment();
+                        // El balanceador evita la instancia del primer intento; si no queda
+                        // otra, el hedge falla y se espera al principal
+                        ServiceInstance ocupada = principal.instancia();
+                        if (ocupada != null) {
+                            hedge.getAttributes().put(UpstreamLoadBalancer.INSTANCIA_EXCLUIDA_ATTR, ocupada);
+                        }
+                        return hedge.ejecutar(chain);
+                    }));
+
+            return Mono.firstWithValue(principal.ejecutar(chain), segundo)
+                    .onErrorMap(NoSuchElementException.class, e -> principal.error != null
+                            ? principal.error
+                            : hedge.error != null ? hedge.error : e)
+                    .flatMap(ganador -> {
+                        (ganador == principal ? hedge : principal).descartar();
+                        if (ganador == hedge) {
+                            contador("gateway.hedging.ganados", route).increment();
+                        }
+                        return ganador.volcar();
+                    });
+        };
+    }
+
+    private Counter contador(String nombre, Route route) {
+        return meterRegistry.counter(nombre, "route", route.getId());
+    }
+
+    /**
+     * Un intento de la petición sobre su propia copia del exchange. Las copias que
+     * hagan los filtros posteriores con {@code mutate()} siguen delegando aquí.
+     */
+    private final class Intento extends ServerWebExchangeDecorator {
+
+        private final ServerWebExchange original;
+        private final Map<String, Object> atributos;
+        private final RespuestaCapturada respuesta;
+
+        private boolean terminado;
+        private boolean descartado;
+        private volatile Throwable error;
+
+        private Intento(ServerWebExchange original) {
+            super(original);
+            this.original = original;
+            this.atributos = new ConcurrentHashMap<>(original.getAttributes());
+            this.respuesta = new RespuestaCapturada(original.getResponse());
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return atributos;
+        }
+
+        @Override
+        public ServerHttpResponse getResponse() {
+            return respuesta;
+        }
+
+        Mono<Intento> ejecutar(GatewayFilterChain chain) {
+            return chain.filter(this)
+                    .then(Mono.fromCallable(() -> {
+                        terminar();
+                        return this;
+                    }))
+                    .doOnError(e -> error = e)
+                    .doOnCancel(this::abandonar);
+        }
+
+        ServiceInstance instancia() {
+            Response<?> elegida = (Response<?>) atributos.get(GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+            return elegida != null && elegida.hasServer() && elegida.getServer() instanceof ServiceInstance instancia
+                    ? instancia
+                    : null;
+        }
+
+        // Estado, cabeceras y atributos (incluida la conexión) pasan al exchange real
+        Mono<Void> volcar() {
+            ServerHttpResponse real = original.getResponse();
+            if (respuesta.getStatusCode() != null) {
+                real.setStatusCode(respuesta.getStatusCode());
+            }
+            real.getHeaders().addAll(respuesta.getHeaders());
+            original.getAttributes().putAll(atributos);
+            return Mono.empty();
+        }
+
+        private synchronized void terminar() {
+            terminado = true;
+            if (descartado) {
+                cerrarConexion();
+            }
+        }
+
+        synchronized void descartar() {
+            descartado = true;
+            if (terminado) {
+                cerrarConexion();
+            }
+        }
+
+        // Cancelado a medias: el balanceador no cierra la petición, se libera aquí
+        private synchronized void abandonar() {
+            descartado = true;
+            ServiceInstance instancia = instancia();
+            if (!terminado && instancia != null) {
+                estadisticas.cancelarPeticion(instancia);
+            }
+        }
+
+        private void cerrarConexion() {
+            if (atributos.get(CLIENT_RESPONSE_CONN_ATTR) instanceof Connection conexion) {
+                conexion.dispose();
+            }
+        }
+    }
+
+    /**
+     * Respuesta de un intento: guarda el estado y las cabeceras que pone
+     * NettyRoutingFilter sin tocar la respuesta real. El cuerpo nunca se escribe
+     * aquí, lo copia NettyWriteResponseFilter desde la conexión del ganador.
+     */
+    private static final class RespuestaCapturada extends AbstractServerHttpResponse {
+
+        RespuestaCapturada(ServerHttpResponse real) {
+            super(real.bufferFactory(), new HttpHeaders());
+        }
+
+        @Override
+        public <T> T getNativeResponse() {
+            throw new IllegalStateException("La respuesta de un intento de hedging no tiene respuesta nativa");
+        }
+
+        @Override
+        protected Mono<Void> writeWithInternal(Publisher<? extends DataBuffer> body) {
+            return Mono.error(new IllegalStateException("El cuerpo solo se escribe en la respuesta real"));
+        }
+
+        @Override
+        protected Mono<Void> writeAndFlushWithInternal(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return Mono.error(new IllegalStateException("El cuerpo solo se escribe en la respuesta real"));
+        }
+
+        @Override
+        protected void applyStatusCode() {
+        }
+
+        @Override
+        protected void applyHeaders() {
+        }
+
+        @Override
+        protected void applyCookies() {
+        }
+    }
+
+    public static class Config {
+
+        private Duration retraso = Duration.ofMillis(50);
+
+        public Duration getRetraso() {
+            return retraso;
+        }
+
+        public void setRetraso(Duration retraso) {
+            this.retraso = retraso;
+        }
+    }
+}
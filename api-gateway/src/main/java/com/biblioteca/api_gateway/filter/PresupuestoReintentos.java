@@ -0,0 +1,78 @@
+package com.biblioteca.api_gateway.filter;
+
+import com.biblioteca.api_gateway.config.HedgingProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Presupuesto global de peticiones extra (hedges) sobre una ventana deslizante
+ * de un segundo por cubeta. Si los upstreams empiezan a fallar o a ir lentos,
+ * el número de hedges queda acotado a un porcentaje del tráfico real y no
+ * puede multiplicar la carga de una caída.
+ */
+@Component
+public class PresupuestoReintentos {
+
+    private final HedgingProperties properties;
+    private final int cubetas;
+    private final AtomicLongArray segundoCubeta;
+    private final AtomicLongArray peticiones;
+    private final AtomicLongArray reintentos;
+
+    public PresupuestoReintentos(HedgingProperties properties) {
+        this.properties = properties;
+        this.cubetas = (int) Math.max(1, properties.getVentana().toSeconds());
+        this.segundoCubeta = new AtomicLongArray(cubetas);
+        this.peticiones = new AtomicLongArray(cubetas);
+        this.reintentos = new AtomicLongArray(cubetas);
+    }
+
+    public void registrarPeticion() {
+        registrarPeticion(segundoActual());
+    }
+
+    public boolean intentarReintento() {
+        return intentarReintento(segundoActual());
+    }
+
+    void registrarPeticion(long segundo) {
+        peticiones.incrementAndGet(cubeta(segundo));
+    }
+
+    // El control es aproximado: dos hilos pueden pasar a la vez el límite por una unidad
+    boolean intentarReintento(long segundo) {
+        int actual = cubeta(segundo);
+        long totalPeticiones = 0;
+        long totalReintentos = 0;
+        for (int i = 0; i < cubetas; i++) {
+            if (segundo - segundoCubeta.get(i) < cubetas) {
+                totalPeticiones += peticiones.get(i);
+                totalReintentos += reintentos.get(i);
+            }
+        }
+
+        double permitidos = Math.max(
+                (double) properties.getMinimoPorSegundo() * cubetas,
+                totalPeticiones * properties.getPorcentajePresupuesto() / 100.0);
+        if (totalReintentos >= permitidos) {
+            return false;
+        }
+        reintentos.incrementAndGet(actual);
+        return true;
+    }
+
+    private int cubeta(long segundo) {
+        int indice = (int) (segundo % cubetas);
+        long anterior = segundoCubeta.get(indice);
+        if (anterior != segundo && segundoCubeta.compareAndSet(indice, anterior, segundo)) {
+            peticiones.set(indice, 0);
+            reintentos.set(indice, 0);
+        }
+        return indice;
+    }
+
+    private static long segundoActual() {
+        return System.currentTimeMillis() / 1000;
+    }
+}
@@ -0,0 +1,121 @@
+package com.biblioteca.api_gateway.loadbalancer;
+
+import com.biblioteca.api_gateway.config.BalanceoProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Estado compartido por todas las rutas: peticiones en curso y expulsión pasiva
+ * de instancias que acumulan fallos seguidos.
+ */
+@Component
+public class EstadisticasUpstream {
+
+    private static final Logger log = LoggerFactory.getLogger(EstadisticasUpstream.class);
+
+    private final BalanceoProperties properties;
+    private final Map<String, EstadoInstancia> estados = new ConcurrentHashMap<>();
+
+    public EstadisticasUpstream(BalanceoProperties properties) {
+        this.properties = properties;
+    }
+
+    public void inicioPeticion(ServiceInstance instancia) {
+        estado(instancia).enCurso.incrementAndGet();
+    }
+
+    public void finPeticion(ServiceInstance instancia, boolean exito) {
+        finPeticion(instancia, exito, System.currentTimeMillis());
+    }
+
+    void finPeticion(ServiceInstance instancia, boolean exito, long ahora) {
+        EstadoInstancia estado = estado(instancia);
+        estado.enCurso.updateAndGet(n -> Math.max(0, n - 1));
+
+        if (exito) {
+            estado.fallosSeguidos.set(0);
+            estado.expulsiones.set(0);
+            return;
+        }
+
+        if (estado.fallosSeguidos.incrementAndGet() >= properties.getFallosConsecutivos()
+                && estado.expulsadaHasta <= ahora) {
+            int expulsiones = estado.expulsiones.incrementAndGet();
+            long duracion = Math.min(
+                    properties.getTiempoExpulsion().toMillis() * expulsiones,
+                    properties.getTiempoExpulsionMaximo().toMillis());
+            estado.expulsadaDesde = ahora;
+            estado.expulsadaHasta = ahora + duracion;
+            estado.fallosSeguidos.set(0);
+            log.warn("Instancia {} expulsada durante {} ms tras {} fallos seguidos",
+                    clave(instancia), duracion, properties.getFallosConsecutivos());
+        }
+    }
+
+    // Petición abandonada (p. ej. el hedge perdedor): no cuenta como éxito ni como fallo
+    public void cancelarPeticion(ServiceInstance instancia) {
+        estado(instancia).enCurso.updateAndGet(n -> Math.max(0, n - 1));
+    }
+
+    public int peticionesEnCurso(ServiceInstance instancia) {
+        EstadoInstancia estado = estados.get(clave(instancia));
+        return estado == null ? 0 : estado.enCurso.get();
+    }
+
+    public List<ServiceInstance> filtrarExpulsadas(List<ServiceInstance> instancias) {
+        return filtrarExpulsadas(instancias, System.currentTimeMillis());
+    }
+
+    List<ServiceInstance> filtrarExpulsadas(List<ServiceInstance> instancias, long ahora) {
+        List<ServiceInstance> expulsadas = new ArrayList<>();
+        for (ServiceInstance instancia : instancias) {
+            EstadoInstancia estado = estados.get(clave(instancia));
+            if (estado != null && estado.expulsadaHasta > ahora) {
+                expulsadas.add(instancia);
+            }
+        }
+        if (expulsadas.isEmpty()) {
+            return instancias;
+        }
+
+        // Por encima del máximo se readmiten las expulsadas hace más tiempo, solo las
+        // justas; y nunca se deja el servicio sin destinos
+        int maxExpulsadas = instancias.size() * properties.getMaxPorcentajeExpulsadas() / 100;
+        int readmitir = Math.max(expulsadas.size() - maxExpulsadas,
+                expulsadas.size() == instancias.size() ? 1 : 0);
+        if (readmitir > 0) {
+            expulsadas.sort(Comparator.comparingLong(
+                    (ServiceInstance instancia) -> estados.get(clave(instancia)).expulsadaDesde));
+            expulsadas = expulsadas.subList(readmitir, expulsadas.size());
+        }
+
+        List<ServiceInstance> destinos = new ArrayList<>(instancias);
+        destinos.removeAll(expulsadas);
+        return destinos;
+    }
+
+    private EstadoInstancia estado(ServiceInstance instancia) {
+        return estados.computeIfAbsent(clave(instancia), k -> new EstadoInstancia());
+    }
+
+    private static String clave(ServiceInstance instancia) {
+        return instancia.getServiceId() + "@" + instancia.getHost() + ":" + instancia.getPort();
+    }
+
+    private static final class EstadoInstancia {
+        private final AtomicInteger enCurso = new AtomicInteger();
+        private final AtomicInteger fallosSeguidos = new AtomicInteger();
+        private final AtomicInteger expulsiones = new AtomicInteger();
+        private volatile long expulsadaDesde;
+        private volatile long expulsadaHasta;
+    }
+}
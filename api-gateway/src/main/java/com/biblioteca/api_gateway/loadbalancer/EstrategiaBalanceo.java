@@ -0,0 +1,8 @@
+package com.biblioteca.api_gateway.loadbalancer;
+
+public enum EstrategiaBalanceo {
+    // Elige siempre la instancia con menos peticiones en curso
+    LEAST_OUTSTANDING,
+    // Compara dos instancias al azar y elige la menos cargada
+    POWER_OF_TWO
+}
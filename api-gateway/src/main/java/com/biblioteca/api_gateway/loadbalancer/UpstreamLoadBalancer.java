@@ -0,0 +1,117 @@
+package com.biblioteca.api_gateway.loadbalancer;
+
+import com.biblioteca.api_gateway.config.BalanceoProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class UpstreamLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private static final Logger log = LoggerFactory.getLogger(UpstreamLoadBalancer.class);
+
+    // Atributo del exchange con una instancia que no debe elegirse (el hedge evita la del primer intento)
+    public static final String INSTANCIA_EXCLUIDA_ATTR = UpstreamLoadBalancer.class.getName() + ".instanciaExcluida";
+
+    private final String serviceId;
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final EstadisticasUpstream estadisticas;
+    private final BalanceoProperties properties;
+
+    public UpstreamLoadBalancer(String serviceId,
+                                ObjectProvider<ServiceInstanceListSupplier> supplierProvider,
+                                EstadisticasUpstream estadisticas,
+                                BalanceoProperties properties) {
+        this.serviceId = serviceId;
+        this.supplierProvider = supplierProvider;
+        this.estadisticas = estadisticas;
+        this.properties = properties;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider
+                .getIfAvailable(NoopServiceInstanceListSupplier::new);
+        ServiceInstance excluida = instanciaExcluida(request);
+        return supplier.get(request).next()
+                .map(instancias -> excluida == null ? instancias : sin(instancias, excluida))
+                .map(this::elegir);
+    }
+
+    static List<ServiceInstance> sin(List<ServiceInstance> instancias, ServiceInstance excluida) {
+        return instancias.stream()
+                .filter(instancia -> !instancia.getHost().equals(excluida.getHost())
+                        || instancia.getPort() != excluida.getPort())
+                .toList();
+    }
+
+    private static ServiceInstance instanciaExcluida(Request<?> request) {
+        if (request.getContext() instanceof RequestDataContext contexto && contexto.getClientRequest() != null) {
+            Map<String, Object> atributos = contexto.getClientRequest().getAttributes();
+            if (atributos != null && atributos.get(INSTANCIA_EXCLUIDA_ATTR) instanceof ServiceInstance excluida) {
+                return excluida;
+            }
+        }
+        return null;
+    }
+
+    Response<ServiceInstance> elegir(List<ServiceInstance> instancias) {
+        if (instancias.isEmpty()) {
+            log.warn("No hay instancias sanas disponibles para el servicio {}", serviceId);
+            return new EmptyResponse();
+        }
+
+        List<ServiceInstance> candidatas = estadisticas.filtrarExpulsadas(instancias);
+        ServiceInstance elegida = switch (properties.getEstrategia()) {
+            case LEAST_OUTSTANDING -> menosCargada(candidatas);
+            case POWER_OF_TWO -> mejorDeDos(candidatas);
+        };
+        return new DefaultResponse(elegida);
+    }
+
+    private ServiceInstance menosCargada(List<ServiceInstance> candidatas) {
+        // Empezar en una posición aleatoria reparte los empates entre instancias
+        int inicio = ThreadLocalRandom.current().nextInt(candidatas.size());
+        ServiceInstance mejor = null;
+        int menorCarga = Integer.MAX_VALUE;
+        for (int i = 0; i < candidatas.size(); i++) {
+            ServiceInstance instancia = candidatas.get((inicio + i) % candidatas.size());
+            int carga = estadisticas.peticionesEnCurso(instancia);
+            if (carga < menorCarga) {
+                menorCarga = carga;
+                mejor = instancia;
+            }
+        }
+        return mejor;
+    }
+
+    private ServiceInstance mejorDeDos(List<ServiceInstance> candidatas) {
+        if (candidatas.size() == 1) {
+            return candidatas.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int a = random.nextInt(candidatas.size());
+        int b = random.nextInt(candidatas.size() - 1);
+        if (b >= a) {
+            b++;
+        }
+        ServiceInstance primera = candidatas.get(a);
+        ServiceInstance segunda = candidatas.get(b);
+        return estadisticas.peticionesEnCurso(segunda) < estadisticas.peticionesEnCurso(primera)
+                ? segunda
+                : primera;
+    }
+}
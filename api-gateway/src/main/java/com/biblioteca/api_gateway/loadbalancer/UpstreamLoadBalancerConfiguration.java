@@ -0,0 +1,38 @@
+package com.biblioteca.api_gateway.loadbalancer;
+
+import com.biblioteca.api_gateway.config.BalanceoProperties;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Configuración de cada cliente de balanceo (un contexto hijo por servicio).
+ * No lleva @Configuration para que el escaneo de componentes no la registre
+ * en el contexto principal.
+ */
+public class UpstreamLoadBalancerConfiguration {
+
+    @Bean
+    public ServiceInstanceListSupplier serviceInstanceListSupplier(ConfigurableApplicationContext context) {
+        // Instancias estáticas (spring.cloud.discovery.client.simple) filtradas por health check activo
+        return ServiceInstanceListSupplier.builder()
+                .withDiscoveryClient()
+                .withHealthChecks()
+                .build(context);
+    }
+
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> upstreamLoadBalancer(Environment environment,
+                                                                     LoadBalancerClientFactory clientFactory,
+                                                                     EstadisticasUpstream estadisticas,
+                                                                     BalanceoProperties properties) {
+        String serviceId = LoadBalancerClientFactory.getName(environment);
+        return new UpstreamLoadBalancer(serviceId,
+                clientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                estadisticas, properties);
+    }
+}
@@ -0,0 +1,60 @@
+package com.biblioteca.api_gateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registra en {@link EstadisticasUpstream} el inicio y el resultado de cada
+ * petición que el gateway envía a una instancia elegida por el balanceador.
+ */
+@Component
+public class UpstreamLoadBalancerLifecycle
+        implements LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+
+    private final EstadisticasUpstream estadisticas;
+
+    public UpstreamLoadBalancerLifecycle(EstadisticasUpstream estadisticas) {
+        this.estadisticas = estadisticas;
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return RequestDataContext.class.isAssignableFrom(requestContextClass)
+                && ResponseData.class.isAssignableFrom(responseClass)
+                && ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<RequestDataContext> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<RequestDataContext> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse.hasServer()) {
+            estadisticas.inicioPeticion(lbResponse.getServer());
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> context) {
+        Response<ServiceInstance> lbResponse = context.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()
+                || context.status() == CompletionContext.Status.DISCARD) {
+            return;
+        }
+
+        boolean exito = context.status() == CompletionContext.Status.SUCCESS;
+        ResponseData respuesta = context.getClientResponse();
+        if (exito && respuesta != null && respuesta.getHttpStatus() != null
+                && respuesta.getHttpStatus().is5xxServerError()) {
+            exito = false;
+        }
+        estadisticas.finPeticion(lbResponse.getServer(), exito);
+    }
+}
@@ -0,0 +1,147 @@
+package com.biblioteca.api_gateway;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Smoke test del binario nativo: lo arranca contra un upstream de prueba y pasa
+ * una petición por la ruta de libros (Path, RewritePath, balanceo lb:// y Hedging).
+ * Lo ejecuta mvn -Pnative verify; con -Dgateway.ejecutable=target/api-gateway-0.0.1-SNAPSHOT.jar
+ * se comprueba lo mismo contra el jar.
+ */
+class GatewayNativoIT {
+
+    private static final Duration ESPERA_ARRANQUE = Duration.ofSeconds(60);
+    private static final Duration ESPERA_RUTA = Duration.ofSeconds(15);
+
+    private final HttpClient cliente = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+    private HttpServer upstream;
+    private Process gateway;
+    private Path salida;
+    private int puerto;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String ejecutable = System.getProperty("gateway.ejecutable");
+        assumeTrue(ejecutable != null, "Sin gateway.ejecutable: se ejecuta con mvn -Pnative verify");
+
+        // Responde 200 a todo, también al health check del balanceador, con la ruta recibida
+        upstream = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        upstream.createContext("/", intercambio -> {
+            byte[] cuerpo = ("{\"ruta\":\"" + intercambio.getRequestURI() + "\"}").getBytes(StandardCharsets.UTF_8);
+            intercambio.getResponseHeaders().add("Content-Type", "application/json");
+            intercambio.sendResponseHeaders(200, cuerpo.length);
+            intercambio.getResponseBody().write(cuerpo);
+            intercambio.close();
+        });
+        upstream.start();
+
+        puerto = puertoLibre();
+        List<String> comando = new ArrayList<>();
+        if (ejecutable.endsWith(".jar")) {
+            comando.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+            comando.add("-jar");
+        }
+        comando.add(ejecutable);
+        comando.add("--server.port=" + puerto);
+        comando.add("--spring.cloud.discovery.client.simple.instances.libros-service[0].uri=http://localhost:"
+                + upstream.getAddress().getPort());
+        salida = Files.createTempFile("gateway-it", ".log");
+        gateway = new ProcessBuilder(comando)
+                .redirectErrorStream(true)
+                .redirectOutput(salida.toFile())
+                .start();
+        esperarListo();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (gateway != null) {
+            gateway.destroy();
+            if (!gateway.waitFor(10, TimeUnit.SECONDS)) {
+                gateway.destroyForcibly();
+            }
+            Files.deleteIfExists(salida);
+        }
+        if (upstream != null) {
+            upstream.stop(0);
+        }
+    }
+
+    @Test
+    void health_ArrancaYQuedaListo() throws Exception {
+        HttpResponse<String> respuesta = get("/actuator/health");
+
+        assertThat(respuesta.statusCode()).isEqualTo(200);
+        assertThat(respuesta.body()).contains("\"UP\"");
+    }
+
+    @Test
+    void rutaLibros_ReescribeYLlegaAlUpstream() throws Exception {
+        // El health check del balanceador tarda un momento en dar por buena la instancia
+        long limite = System.nanoTime() + ESPERA_RUTA.toNanos();
+        HttpResponse<String> respuesta = get("/biblioteca/libros/7?pagina=1");
+        while (respuesta.statusCode() != 200 && System.nanoTime() < limite) {
+            Thread.sleep(200);
+            respuesta = get("/biblioteca/libros/7?pagina=1");
+        }
+
+        assertThat(respuesta.statusCode()).isEqualTo(200);
+        assertThat(respuesta.body()).isEqualTo("{\"ruta\":\"/api/libros/7?pagina=1\"}");
+    }
+
+    private void esperarListo() throws Exception {
+        long limite = System.nanoTime() + ESPERA_ARRANQUE.toNanos();
+        while (System.nanoTime() < limite) {
+            if (!gateway.isAlive()) {
+                fail("El gateway terminó al arrancar:\n" + Files.readString(salida));
+            }
+            try {
+                if (get("/actuator/health/readiness").statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Todavía no escucha
+            }
+            Thread.sleep(100);
+        }
+        fail("El gateway no quedó listo en " + ESPERA_ARRANQUE + ":\n" + Files.readString(salida));
+    }
+
+    private HttpResponse<String> get(String ruta) throws IOException, InterruptedException {
+        HttpRequest peticion = HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + ruta))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+        return cliente.send(peticion, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static int puertoLibre() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
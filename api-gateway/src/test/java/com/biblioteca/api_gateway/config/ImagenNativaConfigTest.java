@@ -0,0 +1,28 @@
+package com.biblioteca.api_gateway.config;
+
+import com.biblioteca.api_gateway.filter.HedgingGatewayFilterFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImagenNativaConfigTest {
+
+    @Test
+    void registerHints_FactoriasPropiasYSuConfig() {
+        RuntimeHints hints = new RuntimeHints();
+
+        new ImagenNativaConfig.FactoriasGateway().registerHints(hints, getClass().getClassLoader());
+
+        assertThat(RuntimeHintsPredicates.reflection()
+                .onType(HedgingGatewayFilterFactory.class)
+                .withMemberCategories(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS))
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection()
+                .onType(HedgingGatewayFilterFactory.Config.class)
+                .withMemberCategories(MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_METHODS))
+                .accepts(hints);
+    }
+}
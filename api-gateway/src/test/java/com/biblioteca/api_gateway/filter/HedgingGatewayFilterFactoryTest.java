@@ -0,0 +1,196 @@
+package com.biblioteca.api_gateway.filter;
+
+import com.biblioteca.api_gateway.config.HedgingProperties;
+import com.biblioteca.api_gateway.loadbalancer.EstadisticasUpstream;
+import com.biblioteca.api_gateway.loadbalancer.UpstreamLoadBalancer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+import reactor.test.StepVerifier;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+class HedgingGatewayFilterFactoryTest {
+
+    private final ServiceInstance lenta =
+            new DefaultServiceInstance("l1", "libros-service", "localhost", 8082, false);
+    private final ServiceInstance rapida =
+            new DefaultServiceInstance("l2", "libros-service", "localhost", 8092, false);
+
+    private final Map<ServiceInstance, Connection> conexiones =
+            Map.of(lenta, mock(Connection.class), rapida, mock(Connection.class));
+    private final List<ServerWebExchange> llamadas = new CopyOnWriteArrayList<>();
+    private final List<ServiceInstance> canceladas = new CopyOnWriteArrayList<>();
+
+    private HedgingProperties properties;
+    private EstadisticasUpstream estadisticas;
+    private SimpleMeterRegistry meterRegistry;
+    private GatewayFilter filtro;
+
+    @BeforeEach
+    void setUp() {
+        properties = new HedgingProperties();
+        properties.setMinimoPorSegundo(10);
+        estadisticas = mock(EstadisticasUpstream.class);
+        meterRegistry = new SimpleMeterRegistry();
+        setUpFiltro();
+    }
+
+    @Test
+    void filter_PrincipalLenta_GanaElHedgeYCancelaLaPrincipal() {
+        MockServerWebExchange exchange = peticionGet();
+        GatewayFilterChain chain = cadena(Duration.ofSeconds(2), Duration.ofMillis(10));
+
+        StepVerifier.withVirtualTime(() -> filtro.filter(exchange, chain))
+                .thenAwait(Duration.ofMillis(79))
+                .then(() -> assertThat(llamadas).hasSize(1))
+                .thenAwait(Duration.ofMillis(11))
+                .verifyComplete();
+
+        // El hedge evita la instancia del primer intento
+        assertThat(llamadas).hasSize(2);
+        assertThat(llamadas.get(1).getAttributes()).containsEntry(UpstreamLoadBalancer.INSTANCIA_EXCLUIDA_ATTR, lenta);
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(exchange.getResponse().getHeaders().getFirst("X-Instancia")).isEqualTo("8092");
+        assertThat(exchange.getAttributes()).containsEntry(CLIENT_RESPONSE_CONN_ATTR, conexiones.get(rapida));
+        assertThat(canceladas).containsExactly(lenta);
+        verify(estadisticas).cancelarPeticion(lenta);
+        verify(conexiones.get(rapida), never()).dispose();
+        assertThat(contador("gateway.hedging.enviados")).isEqualTo(1);
+        assertThat(contador("gateway.hedging.ganados")).isEqualTo(1);
+    }
+
+    @Test
+    void filter_PrincipalAntesDelRetraso_SinHedge() {
+        MockServerWebExchange exchange = peticionGet();
+        GatewayFilterChain chain = cadena(Duration.ofMillis(30), Duration.ofMillis(10));
+
+        StepVerifier.withVirtualTime(() -> filtro.filter(exchange, chain))
+                .thenAwait(Duration.ofSeconds(1))
+                .verifyComplete();
+
+        assertThat(llamadas).hasSize(1);
+        assertThat(exchange.getResponse().getHeaders().getFirst("X-Instancia")).isEqualTo("8082");
+        assertThat(exchange.getAttributes()).containsEntry(CLIENT_RESPONSE_CONN_ATTR, conexiones.get(lenta));
+        assertThat(canceladas).isEmpty();
+        assertThat(contador("gateway.hedging.enviados")).isZero();
+    }
+
+    @Test
+    void filter_SinPresupuesto_EsperaALaPrincipal() {
+        properties.setMinimoPorSegundo(0);
+        properties.setPorcentajePresupuesto(0);
+        setUpFiltro();
+        MockServerWebExchange exchange = peticionGet();
+        GatewayFilterChain chain = cadena(Duration.ofMillis(500), Duration.ofMillis(10));
+
+        StepVerifier.withVirtualTime(() -> filtro.filter(exchange, chain))
+                .thenAwait(Duration.ofMillis(500))
+                .verifyComplete();
+
+        assertThat(llamadas).hasSize(1);
+        assertThat(exchange.getResponse().getHeaders().getFirst("X-Instancia")).isEqualTo("8082");
+        assertThat(contador("gateway.hedging.denegados")).isEqualTo(1);
+    }
+
+    @Test
+    void filter_FallanLosDos_PropagaElErrorDeLaPrincipal() {
+        MockServerWebExchange exchange = peticionGet();
+        GatewayFilterChain chain = ex -> {
+            llamadas.add(ex);
+            return llamadas.size() == 1
+                    ? Mono.delay(Duration.ofMillis(200))
+                            .then(Mono.error(new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT)))
+                    : Mono.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE));
+        };
+
+        StepVerifier.withVirtualTime(() -> filtro.filter(exchange, chain))
+                .thenAwait(Duration.ofMillis(200))
+                .verifyErrorSatisfies(e -> assertThat(((ResponseStatusException) e).getStatusCode())
+                        .isEqualTo(HttpStatus.GATEWAY_TIMEOUT));
+    }
+
+    @Test
+    void filter_NoGet_SigueLaCadenaSinHedge() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/api/libros"));
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, ruta());
+        GatewayFilterChain chain = cadena(Duration.ofMillis(500), Duration.ofMillis(10));
+
+        StepVerifier.withVirtualTime(() -> filtro.filter(exchange, chain))
+                .thenAwait(Duration.ofMillis(500))
+                .verifyComplete();
+
+        assertThat(llamadas).containsExactly(exchange);
+        assertThat(exchange.getResponse().getHeaders().getFirst("X-Instancia")).isEqualTo("8082");
+        assertThat(contador("gateway.hedging.peticiones")).isZero();
+    }
+
+    private void setUpFiltro() {
+        HedgingGatewayFilterFactory.Config config = new HedgingGatewayFilterFactory.Config();
+        config.setRetraso(Duration.ofMillis(80));
+        filtro = new HedgingGatewayFilterFactory(new PresupuestoReintentos(properties), estadisticas, meterRegistry)
+                .apply(config);
+    }
+
+    // Simula balanceo y NettyRoutingFilter: elige la instancia lenta salvo que esté excluida
+    private GatewayFilterChain cadena(Duration latenciaLenta, Duration latenciaRapida) {
+        return ex -> {
+            llamadas.add(ex);
+            ServiceInstance instancia = lenta.equals(ex.getAttribute(UpstreamLoadBalancer.INSTANCIA_EXCLUIDA_ATTR))
+                    ? rapida
+                    : lenta;
+            ex.getAttributes().put(GATEWAY_LOADBALANCER_RESPONSE_ATTR, new DefaultResponse(instancia));
+            return Mono.delay(instancia == lenta ? latenciaLenta : latenciaRapida)
+                    .doOnNext(x -> {
+                        ex.getResponse().setStatusCode(HttpStatus.OK);
+                        ex.getResponse().getHeaders().add("X-Instancia", String.valueOf(instancia.getPort()));
+                        ex.getAttributes().put(CLIENT_RESPONSE_CONN_ATTR, conexiones.get(instancia));
+                    })
+                    .doOnCancel(() -> canceladas.add(instancia))
+                    .then();
+        };
+    }
+
+    private MockServerWebExchange peticionGet() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/libros/1"));
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, ruta());
+        return exchange;
+    }
+
+    private static Route ruta() {
+        return Route.async()
+                .id("libros")
+                .uri(URI.create("lb://libros-service"))
+                .predicate(exchange -> true)
+                .build();
+    }
+
+    private double contador(String nombre) {
+        return meterRegistry.counter(nombre, "route", "libros").count();
+    }
+}
@@ -0,0 +1,69 @@
+package com.biblioteca.api_gateway.filter;
+
+import com.biblioteca.api_gateway.config.HedgingProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PresupuestoReintentosTest {
+
+    private HedgingProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new HedgingProperties();
+        properties.setPorcentajePresupuesto(10);
+        properties.setMinimoPorSegundo(0);
+        properties.setVentana(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void intentarReintento_RespetaPorcentaje() {
+        PresupuestoReintentos presupuesto = new PresupuestoReintentos(properties);
+        for (int i = 0; i < 100; i++) {
+            presupuesto.registrarPeticion(1_000L);
+        }
+
+        int concedidos = 0;
+        for (int i = 0; i < 50; i++) {
+            if (presupuesto.intentarReintento(1_000L)) {
+                concedidos++;
+            }
+        }
+
+        assertThat(concedidos).isEqualTo(10);
+    }
+
+    @Test
+    void intentarReintento_SinTrafico_UsaMinimo() {
+        properties.setMinimoPorSegundo(1);
+        PresupuestoReintentos presupuesto = new PresupuestoReintentos(properties);
+
+        int concedidos = 0;
+        for (int i = 0; i < 50; i++) {
+            if (presupuesto.intentarReintento(1_000L)) {
+                concedidos++;
+            }
+        }
+
+        assertThat(concedidos).isEqualTo(10);
+    }
+
+    @Test
+    void intentarReintento_VentanaCaducada_RecuperaPresupuesto() {
+        PresupuestoReintentos presupuesto = new PresupuestoReintentos(properties);
+        for (int i = 0; i < 10; i++) {
+            presupuesto.registrarPeticion(1_000L);
+        }
+        assertThat(presupuesto.intentarReintento(1_000L)).isTrue();
+        assertThat(presupuesto.intentarReintento(1_000L)).isFalse();
+
+        for (int i = 0; i < 10; i++) {
+            presupuesto.registrarPeticion(1_020L);
+        }
+        assertThat(presupuesto.intentarReintento(1_020L)).isTrue();
+    }
+}
@@ -0,0 +1,156 @@
+package com.biblioteca.api_gateway.loadbalancer;
+
+import com.biblioteca.api_gateway.config.BalanceoProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.LinkedMultiValueMap;
+import reactor.core.publisher.Flux;
+
+import java.net.URI;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UpstreamLoadBalancerTest {
+
+    private BalanceoProperties properties;
+    private EstadisticasUpstream estadisticas;
+    private UpstreamLoadBalancer loadBalancer;
+
+    private final ServiceInstance instancia1 =
+            new DefaultServiceInstance("p1", "prestamos-service", "localhost", 8083, false);
+    private final ServiceInstance instancia2 =
+            new DefaultServiceInstance("p2", "prestamos-service", "localhost", 8093, false);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        properties = new BalanceoProperties();
+        properties.setTiempoExpulsion(Duration.ofSeconds(30));
+        estadisticas = new EstadisticasUpstream(properties);
+        loadBalancer = new UpstreamLoadBalancer("prestamos-service",
+                mock(ObjectProvider.class), estadisticas, properties);
+    }
+
+    @Test
+    void elegir_SinInstancias_RespuestaVacia() {
+        Response<ServiceInstance> response = loadBalancer.elegir(List.of());
+
+        assertThat(response.hasServer()).isFalse();
+    }
+
+    @Test
+    void elegir_PowerOfTwo_EligeLaMenosCargada() {
+        estadisticas.inicioPeticion(instancia1);
+        estadisticas.inicioPeticion(instancia1);
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(loadBalancer.elegir(List.of(instancia1, instancia2)).getServer())
+                    .isEqualTo(instancia2);
+        }
+    }
+
+    @Test
+    void elegir_LeastOutstanding_EligeLaMenosCargada() {
+        properties.setEstrategia(EstrategiaBalanceo.LEAST_OUTSTANDING);
+        estadisticas.inicioPeticion(instancia2);
+
+        assertThat(loadBalancer.elegir(List.of(instancia1, instancia2)).getServer())
+                .isEqualTo(instancia1);
+    }
+
+    @Test
+    void finPeticion_FallosSeguidos_ExpulsaInstancia() {
+        long ahora = 1_000L;
+        for (int i = 0; i < properties.getFallosConsecutivos(); i++) {
+            estadisticas.inicioPeticion(instancia1);
+            estadisticas.finPeticion(instancia1, false, ahora);
+        }
+
+        assertThat(estadisticas.filtrarExpulsadas(List.of(instancia1, instancia2), ahora))
+                .containsExactly(instancia2);
+        assertThat(estadisticas.filtrarExpulsadas(List.of(instancia1, instancia2), ahora + 30_000L))
+                .containsExactly(instancia1, instancia2);
+    }
+
+    @Test
+    void filtrarExpulsadas_TodasExpulsadas_ReadmiteSoloLaMasAntigua() {
+        expulsar(instancia1, 0L);
+        expulsar(instancia2, 1_000L);
+
+        assertThat(estadisticas.filtrarExpulsadas(List.of(instancia1), 1_000L))
+                .containsExactly(instancia1);
+        assertThat(estadisticas.filtrarExpulsadas(List.of(instancia1, instancia2), 1_000L))
+                .containsExactly(instancia1);
+    }
+
+    @Test
+    void filtrarExpulsadas_PorEncimaDelMaximo_MantieneLasSanasYReadmiteLasMasAntiguas() {
+        ServiceInstance instancia3 = new DefaultServiceInstance("p3", "prestamos-service", "localhost", 8103, false);
+        ServiceInstance instancia4 = new DefaultServiceInstance("p4", "prestamos-service", "localhost", 8113, false);
+        expulsar(instancia2, 2_000L);
+        expulsar(instancia3, 0L);
+        expulsar(instancia4, 1_000L);
+
+        // Con 4 instancias caben 2 expulsadas: vuelve solo la expulsada hace más tiempo
+        assertThat(estadisticas.filtrarExpulsadas(List.of(instancia1, instancia2, instancia3, instancia4), 2_000L))
+                .containsExactly(instancia1, instancia3);
+    }
+
+    @Test
+    void finPeticion_Exito_ReiniciaFallos() {
+        estadisticas.finPeticion(instancia1, false, 0L);
+        estadisticas.finPeticion(instancia1, false, 0L);
+        estadisticas.finPeticion(instancia1, true, 0L);
+        estadisticas.finPeticion(instancia1, false, 0L);
+
+        assertThat(estadisticas.filtrarExpulsadas(List.of(instancia1, instancia2), 0L))
+                .containsExactly(instancia1, instancia2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void choose_InstanciaExcluida_EligeOtra() {
+        ServiceInstanceListSupplier supplier = mock(ServiceInstanceListSupplier.class);
+        when(supplier.get(any())).thenReturn(Flux.just(List.of(instancia1, instancia2)));
+        ObjectProvider<ServiceInstanceListSupplier> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable(any())).thenReturn(supplier);
+        loadBalancer = new UpstreamLoadBalancer("prestamos-service", provider, estadisticas, properties);
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(loadBalancer.choose(peticion(instancia1)).block().getServer()).isEqualTo(instancia2);
+        }
+        // Si no queda ninguna otra, no hay instancia
+        when(supplier.get(any())).thenReturn(Flux.just(List.of(instancia1)));
+        assertThat(loadBalancer.choose(peticion(instancia1)).block().hasServer()).isFalse();
+    }
+
+    private void expulsar(ServiceInstance instancia, long ahora) {
+        for (int i = 0; i < properties.getFallosConsecutivos(); i++) {
+            estadisticas.finPeticion(instancia, false, ahora);
+        }
+    }
+
+    private static DefaultRequest<RequestDataContext> peticion(ServiceInstance excluida) {
+        RequestData datos = new RequestData(HttpMethod.GET, URI.create("http://prestamos-service/api/prestamos"),
+                new HttpHeaders(), new LinkedMultiValueMap<>(),
+                Map.of(UpstreamLoadBalancer.INSTANCIA_EXCLUIDA_ATTR, excluida));
+        return new DefaultRequest<>(new RequestDataContext(datos));
+    }
+}
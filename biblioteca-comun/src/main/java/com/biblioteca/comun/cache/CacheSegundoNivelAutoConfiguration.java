@@ -0,0 +1,24 @@
+package com.biblioteca.comun.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+
+// Solo en los servicios que activan la caché de segundo nivel de Hibernate (libros y usuarios)
+@AutoConfiguration(after = HibernateJpaAutoConfiguration.class)
+@ConditionalOnClass({SessionFactory.class, MeterRegistry.class})
+@ConditionalOnBean(EntityManagerFactory.class)
+@ConditionalOnProperty(name = "spring.jpa.properties.hibernate.cache.use_second_level_cache", havingValue = "true")
+public class CacheSegundoNivelAutoConfiguration {
+
+    @Bean
+    public MetricasCacheSegundoNivel metricasCacheSegundoNivel(EntityManagerFactory entityManagerFactory) {
+        return new MetricasCacheSegundoNivel(entityManagerFactory);
+    }
+}
@@ -0,0 +1,55 @@
+package com.biblioteca.comun.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+// Aciertos, fallos y ratio de aciertos de cada región de la caché de segundo nivel, en
+// /actuator/metrics/biblioteca.cache.entidades.*. Requiere hibernate.generate_statistics=true.
+public class MetricasCacheSegundoNivel implements MeterBinder {
+
+    private final Statistics estadisticas;
+
+    public MetricasCacheSegundoNivel(EntityManagerFactory entityManagerFactory) {
+        this.estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!estadisticas.isStatisticsEnabled()) {
+            return;
+        }
+        for (String region : estadisticas.getSecondLevelCacheRegionNames()) {
+            FunctionCounter.builder("biblioteca.cache.entidades.peticiones", estadisticas,
+                            s -> region(s, region).getHitCount())
+                    .description("Lecturas de la caché de segundo nivel")
+                    .tag("region", region)
+                    .tag("resultado", "acierto")
+                    .register(registry);
+            FunctionCounter.builder("biblioteca.cache.entidades.peticiones", estadisticas,
+                            s -> region(s, region).getMissCount())
+                    .description("Lecturas de la caché de segundo nivel")
+                    .tag("region", region)
+                    .tag("resultado", "fallo")
+                    .register(registry);
+            Gauge.builder("biblioteca.cache.entidades.ratio", estadisticas, s -> ratio(region(s, region)))
+                    .description("Proporción de lecturas servidas desde la caché de segundo nivel")
+                    .tag("region", region)
+                    .register(registry);
+        }
+    }
+
+    private static CacheRegionStatistics region(Statistics estadisticas, String region) {
+        return estadisticas.getDomainDataRegionStatistics(region);
+    }
+
+    private static double ratio(CacheRegionStatistics region) {
+        long total = region.getHitCount() + region.getMissCount();
+        return total == 0 ? 0.0 : (double) region.getHitCount() / total;
+    }
+}
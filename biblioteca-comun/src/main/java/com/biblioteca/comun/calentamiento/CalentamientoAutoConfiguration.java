@@ -0,0 +1,40 @@
+package com.biblioteca.comun.calentamiento;
+
+import io.micrometer.observation.ObservationPredicate;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+
+// Propiedades, muestra de peticiones y /actuator/calentamiento en los servicios con calentamiento,
+// que son los que declaran una Precarga; cada uno tiene su CalentamientoRunner
+@AutoConfiguration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnBean(Precarga.class)
+@EnableConfigurationProperties(CalentamientoProperties.class)
+public class CalentamientoAutoConfiguration {
+
+    // Marca las peticiones de muestra que envía CalentamientoRunner
+    public static final String CABECERA = "X-Calentamiento";
+
+    // Las peticiones de muestra no cuentan en http.server.requests, trazas, SLO ni en la muestra
+    @Bean
+    public ObservationPredicate sinPeticionesDeCalentamiento() {
+        return (nombre, contexto) -> !(contexto instanceof ServerRequestObservationContext servidor
+                && servidor.getCarrier().getHeader(CABECERA) != null);
+    }
+
+    @Bean
+    public MuestraPeticiones muestraPeticiones(CalentamientoProperties properties) {
+        return new MuestraPeticiones(properties);
+    }
+
+    @Bean
+    @ConditionalOnAvailableEndpoint
+    public CalentamientoEndpoint calentamientoEndpoint(MuestraPeticiones muestra) {
+        return new CalentamientoEndpoint(muestra);
+    }
+}
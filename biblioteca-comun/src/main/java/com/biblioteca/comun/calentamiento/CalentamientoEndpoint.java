@@ -0,0 +1,23 @@
+package com.biblioteca.comun.calentamiento;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+// GET /actuator/calentamiento: muestra de peticiones GET reales de esta instancia, lista para
+// guardarla como fichero de biblioteca.calentamiento.peticiones de los siguientes despliegues
+@Endpoint(id = "calentamiento")
+public class CalentamientoEndpoint {
+
+    private final MuestraPeticiones muestra;
+
+    public CalentamientoEndpoint(MuestraPeticiones muestra) {
+        this.muestra = muestra;
+    }
+
+    @ReadOperation(produces = "text/plain")
+    public String peticiones() {
+        StringBuilder fichero = new StringBuilder();
+        muestra.instantanea().forEach(peticion -> fichero.append(peticion).append('\n'));
+        return fichero.toString();
+    }
+}
@@ -0,0 +1,34 @@
+package com.biblioteca.comun.calentamiento;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Calentamiento de la instancia antes de darla por lista (biblioteca.calentamiento.*). Se hace con
+// el servidor ya escuchando y /actuator/health/readiness todavía fuera de servicio.
+@Data
+@ConfigurationProperties(prefix = "biblioteca.calentamiento")
+public class CalentamientoProperties {
+
+    private boolean habilitado = true;
+
+    // Tope de todo el calentamiento: lo que no dé tiempo a hacer se salta
+    private Duration duracionMaxima = Duration.ofSeconds(30);
+
+    // Cuántos ids de cada tipo forman el conjunto caliente
+    private int conjuntoCaliente = 200;
+
+    // Peticiones GET que se reproducen contra la propia instancia, una por línea
+    private String peticiones = "classpath:calentamiento/peticiones.txt";
+
+    // Veces que se recorre el fichero de peticiones, repartidas entre los hilos
+    private int rondas = 500;
+
+    private int concurrencia = 4;
+
+    // Una de cada "muestreo" peticiones GET atendidas pasa a la muestra de /actuator/calentamiento
+    private int muestreo = 100;
+
+    private int capacidadMuestra = 500;
+}
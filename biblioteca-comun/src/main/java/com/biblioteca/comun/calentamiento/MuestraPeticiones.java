@@ -0,0 +1,56 @@
+package com.biblioteca.comun.calentamiento;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Guarda en un búfer circular una muestra de las peticiones GET atendidas con éxito, con su ruta y
+// su query reales. /actuator/calentamiento la devuelve en el formato de biblioteca.calentamiento.peticiones.
+public class MuestraPeticiones implements ObservationHandler<ServerRequestObservationContext> {
+
+    private final int muestreo;
+    private final String[] peticiones;
+    private long escritas;
+
+    public MuestraPeticiones(CalentamientoProperties properties) {
+        this.muestreo = properties.getMuestreo();
+        this.peticiones = new String[Math.max(properties.getCapacidadMuestra(), 1)];
+    }
+
+    @Override
+    public boolean supportsContext(Observation.Context context) {
+        return context instanceof ServerRequestObservationContext;
+    }
+
+    @Override
+    public void onStop(ServerRequestObservationContext context) {
+        HttpServletRequest request = context.getCarrier();
+        String ruta = context.getPathPattern();
+        if (muestreo <= 0 || !"GET".equals(request.getMethod()) || ruta == null || ruta.startsWith("/actuator")
+                || context.getResponse() == null || context.getResponse().getStatus() >= 300
+                || ThreadLocalRandom.current().nextInt(muestreo) != 0) {
+            return;
+        }
+        String query = request.getQueryString();
+        registrar("GET " + request.getRequestURI() + (query == null ? "" : "?" + query));
+    }
+
+    synchronized void registrar(String peticion) {
+        peticiones[(int) (escritas++ % peticiones.length)] = peticion;
+    }
+
+    // Copia de la muestra, de la más antigua a la más reciente
+    public synchronized List<String> instantanea() {
+        int total = (int) Math.min(escritas, peticiones.length);
+        List<String> copia = new ArrayList<>(total);
+        for (long i = escritas - total; i < escritas; i++) {
+            copia.add(peticiones[(int) (i % peticiones.length)]);
+        }
+        return copia;
+    }
+}
@@ -0,0 +1,12 @@
+package com.biblioteca.comun.calentamiento;
+
+import java.util.List;
+import java.util.Map;
+
+// Conjunto caliente del servicio: lo deja en sus cachés en memoria y devuelve sus ids por tipo
+// (p. ej. "libro", "usuario", "prestamo") para rellenar las peticiones que reproduce el calentamiento.
+// Cada servicio con calentamiento declara la suya (PrecargaLibros, PrecargaPrestamos)
+public interface Precarga {
+
+    Map<String, List<Long>> precargar(int limite);
+}
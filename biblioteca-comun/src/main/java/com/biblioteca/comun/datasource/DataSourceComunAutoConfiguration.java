@@ -0,0 +1,45 @@
+package com.biblioteca.comun.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.Environment;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+import javax.sql.DataSource;
+
+// Ajustes de los pools JDBC comunes a los servicios con base de datos. Va antes que la
+// autoconfiguración de Spring Boot para que el DataSource de la réplica, si está habilitada, la sustituya.
+@AutoConfiguration(before = DataSourceAutoConfiguration.class)
+@ConditionalOnClass(HikariDataSource.class)
+@Import(ReplicaDataSourceConfig.class)
+public class DataSourceComunAutoConfiguration {
+
+    // static: es un BeanPostProcessor y tiene que existir antes que los pools
+    @Bean
+    static HikariPoolSizer hikariPoolSizer(Environment environment) {
+        return new HikariPoolSizer(environment);
+    }
+
+    // Con el perfil arranque (spring.main.lazy-initialization=true) cada bean se crea en su primer uso.
+    // Hibernate y los pools se siguen creando al arrancar: son lo que más tarda y, si se aplazan,
+    // la primera petición pagaría segundos. Las tareas @Scheduled ya las excluye Spring Boot.
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "jakarta.persistence.EntityManagerFactory")
+    @ConditionalOnProperty(name = "spring.main.lazy-initialization", havingValue = "true")
+    static class InicializacionAlArrancarConfig {
+
+        @Bean
+        static LazyInitializationExcludeFilter inicializacionAlArrancar() {
+            return LazyInitializationExcludeFilter.forBeanTypes(
+                    DataSource.class, AbstractEntityManagerFactoryBean.class, EntityManagerFactory.class);
+        }
+    }
+}
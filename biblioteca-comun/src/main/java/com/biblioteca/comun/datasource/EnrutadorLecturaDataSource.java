@@ -0,0 +1,56 @@
+package com.biblioteca.comun.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+// Las transacciones readOnly van a la réplica si el monitor la da por buena; el resto, a la primaria.
+// Tiene que ir detrás de un LazyConnectionDataSourceProxy: así la conexión real se pide en la
+// primera sentencia, cuando la transacción ya ha marcado si es de solo lectura.
+public class EnrutadorLecturaDataSource extends AbstractRoutingDataSource {
+
+    enum Destino { PRIMARIA, REPLICA }
+
+    private final MonitorReplica monitor;
+    private final Counter escrituras;
+    private final Counter lecturasEnReplica;
+    private final Counter lecturasEnPrimaria;
+
+    public EnrutadorLecturaDataSource(DataSource primaria, DataSource replica,
+                                      MonitorReplica monitor, MeterRegistry meterRegistry) {
+        this.monitor = monitor;
+        this.escrituras = contador(meterRegistry, "escritura", Destino.PRIMARIA);
+        this.lecturasEnReplica = contador(meterRegistry, "lectura", Destino.REPLICA);
+        this.lecturasEnPrimaria = contador(meterRegistry, "lectura", Destino.PRIMARIA);
+
+        setTargetDataSources(Map.of(Destino.PRIMARIA, primaria, Destino.REPLICA, replica));
+        setDefaultTargetDataSource(primaria);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            escrituras.increment();
+            return Destino.PRIMARIA;
+        }
+        if (monitor.isDisponible()) {
+            lecturasEnReplica.increment();
+            return Destino.REPLICA;
+        }
+        lecturasEnPrimaria.increment();
+        return Destino.PRIMARIA;
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String tipo, Destino destino) {
+        return Counter.builder("biblioteca.datasource.enrutamiento")
+                .description("Conexiones entregadas por el enrutador de lectura")
+                .tag("tipo", tipo)
+                .tag("destino", destino.name().toLowerCase())
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,50 @@
+package com.biblioteca.comun.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.env.Environment;
+
+// Con biblioteca.datasource.pool.dimensionar-por-nucleos=true el pool de Hikari se fija en
+// núcleos * conexiones-por-nucleo + conexiones-extra, salvo que se indique
+// spring.datasource.hikari.maximum-pool-size de forma explícita. El pool de la réplica hereda ese
+// ajuste y además admite biblioteca.datasource.replica.hikari.maximum-pool-size.
+@Slf4j
+public class HikariPoolSizer implements BeanPostProcessor {
+
+    private final Environment environment;
+
+    public HikariPoolSizer(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (!(bean instanceof HikariDataSource dataSource)
+                || !environment.getProperty("biblioteca.datasource.pool.dimensionar-por-nucleos", Boolean.class, false)) {
+            return bean;
+        }
+        boolean replica = ReplicaDataSourceConfig.BEAN_REPLICA.equals(beanName);
+        if (definida("maximum-pool-size", replica)) {
+            return bean;
+        }
+
+        int nucleos = Runtime.getRuntime().availableProcessors();
+        int porNucleo = environment.getProperty("biblioteca.datasource.pool.conexiones-por-nucleo", Integer.class, 2);
+        int extra = environment.getProperty("biblioteca.datasource.pool.conexiones-extra", Integer.class, 1);
+        int tamano = nucleos * porNucleo + extra;
+
+        dataSource.setMaximumPoolSize(tamano);
+        if (!definida("minimum-idle", replica)) {
+            // Pool de tamaño fijo: nunca se abren conexiones en mitad de un pico
+            dataSource.setMinimumIdle(tamano);
+        }
+        log.info("Pool {} dimensionado a {} conexiones ({} núcleos)", beanName, tamano, nucleos);
+        return bean;
+    }
+
+    private boolean definida(String propiedad, boolean replica) {
+        return environment.containsProperty("spring.datasource.hikari." + propiedad)
+                || (replica && environment.containsProperty("biblioteca.datasource.replica.hikari." + propiedad));
+    }
+}
@@ -0,0 +1,95 @@
+package com.biblioteca.comun.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Comprueba periódicamente si la réplica responde y cuánto retraso acumula. Mientras no esté
+// disponible (incluido el arranque, hasta la primera comprobación) las lecturas van a la primaria.
+@Slf4j
+public class MonitorReplica implements AutoCloseable {
+
+    private final DataSource replica;
+    private final ReplicaProperties properties;
+    private ScheduledExecutorService executor;
+
+    private volatile boolean disponible;
+    private volatile long retrasoSegundos = -1;
+
+    public MonitorReplica(DataSource replica, ReplicaProperties properties) {
+        this.replica = replica;
+        this.properties = properties;
+    }
+
+    public void iniciar() {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "monitor-replica");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        executor.scheduleWithFixedDelay(this::comprobar, 0,
+                properties.getIntervaloComprobacion().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    void comprobar() {
+        long retraso;
+        try {
+            retraso = medirRetraso();
+        } catch (Exception e) {
+            log.debug("Error comprobando la réplica: {}", e.getMessage());
+            retraso = -1;
+        }
+
+        boolean nuevoEstado = retraso >= 0 && retraso <= properties.getRetrasoMaximo().toSeconds();
+        retrasoSegundos = retraso;
+        if (nuevoEstado != disponible) {
+            disponible = nuevoEstado;
+            if (nuevoEstado) {
+                log.info("Réplica disponible (retraso {} s), las lecturas vuelven a la réplica", retraso);
+            } else {
+                log.warn("Réplica no disponible (retraso {} s), las lecturas pasan a la primaria", retraso);
+            }
+        }
+    }
+
+    // -1 si la réplica no responde o la replicación está parada
+    private long medirRetraso() throws Exception {
+        try (Connection conexion = replica.getConnection()) {
+            if (!StringUtils.hasText(properties.getConsultaRetraso())) {
+                return conexion.isValid(1) ? 0 : -1;
+            }
+            try (Statement sentencia = conexion.createStatement();
+                 ResultSet rs = sentencia.executeQuery(properties.getConsultaRetraso())) {
+                if (!rs.next()) {
+                    return -1;
+                }
+                Object valor = StringUtils.hasText(properties.getColumnaRetraso())
+                        ? rs.getObject(properties.getColumnaRetraso())
+                        : rs.getObject(1);
+                return valor == null ? -1 : Long.parseLong(valor.toString().trim());
+            }
+        }
+    }
+
+    public boolean isDisponible() {
+        return disponible;
+    }
+
+    public long getRetrasoSegundos() {
+        return retrasoSegundos;
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.biblioteca.comun.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+// Con biblioteca.datasource.replica.habilitada=true hay dos pools (primaria y réplica) y el
+// DataSource que usan JPA y los repositorios los elige según la transacción sea readOnly o no.
+// Los métodos CRUD de Spring Data (findById, findAll...) ya son readOnly por defecto.
+@Configuration
+@ConditionalOnProperty(name = "biblioteca.datasource.replica.habilitada", havingValue = "true")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaDataSourceConfig {
+
+    static final String BEAN_REPLICA = "replicaDataSource";
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primariaDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        // Nombre por defecto para distinguir los pools en hikaricp.*; pool-name lo sobrescribe
+        dataSource.setPoolName("primaria");
+        return dataSource;
+    }
+
+    @Bean(BEAN_REPLICA)
+    public HikariDataSource replicaDataSource(ReplicaProperties properties, Environment environment) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(properties.getUrl())
+                .username(properties.getUsername())
+                .password(properties.getPassword())
+                .driverClassName(properties.getDriverClassName())
+                .build();
+
+        // Mismo ajuste que la primaria y, encima, lo específico de la réplica
+        Binder binder = Binder.get(environment);
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        binder.bind("biblioteca.datasource.replica.hikari", Bindable.ofInstance(dataSource));
+        return dataSource;
+    }
+
+    @Bean
+    public MonitorReplica monitorReplica(@Qualifier(BEAN_REPLICA) DataSource replica,
+                                         ReplicaProperties properties,
+                                         MeterRegistry meterRegistry) {
+        MonitorReplica monitor = new MonitorReplica(replica, properties);
+        Gauge.builder("biblioteca.datasource.replica.retraso", monitor, MonitorReplica::getRetrasoSegundos)
+                .description("Retraso de la réplica de lectura (-1 si no responde)")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("biblioteca.datasource.replica.disponible", monitor, m -> m.isDisponible() ? 1 : 0)
+                .description("1 si las lecturas se están enviando a la réplica")
+                .register(meterRegistry);
+        monitor.iniciar();
+        return monitor;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primariaDataSource") DataSource primaria,
+                                 @Qualifier(BEAN_REPLICA) DataSource replica,
+                                 MonitorReplica monitor,
+                                 MeterRegistry meterRegistry) {
+        return new LazyConnectionDataSourceProxy(
+                new EnrutadorLecturaDataSource(primaria, replica, monitor, meterRegistry));
+    }
+}
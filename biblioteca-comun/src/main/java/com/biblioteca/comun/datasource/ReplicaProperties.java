@@ -0,0 +1,35 @@
+package com.biblioteca.comun.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Conexión a la réplica de lectura (biblioteca.datasource.replica.*). El pool hereda la
+// configuración de spring.datasource.hikari y se puede ajustar en biblioteca.datasource.replica.hikari.*
+@Data
+@ConfigurationProperties(prefix = "biblioteca.datasource.replica")
+public class ReplicaProperties {
+
+    private boolean habilitada = false;
+
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    private String driverClassName;
+
+    // Por encima de este retraso las lecturas vuelven a la primaria
+    private Duration retrasoMaximo = Duration.ofSeconds(5);
+
+    private Duration intervaloComprobacion = Duration.ofSeconds(2);
+
+    // Debe devolver el retraso en segundos; si no devuelve filas o el valor es NULL
+    // la replicación se da por parada. Vacía = solo se comprueba que la réplica responde.
+    private String consultaRetraso = "SHOW REPLICA STATUS";
+
+    // Columna de la que se lee el retraso; vacía = primera columna
+    private String columnaRetraso = "Seconds_Behind_Source";
+}
@@ -0,0 +1,33 @@
+package com.biblioteca.comun.observabilidad;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+// AsyncAppender de cola acotada que nunca bloquea al hilo que escribe (ver logback-spring.xml).
+// Con la cola por debajo de discardingThreshold se descartan TRACE, DEBUG e INFO; con la cola
+// llena, cualquier evento. Lo descartado se cuenta en biblioteca.logs.descartados{motivo=cola}.
+public class ColaLogsAppender extends AsyncAppender {
+
+    public ColaLogsAppender() {
+        setNeverBlock(true);
+    }
+
+    @Override
+    protected void append(ILoggingEvent evento) {
+        // Aproximado: con varios hilos a la vez puede perderse alguno más en la cola sin contarse
+        if (getRemainingCapacity() == 0) {
+            MetricasLogs.descartado(MetricasLogs.COLA);
+            return;
+        }
+        super.append(evento);
+    }
+
+    @Override
+    protected boolean isDiscardable(ILoggingEvent evento) {
+        boolean descartable = super.isDiscardable(evento);
+        if (descartable) {
+            MetricasLogs.descartado(MetricasLogs.COLA);
+        }
+        return descartable;
+    }
+}
@@ -0,0 +1,49 @@
+package com.biblioteca.comun.observabilidad;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Guarda en memoria los últimos tramos muestreados para /actuator/trazas, sin colector externo.
+// Spring Boot lo añade al BatchSpanProcessor junto al exportador OTLP, si está configurado.
+public class ExportadorTrazasRecientes implements SpanExporter {
+
+    private final SpanData[] tramos;
+    private long escritos;
+
+    public ExportadorTrazasRecientes(int capacidad) {
+        this.tramos = new SpanData[capacidad];
+    }
+
+    @Override
+    public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+        for (SpanData span : spans) {
+            tramos[(int) (escritos++ % tramos.length)] = span;
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    // Copia de lo que hay en el búfer, del más antiguo al más reciente
+    public synchronized List<SpanData> instantanea() {
+        int total = (int) Math.min(escritos, tramos.length);
+        List<SpanData> copia = new ArrayList<>(total);
+        for (long i = escritos - total; i < escritos; i++) {
+            copia.add(tramos[(int) (i % tramos.length)]);
+        }
+        return copia;
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return CompletableResultCode.ofSuccess();
+    }
+}
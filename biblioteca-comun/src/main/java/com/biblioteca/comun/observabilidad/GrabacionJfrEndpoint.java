@@ -0,0 +1,197 @@
+package com.biblioteca.comun.observabilidad;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+// Grabaciones de JDK Flight Recorder bajo demanda, de una en una y acotadas en duración y tamaño:
+//   POST   /actuator/jfr {"segundos": 120, "configuracion": "profile"}  inicia una grabación
+//   GET    /actuator/jfr                                              estado de la última
+//   GET    /actuator/jfr/{nombre}                                     descarga el .jfr (si sigue
+//                                                                     activa, lo grabado hasta ahora)
+//   DELETE /actuator/jfr                                              la detiene
+// Con la configuración "default" el coste ronda el 1%; "profile" muestrea más y cuesta algo más.
+// Desactivado salvo con biblioteca.jfr.habilitado=true (ver JfrAutoConfiguration).
+@Slf4j
+@Endpoint(id = "jfr")
+public class GrabacionJfrEndpoint {
+
+    private static final DateTimeFormatter FORMATO_NOMBRE = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final String aplicacion;
+    private final Duration duracionMaxima;
+    private final long tamanoMaximo;
+
+    // Todo acceso a la grabación va sincronizado sobre el endpoint
+    private Recording grabacion;
+    private String configuracion;
+    private Path archivo;
+
+    public GrabacionJfrEndpoint(String aplicacion, Duration duracionMaxima, long tamanoMaximoMb) {
+        this.aplicacion = aplicacion;
+        this.duracionMaxima = duracionMaxima;
+        this.tamanoMaximo = tamanoMaximoMb * 1024 * 1024;
+    }
+
+    public record EstadoGrabacion(String nombre, String estado, String configuracion, Instant inicio,
+                                  Duration duracion, long bytes) {
+    }
+
+    @ReadOperation
+    public synchronized WebEndpointResponse<EstadoGrabacion> estado() {
+        if (grabacion == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        return new WebEndpointResponse<>(estadoActual());
+    }
+
+    @WriteOperation
+    public synchronized WebEndpointResponse<EstadoGrabacion> iniciar(@Nullable Integer segundos,
+                                                                    @Nullable String configuracion) {
+        if (grabacion != null && grabacion.getState() == RecordingState.RUNNING) {
+            return new WebEndpointResponse<>(estadoActual(), 409);
+        }
+        Configuration ajustes;
+        try {
+            ajustes = Configuration.getConfiguration(configuracion == null ? "default" : configuracion);
+        } catch (IOException | ParseException e) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        descartar();
+
+        Duration duracion = segundos == null ? duracionMaxima : Duration.ofSeconds(segundos);
+        if (duracion.compareTo(duracionMaxima) > 0 || duracion.isNegative() || duracion.isZero()) {
+            duracion = duracionMaxima;
+        }
+        String nombre = aplicacion + "-" + LocalDateTime.now().format(FORMATO_NOMBRE);
+        try {
+            archivo = Files.createTempFile(nombre, ".jfr");
+            grabacion = new Recording(ajustes);
+            grabacion.setName(nombre);
+            grabacion.setToDisk(true);
+            grabacion.setDuration(duracion);
+            grabacion.setMaxSize(tamanoMaximo);
+            // Al cumplirse la duración JFR la detiene y la vuelca aquí
+            grabacion.setDestination(archivo);
+            grabacion.start();
+            this.configuracion = ajustes.getName();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Grabación JFR {} iniciada ({}, {})", nombre, ajustes.getName(), duracion);
+        return new WebEndpointResponse<>(estadoActual());
+    }
+
+    @DeleteOperation
+    public synchronized WebEndpointResponse<EstadoGrabacion> detener() {
+        if (grabacion == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        if (grabacion.getState() == RecordingState.RUNNING) {
+            grabacion.stop();
+            log.info("Grabación JFR {} detenida", grabacion.getName());
+        }
+        return new WebEndpointResponse<>(estadoActual());
+    }
+
+    // Cada descarga se sirve desde su propia copia, que se borra al cerrar el flujo: la respuesta se
+    // escribe fuera del cerrojo y un iniciar() o un cierre concurrente borra el archivo de la grabación
+    @ReadOperation(produces = "application/octet-stream")
+    public synchronized WebEndpointResponse<Resource> descargar(@Selector String nombre) {
+        if (grabacion == null || !grabacion.getName().equals(nombre)) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        Path copia = null;
+        try {
+            copia = Files.createTempFile(nombre, ".jfr");
+            if (grabacion.getState() == RecordingState.RUNNING) {
+                grabacion.dump(copia);
+            } else {
+                Files.copy(archivo, copia, StandardCopyOption.REPLACE_EXISTING);
+            }
+            long bytes = Files.size(copia);
+            InputStream contenido = Files.newInputStream(copia, StandardOpenOption.DELETE_ON_CLOSE);
+            return new WebEndpointResponse<>(new InputStreamResource(contenido) {
+                @Override
+                public long contentLength() {
+                    return bytes;
+                }
+
+                @Override
+                public String getFilename() {
+                    return nombre + ".jfr";
+                }
+            });
+        } catch (IOException e) {
+            borrar(copia);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private EstadoGrabacion estadoActual() {
+        return new EstadoGrabacion(grabacion.getName(), grabacion.getState().name(), configuracion,
+                grabacion.getStartTime(), grabacion.getDuration(), bytes());
+    }
+
+    // Al detenerse, JFR vuelca la grabación en el archivo y la cierra
+    private long bytes() {
+        if (grabacion.getState() == RecordingState.RUNNING) {
+            return grabacion.getSize();
+        }
+        try {
+            return Files.size(archivo);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    @PreDestroy
+    public synchronized void cerrar() {
+        descartar();
+    }
+
+    // Solo se conserva la última grabación
+    private void descartar() {
+        if (grabacion != null) {
+            grabacion.close();
+            grabacion = null;
+        }
+        borrar(archivo);
+        archivo = null;
+    }
+
+    private static void borrar(Path ruta) {
+        if (ruta == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(ruta);
+        } catch (IOException e) {
+            log.warn("No se pudo borrar {}: {}", ruta, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.biblioteca.comun.observabilidad;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+import java.time.Duration;
+
+// /actuator/jfr arranca grabaciones y entrega grabaciones con datos internos de la JVM: no existe salvo con
+// biblioteca.jfr.habilitado=true, y entonces conviene servir actuator en management.server.port,
+// fuera del puerto que expone el gateway
+@AutoConfiguration
+@ConditionalOnClass(Endpoint.class)
+@ConditionalOnProperty(name = "biblioteca.jfr.habilitado", havingValue = "true")
+public class JfrAutoConfiguration {
+
+    @Bean
+    @ConditionalOnAvailableEndpoint
+    public GrabacionJfrEndpoint grabacionJfrEndpoint(
+            @Value("${spring.application.name}") String aplicacion,
+            @Value("${biblioteca.jfr.duracion-maxima:10m}") Duration duracionMaxima,
+            @Value("${biblioteca.jfr.tamano-maximo-mb:100}") long tamanoMaximoMb) {
+        return new GrabacionJfrEndpoint(aplicacion, duracionMaxima, tamanoMaximoMb);
+    }
+}
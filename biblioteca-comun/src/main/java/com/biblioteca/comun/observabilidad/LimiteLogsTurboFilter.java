@@ -0,0 +1,82 @@
+package com.biblioteca.comun.observabilidad;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Limita los eventos de un nivel (INFO por defecto) de un logger y sus hijos, antes de construir
+// el evento. porSegundo deja pasar como mucho N por segundo; muestreo deja pasar uno de cada N.
+// WARN y ERROR no se tocan salvo que se configure ese nivel. Lo que se descarta se cuenta en
+// biblioteca.logs.descartados{motivo=limite|muestreo}.
+public class LimiteLogsTurboFilter extends TurboFilter {
+
+    private String logger;
+    private Level nivel = Level.INFO;
+    private int porSegundo;
+    private int muestreo;
+
+    private final AtomicLong segundo = new AtomicLong();
+    private final AtomicLong enEsteSegundo = new AtomicLong();
+    private final AtomicLong vistos = new AtomicLong();
+
+    @Override
+    public FilterReply decide(Marker marker, Logger destino, Level level, String format, Object[] params, Throwable t) {
+        // format == null: es una comprobación isXxxEnabled(), no un evento
+        if (!isStarted() || format == null || level != nivel || !aplicaA(destino)
+                || !level.isGreaterOrEqual(destino.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        if (muestreo > 1 && vistos.getAndIncrement() % muestreo != 0) {
+            MetricasLogs.descartado(MetricasLogs.MUESTREO);
+            return FilterReply.DENY;
+        }
+        if (porSegundo > 0 && !dentroDelLimite(System.currentTimeMillis() / 1000)) {
+            MetricasLogs.descartado(MetricasLogs.LIMITE);
+            return FilterReply.DENY;
+        }
+        return FilterReply.NEUTRAL;
+    }
+
+    boolean dentroDelLimite(long ahora) {
+        long actual = segundo.get();
+        if (ahora != actual && segundo.compareAndSet(actual, ahora)) {
+            enEsteSegundo.set(0);
+        }
+        return enEsteSegundo.incrementAndGet() <= porSegundo;
+    }
+
+    private boolean aplicaA(Logger destino) {
+        String nombre = destino.getName();
+        return nombre.startsWith(logger)
+                && (nombre.length() == logger.length() || nombre.charAt(logger.length()) == '.');
+    }
+
+    @Override
+    public void start() {
+        if (logger == null || logger.isBlank()) {
+            addError("LimiteLogsTurboFilter sin <logger>");
+            return;
+        }
+        super.start();
+    }
+
+    public void setLogger(String logger) {
+        this.logger = logger;
+    }
+
+    public void setNivel(String nivel) {
+        this.nivel = Level.toLevel(nivel, Level.INFO);
+    }
+
+    public void setPorSegundo(int porSegundo) {
+        this.porSegundo = porSegundo;
+    }
+
+    public void setMuestreo(int muestreo) {
+        this.muestreo = muestreo;
+    }
+}
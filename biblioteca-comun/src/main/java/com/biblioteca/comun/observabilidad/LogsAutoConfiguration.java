@@ -0,0 +1,20 @@
+package com.biblioteca.comun.observabilidad;
+
+import ch.qos.logback.classic.LoggerContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+
+// Métricas de los logs descartados en los servicios que usan ColaLogsAppender (el gateway no)
+@AutoConfiguration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnClass({LoggerContext.class, MeterRegistry.class})
+public class LogsAutoConfiguration {
+
+    @Bean
+    public MetricasLogs metricasLogs() {
+        return new MetricasLogs();
+    }
+}
@@ -0,0 +1,40 @@
+package com.biblioteca.comun.observabilidad;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Eventos de log descartados, en /actuator/metrics/biblioteca.logs.descartados por motivo:
+// cola (ColaLogsAppender llena) o limite/muestreo (LimiteLogsTurboFilter, donde se configure).
+// Los contadores son estáticos porque Logback crea el appender y los filtros antes que Spring.
+public class MetricasLogs implements MeterBinder {
+
+    static final String COLA = "cola";
+    static final String LIMITE = "limite";
+    static final String MUESTREO = "muestreo";
+
+    private static final Map<String, LongAdder> DESCARTADOS = Map.of(
+            COLA, new LongAdder(),
+            LIMITE, new LongAdder(),
+            MUESTREO, new LongAdder());
+
+    static void descartado(String motivo) {
+        DESCARTADOS.get(motivo).increment();
+    }
+
+    static long descartados(String motivo) {
+        return DESCARTADOS.get(motivo).sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        DESCARTADOS.forEach((motivo, contador) ->
+                FunctionCounter.builder("biblioteca.logs.descartados", contador, LongAdder::sum)
+                        .description("Eventos de log que no llegan a escribirse")
+                        .tag("motivo", motivo)
+                        .register(registry));
+    }
+}
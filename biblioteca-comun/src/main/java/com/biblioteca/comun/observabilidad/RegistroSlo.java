@@ -0,0 +1,63 @@
+package com.biblioteca.comun.observabilidad;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Cuenta cada petición HTTP atendida por un controlador en la ventana de su endpoint
+// ("MÉTODO /patrón"). Se engancha a la misma observación que alimenta http.server.requests.
+public class RegistroSlo implements ObservationHandler<ServerRequestObservationContext> {
+
+    private final SloProperties properties;
+    private final Duration ventanaMasLarga;
+    private final Map<String, VentanaSlo> ventanas = new ConcurrentHashMap<>();
+
+    public RegistroSlo(SloProperties properties) {
+        this.properties = properties;
+        this.ventanaMasLarga = properties.getVentanas().stream().max(Duration::compareTo).orElse(Duration.ofHours(1));
+    }
+
+    @Override
+    public boolean supportsContext(Observation.Context context) {
+        return context instanceof ServerRequestObservationContext;
+    }
+
+    @Override
+    public void onStart(ServerRequestObservationContext context) {
+        context.put(Inicio.class, new Inicio(System.nanoTime()));
+    }
+
+    @Override
+    public void onStop(ServerRequestObservationContext context) {
+        Inicio inicio = context.get(Inicio.class);
+        String ruta = context.getPathPattern();
+        // Sin patrón no hubo controlador (404 de rutas inexistentes); el actuator no tiene objetivo
+        if (inicio == null || ruta == null || ruta.startsWith("/actuator") || context.getResponse() == null) {
+            return;
+        }
+        registrar(context.getCarrier().getMethod() + " " + ruta, ruta,
+                Duration.ofNanos(System.nanoTime() - inicio.nanos()), context.getResponse().getStatus(),
+                System.currentTimeMillis());
+    }
+
+    void registrar(String endpoint, String ruta, Duration duracion, int estado, long ahoraMs) {
+        boolean mala = estado >= 500 || duracion.compareTo(properties.latenciaDe(ruta)) > 0;
+        ventanas.computeIfAbsent(endpoint, clave -> new VentanaSlo(ventanaMasLarga)).registrar(ahoraMs, mala);
+    }
+
+    Map<String, VentanaSlo> ventanas() {
+        return Collections.unmodifiableMap(ventanas);
+    }
+
+    SloProperties properties() {
+        return properties;
+    }
+
+    private record Inicio(long nanos) {
+    }
+}
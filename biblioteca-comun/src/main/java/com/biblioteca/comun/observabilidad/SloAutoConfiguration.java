@@ -0,0 +1,28 @@
+package com.biblioteca.comun.observabilidad;
+
+import io.micrometer.observation.ObservationHandler;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+// Ventanas de SLO por endpoint y /actuator/slo en los servicios con Spring MVC; el gateway no las usa
+@AutoConfiguration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnClass(ObservationHandler.class)
+@EnableConfigurationProperties(SloProperties.class)
+public class SloAutoConfiguration {
+
+    @Bean
+    public RegistroSlo registroSlo(SloProperties properties) {
+        return new RegistroSlo(properties);
+    }
+
+    @Bean
+    @ConditionalOnAvailableEndpoint
+    public SloEndpoint sloEndpoint(RegistroSlo registro) {
+        return new SloEndpoint(registro);
+    }
+}
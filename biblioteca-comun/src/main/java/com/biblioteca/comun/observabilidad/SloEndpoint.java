@@ -0,0 +1,57 @@
+package com.biblioteca.comun.observabilidad;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+
+// GET /actuator/slo: por endpoint, peticiones, malas y tasa de quema en cada ventana, de más a
+// menos quema. Tasa 1 = se gasta el presupuesto de error justo al ritmo que permite el objetivo;
+// por encima de 1 el endpoint lo agotará antes de tiempo.
+@Endpoint(id = "slo")
+public class SloEndpoint {
+
+    private final RegistroSlo registro;
+
+    public SloEndpoint(RegistroSlo registro) {
+        this.registro = registro;
+    }
+
+    public record EstadoSlo(String endpoint, Duration latenciaObjetivo, double objetivo,
+                            List<EstadoVentana> ventanas) {
+
+        double quemaMaxima() {
+            return ventanas.stream().mapToDouble(EstadoVentana::tasaQuema).max().orElse(0);
+        }
+    }
+
+    public record EstadoVentana(Duration ventana, long peticiones, long malas, double tasaQuema) {
+    }
+
+    @ReadOperation
+    public List<EstadoSlo> resumen() {
+        return resumen(System.currentTimeMillis());
+    }
+
+    List<EstadoSlo> resumen(long ahoraMs) {
+        SloProperties properties = registro.properties();
+        double presupuesto = 1 - properties.getObjetivo();
+        return registro.ventanas().entrySet().stream()
+                .map(endpoint -> {
+                    List<EstadoVentana> ventanas = properties.getVentanas().stream()
+                            .map(ventana -> {
+                                long[] cuenta = endpoint.getValue().contar(ahoraMs, ventana);
+                                double tasaError = cuenta[0] == 0 ? 0 : cuenta[1] / (double) cuenta[0];
+                                return new EstadoVentana(ventana, cuenta[0], cuenta[1],
+                                        presupuesto <= 0 ? 0 : tasaError / presupuesto);
+                            })
+                            .toList();
+                    String ruta = endpoint.getKey().substring(endpoint.getKey().indexOf(' ') + 1);
+                    return new EstadoSlo(endpoint.getKey(), properties.latenciaDe(ruta), properties.getObjetivo(), ventanas);
+                })
+                .sorted(Comparator.comparingDouble(EstadoSlo::quemaMaxima).reversed())
+                .toList();
+    }
+}
@@ -0,0 +1,30 @@
+package com.biblioteca.comun.observabilidad;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Objetivos de latencia por endpoint (biblioteca.slo.*). Una petición es "mala" si responde 5xx
+// o tarda más que su latencia objetivo; objetivo es la fracción de peticiones buenas comprometida.
+@Data
+@ConfigurationProperties(prefix = "biblioteca.slo")
+public class SloProperties {
+
+    private Duration latencia = Duration.ofMillis(300);
+
+    private double objetivo = 0.99;
+
+    // Ventanas deslizantes en las que se calcula la tasa de quema
+    private List<Duration> ventanas = List.of(Duration.ofMinutes(5), Duration.ofHours(1));
+
+    // Latencia objetivo por patrón de ruta, p. ej. latencia-por-ruta[/api/prestamos/lote]=2s
+    private Map<String, Duration> latenciaPorRuta = new HashMap<>();
+
+    public Duration latenciaDe(String ruta) {
+        return latenciaPorRuta.getOrDefault(ruta, latencia);
+    }
+}
@@ -0,0 +1,26 @@
+package com.biblioteca.comun.observabilidad;
+
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+
+// Búfer de trazas recientes y /actuator/trazas, en los servicios y en el gateway
+@AutoConfiguration
+@ConditionalOnClass(SpanExporter.class)
+public class TrazasAutoConfiguration {
+
+    @Bean
+    public ExportadorTrazasRecientes exportadorTrazasRecientes(
+            @Value("${biblioteca.trazas.capacidad:4096}") int capacidad) {
+        return new ExportadorTrazasRecientes(capacidad);
+    }
+
+    @Bean
+    @ConditionalOnAvailableEndpoint
+    public TrazasEndpoint trazasEndpoint(ExportadorTrazasRecientes exportador) {
+        return new TrazasEndpoint(exportador);
+    }
+}
@@ -0,0 +1,95 @@
+package com.biblioteca.comun.observabilidad;
+
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// GET /actuator/trazas: las trazas recientes más lentas que ha visto esta instancia.
+// GET /actuator/trazas/{traceId}: sus tramos (HTTP, Feign, JDBC, hedges...) en orden de inicio.
+@Endpoint(id = "trazas")
+public class TrazasEndpoint {
+
+    private static final int LIMITE_POR_DEFECTO = 20;
+
+    private final ExportadorTrazasRecientes exportador;
+
+    public TrazasEndpoint(ExportadorTrazasRecientes exportador) {
+        this.exportador = exportador;
+    }
+
+    public record ResumenTraza(String traceId, String raiz, Instant inicio, double duracionMs,
+                               int tramos, boolean error) {
+    }
+
+    public record Tramo(String spanId, String padre, String nombre, String tipo, double desdeInicioMs,
+                        double duracionMs, boolean error, Map<String, String> atributos) {
+    }
+
+    @ReadOperation
+    public List<ResumenTraza> masLentas(@Nullable Integer limite) {
+        return porTraza().entrySet().stream()
+                .map(traza -> resumir(traza.getKey(), traza.getValue()))
+                .sorted(Comparator.comparingDouble(ResumenTraza::duracionMs).reversed())
+                .limit(limite == null ? LIMITE_POR_DEFECTO : limite)
+                .toList();
+    }
+
+    @ReadOperation
+    public List<Tramo> traza(@Selector String traceId) {
+        List<SpanData> spans = porTraza().getOrDefault(traceId, List.of());
+        long inicio = spans.stream().mapToLong(SpanData::getStartEpochNanos).min().orElse(0);
+        return spans.stream()
+                .sorted(Comparator.comparingLong(SpanData::getStartEpochNanos))
+                .map(span -> new Tramo(
+                        span.getSpanId(),
+                        span.getParentSpanContext().isValid() ? span.getParentSpanId() : null,
+                        span.getName(),
+                        span.getKind().name(),
+                        milisegundos(span.getStartEpochNanos() - inicio),
+                        milisegundos(span.getEndEpochNanos() - span.getStartEpochNanos()),
+                        span.getStatus().getStatusCode() == StatusCode.ERROR,
+                        atributos(span)))
+                .toList();
+    }
+
+    private Map<String, List<SpanData>> porTraza() {
+        return exportador.instantanea().stream().collect(Collectors.groupingBy(SpanData::getTraceId));
+    }
+
+    private static ResumenTraza resumir(String traceId, List<SpanData> spans) {
+        long inicio = spans.stream().mapToLong(SpanData::getStartEpochNanos).min().orElse(0);
+        long fin = spans.stream().mapToLong(SpanData::getEndEpochNanos).max().orElse(inicio);
+        // La raíz local es el tramo cuyo padre no está aquí: viene de otro servicio o no tiene padre
+        Set<String> locales = spans.stream().map(SpanData::getSpanId).collect(Collectors.toSet());
+        String raiz = spans.stream()
+                .filter(span -> !locales.contains(span.getParentSpanId()))
+                .min(Comparator.comparingLong(SpanData::getStartEpochNanos))
+                .map(SpanData::getName)
+                .orElse(null);
+        boolean error = spans.stream().anyMatch(span -> span.getStatus().getStatusCode() == StatusCode.ERROR);
+        return new ResumenTraza(traceId, raiz,
+                Instant.ofEpochSecond(0, inicio), milisegundos(fin - inicio), spans.size(), error);
+    }
+
+    private static Map<String, String> atributos(SpanData span) {
+        Map<String, String> atributos = new TreeMap<>();
+        span.getAttributes().forEach((clave, valor) -> atributos.put(clave.getKey(), String.valueOf(valor)));
+        return atributos;
+    }
+
+    private static double milisegundos(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,57 @@
+package com.biblioteca.comun.observabilidad;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+// Peticiones totales y malas de un endpoint en cubetas de INTERVALO, en un anillo que cubre la
+// ventana más larga. Las cubetas de vueltas anteriores se reinician al reutilizarse.
+class VentanaSlo {
+
+    static final Duration INTERVALO = Duration.ofSeconds(10);
+
+    private final long[] cubetas;
+    private final long[] totales;
+    private final long[] malas;
+
+    VentanaSlo(Duration ventanaMasLarga) {
+        int tamano = (int) intervalos(ventanaMasLarga);
+        this.cubetas = new long[tamano];
+        this.totales = new long[tamano];
+        this.malas = new long[tamano];
+        Arrays.fill(cubetas, -1);
+    }
+
+    synchronized void registrar(long ahoraMs, boolean mala) {
+        long cubeta = ahoraMs / INTERVALO.toMillis();
+        int i = (int) (cubeta % cubetas.length);
+        if (cubetas[i] != cubeta) {
+            cubetas[i] = cubeta;
+            totales[i] = 0;
+            malas[i] = 0;
+        }
+        totales[i]++;
+        if (mala) {
+            malas[i]++;
+        }
+    }
+
+    // {totales, malas} de las cubetas que caen dentro de la ventana que acaba en ahoraMs
+    synchronized long[] contar(long ahoraMs, Duration ventana) {
+        long actual = ahoraMs / INTERVALO.toMillis();
+        long desde = actual - intervalos(ventana) + 1;
+        long total = 0;
+        long malasEnVentana = 0;
+        for (int i = 0; i < cubetas.length; i++) {
+            if (cubetas[i] >= desde && cubetas[i] <= actual) {
+                total += totales[i];
+                malasEnVentana += malas[i];
+            }
+        }
+        return new long[]{total, malasEnVentana};
+    }
+
+    // Intervalos que cubren la ventana, redondeando hacia arriba (Math.ceilDiv es de Java 18)
+    private static long intervalos(Duration ventana) {
+        return -Math.floorDiv(-ventana.toMillis(), INTERVALO.toMillis());
+    }
+}
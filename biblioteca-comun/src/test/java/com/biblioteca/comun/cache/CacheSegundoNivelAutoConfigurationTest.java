@@ -0,0 +1,41 @@
+package com.biblioteca.comun.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Pruebas de la autoconfiguración de métricas de la caché de segundo nivel")
+class CacheSegundoNivelAutoConfigurationTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class,
+                    HibernateJpaAutoConfiguration.class, CacheSegundoNivelAutoConfiguration.class))
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+            .withPropertyValues("spring.datasource.url=jdbc:h2:mem:cache");
+
+    @Test
+    @DisplayName("Debería registrar las métricas si el servicio usa la caché de segundo nivel")
+    void testConCache() {
+        contextRunner
+                .withPropertyValues(
+                        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+                        "spring.jpa.properties.hibernate.cache.region.factory_class=jcache",
+                        "spring.jpa.properties.hibernate.javax.cache.provider="
+                                + "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider",
+                        "spring.jpa.properties.hibernate.generate_statistics=true")
+                .run(context -> assertThat(context).hasSingleBean(MetricasCacheSegundoNivel.class));
+    }
+
+    @Test
+    @DisplayName("No debería registrar nada en los servicios sin caché de segundo nivel")
+    void testSinCache() {
+        contextRunner.run(context -> assertThat(context).doesNotHaveBean(MetricasCacheSegundoNivel.class));
+    }
+}
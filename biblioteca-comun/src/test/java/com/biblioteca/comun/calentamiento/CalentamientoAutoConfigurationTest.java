@@ -0,0 +1,44 @@
+package com.biblioteca.comun.calentamiento;
+
+import io.micrometer.observation.ObservationPredicate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Pruebas de la autoconfiguración del calentamiento")
+class CalentamientoAutoConfigurationTest {
+
+    private final WebApplicationContextRunner contextRunner = new WebApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(CalentamientoAutoConfiguration.class))
+            .withPropertyValues("management.endpoints.web.exposure.include=calentamiento");
+
+    @Test
+    @DisplayName("Debería registrar la muestra y el endpoint en los servicios con Precarga")
+    void testConPrecarga() {
+        contextRunner
+                .withBean(Precarga.class, () -> limite -> Map.of("libro", List.of(1L)))
+                .withPropertyValues("biblioteca.calentamiento.muestreo=5")
+                .run(context -> {
+                    assertThat(context).hasSingleBean(MuestraPeticiones.class);
+                    assertThat(context).hasSingleBean(CalentamientoEndpoint.class);
+                    assertThat(context).hasBean("sinPeticionesDeCalentamiento");
+                    assertThat(context.getBean(CalentamientoProperties.class).getMuestreo()).isEqualTo(5);
+                });
+    }
+
+    @Test
+    @DisplayName("No debería registrar nada en los servicios sin Precarga")
+    void testSinPrecarga() {
+        contextRunner.run(context -> {
+            assertThat(context).doesNotHaveBean(MuestraPeticiones.class);
+            assertThat(context).doesNotHaveBean(CalentamientoEndpoint.class);
+            assertThat(context).doesNotHaveBean(ObservationPredicate.class);
+        });
+    }
+}
@@ -0,0 +1,46 @@
+package com.biblioteca.comun.calentamiento;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MuestraPeticionesTest {
+
+    @Test
+    void onStop_SoloGetConExitoYBufferCircular() {
+        CalentamientoProperties properties = new CalentamientoProperties();
+        properties.setMuestreo(1);
+        properties.setCapacidadMuestra(2);
+        MuestraPeticiones muestra = new MuestraPeticiones(properties);
+
+        muestra.onStop(contexto("GET", "/api/prestamos/1", "/api/prestamos/{id}", 200));
+        muestra.onStop(contexto("POST", "/api/prestamos", "/api/prestamos", 201));
+        muestra.onStop(contexto("GET", "/api/prestamos/2", "/api/prestamos/{id}", 404));
+        muestra.onStop(contexto("GET", "/actuator/health", "/actuator/health", 200));
+        assertEquals(List.of("GET /api/prestamos/1"), muestra.instantanea());
+
+        MockHttpServletRequest conQuery = new MockHttpServletRequest("GET", "/api/prestamos/usuario/3");
+        conQuery.setQueryString("pagina=2");
+        ServerRequestObservationContext contexto = new ServerRequestObservationContext(conQuery, new MockHttpServletResponse());
+        contexto.setPathPattern("/api/prestamos/usuario/{usuarioId}");
+        muestra.onStop(contexto);
+        muestra.onStop(contexto("GET", "/api/prestamos/4", "/api/prestamos/{id}", 200));
+
+        // Capacidad 2: la más antigua se descarta
+        assertEquals(List.of("GET /api/prestamos/usuario/3?pagina=2", "GET /api/prestamos/4"), muestra.instantanea());
+    }
+
+    private static ServerRequestObservationContext contexto(String metodo, String uri, String patron, int estado) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setStatus(estado);
+        ServerRequestObservationContext contexto =
+                new ServerRequestObservationContext(new MockHttpServletRequest(metodo, uri), response);
+        contexto.setPathPattern(patron);
+        return contexto;
+    }
+}
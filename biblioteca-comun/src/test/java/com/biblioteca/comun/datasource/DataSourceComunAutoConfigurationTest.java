@@ -0,0 +1,58 @@
+package com.biblioteca.comun.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Pruebas de la autoconfiguración de los DataSource compartidos")
+class DataSourceComunAutoConfigurationTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(
+                    DataSourceComunAutoConfiguration.class, DataSourceAutoConfiguration.class))
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+            .withPropertyValues("spring.datasource.url=jdbc:h2:mem:primaria");
+
+    @Test
+    @DisplayName("Con la réplica habilitada el DataSource principal debería ser el enrutador")
+    void testReplicaHabilitada() {
+        contextRunner
+                .withPropertyValues(
+                        "biblioteca.datasource.replica.habilitada=true",
+                        "biblioteca.datasource.replica.url=jdbc:h2:mem:replica",
+                        "biblioteca.datasource.replica.username=sa",
+                        "biblioteca.datasource.replica.consulta-retraso=")
+                .run(context -> {
+                    assertThat(context).hasSingleBean(MonitorReplica.class);
+                    assertThat(context.getBean(DataSource.class)).isInstanceOf(LazyConnectionDataSourceProxy.class);
+                });
+    }
+
+    @Test
+    @DisplayName("Sin réplica debería quedar el DataSource de Spring Boot")
+    void testReplicaDeshabilitada() {
+        contextRunner.run(context -> {
+            assertThat(context).doesNotHaveBean(MonitorReplica.class);
+            assertThat(context.getBean(DataSource.class)).isNotInstanceOf(LazyConnectionDataSourceProxy.class);
+        });
+    }
+
+    @Test
+    @DisplayName("Con inicialización perezosa el DataSource debería seguir creándose al arrancar")
+    void testInicializacionPerezosa() {
+        contextRunner
+                .withPropertyValues("spring.main.lazy-initialization=true")
+                .run(context -> assertThat(context).hasSingleBean(LazyInitializationExcludeFilter.class));
+        contextRunner.run(context -> assertThat(context).doesNotHaveBean(LazyInitializationExcludeFilter.class));
+    }
+}
@@ -0,0 +1,142 @@
+package com.biblioteca.comun.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Pruebas del enrutado de lecturas a la réplica")
+class EnrutadorLecturaDataSourceTest {
+
+    private DataSource replica;
+    private ReplicaProperties properties;
+    private MonitorReplica monitor;
+    private SimpleMeterRegistry meterRegistry;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate escritura;
+    private TransactionTemplate lectura;
+
+    @BeforeEach
+    void setUp() {
+        // Dos H2 en memoria independientes; cada una sabe qué papel tiene
+        DataSource primaria = h2("primaria");
+        replica = h2("replica");
+        replicaConRetraso(0);
+
+        properties = new ReplicaProperties();
+        properties.setRetrasoMaximo(Duration.ofSeconds(5));
+        properties.setConsultaRetraso("SELECT retraso FROM estado_replica");
+        properties.setColumnaRetraso("retraso");
+        monitor = new MonitorReplica(replica, properties);
+        meterRegistry = new SimpleMeterRegistry();
+
+        DataSource enrutado = new LazyConnectionDataSourceProxy(
+                new EnrutadorLecturaDataSource(primaria, replica, monitor, meterRegistry));
+        jdbcTemplate = new JdbcTemplate(enrutado);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(enrutado);
+        escritura = new TransactionTemplate(transactionManager);
+        lectura = new TransactionTemplate(transactionManager);
+        lectura.setReadOnly(true);
+    }
+
+    @Test
+    @DisplayName("Debería enviar las transacciones readOnly a la réplica y el resto a la primaria")
+    void testEnrutado_ReplicaDisponible() {
+        // Given
+        monitor.comprobar();
+
+        // When
+        String desdeLectura = lectura.execute(status -> nombre());
+        String desdeEscritura = escritura.execute(status -> nombre());
+
+        // Then
+        assertThat(monitor.isDisponible()).isTrue();
+        assertThat(desdeLectura).isEqualTo("replica");
+        assertThat(desdeEscritura).isEqualTo("primaria");
+        assertThat(contador("lectura", "replica")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Debería leer de la primaria si la réplica va demasiado retrasada")
+    void testEnrutado_ReplicaRetrasada() {
+        // Given
+        replicaConRetraso(30);
+        monitor.comprobar();
+
+        // When
+        String desdeLectura = lectura.execute(status -> nombre());
+
+        // Then
+        assertThat(monitor.isDisponible()).isFalse();
+        assertThat(monitor.getRetrasoSegundos()).isEqualTo(30);
+        assertThat(desdeLectura).isEqualTo("primaria");
+        assertThat(contador("lectura", "primaria")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Debería volver a la réplica cuando recupera el retraso")
+    void testEnrutado_ReplicaRecuperada() {
+        // Given
+        replicaConRetraso(30);
+        monitor.comprobar();
+        replicaConRetraso(1);
+
+        // When
+        monitor.comprobar();
+        String desdeLectura = lectura.execute(status -> nombre());
+
+        // Then
+        assertThat(monitor.isDisponible()).isTrue();
+        assertThat(desdeLectura).isEqualTo("replica");
+    }
+
+    @Test
+    @DisplayName("Debería leer de la primaria hasta la primera comprobación de la réplica")
+    void testEnrutado_SinComprobar() {
+        // When
+        String desdeLectura = lectura.execute(status -> nombre());
+
+        // Then
+        assertThat(desdeLectura).isEqualTo("primaria");
+    }
+
+    private String nombre() {
+        return jdbcTemplate.queryForObject("SELECT nombre FROM origen", String.class);
+    }
+
+    private void replicaConRetraso(long segundos) {
+        new JdbcTemplate(replica).update("UPDATE estado_replica SET retraso = ?", segundos);
+    }
+
+    private double contador(String tipo, String destino) {
+        return meterRegistry.get("biblioteca.datasource.enrutamiento")
+                .tag("tipo", tipo)
+                .tag("destino", destino)
+                .counter()
+                .count();
+    }
+
+    private static DataSource h2(String nombre) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:enrutado_" + nombre + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS origen (nombre VARCHAR(20))");
+        jdbc.execute("CREATE TABLE IF NOT EXISTS estado_replica (retraso BIGINT)");
+        if (jdbc.queryForObject("SELECT COUNT(*) FROM origen", Integer.class) == 0) {
+            jdbc.update("INSERT INTO origen VALUES (?)", nombre);
+            jdbc.update("INSERT INTO estado_replica VALUES (0)");
+        }
+        return dataSource;
+    }
+}
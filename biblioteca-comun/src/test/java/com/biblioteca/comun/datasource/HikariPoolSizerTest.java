@@ -0,0 +1,54 @@
+package com.biblioteca.comun.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Pruebas del dimensionado de los pools Hikari")
+class HikariPoolSizerTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(
+                    DataSourceComunAutoConfiguration.class, DataSourceAutoConfiguration.class))
+            .withPropertyValues("spring.datasource.url=jdbc:h2:mem:pool");
+
+    @Test
+    @DisplayName("Debería fijar el pool según los núcleos disponibles")
+    void testDimensionarPorNucleos() {
+        int esperado = Runtime.getRuntime().availableProcessors() * 3 + 2;
+
+        contextRunner
+                .withPropertyValues(
+                        "biblioteca.datasource.pool.dimensionar-por-nucleos=true",
+                        "biblioteca.datasource.pool.conexiones-por-nucleo=3",
+                        "biblioteca.datasource.pool.conexiones-extra=2")
+                .run(context -> {
+                    HikariDataSource dataSource = context.getBean(HikariDataSource.class);
+                    assertThat(dataSource.getMaximumPoolSize()).isEqualTo(esperado);
+                    assertThat(dataSource.getMinimumIdle()).isEqualTo(esperado);
+                });
+    }
+
+    @Test
+    @DisplayName("Debería respetar un maximum-pool-size explícito")
+    void testTamanoExplicito() {
+        contextRunner
+                .withPropertyValues(
+                        "biblioteca.datasource.pool.dimensionar-por-nucleos=true",
+                        "spring.datasource.hikari.maximum-pool-size=4")
+                .run(context -> assertThat(context.getBean(HikariDataSource.class).getMaximumPoolSize())
+                        .isEqualTo(4));
+    }
+
+    @Test
+    @DisplayName("No debería tocar el pool si el dimensionado está desactivado")
+    void testDesactivado() {
+        contextRunner.run(context -> assertThat(context.getBean(HikariDataSource.class).getMaximumPoolSize())
+                .isEqualTo(10));
+    }
+}
@@ -0,0 +1,128 @@
+package com.biblioteca.comun.observabilidad;
+
+import jdk.jfr.Event;
+import jdk.jfr.Name;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.core.io.Resource;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GrabacionJfrEndpointTest {
+
+    @Name("com.biblioteca.comun.Prueba")
+    static class EventoPrueba extends Event {
+        long valor;
+    }
+
+    @TempDir
+    Path directorio;
+
+    private GrabacionJfrEndpoint endpoint;
+
+    @BeforeEach
+    void setUp() {
+        endpoint = new GrabacionJfrEndpoint("prestamos-service", Duration.ofMinutes(1), 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        endpoint.cerrar();
+    }
+
+    @Test
+    void iniciar_UnaGrabacionALaVezYAcotada() {
+        assertEquals(404, endpoint.estado().getStatus());
+
+        WebEndpointResponse<GrabacionJfrEndpoint.EstadoGrabacion> iniciada = endpoint.iniciar(3600, null);
+
+        assertEquals(200, iniciada.getStatus());
+        assertEquals("RUNNING", iniciada.getBody().estado());
+        assertEquals("default", iniciada.getBody().configuracion());
+        assertEquals(Duration.ofMinutes(1), iniciada.getBody().duracion());
+        assertEquals(409, endpoint.iniciar(10, null).getStatus());
+        // Al detenerla JFR la vuelca al archivo y la cierra
+        assertEquals("CLOSED", endpoint.detener().getBody().estado());
+        assertEquals(400, endpoint.iniciar(10, "inexistente").getStatus());
+    }
+
+    @Test
+    void descargar_IncluyeLosEventosDeLaAplicacion() throws Exception {
+        String nombre = endpoint.iniciar(30, "profile").getBody().nombre();
+        emitir(42L);
+
+        // Sigue activa: se descarga lo grabado hasta ahora
+        WebEndpointResponse<Resource> descarga = endpoint.descargar(nombre);
+
+        assertEquals(200, descarga.getStatus());
+        List<RecordedEvent> eventos = eventos(descarga.getBody());
+        assertEquals(1, eventos.size());
+        assertEquals(42L, eventos.get(0).getLong("valor"));
+        assertEquals(404, endpoint.descargar("otra").getStatus());
+        assertTrue(endpoint.detener().getBody().bytes() > 0);
+    }
+
+    @Test
+    void descargar_SobreviveAUnaNuevaGrabacionMientrasSeEnvia() throws Exception {
+        String nombre = endpoint.iniciar(30, null).getBody().nombre();
+        emitir(7L);
+        endpoint.detener();
+        WebEndpointResponse<Resource> descarga = endpoint.descargar(nombre);
+
+        // Antes de escribir la respuesta otra petición descarta la grabación y su archivo
+        endpoint.iniciar(30, null);
+        endpoint.cerrar();
+
+        assertEquals(descarga.getBody().contentLength(), eventosBytes(descarga.getBody()).length);
+    }
+
+    @Test
+    void autoconfiguracion_SoloConLaPropiedad() {
+        WebApplicationContextRunner contextRunner = new WebApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(JfrAutoConfiguration.class))
+                // Como en la aplicación: "10m" se convierte a Duration
+                .withInitializer(context -> context.getBeanFactory()
+                        .setConversionService(ApplicationConversionService.getSharedInstance()))
+                .withPropertyValues("spring.application.name=prueba",
+                        "management.endpoints.web.exposure.include=jfr");
+
+        contextRunner.run(context -> assertThat(context).doesNotHaveBean(GrabacionJfrEndpoint.class));
+        contextRunner.withPropertyValues("biblioteca.jfr.habilitado=true")
+                .run(context -> assertThat(context).hasSingleBean(GrabacionJfrEndpoint.class));
+    }
+
+    private static void emitir(long valor) {
+        EventoPrueba evento = new EventoPrueba();
+        evento.valor = valor;
+        evento.commit();
+    }
+
+    private byte[] eventosBytes(Resource descarga) throws Exception {
+        try (InputStream contenido = descarga.getInputStream()) {
+            return contenido.readAllBytes();
+        }
+    }
+
+    private List<RecordedEvent> eventos(Resource descarga) throws Exception {
+        Path archivo = Files.write(directorio.resolve("descarga.jfr"), eventosBytes(descarga));
+        return RecordingFile.readAllEvents(archivo).stream()
+                .filter(evento -> evento.getEventType().getName().equals("com.biblioteca.comun.Prueba"))
+                .toList();
+    }
+}
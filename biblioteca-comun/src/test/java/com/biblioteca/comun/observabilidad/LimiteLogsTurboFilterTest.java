@@ -0,0 +1,83 @@
+package com.biblioteca.comun.observabilidad;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LimiteLogsTurboFilterTest {
+
+    private LoggerContext contexto;
+    private Logger servicio;
+
+    @BeforeEach
+    void setUp() {
+        contexto = new LoggerContext();
+        contexto.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.DEBUG);
+        servicio = contexto.getLogger("com.biblioteca.prestamos.service.impl.PrestamoServiceImpl");
+    }
+
+    @Test
+    void muestreo_DejaPasarUnoDeCadaN() {
+        LimiteLogsTurboFilter filtro = filtro("com.biblioteca.prestamos.service", "DEBUG");
+        filtro.setMuestreo(10);
+        filtro.start();
+        long antes = MetricasLogs.descartados(MetricasLogs.MUESTREO);
+
+        int escritos = 0;
+        for (int i = 0; i < 100; i++) {
+            if (filtro.decide(null, servicio, Level.DEBUG, "fila {}", null, null) == FilterReply.NEUTRAL) {
+                escritos++;
+            }
+        }
+
+        assertEquals(10, escritos);
+        assertEquals(90, MetricasLogs.descartados(MetricasLogs.MUESTREO) - antes);
+        // Otros niveles, otros loggers y las comprobaciones isDebugEnabled() no cuentan
+        assertEquals(FilterReply.NEUTRAL, filtro.decide(null, servicio, Level.WARN, "aviso", null, null));
+        assertEquals(FilterReply.NEUTRAL, filtro.decide(null, servicio, Level.DEBUG, null, null, null));
+        assertEquals(FilterReply.NEUTRAL,
+                filtro.decide(null, contexto.getLogger("com.biblioteca.prestamos.serviceX"), Level.DEBUG, "x", null, null));
+    }
+
+    @Test
+    void porSegundo_CortaAlLlegarAlLimiteYSeReiniciaCadaSegundo() {
+        LimiteLogsTurboFilter filtro = filtro("com.biblioteca.prestamos", "INFO");
+        filtro.setPorSegundo(3);
+        filtro.start();
+
+        assertTrue(filtro.dentroDelLimite(100));
+        assertTrue(filtro.dentroDelLimite(100));
+        assertTrue(filtro.dentroDelLimite(100));
+        assertFalse(filtro.dentroDelLimite(100));
+        assertTrue(filtro.dentroDelLimite(101));
+    }
+
+    @Test
+    void decide_IgnoraNivelesDesactivados() {
+        servicio.setLevel(Level.INFO);
+        LimiteLogsTurboFilter filtro = filtro("com.biblioteca.prestamos", "DEBUG");
+        filtro.setMuestreo(2);
+        filtro.start();
+        long antes = MetricasLogs.descartados(MetricasLogs.MUESTREO);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(FilterReply.NEUTRAL, filtro.decide(null, servicio, Level.DEBUG, "fila", null, null));
+        }
+        assertEquals(antes, MetricasLogs.descartados(MetricasLogs.MUESTREO));
+    }
+
+    private LimiteLogsTurboFilter filtro(String logger, String nivel) {
+        LimiteLogsTurboFilter filtro = new LimiteLogsTurboFilter();
+        filtro.setContext(contexto);
+        filtro.setLogger(logger);
+        filtro.setNivel(nivel);
+        return filtro;
+    }
+}
@@ -0,0 +1,77 @@
+package com.biblioteca.comun.observabilidad;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SloEndpointTest {
+
+    private static final long AHORA = 1_700_000_000_000L;
+
+    private RegistroSlo registro;
+    private SloEndpoint endpoint;
+
+    @BeforeEach
+    void setUp() {
+        SloProperties properties = new SloProperties();
+        properties.setLatencia(Duration.ofMillis(300));
+        properties.setObjetivo(0.99);
+        properties.setVentanas(List.of(Duration.ofMinutes(5), Duration.ofHours(1)));
+        properties.setLatenciaPorRuta(Map.of("/api/prestamos/lote", Duration.ofSeconds(3)));
+        registro = new RegistroSlo(properties);
+        endpoint = new SloEndpoint(registro);
+    }
+
+    @Test
+    void resumen_TasaDeQuemaPorVentanaYEndpoint() {
+        // Hace 30 minutos: 10 peticiones lentas, solo cuentan en la ventana de una hora
+        long haceMediaHora = AHORA - Duration.ofMinutes(30).toMillis();
+        for (int i = 0; i < 10; i++) {
+            registro.registrar("GET /api/prestamos/{id}", "/api/prestamos/{id}", Duration.ofMillis(500), 200, haceMediaHora);
+        }
+        // Ahora: 90 rápidas y 10 con error
+        for (int i = 0; i < 90; i++) {
+            registro.registrar("GET /api/prestamos/{id}", "/api/prestamos/{id}", Duration.ofMillis(20), 200, AHORA);
+        }
+        for (int i = 0; i < 10; i++) {
+            registro.registrar("GET /api/prestamos/{id}", "/api/prestamos/{id}", Duration.ofMillis(20), 503, AHORA);
+        }
+        // El lote tiene 3 s de objetivo: 2 s no es una petición mala
+        registro.registrar("POST /api/prestamos/lote", "/api/prestamos/lote", Duration.ofSeconds(2), 200, AHORA);
+
+        List<SloEndpoint.EstadoSlo> resumen = endpoint.resumen(AHORA);
+
+        assertEquals(List.of("GET /api/prestamos/{id}", "POST /api/prestamos/lote"),
+                resumen.stream().map(SloEndpoint.EstadoSlo::endpoint).toList());
+        SloEndpoint.EstadoVentana cincoMinutos = resumen.get(0).ventanas().get(0);
+        assertEquals(100, cincoMinutos.peticiones());
+        assertEquals(10, cincoMinutos.malas());
+        assertEquals(10.0, cincoMinutos.tasaQuema(), 0.001);
+        SloEndpoint.EstadoVentana unaHora = resumen.get(0).ventanas().get(1);
+        assertEquals(110, unaHora.peticiones());
+        assertEquals(20, unaHora.malas());
+        assertEquals(Duration.ofSeconds(3), resumen.get(1).latenciaObjetivo());
+        assertEquals(0.0, resumen.get(1).ventanas().get(0).tasaQuema(), 0.001);
+    }
+
+    @Test
+    void ventana_ReutilizaLasCubetasDeVueltasAnteriores() {
+        registro.registrar("GET /api/prestamos", "/api/prestamos", Duration.ofSeconds(1), 500, AHORA);
+        // Dos horas después la cubeta del anillo se reutiliza y lo anterior ya no cuenta
+        long despues = AHORA + Duration.ofHours(2).toMillis();
+        registro.registrar("GET /api/prestamos", "/api/prestamos", Duration.ofMillis(10), 200, despues);
+
+        SloEndpoint.EstadoVentana unaHora = endpoint.resumen(despues).get(0).ventanas().get(1);
+
+        assertEquals(1, unaHora.peticiones());
+        assertEquals(0, unaHora.malas());
+        assertTrue(endpoint.resumen(despues + Duration.ofHours(2).toMillis()).get(0).ventanas().stream()
+                .allMatch(ventana -> ventana.peticiones() == 0));
+    }
+}
@@ -0,0 +1,111 @@
+package com.biblioteca.comun.observabilidad;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrazasEndpointTest {
+
+    private ExportadorTrazasRecientes exportador;
+    private SdkTracerProvider tracerProvider;
+    private Tracer tracer;
+    private TrazasEndpoint endpoint;
+
+    @BeforeEach
+    void setUp() {
+        exportador = new ExportadorTrazasRecientes(8);
+        tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(exportador))
+                .build();
+        tracer = tracerProvider.get("prueba");
+        endpoint = new TrazasEndpoint(exportador);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracerProvider.close();
+    }
+
+    @Test
+    void masLentas_OrdenadasPorDuracionConSuRaiz() {
+        String rapida = traza("GET /api/prestamos", 5, false);
+        String lenta = traza("POST /api/prestamos", 50, true);
+
+        List<TrazasEndpoint.ResumenTraza> trazas = endpoint.masLentas(null);
+
+        assertEquals(List.of(lenta, rapida), trazas.stream().map(TrazasEndpoint.ResumenTraza::traceId).toList());
+        assertEquals("POST /api/prestamos", trazas.get(0).raiz());
+        assertEquals(2, trazas.get(0).tramos());
+        assertTrue(trazas.get(0).error());
+        assertFalse(trazas.get(1).error());
+        assertEquals(50.0, trazas.get(0).duracionMs(), 0.001);
+        assertEquals(1, endpoint.masLentas(1).size());
+    }
+
+    @Test
+    void traza_TramosEnOrdenDeInicio() {
+        String traceId = traza("POST /api/prestamos", 50, false);
+
+        List<TrazasEndpoint.Tramo> tramos = endpoint.traza(traceId);
+
+        assertEquals(List.of("POST /api/prestamos", "libros-service GET"),
+                tramos.stream().map(TrazasEndpoint.Tramo::nombre).toList());
+        assertNull(tramos.get(0).padre());
+        assertEquals(tramos.get(0).spanId(), tramos.get(1).padre());
+        assertEquals("CLIENT", tramos.get(1).tipo());
+        assertEquals(1.0, tramos.get(1).desdeInicioMs(), 0.001);
+        assertEquals("9", tramos.get(1).atributos().get("libro.id"));
+        assertTrue(endpoint.traza("inexistente").isEmpty());
+    }
+
+    @Test
+    void exportador_ConservaSoloLosMasRecientes() {
+        String primera = traza("GET /api/prestamos/0", 10, false);
+        for (int i = 1; i < 5; i++) {
+            traza("GET /api/prestamos/" + i, 10 + i, false);
+        }
+
+        // Capacidad de 8 tramos: caben las cuatro últimas trazas de dos tramos
+        List<TrazasEndpoint.ResumenTraza> trazas = endpoint.masLentas(10);
+        assertEquals(4, trazas.size());
+        assertTrue(trazas.stream().allMatch(traza -> traza.tramos() == 2));
+        assertTrue(endpoint.traza(primera).isEmpty());
+        assertEquals(8, exportador.instantanea().size());
+    }
+
+    // Una petición de servidor con una llamada de cliente dentro; devuelve el traceId
+    private String traza(String nombre, long duracionMs, boolean error) {
+        long inicio = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+        Span raiz = tracer.spanBuilder(nombre)
+                .setSpanKind(SpanKind.SERVER)
+                .setStartTimestamp(inicio, TimeUnit.NANOSECONDS)
+                .startSpan();
+        Span cliente = tracer.spanBuilder("libros-service GET")
+                .setParent(Context.current().with(raiz))
+                .setSpanKind(SpanKind.CLIENT)
+                .setAttribute("libro.id", 9L)
+                .setStartTimestamp(inicio + TimeUnit.MILLISECONDS.toNanos(1), TimeUnit.NANOSECONDS)
+                .startSpan();
+        cliente.end(inicio + TimeUnit.MILLISECONDS.toNanos(duracionMs - 1), TimeUnit.NANOSECONDS);
+        if (error) {
+            raiz.setStatus(StatusCode.ERROR);
+        }
+        raiz.end(inicio + TimeUnit.MILLISECONDS.toNanos(duracionMs), TimeUnit.NANOSECONDS);
+        return raiz.getSpanContext().getTraceId();
+    }
+}
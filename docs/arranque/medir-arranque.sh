@@ -0,0 +1,65 @@
+#!/usr/bin/env bash
+# Tiempo hasta ready (GET /actuator/health/readiness responde 200) de un servicio, con el jar
+# normal (antes) y con el de mvn -Parranque package (después: AOT + AppCDS + perfil arranque).
+#
+#   docs/arranque/medir-arranque.sh libros 8082 [repeticiones]
+#
+# Se ejecuta desde la raíz del repositorio; compila el módulo las dos veces. Variables opcionales:
+#   ARGS="--spring.datasource.url=..."   argumentos extra para las dos variantes
+#   PERFILES_EXTRA=entrenamiento          para medir sin base de datos (mismo perfil que el
+#                                         arranque de entrenamiento del archivo AppCDS)
+set -euo pipefail
+
+MODULO=${1:?módulo (libros, usuarios, prestamos)}
+PUERTO=${2:?puerto del servicio}
+REPETICIONES=${3:-5}
+ARGS=${ARGS:-}
+PERFILES="prod${PERFILES_EXTRA:+,$PERFILES_EXTRA}"
+TRABAJO=$(mktemp -d)
+trap 'rm -rf "$TRABAJO"' EXIT
+
+( cd "$MODULO" && mvn -q -DskipTests package )
+JAR=$(ls "$MODULO"/target/*.jar | grep -v plain | head -1)
+cp "$JAR" "$TRABAJO/antes.jar"
+
+( cd "$MODULO" && mvn -q -DskipTests -Parranque package )
+DESPUES="$MODULO/target/arranque"
+
+# Arranca el comando en segundo plano y devuelve los ms hasta que readiness responde 200
+medir() {
+  local inicio fin pid
+  inicio=$(date +%s%N)
+  "$@" >"$TRABAJO/salida.log" 2>&1 &
+  pid=$!
+  until curl -sf -o /dev/null "http://localhost:$PUERTO/actuator/health/readiness"; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "El servicio terminó antes de estar listo; ver la salida:" >&2
+      tail -20 "$TRABAJO/salida.log" >&2
+      exit 1
+    fi
+    sleep 0.05
+  done
+  fin=$(date +%s%N)
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  echo $(( (fin - inicio) / 1000000 ))
+}
+
+resumen() {
+  local nombre=$1
+  shift
+  local tiempos=()
+  for _ in $(seq "$REPETICIONES"); do
+    tiempos+=("$(medir "$@")")
+  done
+  printf '%s\n' "${tiempos[@]}" | sort -n | awk -v nombre="$nombre" '
+    { t[NR] = $1; suma += $1 }
+    END { printf "%-8s media %6d ms   mediana %6d ms   min %6d ms   max %6d ms\n",
+          nombre, suma / NR, t[int((NR + 1) / 2)], t[1], t[NR] }'
+}
+
+# shellcheck disable=SC2086
+resumen antes java -jar "$TRABAJO/antes.jar" --spring.profiles.active="$PERFILES" $ARGS
+# shellcheck disable=SC2086
+resumen despues java -XX:SharedArchiveFile="$DESPUES/application.jsa" -Xlog:cds=off -Dspring.aot.enabled=true \
+  -jar "$DESPUES/$(basename "$JAR")" --spring.profiles.active="$PERFILES,arranque" $ARGS
@@ -0,0 +1,23 @@
+// Prueba de carga (k6) de una ruta del gateway, para comparar el jar con la imagen nativa.
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e DURACION=30s docs/carga/gateway-rutas.js
+//
+// La lanza docs/nativo/medir-gateway.sh dos veces por variante: recién arrancado (en frío,
+// la JVM todavía interpreta y compila) y a continuación (en caliente). Comparar http_reqs/s
+// y http_req_duration p(95).
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+
+export const options = {
+    vus: Number(__ENV.VUS || 50),
+    duration: __ENV.DURACION || '30s',
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export default function () {
+    // Path + RewritePath + balanceo lb:// + Hedging (GET)
+    const res = http.get(`${BASE_URL}/biblioteca/libros/1`);
+    check(res, { 'status 200': (r) => r.status === 200 });
+}
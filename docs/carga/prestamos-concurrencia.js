@@ -0,0 +1,39 @@
+// Prueba de carga (k6) para comparar la capacidad de peticiones concurrentes
+// del servicio de préstamos con hilos de plataforma y con hilos virtuales.
+//
+//   k6 run -e BASE_URL=http://localhost:8083 -e USUARIO_ID=1 docs/carga/prestamos-concurrencia.js
+//
+// Se ejecuta dos veces: con el servicio arrancado normalmente y con
+// --spring.profiles.active=virtual. Comparar http_reqs/s, http_req_duration p(95)
+// y la tasa de errores entre ambas ejecuciones.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8083';
+const USUARIO_ID = __ENV.USUARIO_ID || '1';
+
+export const options = {
+    scenarios: {
+        concurrencia: {
+            executor: 'ramping-vus',
+            startVUs: 50,
+            stages: [
+                { duration: '30s', target: 200 },
+                { duration: '30s', target: 400 },
+                { duration: '30s', target: 800 },
+                { duration: '30s', target: 1600 },
+                { duration: '15s', target: 0 },
+            ],
+        },
+    },
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export default function () {
+    // Cada préstamo del usuario implica una llamada Feign a libros: petición dominada por E/S
+    const res = http.get(`${BASE_URL}/api/prestamos/usuario/${USUARIO_ID}`, { timeout: '30s' });
+    check(res, { 'status 200': (r) => r.status === 200 });
+}
@@ -0,0 +1,99 @@
+#!/usr/bin/env bash
+# Compara el api-gateway en la JVM con su imagen nativa (mvn -Pnative package, con GraalVM):
+#   - arranque: ms hasta que /actuator/health/readiness responde 200
+#   - memoria: RSS al quedar listo y después de la carga
+#   - rendimiento: peticiones/s y p95 de docs/carga/gateway-rutas.js (k6), en frío y en caliente
+#
+#   docs/nativo/medir-gateway.sh [repeticiones]
+#
+# Se ejecuta desde la raíz del repositorio, con GraalVM en JAVA_HOME. Variables opcionales:
+#   UPSTREAM=http://localhost:8082   libros real; por defecto, un servidor estático de prueba
+#   JAVA_JVM=/ruta/a/bin/java        java de la variante JVM (por defecto, el del PATH)
+#   DURACION=30s VUS=50              carga de cada pasada de k6; sin k6 solo se miden arranque y RSS
+set -euo pipefail
+
+REPETICIONES=${1:-5}
+PUERTO=${PUERTO:-8080}
+JAVA_JVM=${JAVA_JVM:-java}
+DURACION=${DURACION:-30s}
+VUS=${VUS:-50}
+TRABAJO=$(mktemp -d)
+trap 'kill ${PID:-} ${ESTATICO:-} 2>/dev/null || true; rm -rf "$TRABAJO"' EXIT
+
+( cd api-gateway && mvn -q -DskipTests package )
+cp "$(ls api-gateway/target/api-gateway-*.jar | head -1)" "$TRABAJO/gateway.jar"
+
+( cd api-gateway && mvn -q -DskipTests -Pnative package )
+NATIVO=api-gateway/target/api-gateway
+
+if [[ -z ${UPSTREAM:-} ]]; then
+  mkdir -p "$TRABAJO/estatico/api/libros" "$TRABAJO/estatico/actuator"
+  echo '{"id":1,"titulo":"Prueba"}' >"$TRABAJO/estatico/api/libros/1"
+  echo '{"status":"UP"}' >"$TRABAJO/estatico/actuator/health"
+  python3 -m http.server 18082 --bind 127.0.0.1 --directory "$TRABAJO/estatico" >/dev/null 2>&1 &
+  ESTATICO=$!
+  UPSTREAM=http://127.0.0.1:18082
+fi
+ARGS=(--server.port="$PUERTO" "--spring.cloud.discovery.client.simple.instances.libros-service[0].uri=$UPSTREAM")
+
+# Arranca el gateway en segundo plano: deja el pid en PID y los ms hasta ready en MS
+arrancar() {
+  local inicio
+  inicio=$(date +%s%N)
+  "$@" "${ARGS[@]}" >"$TRABAJO/salida.log" 2>&1 &
+  PID=$!
+  until curl -sf -o /dev/null "http://localhost:$PUERTO/actuator/health/readiness"; do
+    if ! kill -0 "$PID" 2>/dev/null; then
+      echo "El gateway terminó antes de estar listo; ver la salida:" >&2
+      tail -20 "$TRABAJO/salida.log" >&2
+      exit 1
+    fi
+    sleep 0.01
+  done
+  MS=$(( ($(date +%s%N) - inicio) / 1000000 ))
+}
+
+parar() {
+  kill "$PID"
+  wait "$PID" 2>/dev/null || true
+  PID=
+}
+
+rss_mb() {
+  awk '/^VmRSS/ { printf "%d", $2 / 1024 }' "/proc/$PID/status"
+}
+
+# Una pasada de k6: peticiones/s y p95
+carga() {
+  k6 run --quiet -e BASE_URL="http://localhost:$PUERTO" -e DURACION="$DURACION" -e VUS="$VUS" \
+    --summary-export "$TRABAJO/k6.json" docs/carga/gateway-rutas.js >/dev/null
+  python3 -c 'import json, sys
+m = json.load(open(sys.argv[1]))["metrics"]
+print("%6.0f req/s   p95 %6.1f ms" % (m["http_reqs"]["rate"], m["http_req_duration"]["p(95)"]))' "$TRABAJO/k6.json"
+}
+
+medir() {
+  local nombre=$1 rss
+  local tiempos=()
+  shift
+  for _ in $(seq "$REPETICIONES"); do
+    arrancar "$@"
+    tiempos+=("$MS")
+    rss=$(rss_mb)
+    parar
+  done
+  printf '%s\n' "${tiempos[@]}" | sort -n | awk -v nombre="$nombre" -v rss="$rss" '
+    { t[NR] = $1; suma += $1 }
+    END { printf "%-7s arranque media %6d ms   mediana %6d ms   min %6d ms   RSS al arrancar %4d MB\n",
+          nombre, suma / NR, t[int((NR + 1) / 2)], t[1], rss }'
+
+  if command -v k6 >/dev/null; then
+    arrancar "$@"
+    echo "        en frío:     $(carga)"
+    echo "        en caliente: $(carga)   RSS tras la carga $(rss_mb) MB"
+    parar
+  fi
+}
+
+medir jvm "$JAVA_JVM" -jar "$TRABAJO/gateway.jar"
+medir nativo "./$NATIVO"
@@ -0,0 +1,98 @@
+package com.biblioteca.libros.benchmark;
+
+import com.biblioteca.libros.LibrosApplication;
+import com.biblioteca.libros.dto.LibroResponseDTO;
+import com.biblioteca.libros.model.entity.Libro;
+import com.biblioteca.libros.repository.LibroRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Listado completo de libros: carga de entidades + copia a DTO (camino anterior) frente a la
+// proyección directa al DTO (LibroRepository.listarTodos). Con "-prof gc" se ve también la
+// memoria asignada por operación (gc.alloc.rate.norm).
+// Ejecución: mvn -Pbenchmark test-compile exec:exec
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListadoLibrosBenchmark {
+
+    @Param({"100", "5000"})
+    private int libros;
+
+    private ConfigurableApplicationContext context;
+    private LibroRepository libroRepository;
+    private TransactionTemplate lectura;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(LibrosApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("logging.level.root=WARN", "spring.jpa.show-sql=false")
+                .run();
+        libroRepository = context.getBean(LibroRepository.class);
+        lectura = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        lectura.setReadOnly(true);
+
+        List<Libro> nuevos = new ArrayList<>(libros);
+        for (int i = 0; i < libros; i++) {
+            nuevos.add(Libro.builder()
+                    .titulo("Título " + i)
+                    .autor("Autor " + (i % 50))
+                    .isbn("978-" + String.format("%09d", i))
+                    .ejemplaresDisponibles(i % 4)
+                    .build());
+        }
+        libroRepository.saveAll(nuevos);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<LibroResponseDTO> entidades() {
+        // Igual que el antiguo LibroServiceImpl.obtenerTodosLibros: findAll + mapToResponseDTO
+        return lectura.execute(status -> libroRepository.findAll().stream()
+                .map(libro -> {
+                    LibroResponseDTO dto = new LibroResponseDTO();
+                    dto.setId(libro.getId());
+                    dto.setTitulo(libro.getTitulo());
+                    dto.setAutor(libro.getAutor());
+                    dto.setIsbn(libro.getIsbn());
+                    dto.setEjemplaresDisponibles(libro.getEjemplaresDisponibles());
+                    dto.setDisponible(libro.estaDisponible());
+                    return dto;
+                })
+                .toList());
+    }
+
+    @Benchmark
+    public List<LibroResponseDTO> proyeccion() {
+        return lectura.execute(status -> libroRepository.listarTodos());
+    }
+}
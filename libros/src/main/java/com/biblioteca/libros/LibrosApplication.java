@@ -2,8 +2,10 @@ package com.biblioteca.libros;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class LibrosApplication {
 
 	public static void main(String[] args) {
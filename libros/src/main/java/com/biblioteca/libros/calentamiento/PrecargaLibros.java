@@ -0,0 +1,44 @@
+package com.biblioteca.libros.calentamiento;
+
+import com.biblioteca.comun.calentamiento.Precarga;
+import com.biblioteca.libros.model.enums.TipoEventoStock;
+import com.biblioteca.libros.repository.EventoStockProcesadoRepository;
+import com.biblioteca.libros.repository.LibroRepository;
+import com.biblioteca.libros.service.IndiceLibrosService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+// Deja construido el índice de disponibilidad y en la caché de segundo nivel los libros más
+// prestados en los últimos días (según los eventos de stock aplicados). Sin eventos, los primeros
+// libros del catálogo.
+@Component
+@RequiredArgsConstructor
+public class PrecargaLibros implements Precarga {
+
+    private static final int DIAS_MAS_PRESTADOS = 30;
+
+    private final IndiceLibrosService indiceLibros;
+    private final EventoStockProcesadoRepository eventoStockProcesadoRepository;
+    private final LibroRepository libroRepository;
+
+    @Override
+    public Map<String, List<Long>> precargar(int limite) {
+        // IndiceLibrosScheduler también lo construye al arrancar, pero sin esperar a readiness
+        if (!indiceLibros.estaListo()) {
+            indiceLibros.reconstruir();
+        }
+        Limit tope = Limit.of(limite);
+        List<Long> ids = eventoStockProcesadoRepository.librosMasMovidos(
+                TipoEventoStock.LIBRO_PRESTADO, LocalDateTime.now().minusDays(DIAS_MAS_PRESTADOS), tope);
+        if (ids.isEmpty()) {
+            ids = libroRepository.primerosIds(tope);
+        }
+        libroRepository.findAllById(ids);
+        return Map.of("libro", ids);
+    }
+}
@@ -0,0 +1,57 @@
+package com.biblioteca.libros.controller;
+
+import com.biblioteca.libros.dto.EventoStockDTO;
+import com.biblioteca.libros.dto.EventoStockResultadoDTO;
+import com.biblioteca.libros.service.EventoStockService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/libros/eventos-stock")
+@RequiredArgsConstructor
+@Tag(
+        name = "🔄 Eventos de Stock",
+        description = "Recepción de los eventos de préstamo y devolución publicados por el servicio de préstamos"
+)
+public class EventoStockController {
+
+    private final EventoStockService eventoStockService;
+
+    // ==================== ENDPOINT 1: APLICAR LOTE DE EVENTOS ====================
+    @PostMapping(
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @Operation(
+            summary = "📥 Aplicar lote de eventos de stock",
+            description = "Aplica en una transacción un lote de eventos LIBRO_PRESTADO / LIBRO_DEVUELTO. " +
+                    "Los eventos ya procesados se ignoran, por lo que el lote puede reenviarse sin riesgo.",
+            operationId = "aplicarEventosStock"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "✅ Lote procesado",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = EventoStockResultadoDTO.class)
+                    )
+            )
+    })
+    public ResponseEntity<EventoStockResultadoDTO> aplicarEventos(@RequestBody List<EventoStockDTO> eventos) {
+        return ResponseEntity.ok(eventoStockService.aplicarEventos(eventos));
+    }
+}
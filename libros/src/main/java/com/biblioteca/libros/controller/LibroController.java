@@ -1,5 +1,6 @@
 package com.biblioteca.libros.controller;
 
+import com.biblioteca.libros.dto.DisponibilidadLibroDTO;
 import com.biblioteca.libros.dto.LibroRequestDTO;
 import com.biblioteca.libros.dto.LibroResponseDTO;
 import com.biblioteca.libros.service.LibroService;
@@ -167,6 +168,43 @@ public class LibroController {
         return ResponseEntity.ok(libro);
     }
 
+    // ==================== ENDPOINT 3B: OBTENER LIBROS POR LOTE ====================
+    @GetMapping("/lote")
+    @Operation(
+            summary = "📦 Obtener varios libros por ID",
+            description = "Devuelve en una sola llamada los libros de la lista de IDs. Los IDs inexistentes se omiten. " +
+                    "Admite hasta 500 IDs por llamada.",
+            operationId = "obtenerLibrosPorIds"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "✅ Libros encontrados",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            array = @ArraySchema(schema = @Schema(implementation = LibroResponseDTO.class))
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "❌ Más de 500 IDs en la consulta",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE
+                    )
+            )
+    })
+    public ResponseEntity<List<LibroResponseDTO>> obtenerLibrosPorIds(
+            @Parameter(
+                    description = "IDs de los libros separados por comas",
+                    required = true,
+                    example = "1,2,3"
+            )
+            @RequestParam List<Long> ids) {
+
+        List<LibroResponseDTO> libros = libroService.obtenerLibrosPorIds(ids);
+        return ResponseEntity.ok(libros);
+    }
+
     // ==================== ENDPOINT 4: ACTUALIZAR LIBRO ====================
     @PutMapping("/{id}")
     @Operation(
@@ -316,6 +354,42 @@ public class LibroController {
         return ResponseEntity.ok(disponible);
     }
 
+    // ==================== ENDPOINT 7B: CONSULTAR DISPONIBILIDAD POR LOTE ====================
+    @GetMapping("/disponibilidad")
+    @Operation(
+            summary = "⚡ Verificar existencia y disponibilidad de varios libros",
+            description = "Responde desde el índice en memoria; solo los IDs que el índice no conoce se consultan en la base de datos. " +
+                    "Devuelve un elemento por cada ID, en el mismo orden. Admite hasta 500 IDs por llamada.",
+            operationId = "consultarDisponibilidad"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "✅ Disponibilidad de cada libro",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            array = @ArraySchema(schema = @Schema(implementation = DisponibilidadLibroDTO.class))
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "❌ Más de 500 IDs en la consulta",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE
+                    )
+            )
+    })
+    public ResponseEntity<List<DisponibilidadLibroDTO>> consultarDisponibilidad(
+            @Parameter(
+                    description = "IDs de los libros separados por comas",
+                    required = true,
+                    example = "1,2,3"
+            )
+            @RequestParam List<Long> ids) {
+
+        return ResponseEntity.ok(libroService.consultarDisponibilidad(ids));
+    }
+
     // ==================== ENDPOINT 8: PRESTAR LIBRO ====================
     @PostMapping("/{id}/prestar")
     @Operation(
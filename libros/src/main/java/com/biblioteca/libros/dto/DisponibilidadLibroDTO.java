@@ -0,0 +1,24 @@
+package com.biblioteca.libros.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(name = "DisponibilidadLibroDTO", description = "Existencia y disponibilidad de un libro")
+public class DisponibilidadLibroDTO {
+
+    @Schema(description = "ID del libro consultado", example = "1")
+    private Long id;
+
+    @Schema(description = "Indica si el libro existe", example = "true")
+    private boolean existe;
+
+    @Schema(description = "Indica si quedan ejemplares para préstamo", example = "true")
+    private boolean disponible;
+}
@@ -0,0 +1,33 @@
+package com.biblioteca.libros.dto;
+
+import com.biblioteca.libros.model.enums.TipoEventoStock;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(name = "EventoStockDTO", description = "Evento de préstamo o devolución publicado por el servicio de préstamos")
+public class EventoStockDTO {
+
+    @Schema(description = "Identificador único del evento (clave de idempotencia)", example = "3f1c8e52-5a0e-4a44-9d7e-0c2b0c6f9a11")
+    private String eventoId;
+
+    @Schema(description = "Tipo de evento", example = "LIBRO_PRESTADO")
+    private TipoEventoStock tipo;
+
+    @Schema(description = "ID del libro afectado", example = "1")
+    private Long libroId;
+
+    @Schema(description = "ID del préstamo que originó el evento", example = "10")
+    private Long prestamoId;
+
+    @Schema(description = "Momento en que se registró el evento")
+    private LocalDateTime fechaEvento;
+}
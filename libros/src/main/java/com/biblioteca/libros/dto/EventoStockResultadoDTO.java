@@ -0,0 +1,27 @@
+package com.biblioteca.libros.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(name = "EventoStockResultadoDTO", description = "Resultado de aplicar un lote de eventos de stock")
+public class EventoStockResultadoDTO {
+
+    @Schema(description = "Eventos aplicados en este lote", example = "8")
+    private int aplicados;
+
+    @Schema(description = "Eventos ya procesados anteriormente (ignorados)", example = "2")
+    private int duplicados;
+
+    @Schema(description = "Eventos que no se pudieron aplicar (libro inexistente o sin ejemplares), " +
+            "también cuando llegan reenviados")
+    private List<String> rechazados;
+}
@@ -2,8 +2,10 @@ package com.biblioteca.libros.dto;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
 @Schema(name = "LibroResponseDTO", description = "DTO para respuesta de libro")
 public class LibroResponseDTO {
 
@@ -24,4 +26,14 @@ public class LibroResponseDTO {
 
     @Schema(description = "Indica si el libro está disponible para préstamo", example = "true")
     private boolean disponible;
+
+    // Usado por las consultas de proyección del repositorio (SELECT new ...)
+    public LibroResponseDTO(Long id, String titulo, String autor, String isbn, int ejemplaresDisponibles) {
+        this.id = id;
+        this.titulo = titulo;
+        this.autor = autor;
+        this.isbn = isbn;
+        this.ejemplaresDisponibles = ejemplaresDisponibles;
+        this.disponible = ejemplaresDisponibles > 0;
+    }
 }
@@ -1,5 +1,7 @@
 package com.biblioteca.libros.exception;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -12,8 +14,11 @@ import java.util.HashMap;
 import java.util.Map;
 
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
+    private final MeterRegistry meterRegistry;
+
     @ExceptionHandler(LibroNotFoundException.class)
     public ResponseEntity<Map<String, Object>> handleLibroNotFound(LibroNotFoundException ex) {
         Map<String, Object> response = new HashMap<>();
@@ -21,6 +26,7 @@ public class GlobalExceptionHandler {
         response.put("status", HttpStatus.NOT_FOUND.value());
         response.put("error", "Libro no encontrado");
         response.put("message", ex.getMessage());
+        contarError(ex, HttpStatus.NOT_FOUND);
         return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
     }
 
@@ -31,6 +37,7 @@ public class GlobalExceptionHandler {
         response.put("status", HttpStatus.CONFLICT.value());
         response.put("error", "ISBN duplicado");
         response.put("message", ex.getMessage());
+        contarError(ex, HttpStatus.CONFLICT);
         return new ResponseEntity<>(response, HttpStatus.CONFLICT);
     }
 
@@ -41,6 +48,18 @@ public class GlobalExceptionHandler {
         response.put("status", HttpStatus.BAD_REQUEST.value());
         response.put("error", "Libro no disponible");
         response.put("message", ex.getMessage());
+        contarError(ex, HttpStatus.BAD_REQUEST);
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(LoteDemasiadoGrandeException.class)
+    public ResponseEntity<Map<String, Object>> handleLoteDemasiadoGrande(LoteDemasiadoGrandeException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        response.put("status", HttpStatus.BAD_REQUEST.value());
+        response.put("error", "Demasiados IDs");
+        response.put("message", ex.getMessage());
+        contarError(ex, HttpStatus.BAD_REQUEST);
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
@@ -59,6 +78,7 @@ public class GlobalExceptionHandler {
         });
 
         response.put("errors", errors);
+        contarError(ex, HttpStatus.BAD_REQUEST);
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
@@ -69,6 +89,14 @@ public class GlobalExceptionHandler {
         response.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
         response.put("error", "Error interno del servidor");
         response.put("message", ex.getMessage());
+        contarError(ex, HttpStatus.INTERNAL_SERVER_ERROR);
         return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
     }
+
+    // biblioteca.errores{excepcion, estado}: la tasa de cada tipo de error sale de /actuator/metrics
+    private void contarError(Exception ex, HttpStatus status) {
+        meterRegistry.counter("biblioteca.errores",
+                "excepcion", ex.getClass().getSimpleName(),
+                "estado", String.valueOf(status.value())).increment();
+    }
 }
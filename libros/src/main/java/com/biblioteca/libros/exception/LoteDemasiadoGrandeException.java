@@ -0,0 +1,7 @@
+package com.biblioteca.libros.exception;
+
+public class LoteDemasiadoGrandeException extends RuntimeException {
+    public LoteDemasiadoGrandeException(String message) {
+        super(message);
+    }
+}
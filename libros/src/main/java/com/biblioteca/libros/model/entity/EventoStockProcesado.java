@@ -0,0 +1,49 @@
+package com.biblioteca.libros.model.entity;
+
+import com.biblioteca.libros.model.enums.TipoEventoStock;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+// Marca de los eventos de stock ya aplicados: un mismo evento reenviado por el relay de préstamos se ignora
+@Entity
+@Table(name = "eventos_stock_procesados")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EventoStockProcesado implements Persistable<String> {
+
+    @Id
+    @Column(name = "evento_id", length = 36)
+    private String eventoId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private TipoEventoStock tipo;
+
+    @Column(name = "libro_id", nullable = false)
+    private Long libroId;
+
+    @Column(nullable = false)
+    private boolean aplicado;
+
+    @Column(name = "fecha_procesado", nullable = false)
+    private LocalDateTime fechaProcesado;
+
+    @Override
+    public String getId() {
+        return eventoId;
+    }
+
+    // Las marcas solo se insertan: evita el SELECT previo de merge()
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
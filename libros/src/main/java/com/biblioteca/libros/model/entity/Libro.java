@@ -7,10 +7,17 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 @Entity
 @Table(name = "libros",
         uniqueConstraints = @UniqueConstraint(columnNames = "isbn"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "libros")
+@NaturalIdCache(region = "libros-isbn")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -30,6 +37,7 @@ public class Libro {
     private String autor;
 
     @NotBlank(message = "El ISBN es obligatorio")
+    @NaturalId(mutable = true)
     @Column(nullable = false, unique = true, length = 20)
     private String isbn;
 
@@ -0,0 +1,6 @@
+package com.biblioteca.libros.model.enums;
+
+public enum TipoEventoStock {
+    LIBRO_PRESTADO,
+    LIBRO_DEVUELTO
+}
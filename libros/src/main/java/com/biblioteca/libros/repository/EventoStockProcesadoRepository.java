@@ -0,0 +1,36 @@
+package com.biblioteca.libros.repository;
+
+import com.biblioteca.libros.model.entity.EventoStockProcesado;
+import com.biblioteca.libros.model.enums.TipoEventoStock;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EventoStockProcesadoRepository extends JpaRepository<EventoStockProcesado, String> {
+
+    // Marca ya guardada de un evento: aplicado=false si se rechazó la primera vez
+    interface EventoProcesado {
+        String getEventoId();
+
+        boolean isAplicado();
+    }
+
+    @Query("SELECT e.eventoId AS eventoId, e.aplicado AS aplicado FROM EventoStockProcesado e " +
+            "WHERE e.eventoId IN :eventoIds")
+    List<EventoProcesado> findEventosProcesados(@Param("eventoIds") Collection<String> eventoIds);
+
+    // Libros con más eventos aplicados de un tipo desde una fecha (conjunto caliente del calentamiento)
+    @Query("SELECT e.libroId FROM EventoStockProcesado e " +
+            "WHERE e.tipo = :tipo AND e.aplicado = true AND e.fechaProcesado >= :desde " +
+            "GROUP BY e.libroId ORDER BY COUNT(e) DESC")
+    List<Long> librosMasMovidos(@Param("tipo") TipoEventoStock tipo,
+                                @Param("desde") LocalDateTime desde,
+                                Limit limite);
+}
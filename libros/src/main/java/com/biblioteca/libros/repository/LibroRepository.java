@@ -1,19 +1,19 @@
 package com.biblioteca.libros.repository;
 
+import com.biblioteca.libros.dto.LibroResponseDTO;
 import com.biblioteca.libros.model.entity.Libro;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface LibroRepository extends JpaRepository<Libro, Long> {
-
-    Optional<Libro> findByIsbn(String isbn);
-
-    boolean existsByIsbn(String isbn);
+public interface LibroRepository extends JpaRepository<Libro, Long>, LibroRepositoryCustom {
 
 //    @Query("SELECT l.ejemplaresDisponibles > 0 FROM Libro l WHERE l.id = :libroId")
 //    boolean isLibroDisponible(@Param("libroId") Long libroId);
@@ -24,4 +24,17 @@ public interface LibroRepository extends JpaRepository<Libro, Long> {
 
     @Query("SELECT l.ejemplaresDisponibles FROM Libro l WHERE l.id = :libroId")
     Optional<Integer> findEjemplaresDisponiblesById(@Param("libroId") Long libroId);
+
+    // Listados: proyección directa al DTO, sin entidades gestionadas ni paso por la caché de segundo nivel
+    @Query("SELECT new com.biblioteca.libros.dto.LibroResponseDTO(l.id, l.titulo, l.autor, l.isbn, l.ejemplaresDisponibles) " +
+            "FROM Libro l")
+    List<LibroResponseDTO> listarTodos();
+
+    @Query("SELECT new com.biblioteca.libros.dto.LibroResponseDTO(l.id, l.titulo, l.autor, l.isbn, l.ejemplaresDisponibles) " +
+            "FROM Libro l WHERE l.id IN :ids")
+    List<LibroResponseDTO> listarPorIds(@Param("ids") Collection<Long> ids);
+
+    // Conjunto caliente del calentamiento cuando no hay eventos de stock recientes
+    @Query("SELECT l.id FROM Libro l ORDER BY l.id")
+    List<Long> primerosIds(Limit limite);
 }
@@ -0,0 +1,30 @@
+package com.biblioteca.libros.repository;
+
+import com.biblioteca.libros.model.entity.Libro;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+
+public interface LibroRepositoryCustom {
+
+    // Búsquedas por natural-id: pasan por la caché isbn -> id y después por la de entidades
+    @Transactional(readOnly = true)
+    Optional<Libro> findByIsbn(String isbn);
+
+    @Transactional(readOnly = true)
+    boolean existsByIsbn(String isbn);
+
+    // Actualizaciones atómicas de stock: devuelven 0 si el libro no existe o no quedan ejemplares.
+    // Solo se desaloja de la caché el libro afectado.
+    int decrementarEjemplares(Long libroId);
+
+    int incrementarEjemplares(Long libroId, int cantidad);
+
+    // Lecturas ligeras de stock (id -> ejemplares) para el índice en memoria
+    Map<Long, Integer> ejemplaresPorIds(Collection<Long> libroIds);
+
+    void recorrerEjemplares(BiConsumer<Long, Integer> consumidor);
+}
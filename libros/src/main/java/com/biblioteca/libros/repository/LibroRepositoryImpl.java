@@ -0,0 +1,105 @@
+package com.biblioteca.libros.repository;
+
+import com.biblioteca.libros.model.entity.Libro;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+
+// Fragmento de LibroRepository. Los UPDATE de stock van por JDBC (con la conexión de la transacción
+// JPA en curso) porque un UPDATE JPQL hace que Hibernate vacíe la región entera de Libro.
+class LibroRepositoryImpl implements LibroRepositoryCustom {
+
+    private static final String DECREMENTAR = "UPDATE libros SET ejemplares_disponibles = ejemplares_disponibles - 1 " +
+            "WHERE id = ? AND ejemplares_disponibles > 0";
+    private static final String INCREMENTAR = "UPDATE libros SET ejemplares_disponibles = ejemplares_disponibles + ? " +
+            "WHERE id = ?";
+    private static final String EJEMPLARES_POR_IDS = "SELECT id, ejemplares_disponibles FROM libros WHERE id IN (:ids)";
+    private static final String EJEMPLARES = "SELECT id, ejemplares_disponibles FROM libros";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final Cache cache;
+
+    LibroRepositoryImpl(DataSource dataSource, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.cache = entityManagerFactory.getCache();
+    }
+
+    @Override
+    public Optional<Libro> findByIsbn(String isbn) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Libro.class)
+                .loadOptional(isbn);
+    }
+
+    @Override
+    public boolean existsByIsbn(String isbn) {
+        return findByIsbn(isbn).isPresent();
+    }
+
+    @Override
+    public int decrementarEjemplares(Long libroId) {
+        int filas = jdbcTemplate.update(DECREMENTAR, libroId);
+        desalojar(libroId);
+        return filas;
+    }
+
+    @Override
+    public int incrementarEjemplares(Long libroId, int cantidad) {
+        int filas = jdbcTemplate.update(INCREMENTAR, cantidad, libroId);
+        desalojar(libroId);
+        return filas;
+    }
+
+    @Override
+    public Map<Long, Integer> ejemplaresPorIds(Collection<Long> libroIds) {
+        Map<Long, Integer> ejemplares = new HashMap<>();
+        if (libroIds.isEmpty()) {
+            return ejemplares;
+        }
+        namedJdbcTemplate.query(EJEMPLARES_POR_IDS, new MapSqlParameterSource("ids", libroIds),
+                rs -> {
+                    ejemplares.put(rs.getLong(1), rs.getInt(2));
+                });
+        return ejemplares;
+    }
+
+    @Override
+    public void recorrerEjemplares(BiConsumer<Long, Integer> consumidor) {
+        jdbcTemplate.query(EJEMPLARES, rs -> {
+            consumidor.accept(rs.getLong(1), rs.getInt(2));
+        });
+    }
+
+    // Se desaloja ya y otra vez al terminar la transacción, por si una lectura concurrente
+    // volvió a cachear el valor anterior antes del commit
+    private void desalojar(Long libroId) {
+        cache.evict(Libro.class, libroId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evict(Libro.class, libroId);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.biblioteca.libros.scheduling;
+
+import com.biblioteca.libros.service.IndiceLibrosService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IndiceLibrosScheduler {
+
+    private final IndiceLibrosService indiceLibros;
+
+    // Se construye al arrancar y se rehace cada cierto tiempo para recoger los cambios
+    // hechos desde otras instancias del servicio
+    @Scheduled(initialDelay = 0, fixedDelayString = "${libros.indice.reconstruccion-ms:300000}")
+    public void reconstruirIndice() {
+        try {
+            indiceLibros.reconstruir();
+        } catch (Exception e) {
+            log.error("Error al reconstruir el índice de libros: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.biblioteca.libros.service;
+
+import com.biblioteca.libros.dto.EventoStockDTO;
+import com.biblioteca.libros.dto.EventoStockResultadoDTO;
+
+import java.util.List;
+
+public interface EventoStockService {
+
+    EventoStockResultadoDTO aplicarEventos(List<EventoStockDTO> eventos);
+}
@@ -0,0 +1,29 @@
+package com.biblioteca.libros.service;
+
+import java.util.Map;
+
+// Índice en memoria (bitmaps comprimidos) de los libros existentes y de los que tienen ejemplares.
+// Responde las comprobaciones de existencia y disponibilidad sin pasar por la base de datos.
+public interface IndiceLibrosService {
+
+    // false hasta que termina la primera reconstrucción
+    boolean estaListo();
+
+    boolean existe(Long libroId);
+
+    boolean disponible(Long libroId);
+
+    // Dentro de una transacción los cambios se aplican al confirmarla; si se deshace, se descartan
+    void actualizar(Long libroId, int ejemplaresDisponibles);
+
+    void actualizar(Map<Long, Integer> ejemplaresPorLibro);
+
+    // Para lo leído de la base de datos fuera de una escritura: solo rellena los libros que el índice
+    // no conoce, así una lectura antigua nunca pisa lo que publicó una transacción confirmada después
+    void indexarSiAusentes(Map<Long, Integer> ejemplaresPorLibro);
+
+    void eliminar(Long libroId);
+
+    // Recorre la tabla de libros y sustituye el índice sin bloquear las lecturas mientras tanto
+    void reconstruir();
+}
@@ -1,5 +1,6 @@
 package com.biblioteca.libros.service;
 
+import com.biblioteca.libros.dto.DisponibilidadLibroDTO;
 import com.biblioteca.libros.dto.LibroRequestDTO;
 import com.biblioteca.libros.dto.LibroResponseDTO;
 
@@ -13,6 +14,8 @@ public interface LibroService {
 
     LibroResponseDTO obtenerLibroPorId(Long id);
 
+    List<LibroResponseDTO> obtenerLibrosPorIds(List<Long> ids);
+
     LibroResponseDTO actualizarLibro(Long id, LibroRequestDTO libroRequestDTO);
 
     void eliminarLibro(Long id);
@@ -21,6 +24,8 @@ public interface LibroService {
 
     boolean libroDisponible(Long id);
 
+    List<DisponibilidadLibroDTO> consultarDisponibilidad(List<Long> ids);
+
     boolean prestarLibro(Long id);
 
     void devolverLibro(Long id);
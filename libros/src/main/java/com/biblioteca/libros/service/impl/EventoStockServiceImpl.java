@@ -0,0 +1,115 @@
+package com.biblioteca.libros.service.impl;
+
+import com.biblioteca.libros.dto.EventoStockDTO;
+import com.biblioteca.libros.dto.EventoStockResultadoDTO;
+import com.biblioteca.libros.model.entity.EventoStockProcesado;
+import com.biblioteca.libros.model.enums.TipoEventoStock;
+import com.biblioteca.libros.repository.EventoStockProcesadoRepository;
+import com.biblioteca.libros.repository.EventoStockProcesadoRepository.EventoProcesado;
+import com.biblioteca.libros.repository.LibroRepository;
+import com.biblioteca.libros.service.EventoStockService;
+import com.biblioteca.libros.service.IndiceLibrosService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EventoStockServiceImpl implements EventoStockService {
+
+    private final LibroRepository libroRepository;
+    private final EventoStockProcesadoRepository eventoRepository;
+    private final IndiceLibrosService indiceLibros;
+
+    @Override
+    @Transactional
+    public EventoStockResultadoDTO aplicarEventos(List<EventoStockDTO> eventos) {
+        Map<String, Boolean> yaProcesados = eventoRepository.findEventosProcesados(
+                        eventos.stream().map(EventoStockDTO::getEventoId).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(EventoProcesado::getEventoId, EventoProcesado::isAplicado));
+
+        // El relay entrega "al menos una vez": los reenvíos se reconocen por eventoId
+        Set<String> vistos = new HashSet<>(yaProcesados.keySet());
+        List<EventoStockDTO> nuevos = new ArrayList<>();
+        for (EventoStockDTO evento : eventos) {
+            if (vistos.add(evento.getEventoId())) {
+                nuevos.add(evento);
+            }
+        }
+
+        Set<String> rechazados = new HashSet<>();
+
+        // Las devoluciones se agregan por libro (una UPDATE por libro) y se aplican primero,
+        // así un préstamo del mismo lote puede usar el ejemplar recién devuelto
+        Map<Long, List<EventoStockDTO>> devolucionesPorLibro = nuevos.stream()
+                .filter(e -> e.getTipo() == TipoEventoStock.LIBRO_DEVUELTO)
+                .collect(Collectors.groupingBy(EventoStockDTO::getLibroId, LinkedHashMap::new, Collectors.toList()));
+        devolucionesPorLibro.forEach((libroId, devoluciones) -> {
+            if (libroRepository.incrementarEjemplares(libroId, devoluciones.size()) == 0) {
+                devoluciones.forEach(e -> rechazar(e, rechazados));
+            }
+        });
+
+        for (EventoStockDTO evento : nuevos) {
+            if (evento.getTipo() == TipoEventoStock.LIBRO_PRESTADO
+                    && libroRepository.decrementarEjemplares(evento.getLibroId()) == 0) {
+                rechazar(evento, rechazados);
+            }
+        }
+
+        // El índice en memoria recibe el stock resultante al confirmar la transacción
+        indiceLibros.actualizar(libroRepository.ejemplaresPorIds(nuevos.stream()
+                .map(EventoStockDTO::getLibroId)
+                .collect(Collectors.toSet())));
+
+        // Los rechazados se registran igualmente para no reintentarlos en cada lote
+        LocalDateTime ahora = LocalDateTime.now();
+        eventoRepository.saveAll(nuevos.stream()
+                .map(evento -> EventoStockProcesado.builder()
+                        .eventoId(evento.getEventoId())
+                        .tipo(evento.getTipo())
+                        .libroId(evento.getLibroId())
+                        .aplicado(!rechazados.contains(evento.getEventoId()))
+                        .fechaProcesado(ahora)
+                        .build())
+                .collect(Collectors.toList()));
+
+        int aplicados = nuevos.size() - rechazados.size();
+
+        // Un reenvío de un evento rechazado se vuelve a informar como rechazado: si préstamos no llegó
+        // a registrar el primer rechazo (timeout, caída antes de marcar el lote), lo recibe ahora
+        yaProcesados.forEach((eventoId, aplicado) -> {
+            if (!aplicado) {
+                rechazados.add(eventoId);
+            }
+        });
+
+        return EventoStockResultadoDTO.builder()
+                .aplicados(aplicados)
+                .duplicados(eventos.size() - nuevos.size())
+                .rechazados(eventos.stream()
+                        .map(EventoStockDTO::getEventoId)
+                        .filter(rechazados::contains)
+                        .distinct()
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    private void rechazar(EventoStockDTO evento, Set<String> rechazados) {
+        log.warn("Evento {} ({}) rechazado para libro {}: inexistente o sin ejemplares",
+                evento.getEventoId(), evento.getTipo(), evento.getLibroId());
+        rechazados.add(evento.getEventoId());
+    }
+}
@@ -0,0 +1,202 @@
+package com.biblioteca.libros.service.impl;
+
+import com.biblioteca.libros.repository.LibroRepository;
+import com.biblioteca.libros.service.IndiceLibrosService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IndiceLibrosServiceImpl implements IndiceLibrosService {
+
+    private final LibroRepository libroRepository;
+
+    // Roaring64Bitmap no es thread-safe: lecturas concurrentes con el cerrojo de lectura
+    private final ReadWriteLock cerrojo = new ReentrantReadWriteLock();
+    private Roaring64Bitmap existentes = new Roaring64Bitmap();
+    private Roaring64Bitmap disponibles = new Roaring64Bitmap();
+    // Libros modificados mientras se reconstruye el índice; su valor se toma del índice actual
+    private Roaring64Bitmap modificadosDuranteReconstruccion;
+    private volatile boolean listo;
+
+    @Override
+    public boolean estaListo() {
+        return listo;
+    }
+
+    @Override
+    public boolean existe(Long libroId) {
+        cerrojo.readLock().lock();
+        try {
+            return existentes.contains(libroId);
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean disponible(Long libroId) {
+        cerrojo.readLock().lock();
+        try {
+            return disponibles.contains(libroId);
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void actualizar(Long libroId, int ejemplaresDisponibles) {
+        alConfirmar(() -> aplicar(Map.of(libroId, ejemplaresDisponibles)));
+    }
+
+    @Override
+    public void actualizar(Map<Long, Integer> ejemplaresPorLibro) {
+        if (!ejemplaresPorLibro.isEmpty()) {
+            alConfirmar(() -> aplicar(ejemplaresPorLibro));
+        }
+    }
+
+    @Override
+    public void indexarSiAusentes(Map<Long, Integer> ejemplaresPorLibro) {
+        if (!ejemplaresPorLibro.isEmpty()) {
+            alConfirmar(() -> rellenar(ejemplaresPorLibro));
+        }
+    }
+
+    @Override
+    public void eliminar(Long libroId) {
+        alConfirmar(() -> {
+            cerrojo.writeLock().lock();
+            try {
+                existentes.removeLong(libroId);
+                disponibles.removeLong(libroId);
+                marcarModificado(libroId);
+            } finally {
+                cerrojo.writeLock().unlock();
+            }
+        });
+    }
+
+    @Override
+    public synchronized void reconstruir() {
+        long inicio = System.nanoTime();
+        cerrojo.writeLock().lock();
+        try {
+            modificadosDuranteReconstruccion = new Roaring64Bitmap();
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+
+        Roaring64Bitmap nuevosExistentes = new Roaring64Bitmap();
+        Roaring64Bitmap nuevosDisponibles = new Roaring64Bitmap();
+        try {
+            libroRepository.recorrerEjemplares((libroId, ejemplares) -> {
+                nuevosExistentes.addLong(libroId);
+                if (ejemplares > 0) {
+                    nuevosDisponibles.addLong(libroId);
+                }
+            });
+        } catch (RuntimeException e) {
+            cerrojo.writeLock().lock();
+            try {
+                modificadosDuranteReconstruccion = null;
+            } finally {
+                cerrojo.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        cerrojo.writeLock().lock();
+        try {
+            // Lo que cambió durante el recorrido está al día en el índice actual, no en el nuevo
+            modificadosDuranteReconstruccion.forEach(libroId -> {
+                copiarBit(existentes, nuevosExistentes, libroId);
+                copiarBit(disponibles, nuevosDisponibles, libroId);
+            });
+            nuevosExistentes.runOptimize();
+            nuevosDisponibles.runOptimize();
+            existentes = nuevosExistentes;
+            disponibles = nuevosDisponibles;
+            modificadosDuranteReconstruccion = null;
+            listo = true;
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+
+        log.info("Índice de libros reconstruido en {} ms: {} existentes, {} disponibles, {} bytes",
+                (System.nanoTime() - inicio) / 1_000_000,
+                nuevosExistentes.getLongCardinality(), nuevosDisponibles.getLongCardinality(),
+                nuevosExistentes.getLongSizeInBytes() + nuevosDisponibles.getLongSizeInBytes());
+    }
+
+    private void aplicar(Map<Long, Integer> ejemplaresPorLibro) {
+        cerrojo.writeLock().lock();
+        try {
+            ejemplaresPorLibro.forEach((libroId, ejemplares) -> {
+                existentes.addLong(libroId);
+                if (ejemplares > 0) {
+                    disponibles.addLong(libroId);
+                } else {
+                    disponibles.removeLong(libroId);
+                }
+                marcarModificado(libroId);
+            });
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    // No marca los libros como modificados: si hay una reconstrucción en curso, su recorrido manda
+    private void rellenar(Map<Long, Integer> ejemplaresPorLibro) {
+        cerrojo.writeLock().lock();
+        try {
+            ejemplaresPorLibro.forEach((libroId, ejemplares) -> {
+                if (existentes.contains(libroId)) {
+                    return;
+                }
+                existentes.addLong(libroId);
+                if (ejemplares > 0) {
+                    disponibles.addLong(libroId);
+                }
+            });
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    private void marcarModificado(long libroId) {
+        if (modificadosDuranteReconstruccion != null) {
+            modificadosDuranteReconstruccion.addLong(libroId);
+        }
+    }
+
+    private static void copiarBit(Roaring64Bitmap origen, Roaring64Bitmap destino, long libroId) {
+        if (origen.contains(libroId)) {
+            destino.addLong(libroId);
+        } else {
+            destino.removeLong(libroId);
+        }
+    }
+
+    private static void alConfirmar(Runnable cambio) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cambio.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cambio.run();
+            }
+        });
+    }
+}
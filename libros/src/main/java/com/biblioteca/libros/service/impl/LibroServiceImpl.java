@@ -1,25 +1,35 @@
 package com.biblioteca.libros.service.impl;
 
+import com.biblioteca.libros.dto.DisponibilidadLibroDTO;
 import com.biblioteca.libros.dto.LibroRequestDTO;
 import com.biblioteca.libros.dto.LibroResponseDTO;
 import com.biblioteca.libros.exception.IsbnDuplicadoException;
 import com.biblioteca.libros.exception.LibroNotFoundException;
 import com.biblioteca.libros.exception.LibroNoDisponibleException;
+import com.biblioteca.libros.exception.LoteDemasiadoGrandeException;
 import com.biblioteca.libros.model.entity.Libro;
+import com.biblioteca.libros.observabilidad.ConsultaCacheEvent;
 import com.biblioteca.libros.repository.LibroRepository;
+import com.biblioteca.libros.service.IndiceLibrosService;
 import com.biblioteca.libros.service.LibroService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class LibroServiceImpl implements LibroService {
 
+    // Tope de IDs por consulta en lote: los clientes envían como mucho 200 (un lote de préstamos)
+    static final int MAX_IDS_POR_CONSULTA = 500;
+
     private final LibroRepository libroRepository;
+    private final IndiceLibrosService indiceLibros;
 
     @Override
     @Transactional
@@ -37,15 +47,14 @@ public class LibroServiceImpl implements LibroService {
                 .build();
 
         Libro libroGuardado = libroRepository.save(libro);
+        indiceLibros.actualizar(libroGuardado.getId(), libroGuardado.getEjemplaresDisponibles());
         return mapToResponseDTO(libroGuardado);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<LibroResponseDTO> obtenerTodosLibros() {
-        return libroRepository.findAll()
-                .stream()
-                .map(this::mapToResponseDTO)
-                .collect(Collectors.toList());
+        return libroRepository.listarTodos();
     }
 
     @Override
@@ -55,6 +64,14 @@ public class LibroServiceImpl implements LibroService {
         return mapToResponseDTO(libro);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<LibroResponseDTO> obtenerLibrosPorIds(List<Long> ids) {
+        validarTamanoLote(ids);
+        // Los IDs inexistentes se omiten: el cliente decide cómo tratarlos
+        return libroRepository.listarPorIds(ids);
+    }
+
     @Override
     @Transactional
     public LibroResponseDTO actualizarLibro(Long id, LibroRequestDTO libroRequestDTO) {
@@ -77,6 +94,7 @@ public class LibroServiceImpl implements LibroService {
 
         // 4. Guardar cambios
         Libro libroActualizado = libroRepository.save(libroExistente);
+        indiceLibros.actualizar(id, libroActualizado.getEjemplaresDisponibles());
 
         // 5. Retornar DTO
         return mapToResponseDTO(libroActualizado);
@@ -89,20 +107,59 @@ public class LibroServiceImpl implements LibroService {
             throw new LibroNotFoundException("Libro no encontrado con ID: " + id);
         }
         libroRepository.deleteById(id);
+        indiceLibros.eliminar(id);
     }
 
     @Override
     public boolean existeLibro(Long id) {
-        return libroRepository.existsById(id);
+        // Un "no" del índice se confirma: el libro puede haberse creado en otra instancia
+        // después de la última reconstrucción
+        if (enIndice(id)) {
+            return true;
+        }
+        return buscarYIndexar(id).isPresent();
     }
 
     @Override
     public boolean libroDisponible(Long id) {
-        return libroRepository.findById(id)
+        if (enIndice(id)) {
+            return indiceLibros.disponible(id);
+        }
+        return buscarYIndexar(id)
                 .map(Libro::estaDisponible)
                 .orElse(false);
     }
 
+    private boolean enIndice(Long id) {
+        ConsultaCacheEvent consulta = ConsultaCacheEvent.iniciar("indice", id);
+        return consulta.terminar(indiceLibros.existe(id));
+    }
+
+    @Override
+    public List<DisponibilidadLibroDTO> consultarDisponibilidad(List<Long> ids) {
+        validarTamanoLote(ids);
+        // Una sola consulta para los IDs que el índice no conoce
+        List<Long> desconocidos = ids.stream()
+                .filter(id -> !indiceLibros.existe(id))
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, Integer> ejemplares = libroRepository.ejemplaresPorIds(desconocidos);
+        indiceLibros.indexarSiAusentes(ejemplares);
+
+        return ids.stream()
+                .map(id -> {
+                    Integer enBaseDeDatos = ejemplares.get(id);
+                    boolean existe = enBaseDeDatos != null || indiceLibros.existe(id);
+                    boolean disponible = enBaseDeDatos != null ? enBaseDeDatos > 0 : existe && indiceLibros.disponible(id);
+                    return DisponibilidadLibroDTO.builder()
+                            .id(id)
+                            .existe(existe)
+                            .disponible(disponible)
+                            .build();
+                })
+                .collect(Collectors.toList());
+    }
+
     @Override
     @Transactional
     public boolean prestarLibro(Long id) {
@@ -116,6 +173,7 @@ public class LibroServiceImpl implements LibroService {
         boolean prestado = libro.prestarEjemplar();
         if (prestado) {
             libroRepository.save(libro);
+            indiceLibros.actualizar(id, libro.getEjemplaresDisponibles());
         }
         return prestado;
     }
@@ -128,6 +186,7 @@ public class LibroServiceImpl implements LibroService {
 
         libro.devolverEjemplar();
         libroRepository.save(libro);
+        indiceLibros.actualizar(id, libro.getEjemplaresDisponibles());
     }
 
     @Override
@@ -142,10 +201,24 @@ public class LibroServiceImpl implements LibroService {
 
         libro.setEjemplaresDisponibles(nuevaCantidad);
         Libro libroActualizado = libroRepository.save(libro);
+        indiceLibros.actualizar(id, nuevaCantidad);
 
         return mapToResponseDTO(libroActualizado);
     }
 
+    private Optional<Libro> buscarYIndexar(Long id) {
+        Optional<Libro> libro = libroRepository.findById(id);
+        libro.ifPresent(l -> indiceLibros.indexarSiAusentes(Map.of(l.getId(), l.getEjemplaresDisponibles())));
+        return libro;
+    }
+
+    private static void validarTamanoLote(List<Long> ids) {
+        if (ids.size() > MAX_IDS_POR_CONSULTA) {
+            throw new LoteDemasiadoGrandeException(String.format(
+                    "Se pidieron %d IDs; el máximo por consulta es %d", ids.size(), MAX_IDS_POR_CONSULTA));
+        }
+    }
+
     // Helper method
     private LibroResponseDTO mapToResponseDTO(Libro libro) {
         LibroResponseDTO dto = new LibroResponseDTO();
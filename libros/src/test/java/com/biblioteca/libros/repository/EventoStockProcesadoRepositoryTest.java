@@ -0,0 +1,51 @@
+package com.biblioteca.libros.repository;
+
+import com.biblioteca.libros.model.entity.EventoStockProcesado;
+import com.biblioteca.libros.model.enums.TipoEventoStock;
+import com.biblioteca.libros.repository.EventoStockProcesadoRepository.EventoProcesado;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@DisplayName("Pruebas de las marcas de eventos de stock procesados")
+class EventoStockProcesadoRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EventoStockProcesadoRepository eventoRepository;
+
+    @Test
+    @DisplayName("Debería devolver si cada evento ya procesado se aplicó o se rechazó")
+    void findEventosProcesados_DevuelveAplicado() {
+        marcar("e1", true);
+        marcar("e2", false);
+        entityManager.flush();
+
+        assertThat(eventoRepository.findEventosProcesados(List.of("e1", "e2", "e3")))
+                .extracting(EventoProcesado::getEventoId, EventoProcesado::isAplicado)
+                .containsExactlyInAnyOrder(tuple("e1", true), tuple("e2", false));
+    }
+
+    private void marcar(String eventoId, boolean aplicado) {
+        entityManager.persist(EventoStockProcesado.builder()
+                .eventoId(eventoId)
+                .tipo(TipoEventoStock.LIBRO_PRESTADO)
+                .libroId(1L)
+                .aplicado(aplicado)
+                .fechaProcesado(LocalDateTime.now())
+                .build());
+    }
+}
@@ -0,0 +1,110 @@
+package com.biblioteca.libros.repository;
+
+import com.biblioteca.libros.model.entity.Libro;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Sin transacción de test: la caché de segundo nivel solo se llena con transacciones confirmadas
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Pruebas de la caché de segundo nivel de Libro")
+class LibroCacheTest {
+
+    @Autowired
+    private LibroRepository libroRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics estadisticas;
+    private Libro libro;
+
+    @BeforeEach
+    void setUp() {
+        libroRepository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+        libro = libroRepository.save(Libro.builder()
+                .titulo("La Regenta")
+                .autor("Leopoldo Alas")
+                .isbn("978-8420674087")
+                .ejemplaresDisponibles(2)
+                .build());
+
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        libroRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Debería servir findById desde la caché tras la primera lectura")
+    void testFindById_DesdeCache() {
+        // When
+        libroRepository.findById(libro.getId());
+        libroRepository.findById(libro.getId());
+
+        // Then
+        assertThat(estadisticas.getDomainDataRegionStatistics("libros").getHitCount()).isGreaterThanOrEqualTo(1);
+        assertThat(estadisticas.getPrepareStatementCount()).isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Debería resolver findByIsbn con la caché de natural-id")
+    void testFindByIsbn_DesdeCache() {
+        // Given
+        libroRepository.findByIsbn(libro.getIsbn());
+        estadisticas.clear();
+
+        // When
+        boolean existe = libroRepository.existsByIsbn(libro.getIsbn());
+
+        // Then
+        assertThat(existe).isTrue();
+        assertThat(estadisticas.getNaturalIdCacheHitCount()).isEqualTo(1);
+        assertThat(estadisticas.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Debería desalojar solo el libro afectado por un cambio de stock")
+    void testDecrementarEjemplares_Desaloja() {
+        // Given
+        Libro otro = libroRepository.save(Libro.builder()
+                .titulo("Fortunata y Jacinta")
+                .autor("Benito Pérez Galdós")
+                .isbn("978-8437609348")
+                .ejemplaresDisponibles(1)
+                .build());
+        libroRepository.findById(libro.getId());
+        libroRepository.findById(otro.getId());
+
+        // When
+        new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> libroRepository.decrementarEjemplares(libro.getId()));
+
+        // Then
+        assertThat(entityManagerFactory.getCache().contains(Libro.class, libro.getId())).isFalse();
+        assertThat(entityManagerFactory.getCache().contains(Libro.class, otro.getId())).isTrue();
+        assertThat(libroRepository.findById(libro.getId()).orElseThrow().getEjemplaresDisponibles()).isEqualTo(1);
+    }
+}
@@ -1,6 +1,8 @@
 package com.biblioteca.libros.repository;
 
+import com.biblioteca.libros.dto.LibroResponseDTO;
 import com.biblioteca.libros.model.entity.Libro;
+import org.hibernate.Session;
 import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -17,6 +19,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.jupiter.api.Assertions.*;
 
 @DataJpaTest
@@ -84,6 +87,37 @@ class LibroRepositoryTest {
                 .containsExactlyInAnyOrder("Cien Años de Soledad", "Rayuela");
     }
 
+    @Test
+    @DisplayName("Debería listar los libros como DTO sin cargar entidades en el contexto de persistencia")
+    void testListarTodos() {
+        // Given
+        libro2.setEjemplaresDisponibles(0);
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        List<LibroResponseDTO> libros = libroRepository.listarTodos();
+
+        // Then
+        assertThat(libros).extracting(LibroResponseDTO::getTitulo, LibroResponseDTO::isDisponible)
+                .containsExactlyInAnyOrder(
+                        tuple("Cien Años de Soledad", true),
+                        tuple("Rayuela", false));
+        assertEquals(0, entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    @DisplayName("Debería listar como DTO solo los IDs existentes")
+    void testListarPorIds() {
+        // When
+        List<LibroResponseDTO> libros = libroRepository.listarPorIds(List.of(libro1.getId(), 999L));
+
+        // Then
+        assertThat(libros).hasSize(1);
+        assertEquals(libro1.getIsbn(), libros.get(0).getIsbn());
+        assertEquals(5, libros.get(0).getEjemplaresDisponibles());
+    }
+
     @Test
     @DisplayName("Debería guardar un nuevo libro")
     void testSave() {
@@ -0,0 +1,168 @@
+package com.biblioteca.libros.service;
+
+import com.biblioteca.libros.dto.EventoStockDTO;
+import com.biblioteca.libros.dto.EventoStockResultadoDTO;
+import com.biblioteca.libros.model.entity.EventoStockProcesado;
+import com.biblioteca.libros.model.enums.TipoEventoStock;
+import com.biblioteca.libros.repository.EventoStockProcesadoRepository;
+import com.biblioteca.libros.repository.EventoStockProcesadoRepository.EventoProcesado;
+import com.biblioteca.libros.repository.LibroRepository;
+import com.biblioteca.libros.service.impl.EventoStockServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas de la aplicación de eventos de stock")
+class EventoStockServiceTest {
+
+    @Mock
+    private LibroRepository libroRepository;
+
+    @Mock
+    private EventoStockProcesadoRepository eventoRepository;
+
+    @Mock
+    private IndiceLibrosService indiceLibros;
+
+    @InjectMocks
+    private EventoStockServiceImpl eventoStockService;
+
+    @Test
+    @DisplayName("Debería aplicar préstamos y devoluciones del lote")
+    void testAplicarEventos_Success() {
+        // Given
+        when(eventoRepository.findEventosProcesados(anyCollection())).thenReturn(List.of());
+        when(libroRepository.decrementarEjemplares(1L)).thenReturn(1);
+        when(libroRepository.incrementarEjemplares(2L, 1)).thenReturn(1);
+
+        // When
+        EventoStockResultadoDTO resultado = eventoStockService.aplicarEventos(List.of(
+                evento("e1", TipoEventoStock.LIBRO_PRESTADO, 1L),
+                evento("e2", TipoEventoStock.LIBRO_DEVUELTO, 2L)));
+
+        // Then
+        assertThat(resultado.getAplicados()).isEqualTo(2);
+        assertThat(resultado.getDuplicados()).isZero();
+        assertThat(resultado.getRechazados()).isEmpty();
+        verify(eventoRepository).saveAll(argThat(marcas -> ((List<?>) marcas).size() == 2));
+    }
+
+    @Test
+    @DisplayName("Debería ignorar eventos ya procesados o repetidos en el lote")
+    void testAplicarEventos_Duplicados() {
+        // Given
+        when(eventoRepository.findEventosProcesados(anyCollection())).thenReturn(List.of(procesado("e1", true)));
+        when(libroRepository.decrementarEjemplares(1L)).thenReturn(1);
+
+        // When
+        EventoStockResultadoDTO resultado = eventoStockService.aplicarEventos(List.of(
+                evento("e1", TipoEventoStock.LIBRO_PRESTADO, 1L),
+                evento("e2", TipoEventoStock.LIBRO_PRESTADO, 1L),
+                evento("e2", TipoEventoStock.LIBRO_PRESTADO, 1L)));
+
+        // Then
+        assertThat(resultado.getAplicados()).isEqualTo(1);
+        assertThat(resultado.getDuplicados()).isEqualTo(2);
+        verify(libroRepository, times(1)).decrementarEjemplares(1L);
+    }
+
+    @Test
+    @DisplayName("Debería rechazar el préstamo de un libro sin ejemplares")
+    void testAplicarEventos_SinEjemplares() {
+        // Given
+        when(eventoRepository.findEventosProcesados(anyCollection())).thenReturn(List.of());
+        when(libroRepository.decrementarEjemplares(1L)).thenReturn(0);
+
+        // When
+        EventoStockResultadoDTO resultado = eventoStockService.aplicarEventos(List.of(
+                evento("e1", TipoEventoStock.LIBRO_PRESTADO, 1L)));
+
+        // Then
+        assertThat(resultado.getAplicados()).isZero();
+        assertThat(resultado.getRechazados()).containsExactly("e1");
+        verify(eventoRepository).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Debería agrupar las devoluciones de un mismo libro en una sola actualización")
+    void testAplicarEventos_DevolucionesAgregadas() {
+        // Given
+        when(eventoRepository.findEventosProcesados(anyCollection())).thenReturn(List.of());
+        when(libroRepository.incrementarEjemplares(1L, 3)).thenReturn(1);
+
+        // When
+        EventoStockResultadoDTO resultado = eventoStockService.aplicarEventos(List.of(
+                evento("e1", TipoEventoStock.LIBRO_DEVUELTO, 1L),
+                evento("e2", TipoEventoStock.LIBRO_DEVUELTO, 1L),
+                evento("e3", TipoEventoStock.LIBRO_DEVUELTO, 1L)));
+
+        // Then
+        assertThat(resultado.getAplicados()).isEqualTo(3);
+        verify(libroRepository, times(1)).incrementarEjemplares(1L, 3);
+    }
+
+    @Test
+    @DisplayName("Debería volver a informar del rechazo cuando el relay reenvía el mismo lote")
+    void testAplicarEventos_RechazoReenviado() {
+        // Given: las marcas guardadas en la primera entrega se leen en la segunda
+        List<EventoStockProcesado> marcas = new ArrayList<>();
+        when(eventoRepository.saveAll(anyList())).thenAnswer(inv -> {
+            marcas.addAll(inv.getArgument(0));
+            return inv.getArgument(0);
+        });
+        when(eventoRepository.findEventosProcesados(anyCollection())).thenAnswer(inv -> marcas.stream()
+                .map(marca -> procesado(marca.getEventoId(), marca.isAplicado()))
+                .toList());
+        when(libroRepository.decrementarEjemplares(1L)).thenReturn(0);
+        when(libroRepository.decrementarEjemplares(2L)).thenReturn(1);
+        List<EventoStockDTO> lote = List.of(
+                evento("e1", TipoEventoStock.LIBRO_PRESTADO, 1L),
+                evento("e2", TipoEventoStock.LIBRO_PRESTADO, 2L));
+
+        // When: préstamos no llegó a registrar la respuesta y reenvía el lote
+        EventoStockResultadoDTO primera = eventoStockService.aplicarEventos(lote);
+        EventoStockResultadoDTO segunda = eventoStockService.aplicarEventos(lote);
+
+        // Then
+        assertThat(primera.getRechazados()).containsExactly("e1");
+        assertThat(segunda.getRechazados()).containsExactly("e1");
+        assertThat(segunda.getAplicados()).isZero();
+        assertThat(segunda.getDuplicados()).isEqualTo(2);
+        verify(libroRepository, times(1)).decrementarEjemplares(1L);
+        verify(libroRepository, times(1)).decrementarEjemplares(2L);
+    }
+
+    private static EventoProcesado procesado(String eventoId, boolean aplicado) {
+        return new EventoProcesado() {
+            @Override
+            public String getEventoId() {
+                return eventoId;
+            }
+
+            @Override
+            public boolean isAplicado() {
+                return aplicado;
+            }
+        };
+    }
+
+    private EventoStockDTO evento(String eventoId, TipoEventoStock tipo, Long libroId) {
+        return EventoStockDTO.builder()
+                .eventoId(eventoId)
+                .tipo(tipo)
+                .libroId(libroId)
+                .prestamoId(10L)
+                .build();
+    }
+}
@@ -0,0 +1,129 @@
+package com.biblioteca.libros.service;
+
+import com.biblioteca.libros.repository.LibroRepository;
+import com.biblioteca.libros.service.impl.IndiceLibrosServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas del índice de disponibilidad de libros")
+class IndiceLibrosServiceTest {
+
+    @Mock
+    private LibroRepository libroRepository;
+
+    @InjectMocks
+    private IndiceLibrosServiceImpl indiceLibros;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Debería reflejar existencia y stock tras la reconstrucción")
+    void testReconstruir() {
+        // Given
+        stockEnBaseDeDatos(Map.of(1L, 3, 2L, 0));
+
+        // When
+        indiceLibros.reconstruir();
+
+        // Then
+        assertThat(indiceLibros.estaListo()).isTrue();
+        assertThat(indiceLibros.existe(1L)).isTrue();
+        assertThat(indiceLibros.disponible(1L)).isTrue();
+        assertThat(indiceLibros.existe(2L)).isTrue();
+        assertThat(indiceLibros.disponible(2L)).isFalse();
+        assertThat(indiceLibros.existe(3L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Debería aplicar actualizaciones y bajas sin transacción")
+    void testActualizarYEliminar() {
+        // When
+        indiceLibros.actualizar(5L, 1);
+        indiceLibros.actualizar(Map.of(6L, 2, 5L, 0));
+        indiceLibros.eliminar(6L);
+
+        // Then
+        assertThat(indiceLibros.existe(5L)).isTrue();
+        assertThat(indiceLibros.disponible(5L)).isFalse();
+        assertThat(indiceLibros.existe(6L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Una lectura antigua no debería pisar el stock ya publicado por una transacción")
+    void testIndexarSiAusentes_NoPisaLoPublicado() {
+        // Given: la lectura vio 3 ejemplares, pero antes de indexarla se confirmó un préstamo del último
+        indiceLibros.actualizar(5L, 0);
+
+        // When
+        indiceLibros.indexarSiAusentes(Map.of(5L, 3, 6L, 2));
+
+        // Then
+        assertThat(indiceLibros.disponible(5L)).isFalse();
+        assertThat(indiceLibros.existe(6L)).isTrue();
+        assertThat(indiceLibros.disponible(6L)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Debería esperar a la confirmación de la transacción para aplicar cambios")
+    void testActualizar_AlConfirmar() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        indiceLibros.actualizar(7L, 2);
+
+        // Then
+        assertThat(indiceLibros.existe(7L)).isFalse();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(indiceLibros.disponible(7L)).isTrue();
+    }
+
+    @Test
+    @DisplayName("No debería perder los cambios hechos durante una reconstrucción")
+    void testReconstruir_CambiosConcurrentes() {
+        // Given: mientras se recorre la tabla se presta el último ejemplar del libro 1 y se crea el 9
+        doAnswer(invocation -> {
+            BiConsumer<Long, Integer> consumidor = invocation.getArgument(0);
+            indiceLibros.actualizar(1L, 0);
+            indiceLibros.actualizar(9L, 4);
+            consumidor.accept(1L, 1);
+            return null;
+        }).when(libroRepository).recorrerEjemplares(any());
+
+        // When
+        indiceLibros.reconstruir();
+
+        // Then
+        assertThat(indiceLibros.existe(1L)).isTrue();
+        assertThat(indiceLibros.disponible(1L)).isFalse();
+        assertThat(indiceLibros.disponible(9L)).isTrue();
+    }
+
+    private void stockEnBaseDeDatos(Map<Long, Integer> ejemplares) {
+        doAnswer(invocation -> {
+            BiConsumer<Long, Integer> consumidor = invocation.getArgument(0);
+            ejemplares.forEach(consumidor);
+            return null;
+        }).when(libroRepository).recorrerEjemplares(any());
+    }
+}
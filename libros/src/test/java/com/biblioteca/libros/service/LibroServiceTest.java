@@ -1,10 +1,12 @@
 package com.biblioteca.libros.service;
 
+import com.biblioteca.libros.dto.DisponibilidadLibroDTO;
 import com.biblioteca.libros.dto.LibroRequestDTO;
 import com.biblioteca.libros.dto.LibroResponseDTO;
 import com.biblioteca.libros.exception.IsbnDuplicadoException;
 import com.biblioteca.libros.exception.LibroNoDisponibleException;
 import com.biblioteca.libros.exception.LibroNotFoundException;
+import com.biblioteca.libros.exception.LoteDemasiadoGrandeException;
 import com.biblioteca.libros.model.entity.Libro;
 import com.biblioteca.libros.repository.LibroRepository;
 import com.biblioteca.libros.service.impl.LibroServiceImpl;
@@ -19,7 +21,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -34,6 +38,9 @@ class LibroServiceTest {
     @Mock
     private LibroRepository libroRepository;
 
+    @Mock
+    private IndiceLibrosService indiceLibros;
+
     @InjectMocks
     private LibroServiceImpl libroService;
 
@@ -102,16 +109,10 @@ class LibroServiceTest {
     @DisplayName("Debería obtener todos los libros")
     void testObtenerTodosLibros() {
         // Given
-        Libro libro2 = Libro.builder()
-                .id(2L)
-                .titulo("Rayuela")
-                .autor("Julio Cortázar")
-                .isbn("978-8437604572")
-                .ejemplaresDisponibles(0)
-                .build();
-
-        List<Libro> libros = Arrays.asList(libro, libro2);
-        when(libroRepository.findAll()).thenReturn(libros);
+        List<LibroResponseDTO> libros = Arrays.asList(
+                new LibroResponseDTO(1L, "Cien Años de Soledad", "Gabriel García Márquez", "978-0307474728", 5),
+                new LibroResponseDTO(2L, "Rayuela", "Julio Cortázar", "978-8437604572", 0));
+        when(libroRepository.listarTodos()).thenReturn(libros);
 
         // When
         List<LibroResponseDTO> resultado = libroService.obtenerTodosLibros();
@@ -123,7 +124,8 @@ class LibroServiceTest {
         assertThat(resultado).extracting(LibroResponseDTO::isDisponible)
                 .containsExactly(true, false);
 
-        verify(libroRepository).findAll();
+        verify(libroRepository).listarTodos();
+        verify(libroRepository, never()).findAll();
     }
 
     @Test
@@ -160,6 +162,34 @@ class LibroServiceTest {
         verify(libroRepository).findById(999L);
     }
 
+    @Test
+    @DisplayName("Debería obtener varios libros en una sola consulta")
+    void testObtenerLibrosPorIds_Success() {
+        // Given
+        when(libroRepository.listarPorIds(List.of(1L, 999L)))
+                .thenReturn(List.of(new LibroResponseDTO(1L, "Cien Años de Soledad", "Gabriel García Márquez", "978-0307474728", 5)));
+
+        // When
+        List<LibroResponseDTO> resultado = libroService.obtenerLibrosPorIds(List.of(1L, 999L));
+
+        // Then
+        assertThat(resultado).hasSize(1);
+        assertEquals(libro.getId(), resultado.get(0).getId());
+        verify(libroRepository).listarPorIds(List.of(1L, 999L));
+    }
+
+    @Test
+    @DisplayName("Debería rechazar un lote con más IDs de los permitidos")
+    void testObtenerLibrosPorIds_DemasiadosIds() {
+        // Given
+        List<Long> ids = LongStream.rangeClosed(1, 501).boxed().toList();
+
+        // When & Then
+        assertThrows(LoteDemasiadoGrandeException.class, () -> libroService.obtenerLibrosPorIds(ids));
+        assertThrows(LoteDemasiadoGrandeException.class, () -> libroService.consultarDisponibilidad(ids));
+        verifyNoInteractions(libroRepository);
+    }
+
     @Test
     @DisplayName("Debería actualizar un libro exitosamente cuando ISBN no cambia")
     void testActualizarLibro_Success_MismoIsbn() {
@@ -294,28 +324,28 @@ class LibroServiceTest {
     @DisplayName("Debería verificar que un libro existe (true)")
     void testExisteLibro_True() {
         // Given
-        when(libroRepository.existsById(anyLong())).thenReturn(true);
+        when(libroRepository.findById(anyLong())).thenReturn(Optional.of(libro));
 
         // When
         boolean existe = libroService.existeLibro(1L);
 
         // Then
         assertTrue(existe);
-        verify(libroRepository).existsById(1L);
+        verify(libroRepository).findById(1L);
     }
 
     @Test
     @DisplayName("Debería verificar que un libro NO existe (false)")
     void testExisteLibro_False() {
         // Given
-        when(libroRepository.existsById(anyLong())).thenReturn(false);
+        when(libroRepository.findById(anyLong())).thenReturn(Optional.empty());
 
         // When
         boolean existe = libroService.existeLibro(999L);
 
         // Then
         assertFalse(existe);
-        verify(libroRepository).existsById(999L);
+        verify(libroRepository).findById(999L);
     }
 
     @Test
@@ -361,6 +391,43 @@ class LibroServiceTest {
         verify(libroRepository).findById(999L);
     }
 
+    @Test
+    @DisplayName("Debería responder la disponibilidad desde el índice sin consultar el repositorio")
+    void testLibroDisponible_DesdeIndice() {
+        // Given
+        when(indiceLibros.existe(1L)).thenReturn(true);
+        when(indiceLibros.disponible(1L)).thenReturn(true);
+
+        // When
+        boolean disponible = libroService.libroDisponible(1L);
+
+        // Then
+        assertTrue(disponible);
+        verifyNoInteractions(libroRepository);
+    }
+
+    @Test
+    @DisplayName("Debería consultar en la base de datos solo los IDs que el índice no conoce")
+    void testConsultarDisponibilidad() {
+        // Given
+        when(indiceLibros.existe(1L)).thenReturn(true);
+        when(indiceLibros.disponible(1L)).thenReturn(false);
+        when(libroRepository.ejemplaresPorIds(List.of(2L, 3L))).thenReturn(Map.of(2L, 4));
+
+        // When
+        List<DisponibilidadLibroDTO> resultado = libroService.consultarDisponibilidad(List.of(1L, 2L, 3L, 2L));
+
+        // Then
+        assertEquals(4, resultado.size());
+        assertTrue(resultado.get(0).isExiste());
+        assertFalse(resultado.get(0).isDisponible());
+        assertTrue(resultado.get(1).isDisponible());
+        assertFalse(resultado.get(2).isExiste());
+        assertTrue(resultado.get(3).isDisponible());
+        verify(indiceLibros).indexarSiAusentes(Map.of(2L, 4));
+        verify(libroRepository, never()).findById(anyLong());
+    }
+
     @Test
     @DisplayName("Debería prestar un libro exitosamente (retorna true)")
     void testPrestarLibro_Success() {
@@ -524,7 +591,7 @@ class LibroServiceTest {
     @DisplayName("Debería retornar lista vacía cuando no hay libros")
     void testObtenerTodosLibros_ListaVacia() {
         // Given
-        when(libroRepository.findAll()).thenReturn(List.of());
+        when(libroRepository.listarTodos()).thenReturn(List.of());
 
         // When
         List<LibroResponseDTO> resultado = libroService.obtenerTodosLibros();
@@ -532,7 +599,7 @@ class LibroServiceTest {
         // Then
         assertNotNull(resultado);
         assertTrue(resultado.isEmpty());
-        verify(libroRepository).findAll();
+        verify(libroRepository).listarTodos();
     }
 
     @Test
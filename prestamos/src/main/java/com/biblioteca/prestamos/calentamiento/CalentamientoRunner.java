@@ -0,0 +1,254 @@
+package com.biblioteca.prestamos.calentamiento;
+
+import com.biblioteca.comun.calentamiento.CalentamientoAutoConfiguration;
+import com.biblioteca.comun.calentamiento.CalentamientoProperties;
+import com.biblioteca.comun.calentamiento.Precarga;
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.pool.ConnectionPool;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Spring Boot no pasa readiness a ACCEPTING_TRAFFIC hasta que terminan los ApplicationRunner: el
+// calentamiento corre con el puerto abierto pero sin tráfico del gateway ni del balanceador.
+//   1. Llena los pools de conexiones (Hikari y R2DBC) hasta su mínimo.
+//   2. Carga el conjunto caliente (Precarga).
+//   3. Reproduce las peticiones GET de biblioteca.calentamiento.peticiones contra la propia
+//      instancia, para que el JIT compile el camino de las peticiones reales.
+// Ningún paso impide arrancar: un fallo se registra y se pasa al siguiente.
+@Slf4j
+@Component
+public class CalentamientoRunner implements ApplicationRunner {
+
+    private static final Pattern MARCADOR = Pattern.compile("\\{(\\w+)}");
+
+    private final CalentamientoProperties properties;
+    private final ObjectProvider<DataSource> dataSources;
+    private final ObjectProvider<ConnectionPool> poolsReactivos;
+    private final ObjectProvider<Precarga> precargas;
+    private final ResourceLoader resourceLoader;
+    private final Environment environment;
+
+    public CalentamientoRunner(CalentamientoProperties properties,
+                               ObjectProvider<DataSource> dataSources,
+                               ObjectProvider<ConnectionPool> poolsReactivos,
+                               ObjectProvider<Precarga> precargas,
+                               ResourceLoader resourceLoader,
+                               Environment environment) {
+        this.properties = properties;
+        this.dataSources = dataSources;
+        this.poolsReactivos = poolsReactivos;
+        this.precargas = precargas;
+        this.resourceLoader = resourceLoader;
+        this.environment = environment;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isHabilitado()) {
+            return;
+        }
+        long inicio = System.nanoTime();
+        long limite = inicio + properties.getDuracionMaxima().toNanos();
+
+        llenarPools();
+        Map<String, List<Long>> ids = precargar();
+        long finPrecarga = System.nanoTime();
+        // Sin servidor (tests con MockMvc) no hay a quién enviar las peticiones
+        Integer puerto = environment.getProperty("local.server.port", Integer.class);
+        int enviadas = puerto == null ? 0 : reproducir(puerto, ids, limite);
+
+        log.info("Calentamiento terminado en {} ms: pools y conjunto caliente en {} ms ({}), {} peticiones reproducidas",
+                (System.nanoTime() - inicio) / 1_000_000, (finPrecarga - inicio) / 1_000_000, resumen(ids), enviadas);
+    }
+
+    // Abre a la vez tantas conexiones como el mínimo de cada pool y las devuelve: quedan creadas
+    private void llenarPools() {
+        for (HikariDataSource pool : poolsHikari()) {
+            int objetivo = pool.getMinimumIdle() < 0
+                    ? pool.getMaximumPoolSize() : Math.min(pool.getMinimumIdle(), pool.getMaximumPoolSize());
+            List<Connection> abiertas = new ArrayList<>(objetivo);
+            try {
+                for (int i = 0; i < objetivo; i++) {
+                    abiertas.add(pool.getConnection());
+                }
+            } catch (SQLException e) {
+                log.warn("No se pudo llenar el pool {}: {}", pool.getPoolName(), e.getMessage());
+            } finally {
+                abiertas.forEach(JdbcUtils::closeConnection);
+            }
+        }
+        poolsReactivos.orderedStream().forEach(pool -> {
+            try {
+                pool.warmup().block(properties.getDuracionMaxima());
+            } catch (RuntimeException e) {
+                log.warn("No se pudo llenar el pool R2DBC: {}", e.getMessage());
+            }
+        });
+    }
+
+    // Los DataSource pueden venir envueltos (trazas JDBC) o enrutar entre primaria y réplica
+    private Set<HikariDataSource> poolsHikari() {
+        Set<HikariDataSource> pools = Collections.newSetFromMap(new IdentityHashMap<>());
+        dataSources.orderedStream().forEach(dataSource -> {
+            try {
+                if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                    pools.add(dataSource.unwrap(HikariDataSource.class));
+                }
+            } catch (SQLException e) {
+                log.debug("DataSource sin pool Hikari: {}", e.getMessage());
+            }
+        });
+        return pools;
+    }
+
+    private Map<String, List<Long>> precargar() {
+        Map<String, List<Long>> ids = new HashMap<>();
+        precargas.orderedStream().forEach(precarga -> {
+            try {
+                ids.putAll(precarga.precargar(properties.getConjuntoCaliente()));
+            } catch (RuntimeException e) {
+                log.warn("Error al precargar el conjunto caliente ({}): {}",
+                        precarga.getClass().getSimpleName(), e.getMessage());
+            }
+        });
+        return ids;
+    }
+
+    private int reproducir(int puerto, Map<String, List<Long>> ids, long limite) {
+        List<String> plantillas;
+        try {
+            plantillas = leerPeticiones();
+        } catch (UncheckedIOException e) {
+            log.warn("No se pudo leer {}: {}", properties.getPeticiones(), e.getMessage());
+            return 0;
+        }
+        if (plantillas.isEmpty()) {
+            return 0;
+        }
+
+        String base = "http://localhost:" + puerto;
+        int hilos = Math.max(properties.getConcurrencia(), 1);
+        AtomicInteger enviadas = new AtomicInteger();
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        try (HttpClient cliente = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build()) {
+            for (int hilo = 0; hilo < hilos; hilo++) {
+                int primeraRonda = hilo;
+                ejecutor.execute(() -> {
+                    for (int ronda = primeraRonda; ronda < properties.getRondas() && System.nanoTime() < limite;
+                         ronda += hilos) {
+                        for (String plantilla : plantillas) {
+                            String ruta = expandir(plantilla, ids, ronda);
+                            if (ruta != null && enviar(cliente, base + ruta)) {
+                                enviadas.incrementAndGet();
+                            }
+                        }
+                    }
+                });
+            }
+            ejecutor.shutdown();
+            ejecutor.awaitTermination(Math.max(limite - System.nanoTime(), 0) + TimeUnit.SECONDS.toNanos(5),
+                    TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            ejecutor.shutdownNow();
+        }
+        return enviadas.get();
+    }
+
+    private boolean enviar(HttpClient cliente, String url) {
+        HttpRequest peticion = HttpRequest.newBuilder(URI.create(url))
+                .header(CalentamientoAutoConfiguration.CABECERA, "true")
+                .timeout(Duration.ofSeconds(5))
+                .build();
+        try {
+            cliente.send(peticion, HttpResponse.BodyHandlers.discarding());
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            log.debug("Petición de calentamiento {} fallida: {}", url, e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Rutas del fichero: "GET /ruta" o "/ruta"; se ignoran las líneas vacías, los comentarios (#)
+    // y cualquier otro método, que no es seguro repetir
+    List<String> leerPeticiones() {
+        String contenido;
+        try {
+            contenido = resourceLoader.getResource(properties.getPeticiones()).getContentAsString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<String> rutas = new ArrayList<>();
+        for (String linea : contenido.split("\n")) {
+            String peticion = linea.strip();
+            if (peticion.startsWith("GET ")) {
+                peticion = peticion.substring(4).strip();
+            }
+            if (peticion.startsWith("/")) {
+                rutas.add(peticion);
+            } else if (!peticion.isEmpty() && !peticion.startsWith("#")) {
+                log.debug("Línea de calentamiento ignorada: {}", peticion);
+            }
+        }
+        return rutas;
+    }
+
+    // Sustituye cada {tipo} por un id del conjunto caliente, distinto en cada ronda; null si falta
+    // algún tipo (p. ej. no hay préstamos activos)
+    static String expandir(String plantilla, Map<String, List<Long>> ids, int ronda) {
+        Matcher marcador = MARCADOR.matcher(plantilla);
+        StringBuilder ruta = new StringBuilder();
+        while (marcador.find()) {
+            List<Long> candidatos = ids.get(marcador.group(1));
+            if (candidatos == null || candidatos.isEmpty()) {
+                return null;
+            }
+            marcador.appendReplacement(ruta, String.valueOf(candidatos.get(ronda % candidatos.size())));
+        }
+        marcador.appendTail(ruta);
+        return ruta.toString();
+    }
+
+    private static String resumen(Map<String, List<Long>> ids) {
+        StringBuilder resumen = new StringBuilder();
+        new TreeMap<>(ids).forEach((tipo, lista) ->
+                resumen.append(resumen.isEmpty() ? "" : ", ").append(lista.size()).append(' ').append(tipo));
+        return resumen.isEmpty() ? "vacío" : resumen.toString();
+    }
+}
@@ -0,0 +1,34 @@
+package com.biblioteca.prestamos.calentamiento;
+
+import com.biblioteca.comun.calentamiento.Precarga;
+import com.biblioteca.prestamos.repository.PrestamoRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+// prestamos no cachea entidades propias (la rueda de vencimientos la carga PrestamoScheduler):
+// el conjunto caliente sirve para que las peticiones de muestra lean préstamos, usuarios y libros
+// reales y, con ellas, calienten el cliente de libros y la caché de libros-service
+@Component
+@RequiredArgsConstructor
+public class PrecargaPrestamos implements Precarga {
+
+    private static final int DIAS_MAS_PRESTADOS = 30;
+
+    private final PrestamoRepository prestamoRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, List<Long>> precargar(int limite) {
+        Limit tope = Limit.of(limite);
+        return Map.of(
+                "prestamo", prestamoRepository.idsActivosRecientes(tope),
+                "usuario", prestamoRepository.usuariosConMasAbiertos(tope),
+                "libro", prestamoRepository.librosMasPrestados(LocalDate.now().minusDays(DIAS_MAS_PRESTADOS), tope));
+    }
+}
@@ -1,11 +1,17 @@
 package com.biblioteca.prestamos.client;
 
+import com.biblioteca.prestamos.client.dto.EventoStockDto;
+import com.biblioteca.prestamos.client.dto.EventoStockResultadoDto;
 import com.biblioteca.prestamos.client.dto.LibroResponseDto;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
 
 
 @FeignClient(name = "libros-service", url = "${client.libros-service.url:http://localhost:8082}")
@@ -14,6 +20,9 @@ public interface LibrosClient {
     @GetMapping("/api/libros/{id}")
     ResponseEntity<LibroResponseDto> obtenerLibro(@PathVariable("id") Long libroId);
 
+    @GetMapping("/api/libros/lote")
+    ResponseEntity<List<LibroResponseDto>> obtenerLibrosPorIds(@RequestParam("ids") List<Long> libroIds);
+
     @GetMapping("/api/libros/{id}/disponible")
     ResponseEntity<Boolean> verificarDisponibilidad(@PathVariable("id") Long libroId);
 
@@ -25,4 +34,7 @@ public interface LibrosClient {
 
     @GetMapping("/api/libros/{id}/existe")
     ResponseEntity<Boolean> existeLibro(@PathVariable("id") Long libroId);
+
+    @PostMapping("/api/libros/eventos-stock")
+    ResponseEntity<EventoStockResultadoDto> aplicarEventosStock(@RequestBody List<EventoStockDto> eventos);
 }
@@ -0,0 +1,59 @@
+package com.biblioteca.prestamos.client;
+
+import com.biblioteca.prestamos.client.dto.LibroResponseDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cliente no bloqueante del servicio de libros. Pide los libros por lotes
+ * (GET /api/libros/lote) en lugar de una llamada por préstamo.
+ */
+@Slf4j
+@Component
+public class LibrosReactivoClient {
+
+    private static final ParameterizedTypeReference<List<LibroResponseDto>> LISTA_LIBROS =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final WebClient webClient;
+    private final Duration timeout;
+
+    public LibrosReactivoClient(WebClient.Builder webClientBuilder,
+                                @Value("${client.libros-service.url:http://localhost:8082}") String librosUrl,
+                                @Value("${client.libros-service.timeout:5s}") Duration timeout) {
+        this.webClient = webClientBuilder.baseUrl(librosUrl).build();
+        this.timeout = timeout;
+    }
+
+    public Mono<Map<Long, LibroResponseDto>> obtenerLibros(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/libros/lote")
+                        .queryParam("ids", ids.toArray())
+                        .build())
+                .retrieve()
+                .bodyToMono(LISTA_LIBROS)
+                .timeout(timeout)
+                .map(libros -> libros.stream()
+                        .collect(Collectors.toMap(LibroResponseDto::getId, Function.identity(), (a, b) -> a)))
+                .onErrorResume(e -> {
+                    log.warn("Error al obtener lote de {} libros: {}", ids.size(), e.getMessage());
+                    return Mono.just(Map.of());
+                });
+    }
+}
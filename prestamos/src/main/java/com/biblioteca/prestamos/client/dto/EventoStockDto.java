@@ -0,0 +1,21 @@
+package com.biblioteca.prestamos.client.dto;
+
+import com.biblioteca.prestamos.model.enums.TipoEventoStock;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventoStockDto {
+    private String eventoId;
+    private TipoEventoStock tipo;
+    private Long libroId;
+    private Long prestamoId;
+    private LocalDateTime fechaEvento;
+}
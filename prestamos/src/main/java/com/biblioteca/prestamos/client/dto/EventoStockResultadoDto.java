@@ -0,0 +1,18 @@
+package com.biblioteca.prestamos.client.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventoStockResultadoDto {
+    private int aplicados;
+    private int duplicados;
+    private List<String> rechazados;
+}
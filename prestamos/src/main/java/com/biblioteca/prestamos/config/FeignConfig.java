@@ -1,5 +1,7 @@
 package com.biblioteca.prestamos.config;
 
+import com.biblioteca.prestamos.observabilidad.EventosJfrFeign;
+import feign.Capability;
 import feign.Logger;
 import feign.codec.Decoder;
 import org.springframework.beans.factory.ObjectFactory;
@@ -20,4 +22,10 @@ public class FeignConfig {
 
         return new ResponseEntityDecoder(new SpringDecoder(messageConverters));
     }
+
+    // Un evento JFR por llamada remota, para verlas en las grabaciones de /actuator/jfr
+    @Bean
+    public Capability eventosJfrFeign() {
+        return new EventosJfrFeign();
+    }
 }
@@ -0,0 +1,21 @@
+package com.biblioteca.prestamos.config;
+
+import com.biblioteca.prestamos.filter.IdempotenciaFilter;
+import com.biblioteca.prestamos.service.IdempotenciaService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class IdempotenciaConfig {
+
+    @Bean
+    public FilterRegistrationBean<IdempotenciaFilter> idempotenciaFilter(IdempotenciaService idempotenciaService,
+                                                                         ObjectMapper objectMapper) {
+        FilterRegistrationBean<IdempotenciaFilter> registro =
+                new FilterRegistrationBean<>(new IdempotenciaFilter(idempotenciaService, objectMapper));
+        registro.addUrlPatterns("/api/prestamos", "/api/prestamos/*");
+        return registro;
+    }
+}
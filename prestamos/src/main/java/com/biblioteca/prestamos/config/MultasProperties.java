@@ -0,0 +1,64 @@
+package com.biblioteca.prestamos.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+// Multas por retraso (prestamos.multas.*): una tarifa por categoría de usuario y el reparto del
+// cálculo por lotes
+@Data
+@ConfigurationProperties(prefix = "prestamos.multas")
+public class MultasProperties {
+
+    // Tarifas por categoría (p. ej. prestamos.multas.tarifas.GENERAL.importe-diario=0.20)
+    private Map<String, Tarifa> tarifas = new HashMap<>();
+
+    // Categoría de los usuarios sin fila en categorias_usuario y de las que no tienen tarifa
+    private String categoriaPorDefecto = "GENERAL";
+
+    // El cálculo diario vuelve a mirar los préstamos cerrados en estos últimos días, para fijar la
+    // multa de los que se devolvieron con retraso
+    private int diasRevision = 7;
+
+    // Préstamos por transacción
+    private int tamanoLote = 1000;
+
+    // Lotes en curso a la vez dentro de cada partición reclamada
+    private int paralelismo = 4;
+
+    // Rangos de ids que se reparten las réplicas (BloqueoTrabajoService)
+    private int particiones = 4;
+
+    public Tarifa tarifa(String categoria) {
+        Tarifa tarifa = tarifas.get(categoria);
+        return tarifa != null ? tarifa : tarifas.get(categoriaPorDefecto);
+    }
+
+    public String categoria(String categoria) {
+        return categoria != null && tarifas.containsKey(categoria) ? categoria : categoriaPorDefecto;
+    }
+
+    @Data
+    public static class Tarifa {
+
+        private BigDecimal importeDiario = BigDecimal.ZERO;
+
+        // Días de retraso que no se cobran
+        private int diasGracia = 0;
+
+        // Importe máximo por préstamo; sin tope si no se indica
+        private BigDecimal tope;
+
+        public int diasCobrados(long diasRetraso) {
+            return (int) Math.max(0, diasRetraso - diasGracia);
+        }
+
+        public BigDecimal importe(int diasCobrados) {
+            BigDecimal importe = importeDiario.multiply(BigDecimal.valueOf(diasCobrados));
+            return tope != null && importe.compareTo(tope) > 0 ? tope : importe;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.biblioteca.prestamos.controller;
+
+import com.biblioteca.prestamos.controller.dto.MultaDTO;
+import com.biblioteca.prestamos.controller.dto.SaldoMultasDTO;
+import com.biblioteca.prestamos.service.MultasService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/prestamos/multas")
+@RequiredArgsConstructor
+@Tag(name = "Multas", description = "Multas por retraso y saldo pendiente de cada usuario")
+public class MultaController {
+
+    private final MultasService multasService;
+
+    // ==================== ENDPOINT 1: SALDO DE UN USUARIO ====================
+    @Operation(summary = "Saldo de multas de un usuario",
+            description = "Se lee del agregado que mantiene el cálculo de multas; refleja el último cálculo diario")
+    @ApiResponse(responseCode = "200", description = "Saldo del usuario (cero si no tiene multas)")
+    @GetMapping("/usuario/{usuarioId}/saldo")
+    public ResponseEntity<SaldoMultasDTO> obtenerSaldo(
+            @Parameter(description = "ID del usuario") @PathVariable Long usuarioId) {
+        return ResponseEntity.ok(multasService.obtenerSaldo(usuarioId));
+    }
+
+    // ==================== ENDPOINT 2: MULTAS DE UN USUARIO ====================
+    @Operation(summary = "Multas de un usuario", description = "Una por préstamo, las más recientes primero")
+    @ApiResponse(responseCode = "200", description = "Lista de multas del usuario")
+    @GetMapping("/usuario/{usuarioId}")
+    public ResponseEntity<List<MultaDTO>> obtenerMultas(
+            @Parameter(description = "ID del usuario") @PathVariable Long usuarioId) {
+        return ResponseEntity.ok(multasService.obtenerMultas(usuarioId));
+    }
+
+    // ==================== ENDPOINT 3: CATEGORÍA DE TARIFA ====================
+    @Operation(summary = "Asignar la categoría de tarifa de un usuario",
+            description = "Se aplica a partir del siguiente cálculo de multas")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Categoría asignada"),
+            @ApiResponse(responseCode = "400", description = "No hay tarifa para esa categoría")
+    })
+    @PutMapping("/usuario/{usuarioId}/categoria")
+    public ResponseEntity<Void> asignarCategoria(
+            @Parameter(description = "ID del usuario") @PathVariable Long usuarioId,
+            @Parameter(description = "Categoría (prestamos.multas.tarifas)", example = "ESTUDIANTE")
+            @RequestParam String categoria) {
+        multasService.asignarCategoria(usuarioId, categoria);
+        return ResponseEntity.noContent().build();
+    }
+
+    // ==================== ENDPOINT 4: RECÁLCULO COMPLETO ====================
+    @Operation(summary = "Recalcular todas las multas",
+            description = "Lanza en segundo plano el recálculo con las tarifas y categorías actuales de todos los " +
+                    "préstamos con retraso y responde enseguida. Cada réplica procesa los rangos de ids que " +
+                    "consigue reclamar; el resultado de esta instancia queda en el log.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Recálculo lanzado"),
+            @ApiResponse(responseCode = "409", description = "Esta instancia ya tiene un recálculo en curso")
+    })
+    @PostMapping("/recalcular")
+    public ResponseEntity<Void> recalcular() {
+        log.info("💶 Recalculando multas");
+        multasService.recalcularEnSegundoPlano();
+        return ResponseEntity.accepted().build();
+    }
+}
@@ -9,6 +9,7 @@ import com.biblioteca.prestamos.repository.PrestamoRepository;
 import com.biblioteca.prestamos.model.enums.EstadoPrestamo;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -43,6 +44,8 @@ public class PrestamoController {
             @ApiResponse(responseCode = "404", description = "Libro no encontrado"),
             @ApiResponse(responseCode = "409", description = "Libro no disponible o usuario con préstamos vencidos")
     })
+    @Parameter(in = ParameterIn.HEADER, name = "Idempotency-Key",
+            description = "Clave opcional: los reintentos con la misma clave devuelven la respuesta original")
     @PostMapping
     public ResponseEntity<PrestamoResponseDTO> crearPrestamo(
             @Valid @RequestBody PrestamoRequestDTO request) {
@@ -116,6 +119,8 @@ public class PrestamoController {
             @ApiResponse(responseCode = "404", description = "Préstamo no encontrado"),
             @ApiResponse(responseCode = "400", description = "El préstamo no está activo")
     })
+    @Parameter(in = ParameterIn.HEADER, name = "Idempotency-Key",
+            description = "Clave opcional: los reintentos con la misma clave devuelven la respuesta original")
     @PostMapping("/{id}/devolucion")
     public ResponseEntity<PrestamoResponseDTO> registrarDevolucion(
             @Parameter(description = "ID del préstamo") @PathVariable Long id,
@@ -126,24 +131,34 @@ public class PrestamoController {
     }
 
     // ==================== ENDPOINT 7: OBTENER PRÉSTAMOS POR USUARIO ====================
-    @Operation(summary = "Obtener préstamos por usuario")
+    @Operation(summary = "Obtener préstamos por usuario",
+            description = "Con historico=true incluye también los préstamos cerrados ya archivados")
     @ApiResponse(responseCode = "200", description = "Lista de préstamos del usuario")
     @GetMapping("/usuario/{usuarioId}")
     public ResponseEntity<List<PrestamoResponseDTO>> obtenerPrestamosPorUsuario(
-            @Parameter(description = "ID del usuario") @PathVariable Long usuarioId) {
-        log.info("👤 Obteniendo préstamos para usuario ID: {}", usuarioId);
-        List<PrestamoResponseDTO> response = prestamoService.obtenerPrestamosPorUsuario(usuarioId);
+            @Parameter(description = "ID del usuario") @PathVariable Long usuarioId,
+            @Parameter(description = "Incluir préstamos archivados")
+            @RequestParam(defaultValue = "false") boolean historico) {
+        log.info("👤 Obteniendo préstamos para usuario ID: {} (historico={})", usuarioId, historico);
+        List<PrestamoResponseDTO> response = historico
+                ? prestamoService.obtenerHistorialPorUsuario(usuarioId)
+                : prestamoService.obtenerPrestamosPorUsuario(usuarioId);
         return ResponseEntity.ok(response);
     }
 
     // ==================== ENDPOINT 8: OBTENER PRÉSTAMOS POR LIBRO ====================
-    @Operation(summary = "Obtener préstamos por libro")
+    @Operation(summary = "Obtener préstamos por libro",
+            description = "Con historico=true incluye también los préstamos cerrados ya archivados")
     @ApiResponse(responseCode = "200", description = "Lista de préstamos del libro")
     @GetMapping("/libro/{libroId}")
     public ResponseEntity<List<PrestamoResponseDTO>> obtenerPrestamosPorLibro(
-            @Parameter(description = "ID del libro") @PathVariable Long libroId) {
-        log.info("📚 Obteniendo préstamos para libro ID: {}", libroId);
-        List<PrestamoResponseDTO> response = prestamoService.obtenerPrestamosPorLibro(libroId);
+            @Parameter(description = "ID del libro") @PathVariable Long libroId,
+            @Parameter(description = "Incluir préstamos archivados")
+            @RequestParam(defaultValue = "false") boolean historico) {
+        log.info("📚 Obteniendo préstamos para libro ID: {} (historico={})", libroId, historico);
+        List<PrestamoResponseDTO> response = historico
+                ? prestamoService.obtenerHistorialPorLibro(libroId)
+                : prestamoService.obtenerPrestamosPorLibro(libroId);
         return ResponseEntity.ok(response);
     }
 
@@ -0,0 +1,98 @@
+package com.biblioteca.prestamos.controller;
+
+import com.biblioteca.prestamos.controller.dto.DevolucionLoteRequestDTO;
+import com.biblioteca.prestamos.controller.dto.PrestamoLoteRequestDTO;
+import com.biblioteca.prestamos.controller.dto.ResultadoLoteDTO;
+import com.biblioteca.prestamos.service.PrestamoLoteService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/prestamos")
+@RequiredArgsConstructor
+@Tag(name = "Préstamos por lotes", description = "Operaciones sobre muchos préstamos en una sola petición")
+public class PrestamoLoteController {
+
+    private final PrestamoLoteService prestamoLoteService;
+    private final ObjectMapper objectMapper;
+
+    // ==================== ENDPOINT 1: CREAR PRÉSTAMOS POR LOTE ====================
+    @Operation(summary = "Crear varios préstamos en una sola petición",
+            description = "Pensado para préstamos a una clase completa. Cada elemento se valida por separado " +
+                    "y la respuesta indica el resultado de cada uno.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lote procesado (ver resultado por elemento)"),
+            @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos"),
+            @ApiResponse(responseCode = "503", description = "Servicio de libros no disponible")
+    })
+    @Parameter(in = ParameterIn.HEADER, name = "Idempotency-Key",
+            description = "Clave opcional: los reintentos con la misma clave devuelven la respuesta original")
+    @PostMapping("/lote")
+    public ResponseEntity<ResultadoLoteDTO> crearPrestamos(@Valid @RequestBody PrestamoLoteRequestDTO request) {
+        log.info("📦 Creando lote de {} préstamos", request.getPrestamos().size());
+        return ResponseEntity.ok(prestamoLoteService.crearPrestamos(request));
+    }
+
+    // ==================== ENDPOINT 2: REGISTRAR DEVOLUCIONES POR LOTE ====================
+    @Operation(summary = "Registrar varias devoluciones en una sola petición",
+            description = "Pensado para el escáner del buzón de devoluciones. Los préstamos se cargan y cierran " +
+                    "con una consulta y una actualización masiva; el stock se repone en libros agrupado por libro.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lote procesado (ver resultado por elemento)"),
+            @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos")
+    })
+    @Parameter(in = ParameterIn.HEADER, name = "Idempotency-Key",
+            description = "Clave opcional: los reintentos con la misma clave devuelven la respuesta original")
+    @PostMapping(value = "/devoluciones/lote", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ResultadoLoteDTO> registrarDevoluciones(@Valid @RequestBody DevolucionLoteRequestDTO request) {
+        log.info("📚 Registrando lote de {} devoluciones", request.getPrestamoIds().size());
+        return ResponseEntity.ok(prestamoLoteService.registrarDevoluciones(request));
+    }
+
+    // Misma operación con Accept: application/x-ndjson: un resultado por línea, enviado en cuanto su
+    // tramo se confirma y sin construir el JSON completo. Sin Idempotency-Key (IdempotenciaFilter
+    // responde 406): una respuesta en streaming no se puede guardar para repetirla
+    @Operation(summary = "Registrar varias devoluciones (resultado en NDJSON)",
+            description = "No admite Idempotency-Key: para reintentos idempotentes, pedir la respuesta en JSON")
+    @ApiResponse(responseCode = "406", description = "Petición con Idempotency-Key")
+    @PostMapping(value = "/devoluciones/lote", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void registrarDevolucionesNdjson(@Valid @RequestBody DevolucionLoteRequestDTO request,
+                                            HttpServletResponse response) throws IOException {
+        log.info("📚 Registrando lote de {} devoluciones (NDJSON)", request.getPrestamoIds().size());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream salida = response.getOutputStream();
+
+        prestamoLoteService.registrarDevoluciones(request, tramo -> {
+            try {
+                for (ResultadoLoteDTO.Item item : tramo) {
+                    salida.write(objectMapper.writeValueAsBytes(item));
+                    salida.write('\n');
+                }
+                salida.flush();
+            } catch (IOException e) {
+                // El cliente cortó la conexión: los tramos ya confirmados se quedan
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,65 @@
+package com.biblioteca.prestamos.controller;
+
+import com.biblioteca.prestamos.controller.dto.PrestamoResponseDTO;
+import com.biblioteca.prestamos.service.PrestamoLecturaReactivaService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+// Listados de solo lectura sin bloquear hilos de Tomcat: la consulta va por R2DBC y los
+// títulos se piden a libros por lotes con WebClient. Con Accept: application/x-ndjson
+// la respuesta se emite fila a fila respetando la contrapresión del cliente.
+@RestController
+@RequestMapping(value = "/api/prestamos/reactivo",
+        produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+@RequiredArgsConstructor
+@Tag(name = "Préstamos (lectura reactiva)", description = "Listados de préstamos no bloqueantes (R2DBC + WebClient)")
+public class PrestamoReactivoController {
+
+    private final PrestamoLecturaReactivaService prestamoLecturaService;
+
+    @Operation(summary = "Obtener todos los préstamos")
+    @ApiResponse(responseCode = "200", description = "Lista de todos los préstamos")
+    @GetMapping
+    public Flux<PrestamoResponseDTO> obtenerTodosPrestamos() {
+        return prestamoLecturaService.obtenerTodosPrestamos();
+    }
+
+    @Operation(summary = "Obtener préstamos por usuario")
+    @ApiResponse(responseCode = "200", description = "Lista de préstamos del usuario")
+    @GetMapping("/usuario/{usuarioId}")
+    public Flux<PrestamoResponseDTO> obtenerPrestamosPorUsuario(
+            @Parameter(description = "ID del usuario") @PathVariable Long usuarioId) {
+        return prestamoLecturaService.obtenerPrestamosPorUsuario(usuarioId);
+    }
+
+    @Operation(summary = "Obtener préstamos por libro")
+    @ApiResponse(responseCode = "200", description = "Lista de préstamos del libro")
+    @GetMapping("/libro/{libroId}")
+    public Flux<PrestamoResponseDTO> obtenerPrestamosPorLibro(
+            @Parameter(description = "ID del libro") @PathVariable Long libroId) {
+        return prestamoLecturaService.obtenerPrestamosPorLibro(libroId);
+    }
+
+    @Operation(summary = "Obtener préstamos activos")
+    @ApiResponse(responseCode = "200", description = "Lista de préstamos activos")
+    @GetMapping("/activos")
+    public Flux<PrestamoResponseDTO> obtenerPrestamosActivos() {
+        return prestamoLecturaService.obtenerPrestamosActivos();
+    }
+
+    @Operation(summary = "Obtener préstamos vencidos")
+    @ApiResponse(responseCode = "200", description = "Lista de préstamos vencidos")
+    @GetMapping("/vencidos")
+    public Flux<PrestamoResponseDTO> obtenerPrestamosVencidos() {
+        return prestamoLecturaService.obtenerPrestamosVencidos();
+    }
+}
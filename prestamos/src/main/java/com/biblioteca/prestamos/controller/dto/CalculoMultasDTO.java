@@ -0,0 +1,27 @@
+package com.biblioteca.prestamos.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(name = "CalculoMultasDTO", description = "Resultado de un cálculo de multas en esta instancia")
+public class CalculoMultasDTO {
+
+    @Schema(description = "Particiones de préstamos procesadas por esta instancia", example = "4")
+    private int particiones;
+
+    @Schema(description = "Préstamos con retraso revisados", example = "500000")
+    private int revisados;
+
+    @Schema(description = "Multas creadas o con el importe cambiado", example = "431250")
+    private int modificadas;
+
+    @Schema(description = "Duración en milisegundos", example = "5230")
+    private long duracionMs;
+}
@@ -0,0 +1,27 @@
+package com.biblioteca.prestamos.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(name = "DevolucionLoteRequestDTO", description = "DTO para registrar varias devoluciones (buzón de devoluciones)")
+public class DevolucionLoteRequestDTO {
+
+    @Schema(description = "IDs de los préstamos devueltos", example = "[1, 2, 3]", required = true)
+    @NotEmpty(message = "La lista de préstamos no puede estar vacía")
+    @Size(max = 1000, message = "Como máximo 1000 devoluciones por lote")
+    private List<Long> prestamoIds;
+
+    @Schema(description = "Observaciones comunes a todas las devoluciones", example = "Buzón de devoluciones")
+    private String observaciones;
+}
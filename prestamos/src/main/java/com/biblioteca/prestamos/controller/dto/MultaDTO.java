@@ -0,0 +1,33 @@
+package com.biblioteca.prestamos.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(name = "MultaDTO", description = "Multa por retraso de un préstamo")
+public class MultaDTO {
+
+    @Schema(description = "ID del préstamo", example = "1")
+    private Long prestamoId;
+
+    @Schema(description = "Categoría de tarifa aplicada", example = "GENERAL")
+    private String categoria;
+
+    @Schema(description = "Días de retraso cobrados (sin los de gracia)", example = "12")
+    private int diasCobrados;
+
+    @Schema(description = "Importe, como mucho el tope de la tarifa", example = "2.40")
+    private BigDecimal importe;
+
+    @Schema(description = "Fecha del último cambio del importe", example = "2024-02-01T00:00:05")
+    private LocalDateTime calculadaEn;
+}
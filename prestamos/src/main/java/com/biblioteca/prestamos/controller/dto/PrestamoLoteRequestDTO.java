@@ -0,0 +1,56 @@
+package com.biblioteca.prestamos.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(name = "PrestamoLoteRequestDTO", description = "DTO para crear varios préstamos con la misma fecha de devolución")
+public class PrestamoLoteRequestDTO {
+
+    @Schema(description = "Fecha de devolución prevista para todos los préstamos", example = "2024-12-31", required = true)
+    @NotNull(message = "La fecha de devolución prevista es obligatoria")
+    @Future(message = "La fecha de devolución debe ser futura")
+    private LocalDate fechaDevolucionPrevista;
+
+    @Schema(description = "Observaciones comunes", example = "Lectura obligatoria 3ºB")
+    private String observaciones;
+
+    @Schema(description = "Pares libro/usuario a prestar", required = true)
+    @NotEmpty(message = "La lista de préstamos no puede estar vacía")
+    @Size(max = 200, message = "Como máximo 200 préstamos por lote")
+    @Valid
+    private List<Item> prestamos;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(name = "PrestamoLoteItemDTO")
+    public static class Item {
+
+        @Schema(description = "ID del libro", example = "1", required = true)
+        @NotNull(message = "El ID del libro es obligatorio")
+        @Positive(message = "El ID del libro debe ser positivo")
+        private Long libroId;
+
+        @Schema(description = "ID del usuario", example = "123", required = true)
+        @NotNull(message = "El ID del usuario es obligatorio")
+        @Positive(message = "El ID del usuario debe ser positivo")
+        private Long usuarioId;
+    }
+}
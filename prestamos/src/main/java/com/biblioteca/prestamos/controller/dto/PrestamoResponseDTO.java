@@ -8,6 +8,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 
 @Data
 @Builder
@@ -48,4 +49,24 @@ public class PrestamoResponseDTO {
 
     @Schema(description = "Indica si el préstamo está vencido", example = "false")
     private Boolean vencido;
-}
\ No newline at end of file
+
+    // Usado por las consultas de proyección del repositorio (SELECT new ...); el título lo
+    // completa el servicio con la información de libros-service
+    public PrestamoResponseDTO(Long id, Long libroId, Long usuarioId, LocalDate fechaPrestamo,
+                               LocalDate fechaDevolucionPrevista, LocalDate fechaDevolucionReal,
+                               EstadoPrestamo estado, Integer diasRetraso, String observaciones) {
+        this.id = id;
+        this.libroId = libroId;
+        this.usuarioId = usuarioId;
+        this.fechaPrestamo = fechaPrestamo;
+        this.fechaDevolucionPrevista = fechaDevolucionPrevista;
+        this.fechaDevolucionReal = fechaDevolucionReal;
+        this.estado = estado;
+        this.observaciones = observaciones;
+        // Mismo criterio que Prestamo.isVencido() y Prestamo.diasRetrasoActual()
+        this.vencido = EstadoPrestamo.ABIERTOS.contains(estado) && LocalDate.now().isAfter(fechaDevolucionPrevista);
+        this.diasRetraso = vencido
+                ? Integer.valueOf((int) ChronoUnit.DAYS.between(fechaDevolucionPrevista, LocalDate.now()))
+                : diasRetraso;
+    }
+}
@@ -0,0 +1,52 @@
+package com.biblioteca.prestamos.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(name = "ResultadoLoteDTO", description = "Resultado por elemento de una operación por lotes")
+public class ResultadoLoteDTO {
+
+    @Schema(description = "Elementos recibidos", example = "30")
+    private int total;
+
+    @Schema(description = "Elementos procesados correctamente", example = "28")
+    private int correctos;
+
+    @Schema(description = "Elementos rechazados", example = "2")
+    private int rechazados;
+
+    private List<Item> resultados;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(name = "ResultadoLoteItemDTO")
+    public static class Item {
+
+        @Schema(description = "Posición del elemento en la petición", example = "0")
+        private int indice;
+
+        @Schema(description = "Indica si el elemento se procesó", example = "true")
+        private boolean exito;
+
+        @Schema(description = "Préstamo resultante (solo si exito = true)")
+        private PrestamoResponseDTO prestamo;
+
+        @Schema(description = "Motivo del rechazo (solo si exito = false)", example = "El libro con ID 1 no está disponible para préstamo")
+        private String error;
+
+        @Schema(description = "Código HTTP que tendría el rechazo en la operación individual (solo si exito = false)",
+                example = "409")
+        private Integer codigo;
+    }
+}
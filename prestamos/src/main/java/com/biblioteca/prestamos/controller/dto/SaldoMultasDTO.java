@@ -0,0 +1,30 @@
+package com.biblioteca.prestamos.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(name = "SaldoMultasDTO", description = "Saldo pendiente de multas de un usuario")
+public class SaldoMultasDTO {
+
+    @Schema(description = "ID del usuario", example = "123")
+    private Long usuarioId;
+
+    @Schema(description = "Suma de sus multas", example = "4.60")
+    private BigDecimal importePendiente;
+
+    @Schema(description = "Préstamos con multa", example = "2")
+    private int multasPendientes;
+
+    @Schema(description = "Último cambio del saldo (null si nunca ha tenido multas)", example = "2024-02-01T00:00:05")
+    private LocalDateTime actualizadoEn;
+}
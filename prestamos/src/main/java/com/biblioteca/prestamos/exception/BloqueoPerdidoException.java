@@ -0,0 +1,11 @@
+package com.biblioteca.prestamos.exception;
+
+// Otra réplica ha reclamado la partición (el arrendamiento caducó): lo hecho en la transacción
+// en curso no debe confirmarse
+public class BloqueoPerdidoException extends RuntimeException {
+
+    public BloqueoPerdidoException(String trabajo, int particion, long token) {
+        super(String.format("Arrendamiento perdido en la partición %d del trabajo %s (token %d)",
+                particion, trabajo, token));
+    }
+}
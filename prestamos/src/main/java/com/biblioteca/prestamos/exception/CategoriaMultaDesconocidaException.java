@@ -0,0 +1,12 @@
+package com.biblioteca.prestamos.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class CategoriaMultaDesconocidaException extends RuntimeException {
+
+    public CategoriaMultaDesconocidaException(String categoria) {
+        super(String.format("No hay tarifa de multas para la categoría %s", categoria));
+    }
+}
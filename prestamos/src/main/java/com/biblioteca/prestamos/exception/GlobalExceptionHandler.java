@@ -1,7 +1,9 @@
 package com.biblioteca.prestamos.exception;
 
 import feign.FeignException;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.validation.ConstraintViolationException;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -15,33 +17,46 @@ import java.util.Map;
 
 @Slf4j
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
+    private final MeterRegistry meterRegistry;
+
     @ExceptionHandler(PrestamoNotFoundException.class)
     public ResponseEntity<Map<String, Object>> handlePrestamoNotFound(PrestamoNotFoundException ex) {
-        return buildErrorResponse(HttpStatus.NOT_FOUND, ex.getMessage());
+        return buildErrorResponse(ex, HttpStatus.NOT_FOUND, ex.getMessage());
     }
 
     @ExceptionHandler(LibroNoDisponibleException.class)
     public ResponseEntity<Map<String, Object>> handleLibroNoDisponible(LibroNoDisponibleException ex) {
-        return buildErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
+        return buildErrorResponse(ex, HttpStatus.BAD_REQUEST, ex.getMessage());
     }
 
     @ExceptionHandler(UsuarioConPrestamosVencidosException.class)
     public ResponseEntity<Map<String, Object>> handleUsuarioConPrestamosVencidos(UsuarioConPrestamosVencidosException ex) {
-        return buildErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
+        return buildErrorResponse(ex, HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    @ExceptionHandler(CategoriaMultaDesconocidaException.class)
+    public ResponseEntity<Map<String, Object>> handleCategoriaMultaDesconocida(CategoriaMultaDesconocidaException ex) {
+        return buildErrorResponse(ex, HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    @ExceptionHandler(RecalculoMultasEnCursoException.class)
+    public ResponseEntity<Map<String, Object>> handleRecalculoMultasEnCurso(RecalculoMultasEnCursoException ex) {
+        return buildErrorResponse(ex, HttpStatus.CONFLICT, ex.getMessage());
     }
 
     @ExceptionHandler(FeignException.NotFound.class)
     public ResponseEntity<Map<String, Object>> handleFeignNotFound(FeignException.NotFound ex) {
         log.error("Recurso no encontrado en servicio externo: {}", ex.getMessage());
-        return buildErrorResponse(HttpStatus.NOT_FOUND, "Recurso no encontrado en el servicio de libros");
+        return buildErrorResponse(ex, HttpStatus.NOT_FOUND, "Recurso no encontrado en el servicio de libros");
     }
 
     @ExceptionHandler(FeignException.class)
     public ResponseEntity<Map<String, Object>> handleFeignException(FeignException ex) {
         log.error("Error en comunicación con servicio externo: {}", ex.getMessage());
-        return buildErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, "Error en comunicación con el servicio de libros");
+        return buildErrorResponse(ex, HttpStatus.SERVICE_UNAVAILABLE, "Error en comunicación con el servicio de libros");
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
@@ -57,6 +72,7 @@ public class GlobalExceptionHandler {
         response.put("message", "Error de validación en los datos de entrada");
         response.put("errors", errors);
 
+        contarError(ex, HttpStatus.BAD_REQUEST);
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
@@ -68,16 +84,18 @@ public class GlobalExceptionHandler {
         response.put("error", "Constraint Violation");
         response.put("message", ex.getMessage());
 
+        contarError(ex, HttpStatus.BAD_REQUEST);
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleGenericException(Exception ex) {
         log.error("Error interno del servidor: {}", ex.getMessage(), ex);
-        return buildErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Error interno del servidor");
+        return buildErrorResponse(ex, HttpStatus.INTERNAL_SERVER_ERROR, "Error interno del servidor");
     }
 
-    private ResponseEntity<Map<String, Object>> buildErrorResponse(HttpStatus status, String message) {
+    private ResponseEntity<Map<String, Object>> buildErrorResponse(Exception ex, HttpStatus status, String message) {
+        contarError(ex, status);
         Map<String, Object> response = new HashMap<>();
         response.put("timestamp", LocalDateTime.now());
         response.put("status", status.value());
@@ -86,4 +104,11 @@ public class GlobalExceptionHandler {
 
         return new ResponseEntity<>(response, status);
     }
+
+    // biblioteca.errores{excepcion, estado}: la tasa de cada tipo de error sale de /actuator/metrics
+    private void contarError(Exception ex, HttpStatus status) {
+        meterRegistry.counter("biblioteca.errores",
+                "excepcion", ex.getClass().getSimpleName(),
+                "estado", String.valueOf(status.value())).increment();
+    }
 }
@@ -0,0 +1,12 @@
+package com.biblioteca.prestamos.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class RecalculoMultasEnCursoException extends RuntimeException {
+
+    public RecalculoMultasEnCursoException() {
+        super("Ya hay un recálculo de multas en curso en esta instancia");
+    }
+}
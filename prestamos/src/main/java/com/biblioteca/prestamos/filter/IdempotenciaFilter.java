@@ -0,0 +1,268 @@
+package com.biblioteca.prestamos.filter;
+
+import com.biblioteca.prestamos.service.IdempotenciaService;
+import com.biblioteca.prestamos.service.IdempotenciaService.RespuestaGuardada;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Soporte de la cabecera Idempotency-Key en los POST que crean o cierran préstamos.
+ * Un reintento con la misma clave recibe la respuesta guardada sin volver a pasar
+ * por el controlador (ni por las validaciones remotas contra libros y usuarios).
+ * La respuesta se guarda en una sola representación: un reintento cuyo Accept no
+ * la admite recibe 406 en vez de un cuerpo que no pidió.
+ *
+ * <p>Las respuestas en streaming (Accept: application/x-ndjson) no admiten la clave y
+ * se rechazan con 406: guardarlas obligaría a retener todo el cuerpo antes de enviarlo,
+ * y un fallo a mitad dejaría tramos ya confirmados con la clave liberada. Quien necesite
+ * reintentos idempotentes del lote debe pedir la respuesta en JSON.
+ */
+@Slf4j
+public class IdempotenciaFilter extends OncePerRequestFilter {
+
+    public static final String CABECERA = "Idempotency-Key";
+    public static final String CABECERA_REPETIDA = "Idempotent-Replayed";
+    private static final int LONGITUD_MAXIMA_CLAVE = 255;
+
+    private static final List<String> RUTAS = List.of(
+            "/api/prestamos", "/api/prestamos/lote", "/api/prestamos/*/devolucion",
+            "/api/prestamos/devoluciones/lote");
+    private static final AntPathMatcher MATCHER = new AntPathMatcher();
+
+    private final IdempotenciaService idempotenciaService;
+    private final ObjectMapper objectMapper;
+
+    public IdempotenciaFilter(IdempotenciaService idempotenciaService, ObjectMapper objectMapper) {
+        this.idempotenciaService = idempotenciaService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!HttpMethod.POST.matches(request.getMethod()) || request.getHeader(CABECERA) == null) {
+            return true;
+        }
+        String ruta = request.getRequestURI().substring(request.getContextPath().length());
+        return RUTAS.stream().noneMatch(patron -> MATCHER.match(patron, ruta));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(CABECERA);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > LONGITUD_MAXIMA_CLAVE) {
+            escribirError(response, HttpStatus.BAD_REQUEST,
+                    "La cabecera " + CABECERA + " debe tener entre 1 y " + LONGITUD_MAXIMA_CLAVE + " caracteres");
+            return;
+        }
+
+        if (pideStreaming(request.getHeader(HttpHeaders.ACCEPT))) {
+            escribirError(response, HttpStatus.NOT_ACCEPTABLE,
+                    "La cabecera " + CABECERA + " no se admite con respuestas " + MediaType.APPLICATION_NDJSON_VALUE);
+            return;
+        }
+
+        byte[] cuerpo = StreamUtils.copyToByteArray(request.getInputStream());
+        String clave = sha256((request.getMethod() + " " + request.getRequestURI() + "\n" + idempotencyKey)
+                .getBytes(StandardCharsets.UTF_8));
+        String huella = sha256(cuerpo);
+
+        Optional<RespuestaGuardada> guardada = idempotenciaService.buscar(clave);
+        if (guardada.isPresent()) {
+            repetirRespuesta(guardada.get(), huella, request, response);
+            return;
+        }
+
+        if (!idempotenciaService.reservar(clave, huella)) {
+            escribirError(response, HttpStatus.CONFLICT,
+                    "Ya hay una petición en curso con la misma " + CABECERA);
+            return;
+        }
+
+        ContentCachingResponseWrapper respuesta = new ContentCachingResponseWrapper(response);
+        boolean completada = false;
+        try {
+            chain.doFilter(new CuerpoEnMemoriaRequest(request, cuerpo), respuesta);
+            // Solo se guardan los éxitos: un error de validación o de libros puede reintentarse
+            if (HttpStatus.valueOf(respuesta.getStatus()).is2xxSuccessful()) {
+                idempotenciaService.completar(clave, huella, respuesta.getStatus(),
+                        respuesta.getContentType(), respuesta.getContentAsByteArray());
+                completada = true;
+            }
+        } finally {
+            if (!completada) {
+                idempotenciaService.liberar(clave);
+            }
+            respuesta.copyBodyToResponse();
+        }
+    }
+
+    private void repetirRespuesta(RespuestaGuardada guardada, String huella, HttpServletRequest request,
+                                  HttpServletResponse response) throws IOException {
+        if (!guardada.huellaPeticion().equals(huella)) {
+            escribirError(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    "La " + CABECERA + " ya se usó con un cuerpo de petición distinto");
+            return;
+        }
+        if (!aceptaRespuesta(request.getHeader(HttpHeaders.ACCEPT), guardada.contentType())) {
+            escribirError(response, HttpStatus.NOT_ACCEPTABLE,
+                    "La respuesta guardada para esta " + CABECERA + " es " + guardada.contentType()
+                            + " y no encaja con la cabecera Accept");
+            return;
+        }
+
+        log.debug("Repitiendo respuesta guardada para {}", CABECERA);
+        response.setStatus(guardada.codigoEstado());
+        if (guardada.contentType() != null) {
+            response.setContentType(guardada.contentType());
+        }
+        response.setHeader(CABECERA_REPETIDA, "true");
+        if (guardada.cuerpo() != null) {
+            response.setContentLength(guardada.cuerpo().length);
+            response.getOutputStream().write(guardada.cuerpo());
+        }
+    }
+
+    private static boolean pideStreaming(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return false;
+        }
+        try {
+            return MediaType.parseMediaTypes(accept).stream()
+                    .anyMatch(tipo -> tipo.equalsTypeAndSubtype(MediaType.APPLICATION_NDJSON));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    private static boolean aceptaRespuesta(String accept, String contentType) {
+        if (accept == null || accept.isBlank() || contentType == null) {
+            return true;
+        }
+        try {
+            MediaType guardado = MediaType.parseMediaType(contentType);
+            return MediaType.parseMediaTypes(accept).stream().anyMatch(tipo -> tipo.isCompatibleWith(guardado));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    // Mismo formato que GlobalExceptionHandler
+    private void escribirError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("timestamp", LocalDateTime.now());
+        error.put("status", status.value());
+        error.put("error", status.getReasonPhrase());
+        error.put("message", message);
+
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+
+    private static String sha256(byte[] datos) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(datos));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    // El cuerpo ya se leyó para calcular la huella: se sirve de nuevo desde memoria
+    private static final class CuerpoEnMemoriaRequest extends HttpServletRequestWrapper {
+
+        private final byte[] cuerpo;
+
+        CuerpoEnMemoriaRequest(HttpServletRequest request, byte[] cuerpo) {
+            super(request);
+            this.cuerpo = cuerpo;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream entrada = new ByteArrayInputStream(cuerpo);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return entrada.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // Todo el cuerpo ya está en memoria: se avisa en el acto de que hay datos y,
+                // cuando el listener los ha consumido, de que no quedan más
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return entrada.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return entrada.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return cuerpo.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return cuerpo.length;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.biblioteca.prestamos.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+// Arrendamiento de una partición de un trabajo programado. Solo se modifica con las UPDATE
+// condicionales de BloqueoTrabajoRepositoryImpl; la entidad existe para que ddl-auto cree la tabla
+// igual que la migración V4.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "bloqueos_trabajo")
+@IdClass(BloqueoTrabajo.Clave.class)
+public class BloqueoTrabajo {
+
+    @Id
+    @Column(length = 64)
+    private String trabajo;
+
+    // -1 es la cabecera con el rango de ids de la ejecución
+    @Id
+    private Integer particion;
+
+    // Identificador de la ejecución programada (p. ej. la fecha para un trabajo diario)
+    @Column(length = 32)
+    private String ejecucion;
+
+    @Column(length = 128)
+    private String propietario;
+
+    // Token de exclusión: crece con cada reclamación
+    @Column(nullable = false)
+    private long token;
+
+    @Column(name = "expira_en")
+    private LocalDateTime expiraEn;
+
+    @Column(nullable = false)
+    private boolean completado;
+
+    @Column(name = "id_desde")
+    private Long idDesde;
+
+    @Column(name = "id_hasta")
+    private Long idHasta;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Clave implements Serializable {
+        private String trabajo;
+        private Integer particion;
+    }
+}
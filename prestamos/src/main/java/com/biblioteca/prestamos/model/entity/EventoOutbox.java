@@ -0,0 +1,45 @@
+package com.biblioteca.prestamos.model.entity;
+
+import com.biblioteca.prestamos.model.enums.TipoEventoStock;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Evento pendiente de publicar al servicio de libros. Se inserta en la misma
+// transacción que el préstamo; fechaPublicacion == null significa pendiente.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "outbox_eventos",
+        indexes = @Index(name = "idx_outbox_pendientes", columnList = "fecha_publicacion, id"))
+public class EventoOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "evento_id", nullable = false, unique = true, length = 36)
+    private String eventoId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private TipoEventoStock tipo;
+
+    @Column(name = "prestamo_id", nullable = false)
+    private Long prestamoId;
+
+    @Column(name = "libro_id", nullable = false)
+    private Long libroId;
+
+    @Column(name = "fecha_creacion", nullable = false, updatable = false)
+    private LocalDateTime fechaCreacion;
+
+    @Column(name = "fecha_publicacion")
+    private LocalDateTime fechaPublicacion;
+}
@@ -0,0 +1,42 @@
+package com.biblioteca.prestamos.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Multa por retraso de un préstamo. Solo la escribe MultaRepositoryImpl por lotes; la entidad
+// existe para las lecturas y para que ddl-auto cree la tabla igual que la migración V5.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "multas", indexes = @Index(name = "idx_multas_usuario", columnList = "usuario_id"))
+public class Multa {
+
+    @Id
+    @Column(name = "prestamo_id")
+    private Long prestamoId;
+
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    @Column(nullable = false, length = 32)
+    private String categoria;
+
+    // Días de retraso descontados los de gracia, a la fecha del último cambio de importe (una vez
+    // alcanzado el tope la fila ya no se reescribe)
+    @Column(name = "dias_cobrados", nullable = false)
+    private int diasCobrados;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal importe;
+
+    @Column(name = "calculada_en", nullable = false)
+    private LocalDateTime calculadaEn;
+}
@@ -15,7 +15,15 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "prestamos")
+// Los mismos índices que crean las migraciones (db/migration), para que ddl-auto los conozca
+@Table(name = "prestamos", indexes = {
+        @Index(name = "idx_prestamos_usuario_estado", columnList = "usuario_id, estado, fecha_devolucion_prevista"),
+        @Index(name = "idx_prestamos_libro_estado", columnList = "libro_id, estado"),
+        @Index(name = "idx_prestamos_estado_vencimiento", columnList = "estado, fecha_devolucion_prevista"),
+        @Index(name = "idx_prestamos_fecha_prestamo", columnList = "fecha_prestamo"),
+        @Index(name = "idx_prestamos_dias_retraso", columnList = "dias_retraso"),
+        @Index(name = "idx_prestamos_estado_devolucion", columnList = "estado, fecha_devolucion_real")
+})
 public class Prestamo {
 
     @Id
@@ -68,18 +76,19 @@ public class Prestamo {
     }
 
     public void calcularDiasRetraso() {
-        if (estado == EstadoPrestamo.ACTIVO &&
-                LocalDate.now().isAfter(fechaDevolucionPrevista)) {
-            this.diasRetraso = (int) java.time.temporal.ChronoUnit.DAYS.between(
-                    fechaDevolucionPrevista, LocalDate.now()
-            );
-        } else {
-            this.diasRetraso = 0;
-        }
+        this.diasRetraso = diasRetrasoActual();
+    }
+
+    // Días de retraso a fecha de hoy sin modificar la entidad (dias_retraso solo se guarda al
+    // vencer y al cerrar el préstamo)
+    public int diasRetrasoActual() {
+        return isVencido()
+                ? (int) java.time.temporal.ChronoUnit.DAYS.between(fechaDevolucionPrevista, LocalDate.now())
+                : 0;
     }
 
     public boolean isVencido() {
-        return estado == EstadoPrestamo.ACTIVO &&
+        return EstadoPrestamo.ABIERTOS.contains(estado) &&
                 LocalDate.now().isAfter(fechaDevolucionPrevista);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,58 @@
+package com.biblioteca.prestamos.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+// Respuesta guardada para una Idempotency-Key. Mientras completada == false la
+// petición original sigue en curso y la fila actúa como bloqueo.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "respuestas_idempotentes",
+        indexes = @Index(name = "idx_idempotencia_expiracion", columnList = "fecha_expiracion"))
+public class RespuestaIdempotente implements Persistable<String> {
+
+    // SHA-256 de método + ruta + Idempotency-Key
+    @Id
+    @Column(length = 64)
+    private String clave;
+
+    // SHA-256 del cuerpo de la petición original
+    @Column(name = "huella_peticion", nullable = false, length = 64)
+    private String huellaPeticion;
+
+    @Column(nullable = false)
+    private boolean completada;
+
+    @Column(name = "codigo_estado")
+    private Integer codigoEstado;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Lob
+    @Column(name = "cuerpo_respuesta", length = 1_000_000)
+    private byte[] cuerpoRespuesta;
+
+    @Column(name = "fecha_expiracion", nullable = false)
+    private LocalDateTime fechaExpiracion;
+
+    @Override
+    public String getId() {
+        return clave;
+    }
+
+    // Solo se inserta con save(); la respuesta se completa con una UPDATE explícita
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
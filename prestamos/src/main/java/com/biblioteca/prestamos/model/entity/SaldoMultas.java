@@ -0,0 +1,35 @@
+package com.biblioteca.prestamos.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Agregado de las multas de un usuario. Lo mantiene MultaRepositoryImpl con incrementos en la
+// misma transacción que cada cambio de multas: la consulta del saldo no suma nada.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "saldos_multas")
+public class SaldoMultas {
+
+    @Id
+    @Column(name = "usuario_id")
+    private Long usuarioId;
+
+    @Column(name = "importe_pendiente", nullable = false, precision = 12, scale = 2)
+    private BigDecimal importePendiente;
+
+    // Multas con importe mayor que cero
+    @Column(name = "multas_pendientes", nullable = false)
+    private int multasPendientes;
+
+    @Column(name = "actualizado_en", nullable = false)
+    private LocalDateTime actualizadoEn;
+}
@@ -1,8 +1,21 @@
 package com.biblioteca.prestamos.model.enums;
 
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum EstadoPrestamo {
     ACTIVO,
     DEVUELTO,
     VENCIDO,
-    PERDIDO
-}
\ No newline at end of file
+    PERDIDO,
+    // libros rechazó el préstamo (sin ejemplares o libro inexistente): nunca salió el ejemplar
+    RECHAZADO;
+
+    // Préstamos con el libro todavía fuera: los vencidos siguen pendientes de devolución
+    public static final Set<EstadoPrestamo> ABIERTOS = Collections.unmodifiableSet(EnumSet.of(ACTIVO, VENCIDO));
+
+    public boolean estaAbierto() {
+        return ABIERTOS.contains(this);
+    }
+}
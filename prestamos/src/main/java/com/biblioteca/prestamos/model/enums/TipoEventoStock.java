@@ -0,0 +1,6 @@
+package com.biblioteca.prestamos.model.enums;
+
+public enum TipoEventoStock {
+    LIBRO_PRESTADO,
+    LIBRO_DEVUELTO
+}
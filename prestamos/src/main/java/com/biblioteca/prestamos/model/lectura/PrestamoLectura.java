@@ -0,0 +1,54 @@
+package com.biblioteca.prestamos.model.lectura;
+
+import com.biblioteca.prestamos.model.enums.EstadoPrestamo;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDate;
+
+// Vista de solo lectura de la tabla prestamos para el camino R2DBC.
+// Las escrituras siguen pasando por la entidad JPA Prestamo.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("prestamos")
+public class PrestamoLectura {
+
+    @Id
+    private Long id;
+
+    @Column("libro_id")
+    private Long libroId;
+
+    @Column("usuario_id")
+    private Long usuarioId;
+
+    @Column("fecha_prestamo")
+    private LocalDate fechaPrestamo;
+
+    @Column("fecha_devolucion_prevista")
+    private LocalDate fechaDevolucionPrevista;
+
+    @Column("fecha_devolucion_real")
+    private LocalDate fechaDevolucionReal;
+
+    @Column("estado")
+    private EstadoPrestamo estado;
+
+    @Column("dias_retraso")
+    private Integer diasRetraso;
+
+    @Column("observaciones")
+    private String observaciones;
+
+    public boolean isVencido() {
+        return EstadoPrestamo.ABIERTOS.contains(estado) &&
+                LocalDate.now().isAfter(fechaDevolucionPrevista);
+    }
+}
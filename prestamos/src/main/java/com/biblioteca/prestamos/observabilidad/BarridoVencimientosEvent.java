@@ -0,0 +1,30 @@
+package com.biblioteca.prestamos.observabilidad;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.biblioteca.prestamos.BarridoVencimientos")
+@Label("Barrido de vencimientos")
+@Category({"Biblioteca", "Préstamos"})
+@Description("Avance de la rueda de vencimientos y paso de préstamos a VENCIDO")
+public class BarridoVencimientosEvent extends Event {
+
+    @Label("Vencidos en la rueda")
+    int vencidos;
+
+    @Label("Marcados VENCIDO")
+    int marcados;
+
+    @Label("Programados")
+    int programados;
+
+    public void terminar(int vencidos, int marcados, int programados) {
+        this.vencidos = vencidos;
+        this.marcados = marcados;
+        this.programados = programados;
+        commit();
+    }
+}
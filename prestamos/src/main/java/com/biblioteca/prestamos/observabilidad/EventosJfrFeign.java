@@ -0,0 +1,38 @@
+package com.biblioteca.prestamos.observabilidad;
+
+import feign.Capability;
+import feign.Client;
+import feign.Response;
+
+import java.io.IOException;
+
+// Emite un LlamadaRemotaEvent por cada petición de los clientes Feign (enriquecimiento de
+// títulos, disponibilidad, eventos de stock...). Se registra en FeignConfig.
+public class EventosJfrFeign implements Capability {
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> {
+            LlamadaRemotaEvent evento = new LlamadaRemotaEvent();
+            if (!evento.isEnabled()) {
+                return client.execute(request, options);
+            }
+            evento.begin();
+            try {
+                Response respuesta = client.execute(request, options);
+                evento.estado = respuesta.status();
+                return respuesta;
+            } catch (RuntimeException | IOException e) {
+                evento.error = e.getClass().getSimpleName();
+                throw e;
+            } finally {
+                if (request.requestTemplate() != null) {
+                    evento.servicio = request.requestTemplate().feignTarget().name();
+                    evento.metodo = request.requestTemplate().methodMetadata().configKey();
+                }
+                evento.url = request.url();
+                evento.commit();
+            }
+        };
+    }
+}
@@ -0,0 +1,62 @@
+package com.biblioteca.prestamos.observabilidad;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// Una fase de crear o devolver un préstamo. Sin grabación activa begin/commit no cuestan nada.
+//
+//   FasePrestamoEvent fase = FasePrestamoEvent.iniciar("crear", "disponibilidad", libroId, usuarioId);
+//   ...
+//   fase = fase.siguiente("guardar");
+//   ...
+//   fase.commit();
+@Name("com.biblioteca.prestamos.FasePrestamo")
+@Label("Fase de préstamo")
+@Category({"Biblioteca", "Préstamos"})
+@Description("Duración de cada fase al crear o devolver un préstamo")
+public class FasePrestamoEvent extends Event {
+
+    @Label("Operación")
+    String operacion;
+
+    @Label("Fase")
+    String fase;
+
+    @Label("Préstamo")
+    long prestamoId;
+
+    @Label("Libro")
+    long libroId;
+
+    @Label("Usuario")
+    long usuarioId;
+
+    public static FasePrestamoEvent iniciar(String operacion, String fase, Long libroId, Long usuarioId) {
+        FasePrestamoEvent evento = new FasePrestamoEvent();
+        evento.operacion = operacion;
+        evento.fase = fase;
+        evento.libroId = libroId == null ? 0 : libroId;
+        evento.usuarioId = usuarioId == null ? 0 : usuarioId;
+        evento.begin();
+        return evento;
+    }
+
+    // Cierra esta fase y empieza la siguiente con los mismos ids
+    public FasePrestamoEvent siguiente(String fase) {
+        commit();
+        FasePrestamoEvent evento = iniciar(operacion, fase, libroId, usuarioId);
+        evento.prestamoId = prestamoId;
+        return evento;
+    }
+
+    // Para los ids que solo se conocen a mitad de la operación
+    public FasePrestamoEvent conPrestamo(Long prestamoId, Long libroId, Long usuarioId) {
+        this.prestamoId = prestamoId == null ? 0 : prestamoId;
+        this.libroId = libroId == null ? 0 : libroId;
+        this.usuarioId = usuarioId == null ? 0 : usuarioId;
+        return this;
+    }
+}
@@ -0,0 +1,29 @@
+package com.biblioteca.prestamos.observabilidad;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.biblioteca.prestamos.LlamadaRemota")
+@Label("Llamada remota")
+@Category({"Biblioteca", "Préstamos"})
+@Description("Llamada Feign a libros-service o usuarios-service")
+public class LlamadaRemotaEvent extends Event {
+
+    @Label("Servicio")
+    String servicio;
+
+    @Label("Método")
+    String metodo;
+
+    @Label("URL")
+    String url;
+
+    @Label("Estado HTTP")
+    int estado;
+
+    @Label("Error")
+    String error;
+}
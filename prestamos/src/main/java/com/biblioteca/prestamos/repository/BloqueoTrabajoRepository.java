@@ -0,0 +1,10 @@
+package com.biblioteca.prestamos.repository;
+
+import com.biblioteca.prestamos.model.entity.BloqueoTrabajo;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BloqueoTrabajoRepository extends JpaRepository<BloqueoTrabajo, BloqueoTrabajo.Clave>,
+        BloqueoTrabajoRepositoryCustom {
+}
@@ -0,0 +1,25 @@
+package com.biblioteca.prestamos.repository;
+
+import com.biblioteca.prestamos.model.entity.BloqueoTrabajo;
+
+public interface BloqueoTrabajoRepositoryCustom {
+
+    // Crea las filas que falten de la cabecera (-1) y de las particiones 0..particiones-1
+    void asegurarParticiones(String trabajo, int particiones);
+
+    // La primera réplica que llega a una ejecución nueva fija en la cabecera el MIN/MAX de
+    // prestamos.id; las demás leen ese mismo rango. Devuelve la cabecera tal como queda.
+    BloqueoTrabajo abrirEjecucion(String trabajo, String ejecucion);
+
+    // Reclama la partición si nadie la ha completado en esta ejecución y no hay un arrendamiento
+    // vigente; devuelve el token nuevo o null. La caducidad se calcula con el reloj de la base de
+    // datos para que no dependa del de cada réplica.
+    Long reclamar(String trabajo, int particion, String ejecucion, String propietario, long duracionMs);
+
+    // Las tres fallan (false / sin efecto) si el token ya no es el vigente
+    boolean renovar(String trabajo, int particion, long token, long duracionMs);
+
+    boolean completar(String trabajo, int particion, long token);
+
+    void liberar(String trabajo, int particion, long token);
+}
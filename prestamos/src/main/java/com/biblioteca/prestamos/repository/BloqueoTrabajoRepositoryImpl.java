@@ -0,0 +1,131 @@
+package com.biblioteca.prestamos.repository;
+
+import com.biblioteca.prestamos.model.entity.BloqueoTrabajo;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Fragmento JDBC de BloqueoTrabajoRepository. Cada operación es una única sentencia condicional:
+// dentro de una transacción usa su conexión (y sirve de barrera para lo que se escriba en ella),
+// fuera de ella se confirma sola.
+class BloqueoTrabajoRepositoryImpl implements BloqueoTrabajoRepositoryCustom {
+
+    private static final String PARTICIONES_EXISTENTES = "SELECT particion FROM bloqueos_trabajo WHERE trabajo = :trabajo";
+
+    private static final String INSERTAR = "INSERT INTO bloqueos_trabajo (trabajo, particion, token, completado) " +
+            "VALUES (:trabajo, :particion, 0, FALSE)";
+
+    private static final String CADUCIDAD = "TIMESTAMPADD(MICROSECOND, :duracion, LOCALTIMESTAMP(3))";
+
+    private static final String ABRIR_EJECUCION = "UPDATE bloqueos_trabajo SET ejecucion = :ejecucion, " +
+            "id_desde = (SELECT COALESCE(MIN(id), 0) FROM prestamos), " +
+            "id_hasta = (SELECT COALESCE(MAX(id), 0) FROM prestamos) " +
+            "WHERE trabajo = :trabajo AND particion = -1 AND (ejecucion IS NULL OR ejecucion < :ejecucion)";
+
+    private static final String LEER_CABECERA = "SELECT ejecucion, id_desde, id_hasta FROM bloqueos_trabajo " +
+            "WHERE trabajo = :trabajo AND particion = -1";
+
+    // Libre: completada o con el arrendamiento caducado. Pendiente: de una ejecución anterior o sin
+    // completar. Las claves de ejecución (fechas ISO) ordenan como texto: una réplica con el reloj
+    // atrasado no repite la ejecución de ayer.
+    private static final String RECLAMAR = "UPDATE bloqueos_trabajo SET ejecucion = :ejecucion, " +
+            "propietario = :propietario, token = token + 1, expira_en = " + CADUCIDAD + ", completado = FALSE " +
+            "WHERE trabajo = :trabajo AND particion = :particion " +
+            "AND (ejecucion IS NULL OR ejecucion < :ejecucion OR (ejecucion = :ejecucion AND completado = FALSE)) " +
+            "AND (completado = TRUE OR expira_en IS NULL OR expira_en < LOCALTIMESTAMP(3))";
+
+    private static final String LEER_TOKEN = "SELECT token FROM bloqueos_trabajo WHERE trabajo = :trabajo " +
+            "AND particion = :particion AND propietario = :propietario AND ejecucion = :ejecucion";
+
+    private static final String DEL_TOKEN = " WHERE trabajo = :trabajo AND particion = :particion " +
+            "AND token = :token AND completado = FALSE";
+
+    private static final String RENOVAR = "UPDATE bloqueos_trabajo SET expira_en = " + CADUCIDAD + DEL_TOKEN;
+
+    private static final String COMPLETAR = "UPDATE bloqueos_trabajo SET completado = TRUE, expira_en = NULL" + DEL_TOKEN;
+
+    private static final String LIBERAR = "UPDATE bloqueos_trabajo SET expira_en = NULL" + DEL_TOKEN;
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    BloqueoTrabajoRepositoryImpl(DataSource dataSource) {
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void asegurarParticiones(String trabajo, int particiones) {
+        Set<Integer> existentes = new HashSet<>(namedJdbcTemplate.queryForList(
+                PARTICIONES_EXISTENTES, new MapSqlParameterSource("trabajo", trabajo), Integer.class));
+        for (int particion = -1; particion < particiones; particion++) {
+            if (existentes.contains(particion)) {
+                continue;
+            }
+            try {
+                namedJdbcTemplate.update(INSERTAR, new MapSqlParameterSource()
+                        .addValue("trabajo", trabajo)
+                        .addValue("particion", particion));
+            } catch (DuplicateKeyException e) {
+                // Otra réplica la ha creado a la vez
+            }
+        }
+    }
+
+    @Override
+    public BloqueoTrabajo abrirEjecucion(String trabajo, String ejecucion) {
+        MapSqlParameterSource parametros = new MapSqlParameterSource()
+                .addValue("trabajo", trabajo)
+                .addValue("ejecucion", ejecucion);
+        namedJdbcTemplate.update(ABRIR_EJECUCION, parametros);
+        return namedJdbcTemplate.queryForObject(LEER_CABECERA, parametros, (rs, i) -> BloqueoTrabajo.builder()
+                .trabajo(trabajo)
+                .particion(-1)
+                .ejecucion(rs.getString("ejecucion"))
+                .idDesde(rs.getLong("id_desde"))
+                .idHasta(rs.getLong("id_hasta"))
+                .build());
+    }
+
+    @Override
+    public Long reclamar(String trabajo, int particion, String ejecucion, String propietario, long duracionMs) {
+        MapSqlParameterSource parametros = new MapSqlParameterSource()
+                .addValue("trabajo", trabajo)
+                .addValue("particion", particion)
+                .addValue("ejecucion", ejecucion)
+                .addValue("propietario", propietario)
+                .addValue("duracion", duracionMs * 1000);
+        if (namedJdbcTemplate.update(RECLAMAR, parametros) == 0) {
+            return null;
+        }
+        // Mientras dure el arrendamiento nadie más puede cambiar la fila
+        List<Long> token = namedJdbcTemplate.queryForList(LEER_TOKEN, parametros, Long.class);
+        return token.isEmpty() ? null : token.get(0);
+    }
+
+    @Override
+    public boolean renovar(String trabajo, int particion, long token, long duracionMs) {
+        return namedJdbcTemplate.update(RENOVAR, porToken(trabajo, particion, token)
+                .addValue("duracion", duracionMs * 1000)) == 1;
+    }
+
+    @Override
+    public boolean completar(String trabajo, int particion, long token) {
+        return namedJdbcTemplate.update(COMPLETAR, porToken(trabajo, particion, token)) == 1;
+    }
+
+    @Override
+    public void liberar(String trabajo, int particion, long token) {
+        namedJdbcTemplate.update(LIBERAR, porToken(trabajo, particion, token));
+    }
+
+    private static MapSqlParameterSource porToken(String trabajo, int particion, long token) {
+        return new MapSqlParameterSource()
+                .addValue("trabajo", trabajo)
+                .addValue("particion", particion)
+                .addValue("token", token);
+    }
+}
@@ -0,0 +1,9 @@
+package com.biblioteca.prestamos.repository;
+
+import com.biblioteca.prestamos.model.entity.CategoriaUsuario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CategoriaUsuarioRepository extends JpaRepository<CategoriaUsuario, Long> {
+}
@@ -0,0 +1,39 @@
+package com.biblioteca.prestamos.repository;
+
+import com.biblioteca.prestamos.model.entity.EventoOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EventoOutboxRepository extends JpaRepository<EventoOutbox, Long>, EventoOutboxRepositoryCustom {
+
+    List<EventoOutbox> findByFechaPublicacionIsNullOrderByIdAsc(Pageable pageable);
+
+    long countByFechaPublicacionIsNull();
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE EventoOutbox e SET e.fechaPublicacion = :fecha WHERE e.id IN :ids")
+    int marcarPublicados(@Param("ids") Collection<Long> ids, @Param("fecha") LocalDateTime fecha);
+
+    // Devoluciones aún sin publicar de préstamos rechazados: no deben sumar un ejemplar que no salió
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM EventoOutbox e WHERE e.prestamoId IN :prestamoIds AND e.fechaPublicacion IS NULL " +
+            "AND e.tipo = com.biblioteca.prestamos.model.enums.TipoEventoStock.LIBRO_DEVUELTO")
+    int descartarDevolucionesPendientes(@Param("prestamoIds") Collection<Long> prestamoIds);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM EventoOutbox e WHERE e.fechaPublicacion < :limite")
+    int eliminarPublicadosAntesDe(@Param("limite") LocalDateTime limite);
+}
@@ -0,0 +1,10 @@
+package com.biblioteca.prestamos.repository;
+
+import com.biblioteca.prestamos.model.entity.EventoOutbox;
+
+import java.util.List;
+
+public interface EventoOutboxRepositoryCustom {
+
+    void insertarEnLote(List<EventoOutbox> eventos);
+}
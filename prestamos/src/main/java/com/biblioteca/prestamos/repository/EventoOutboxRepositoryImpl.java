@@ -0,0 +1,32 @@
+package com.biblioteca.prestamos.repository;
+
+import com.biblioteca.prestamos.model.entity.EventoOutbox;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.List;
+
+// Fragmento JDBC de EventoOutboxRepository. Usa la conexión de la transacción JPA en curso.
+class EventoOutboxRepositoryImpl implements EventoOutboxRepositoryCustom {
+
+    private static final String INSERT = "INSERT INTO outbox_eventos " +
+            "(evento_id, tipo, prestamo_id, libro_id, fecha_creacion) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    EventoOutboxRepositoryImpl(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void insertarEnLote(List<EventoOutbox> eventos) {
+        jdbcTemplate.batchUpdate(INSERT, eventos, eventos.size(), (ps, evento) -> {
+            ps.setString(1, evento.getEventoId());
+            ps.setString(2, evento.getTipo().name());
+            ps.setLong(3, evento.getPrestamoId());
+            ps.setLong(4, evento.getLibroId());
+            ps.setTimestamp(5, Timestamp.valueOf(evento.getFechaCreacion()));
+        });
+    }
+}
@@ -0,0 +1,13 @@
+package com.biblioteca.prestamos.repository;
+
+import com.biblioteca.prestamos.model.entity.Multa;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MultaRepository extends JpaRepository<Multa, Long>, MultaRepositoryCustom {
+
+    List<Multa> findByUsuarioIdOrderByPrestamoIdDesc(Long usuarioId);
+}
@@ -0,0 +1,43 @@
+package com.biblioteca.prestamos.repository;
+
+import com.biblioteca.prestamos.model.entity.Multa;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+public interface MultaRepositoryCustom {
+
+    // Préstamo que puede tener multa. fechaFin es la de devolución si está cerrado, null si sigue
+    // abierto; categoria, null si el usuario no tiene ninguna asignada.
+    record PrestamoConRetraso(long prestamoId, long usuarioId, LocalDate fechaPrevista, LocalDate fechaFin,
+                              String categoria) {
+    }
+
+    // Lo que cambia el saldo de un usuario
+    record CambioSaldo(BigDecimal importe, int multas) {
+    }
+
+    // Página de préstamos con retraso con id en [desde, hasta), por id ascendente: los ACTIVO y
+    // VENCIDO con la fecha prevista anterior a hoy y los DEVUELTO y PERDIDO devueltos después de
+    // ella. De estos, con cerradosDesde, solo los modificados a partir de ese momento.
+    List<PrestamoConRetraso> leerConRetraso(long desde, long hasta, LocalDate hoy, LocalDateTime cerradosDesde,
+                                            int limite);
+
+    // Importe actual de las multas existentes de esos préstamos. Las filas quedan bloqueadas hasta
+    // el final de la transacción.
+    Map<Long, BigDecimal> bloquearImportes(Collection<Long> prestamoIds);
+
+    // INSERT / UPDATE por lotes JDBC
+    void insertar(List<Multa> multas);
+
+    void actualizar(List<Multa> multas);
+
+    // Suma los cambios a saldos_multas (crea las filas que falten). En orden de usuario: todos los
+    // lotes bloquean los saldos en el mismo orden y no se interbloquean entre ellos.
+    void sumarASaldos(SortedMap<Long, CambioSaldo> cambios, LocalDateTime ahora);
+}
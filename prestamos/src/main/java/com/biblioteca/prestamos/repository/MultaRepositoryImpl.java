@@ -0,0 +1,138 @@
+package com.biblioteca.prestamos.repository;
+
+import com.biblioteca.prestamos.model.entity.Multa;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+// Fragmento JDBC de MultaRepository. Usa la conexión de la transacción JPA en curso.
+class MultaRepositoryImpl implements MultaRepositoryCustom {
+
+    private static final String CON_RETRASO = "SELECT p.id, p.usuario_id, p.fecha_devolucion_prevista, " +
+            "p.estado, p.fecha_devolucion_real, c.categoria FROM prestamos p " +
+            "LEFT JOIN categorias_usuario c ON c.usuario_id = p.usuario_id " +
+            "WHERE p.id >= :desde AND p.id < :hasta AND (" +
+            "(p.estado IN ('ACTIVO', 'VENCIDO') AND p.fecha_devolucion_prevista < :hoy) OR " +
+            "(p.estado IN ('DEVUELTO', 'PERDIDO') AND p.fecha_devolucion_real > p.fecha_devolucion_prevista%s)) " +
+            "ORDER BY p.id LIMIT :limite";
+
+    private static final String TODOS = String.format(CON_RETRASO, "");
+
+    private static final String CERRADOS_DESDE = String.format(CON_RETRASO, " AND p.updated_at >= :cerradosDesde");
+
+    private static final String BLOQUEAR = "SELECT prestamo_id, importe FROM multas WHERE prestamo_id IN (:ids) FOR UPDATE";
+
+    private static final String INSERTAR = "INSERT INTO multas (usuario_id, categoria, dias_cobrados, importe, " +
+            "calculada_en, prestamo_id) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String ACTUALIZAR = "UPDATE multas SET usuario_id = ?, categoria = ?, dias_cobrados = ?, " +
+            "importe = ?, calculada_en = ? WHERE prestamo_id = ?";
+
+    // Una sentencia por usuario: dos lotes que crean a la vez el saldo de un usuario nuevo no chocan
+    private static final String SUMAR_A_SALDO = "INSERT INTO saldos_multas (usuario_id, importe_pendiente, " +
+            "multas_pendientes, actualizado_en) VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+            "importe_pendiente = importe_pendiente + VALUES(importe_pendiente), " +
+            "multas_pendientes = multas_pendientes + VALUES(multas_pendientes), " +
+            "actualizado_en = VALUES(actualizado_en)";
+
+    private static final RowMapper<PrestamoConRetraso> FILA = (rs, i) -> {
+        boolean abierto = switch (rs.getString("estado")) {
+            case "ACTIVO", "VENCIDO" -> true;
+            default -> false;
+        };
+        return new PrestamoConRetraso(
+                rs.getLong("id"),
+                rs.getLong("usuario_id"),
+                rs.getObject("fecha_devolucion_prevista", LocalDate.class),
+                abierto ? null : rs.getObject("fecha_devolucion_real", LocalDate.class),
+                rs.getString("categoria"));
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    MultaRepositoryImpl(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    @Override
+    public List<PrestamoConRetraso> leerConRetraso(long desde, long hasta, LocalDate hoy,
+                                                   LocalDateTime cerradosDesde, int limite) {
+        MapSqlParameterSource parametros = new MapSqlParameterSource()
+                .addValue("desde", desde)
+                .addValue("hasta", hasta)
+                .addValue("hoy", hoy)
+                .addValue("limite", limite);
+        if (cerradosDesde == null) {
+            return namedJdbcTemplate.query(TODOS, parametros, FILA);
+        }
+        return namedJdbcTemplate.query(CERRADOS_DESDE, parametros.addValue("cerradosDesde", cerradosDesde), FILA);
+    }
+
+    @Override
+    public Map<Long, BigDecimal> bloquearImportes(Collection<Long> prestamoIds) {
+        Map<Long, BigDecimal> importes = new HashMap<>();
+        if (prestamoIds.isEmpty()) {
+            return importes;
+        }
+        namedJdbcTemplate.query(BLOQUEAR, new MapSqlParameterSource("ids", prestamoIds),
+                rs -> {
+                    importes.put(rs.getLong(1), rs.getBigDecimal(2));
+                });
+        return importes;
+    }
+
+    @Override
+    public void insertar(List<Multa> multas) {
+        escribir(INSERTAR, multas);
+    }
+
+    @Override
+    public void actualizar(List<Multa> multas) {
+        escribir(ACTUALIZAR, multas);
+    }
+
+    // INSERTAR y ACTUALIZAR llevan las mismas columnas en el mismo orden
+    private void escribir(String sql, List<Multa> multas) {
+        if (multas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(sql, multas, multas.size(), (ps, multa) -> {
+            ps.setLong(1, multa.getUsuarioId());
+            ps.setString(2, multa.getCategoria());
+            ps.setInt(3, multa.getDiasCobrados());
+            ps.setBigDecimal(4, multa.getImporte());
+            ps.setTimestamp(5, Timestamp.valueOf(multa.getCalculadaEn()));
+            ps.setLong(6, multa.getPrestamoId());
+        });
+    }
+
+    @Override
+    public void sumarASaldos(SortedMap<Long, CambioSaldo> cambios, LocalDateTime ahora) {
+        if (cambios.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, CambioSaldo>> filas = new ArrayList<>(cambios.entrySet());
+        Timestamp actualizado = Timestamp.valueOf(ahora);
+        jdbcTemplate.batchUpdate(SUMAR_A_SALDO, filas, filas.size(), (ps, fila) -> {
+            ps.setLong(1, fila.getKey());
+            ps.setBigDecimal(2, fila.getValue().importe());
+            ps.setInt(3, fila.getValue().multas());
+            ps.setTimestamp(4, actualizado);
+        });
+    }
+}
@@ -0,0 +1,24 @@
+package com.biblioteca.prestamos.repository;
+
+import com.biblioteca.prestamos.model.enums.EstadoPrestamo;
+import com.biblioteca.prestamos.model.lectura.PrestamoLectura;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+
+@Repository
+public interface PrestamoLecturaRepository extends R2dbcRepository<PrestamoLectura, Long> {
+
+    Flux<PrestamoLectura> findByUsuarioId(Long usuarioId);
+
+    Flux<PrestamoLectura> findByLibroId(Long libroId);
+
+    Flux<PrestamoLectura> findByEstado(EstadoPrestamo estado);
+
+    @Query("SELECT * FROM prestamos WHERE estado IN ('ACTIVO', 'VENCIDO') AND fecha_devolucion_prevista < :fechaActual")
+    Flux<PrestamoLectura> findPrestamosVencidos(@Param("fechaActual") LocalDate fechaActual);
+}
@@ -1,18 +1,25 @@
 package com.biblioteca.prestamos.repository;
 
+import com.biblioteca.prestamos.controller.dto.PrestamoResponseDTO;
 import com.biblioteca.prestamos.model.entity.Prestamo;
 import com.biblioteca.prestamos.model.enums.EstadoPrestamo;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface PrestamoRepository extends JpaRepository<Prestamo, Long> {
+public interface PrestamoRepository extends JpaRepository<Prestamo, Long>, PrestamoRepositoryCustom {
 
     long countByEstado(EstadoPrestamo estado);
 
@@ -30,7 +37,13 @@ public interface PrestamoRepository extends JpaRepository<Prestamo, Long> {
 
     long countByUsuarioIdAndEstado(Long usuarioId, EstadoPrestamo estado);
 
-    @Query("SELECT p FROM Prestamo p WHERE p.estado = 'ACTIVO' AND p.fechaDevolucionPrevista < :fechaActual")
+    long countByUsuarioIdAndEstadoIn(Long usuarioId, Collection<EstadoPrestamo> estados);
+
+    boolean existsByLibroIdAndEstadoIn(Long libroId, Collection<EstadoPrestamo> estados);
+
+    // Los VENCIDO ya tienen la fecha prevista pasada; los ACTIVO que aún no ha marcado la rueda
+    // de vencimientos también cuentan
+    @Query("SELECT p FROM Prestamo p WHERE p.estado IN ('ACTIVO', 'VENCIDO') AND p.fechaDevolucionPrevista < :fechaActual")
     List<Prestamo> findPrestamosVencidos(@Param("fechaActual") LocalDate fechaActual);
 
     List<Prestamo> findByFechaPrestamoBetween(LocalDate inicio, LocalDate fin);
@@ -38,7 +51,86 @@ public interface PrestamoRepository extends JpaRepository<Prestamo, Long> {
     @Query("SELECT p FROM Prestamo p WHERE p.diasRetraso > 0")
     List<Prestamo> findPrestamosConRetraso();
 
+    // Préstamos abiertos (activos o vencidos) por usuario en una sola consulta: [usuarioId, total]
+    @Query("SELECT p.usuarioId, COUNT(p) FROM Prestamo p " +
+            "WHERE p.usuarioId IN :usuarioIds AND p.estado IN ('ACTIVO', 'VENCIDO') GROUP BY p.usuarioId")
+    List<Object[]> contarActivosPorUsuario(@Param("usuarioIds") Collection<Long> usuarioIds);
+
+    @Query("SELECT DISTINCT p.usuarioId FROM Prestamo p " +
+            "WHERE p.usuarioId IN :usuarioIds AND p.estado IN ('ACTIVO', 'VENCIDO') " +
+            "AND p.fechaDevolucionPrevista < :fechaActual")
+    List<Long> findUsuariosConPrestamosVencidos(@Param("usuarioIds") Collection<Long> usuarioIds,
+                                                @Param("fechaActual") LocalDate fechaActual);
+
+    // Lectura con bloqueo (SELECT ... FOR UPDATE): nadie puede cerrar estos préstamos hasta el commit
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Prestamo p WHERE p.id IN :ids")
+    List<Prestamo> findAllByIdParaCerrar(@Param("ids") Collection<Long> ids);
+
+    // Cierre masivo de préstamos: solo afecta a los que siguen abiertos (activos o vencidos). Fija
+    // dias_retraso a la fecha de cierre, como Prestamo.calcularDiasRetraso() en el cierre individual
+    @Modifying
+    @Query("UPDATE Prestamo p SET p.estado = :estado, p.fechaDevolucionReal = :fecha, p.updatedAt = :ahora, " +
+            "p.diasRetraso = CASE WHEN p.fechaDevolucionPrevista < :fecha " +
+            "THEN CAST((:fecha - p.fechaDevolucionPrevista) BY DAY AS Integer) ELSE 0 END, " +
+            "p.observaciones = COALESCE(:observaciones, p.observaciones) " +
+            "WHERE p.id IN :ids AND p.estado IN ('ACTIVO', 'VENCIDO')")
+    int cerrarPrestamosActivos(@Param("ids") Collection<Long> ids,
+                               @Param("estado") EstadoPrestamo estado,
+                               @Param("fecha") LocalDate fecha,
+                               @Param("ahora") LocalDateTime ahora,
+                               @Param("observaciones") String observaciones);
+
+    // Paso a VENCIDO de los préstamos que vencen a la vez (misma fecha prevista). Las condiciones
+    // sobre estado y fecha descartan los que se devolvieron o renovaron desde que se programaron.
+    @Modifying
+    @Query("UPDATE Prestamo p SET p.estado = com.biblioteca.prestamos.model.enums.EstadoPrestamo.VENCIDO, " +
+            "p.diasRetraso = :diasRetraso, p.updatedAt = :ahora " +
+            "WHERE p.id IN :ids AND p.estado = 'ACTIVO' AND p.fechaDevolucionPrevista = :fechaDevolucionPrevista")
+    int marcarVencidos(@Param("ids") Collection<Long> ids,
+                       @Param("fechaDevolucionPrevista") LocalDate fechaDevolucionPrevista,
+                       @Param("diasRetraso") int diasRetraso,
+                       @Param("ahora") LocalDateTime ahora);
+
+    // Compensación de un préstamo que libros rechazó (OutboxService): pasa a RECHAZADO aunque ya
+    // se hubiera devuelto, porque el ejemplar nunca llegó a salir
+    @Modifying
+    @Query("UPDATE Prestamo p SET p.estado = com.biblioteca.prestamos.model.enums.EstadoPrestamo.RECHAZADO, " +
+            "p.updatedAt = :ahora WHERE p.id IN :ids")
+    int marcarRechazados(@Param("ids") Collection<Long> ids, @Param("ahora") LocalDateTime ahora);
+
+    // Listados proyectados directamente a PrestamoResponseDTO: sin entidades gestionadas ni
+    // snapshots para el dirty checking. tituloLibro queda a null para que lo rellene el servicio.
+    String PROYECCION_DTO = "SELECT new com.biblioteca.prestamos.controller.dto.PrestamoResponseDTO(" +
+            "p.id, p.libroId, p.usuarioId, p.fechaPrestamo, p.fechaDevolucionPrevista, p.fechaDevolucionReal, " +
+            "p.estado, p.diasRetraso, p.observaciones) FROM Prestamo p";
+
+    @Query(PROYECCION_DTO)
+    List<PrestamoResponseDTO> listarTodos();
+
+    @Query(PROYECCION_DTO + " WHERE p.usuarioId = :usuarioId")
+    List<PrestamoResponseDTO> listarPorUsuario(@Param("usuarioId") Long usuarioId);
+
+    @Query(PROYECCION_DTO + " WHERE p.libroId = :libroId")
+    List<PrestamoResponseDTO> listarPorLibro(@Param("libroId") Long libroId);
+
+    @Query(PROYECCION_DTO + " WHERE p.estado IN ('ACTIVO', 'VENCIDO') AND p.fechaDevolucionPrevista < :fechaActual")
+    List<PrestamoResponseDTO> listarVencidos(@Param("fechaActual") LocalDate fechaActual);
+
+    // Conjunto caliente para el calentamiento (PrecargaPrestamos): préstamos abiertos más
+    // recientes, usuarios con más préstamos abiertos y libros más prestados
+    @Query("SELECT p.id FROM Prestamo p WHERE p.estado = 'ACTIVO' ORDER BY p.id DESC")
+    List<Long> idsActivosRecientes(Limit limite);
+
+    @Query("SELECT p.usuarioId FROM Prestamo p WHERE p.estado IN ('ACTIVO', 'VENCIDO') " +
+            "GROUP BY p.usuarioId ORDER BY COUNT(p) DESC")
+    List<Long> usuariosConMasAbiertos(Limit limite);
+
+    @Query("SELECT p.libroId FROM Prestamo p WHERE p.fechaPrestamo >= :desde " +
+            "GROUP BY p.libroId ORDER BY COUNT(p) DESC")
+    List<Long> librosMasPrestados(@Param("desde") LocalDate desde, Limit limite);
+
     default boolean isLibroPrestado(Long libroId) {
-        return findByLibroIdAndEstado(libroId, EstadoPrestamo.ACTIVO).isPresent();
+        return existsByLibroIdAndEstadoIn(libroId, EstadoPrestamo.ABIERTOS);
     }
 }
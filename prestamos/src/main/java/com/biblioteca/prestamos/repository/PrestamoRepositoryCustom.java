@@ -0,0 +1,35 @@
+package com.biblioteca.prestamos.repository;
+
+import com.biblioteca.prestamos.controller.dto.PrestamoResponseDTO;
+import com.biblioteca.prestamos.model.entity.Prestamo;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+public interface PrestamoRepositoryCustom {
+
+    // INSERT por lotes JDBC (IDENTITY impide el batching de Hibernate); asigna los IDs generados
+    void insertarEnLote(List<Prestamo> prestamos);
+
+    // Recorre los préstamos ACTIVO (id, fecha prevista) sin cargarlos en memoria a la vez;
+    // lo resuelve el índice (estado, fecha_devolucion_prevista) sin leer la tabla
+    void recorrerActivos(BiConsumer<Long, LocalDate> consumidor);
+
+    // IDs en [idDesde, idHasta) de préstamos DEVUELTO/PERDIDO cerrados antes de la fecha indicada,
+    // los más antiguos primero
+    List<Long> idsArchivables(LocalDate cerradosAntesDe, long idDesde, long idHasta, int limite);
+
+    // Copia los préstamos a prestamos_historico y los borra de prestamos; devuelve cuántos movió
+    int archivar(List<Long> ids, LocalDateTime fechaArchivado);
+
+    // Préstamos de la tabla caliente y del histórico juntos, los más recientes primero
+    List<PrestamoResponseDTO> listarConHistoricoPorUsuario(Long usuarioId);
+
+    List<PrestamoResponseDTO> listarConHistoricoPorLibro(Long libroId);
+
+    // Solo MySQL: particiona prestamos_historico por meses y crea las particiones hasta el mes indicado
+    void asegurarParticionesHistorico(YearMonth hasta);
+}
@@ -0,0 +1,241 @@
+package com.biblioteca.prestamos.repository;
+
+import com.biblioteca.prestamos.controller.dto.PrestamoResponseDTO;
+import com.biblioteca.prestamos.model.entity.Prestamo;
+import com.biblioteca.prestamos.model.enums.EstadoPrestamo;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+// Fragmento JDBC de PrestamoRepository. Usa la conexión de la transacción JPA en curso.
+class PrestamoRepositoryImpl implements PrestamoRepositoryCustom {
+
+    private static final String INSERT = "INSERT INTO prestamos (libro_id, usuario_id, fecha_prestamo, " +
+            "fecha_devolucion_prevista, estado, dias_retraso, observaciones, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String COLUMNAS = "id, libro_id, usuario_id, fecha_prestamo, fecha_devolucion_prevista, " +
+            "fecha_devolucion_real, estado, dias_retraso, observaciones, created_at, updated_at";
+
+    private static final String ACTIVOS = "SELECT id, fecha_devolucion_prevista FROM prestamos WHERE estado = 'ACTIVO'";
+
+    private static final String CERRADOS = "estado IN ('DEVUELTO', 'PERDIDO')";
+
+    private static final String IDS_ARCHIVABLES = "SELECT id FROM prestamos WHERE " + CERRADOS +
+            " AND fecha_devolucion_real < :fecha AND id >= :desde AND id < :hasta ORDER BY fecha_devolucion_real, id LIMIT :limite";
+
+    private static final String COPIAR_A_HISTORICO = "INSERT INTO prestamos_historico (" + COLUMNAS +
+            ", fecha_archivado) SELECT " + COLUMNAS + ", :fechaArchivado FROM prestamos WHERE id IN (:ids) AND " + CERRADOS;
+
+    private static final String BORRAR_ARCHIVADOS = "DELETE FROM prestamos WHERE id IN (:ids) AND " + CERRADOS;
+
+    private static final String COLUMNAS_DTO = "id, libro_id, usuario_id, fecha_prestamo, fecha_devolucion_prevista, " +
+            "fecha_devolucion_real, estado, dias_retraso, observaciones";
+
+    private static final String CON_HISTORICO = "SELECT " + COLUMNAS_DTO + " FROM prestamos WHERE %1$s = :id " +
+            "UNION ALL SELECT " + COLUMNAS_DTO + " FROM prestamos_historico WHERE %1$s = :id " +
+            "ORDER BY fecha_prestamo DESC, id DESC";
+
+    private static final DateTimeFormatter NOMBRE_PARTICION = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private static final RowMapper<PrestamoResponseDTO> FILA_A_DTO = (rs, i) -> new PrestamoResponseDTO(
+            rs.getLong("id"),
+            rs.getLong("libro_id"),
+            rs.getLong("usuario_id"),
+            rs.getObject("fecha_prestamo", LocalDate.class),
+            rs.getObject("fecha_devolucion_prevista", LocalDate.class),
+            rs.getObject("fecha_devolucion_real", LocalDate.class),
+            EstadoPrestamo.valueOf(rs.getString("estado")),
+            rs.getObject("dias_retraso", Integer.class),
+            rs.getString("observaciones"));
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private Boolean mySql;
+
+    PrestamoRepositoryImpl(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    @Override
+    public void insertarEnLote(List<Prestamo> prestamos) {
+        if (prestamos.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime ahora = LocalDateTime.now();
+        KeyHolder claves = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Prestamo prestamo = prestamos.get(i);
+                        prestamo.setCreatedAt(ahora);
+                        prestamo.setUpdatedAt(ahora);
+                        ps.setLong(1, prestamo.getLibroId());
+                        ps.setLong(2, prestamo.getUsuarioId());
+                        ps.setDate(3, Date.valueOf(prestamo.getFechaPrestamo()));
+                        ps.setDate(4, Date.valueOf(prestamo.getFechaDevolucionPrevista()));
+                        ps.setString(5, prestamo.getEstado().name());
+                        if (prestamo.getDiasRetraso() != null) {
+                            ps.setInt(6, prestamo.getDiasRetraso());
+                        } else {
+                            ps.setNull(6, Types.INTEGER);
+                        }
+                        ps.setString(7, prestamo.getObservaciones());
+                        ps.setTimestamp(8, Timestamp.valueOf(ahora));
+                        ps.setTimestamp(9, Timestamp.valueOf(ahora));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return prestamos.size();
+                    }
+                },
+                claves);
+
+        List<Map<String, Object>> generadas = claves.getKeyList();
+        if (generadas.size() != prestamos.size()) {
+            // Sin una clave por fila no se puede saber qué id corresponde a cada préstamo: se deshace el lote
+            throw new IllegalStateException(String.format(
+                    "Insertados %d préstamos pero el driver devolvió %d claves", prestamos.size(), generadas.size()));
+        }
+        for (int i = 0; i < prestamos.size(); i++) {
+            Object id = generadas.get(i).values().iterator().next();
+            prestamos.get(i).setId(((Number) id).longValue());
+        }
+    }
+
+    @Override
+    public void recorrerActivos(BiConsumer<Long, LocalDate> consumidor) {
+        jdbcTemplate.query(ACTIVOS, rs -> {
+            consumidor.accept(rs.getLong(1), rs.getObject(2, LocalDate.class));
+        });
+    }
+
+    @Override
+    public List<Long> idsArchivables(LocalDate cerradosAntesDe, long idDesde, long idHasta, int limite) {
+        return namedJdbcTemplate.queryForList(IDS_ARCHIVABLES, new MapSqlParameterSource()
+                .addValue("fecha", cerradosAntesDe)
+                .addValue("desde", idDesde)
+                .addValue("hasta", idHasta)
+                .addValue("limite", limite), Long.class);
+    }
+
+    @Override
+    public int archivar(List<Long> ids, LocalDateTime fechaArchivado) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        MapSqlParameterSource parametros = new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("fechaArchivado", fechaArchivado);
+        int copiados = namedJdbcTemplate.update(COPIAR_A_HISTORICO, parametros);
+        int borrados = namedJdbcTemplate.update(BORRAR_ARCHIVADOS, parametros);
+        if (copiados != borrados) {
+            // Algún préstamo cambió entre las dos sentencias: se deshace el lote entero
+            throw new IllegalStateException(String.format(
+                    "Archivado inconsistente: %d copiados y %d borrados", copiados, borrados));
+        }
+        return borrados;
+    }
+
+    @Override
+    public List<PrestamoResponseDTO> listarConHistoricoPorUsuario(Long usuarioId) {
+        return namedJdbcTemplate.query(String.format(CON_HISTORICO, "usuario_id"),
+                new MapSqlParameterSource("id", usuarioId), FILA_A_DTO);
+    }
+
+    @Override
+    public List<PrestamoResponseDTO> listarConHistoricoPorLibro(Long libroId) {
+        return namedJdbcTemplate.query(String.format(CON_HISTORICO, "libro_id"),
+                new MapSqlParameterSource("id", libroId), FILA_A_DTO);
+    }
+
+    // DDL: en MySQL confirma implícitamente, así que debe llamarse fuera de cualquier transacción
+    @Override
+    public void asegurarParticionesHistorico(YearMonth hasta) {
+        if (!esMySql()) {
+            return;
+        }
+
+        List<String> limites = jdbcTemplate.queryForList(
+                "SELECT PARTITION_DESCRIPTION FROM information_schema.PARTITIONS " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'prestamos_historico' " +
+                        "AND PARTITION_NAME IS NOT NULL", String.class);
+
+        YearMonth desde;
+        if (limites.isEmpty()) {
+            // Primera vez: todo lo anterior al préstamo más antiguo queda en p_anterior
+            desde = Stream.of(
+                            jdbcTemplate.queryForObject("SELECT MIN(fecha_prestamo) FROM prestamos", LocalDate.class),
+                            jdbcTemplate.queryForObject("SELECT MIN(fecha_prestamo) FROM prestamos_historico", LocalDate.class))
+                    .filter(Objects::nonNull)
+                    .map(YearMonth::from)
+                    .min(YearMonth::compareTo)
+                    .orElse(hasta);
+            jdbcTemplate.execute("ALTER TABLE prestamos_historico PARTITION BY RANGE COLUMNS (fecha_prestamo) (" +
+                    "PARTITION p_anterior VALUES LESS THAN ('" + desde.atDay(1) + "'), " +
+                    "PARTITION p_futuro VALUES LESS THAN (MAXVALUE))");
+        } else {
+            // Los límites son 'yyyy-MM-01' (y MAXVALUE para p_futuro): se sigue desde el último
+            desde = limites.stream()
+                    .filter(limite -> !"MAXVALUE".equalsIgnoreCase(limite))
+                    .map(limite -> YearMonth.from(LocalDate.parse(limite.replace("'", ""))))
+                    .max(YearMonth::compareTo)
+                    .orElse(hasta);
+        }
+
+        if (desde.isAfter(hasta)) {
+            return;
+        }
+        StringBuilder particiones = new StringBuilder();
+        for (YearMonth mes = desde; !mes.isAfter(hasta); mes = mes.plusMonths(1)) {
+            particiones.append("PARTITION ").append(mes.format(NOMBRE_PARTICION))
+                    .append(" VALUES LESS THAN ('").append(mes.plusMonths(1).atDay(1)).append("'), ");
+        }
+        jdbcTemplate.execute("ALTER TABLE prestamos_historico REORGANIZE PARTITION p_futuro INTO (" +
+                particiones + "PARTITION p_futuro VALUES LESS THAN (MAXVALUE))");
+    }
+
+    private boolean esMySql() {
+        if (mySql == null) {
+            try {
+                String producto = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+                mySql = "MySQL".equalsIgnoreCase(producto);
+            } catch (MetaDataAccessException e) {
+                return false;
+            }
+        }
+        return mySql;
+    }
+}
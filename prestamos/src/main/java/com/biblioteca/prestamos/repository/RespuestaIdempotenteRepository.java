@@ -0,0 +1,43 @@
+package com.biblioteca.prestamos.repository;
+
+import com.biblioteca.prestamos.model.entity.RespuestaIdempotente;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface RespuestaIdempotenteRepository extends JpaRepository<RespuestaIdempotente, String> {
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE RespuestaIdempotente r SET r.completada = true, r.codigoEstado = :codigoEstado, " +
+            "r.contentType = :contentType, r.cuerpoRespuesta = :cuerpo, r.fechaExpiracion = :expiracion " +
+            "WHERE r.clave = :clave")
+    int completar(@Param("clave") String clave,
+                  @Param("codigoEstado") int codigoEstado,
+                  @Param("contentType") String contentType,
+                  @Param("cuerpo") byte[] cuerpo,
+                  @Param("expiracion") LocalDateTime expiracion);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RespuestaIdempotente r WHERE r.clave = :clave AND r.completada = false")
+    int liberar(@Param("clave") String clave);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE RespuestaIdempotente r SET r.fechaExpiracion = :expiracion " +
+            "WHERE r.clave IN :claves AND r.completada = false")
+    int renovar(@Param("claves") Collection<String> claves, @Param("expiracion") LocalDateTime expiracion);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RespuestaIdempotente r WHERE r.fechaExpiracion < :ahora")
+    int eliminarExpiradas(@Param("ahora") LocalDateTime ahora);
+}
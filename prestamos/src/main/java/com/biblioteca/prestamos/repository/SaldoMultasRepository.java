@@ -0,0 +1,10 @@
+package com.biblioteca.prestamos.repository;
+
+import com.biblioteca.prestamos.model.entity.SaldoMultas;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+// Solo lectura: las filas las mantiene MultaRepository.sumarASaldos
+@Repository
+public interface SaldoMultasRepository extends JpaRepository<SaldoMultas, Long> {
+}
@@ -0,0 +1,25 @@
+package com.biblioteca.prestamos.scheduling;
+
+import com.biblioteca.prestamos.service.ArchivoPrestamosService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ArchivoScheduler {
+
+    private final ArchivoPrestamosService archivoPrestamosService;
+
+    // Por defecto de madrugada, a las 4:00; "-" lo desactiva
+    @Scheduled(cron = "${prestamos.archivo.cron:0 0 4 * * *}")
+    public void archivarPrestamosCerrados() {
+        try {
+            archivoPrestamosService.archivarCerrados();
+        } catch (Exception e) {
+            log.error("Error al archivar préstamos cerrados: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.biblioteca.prestamos.scheduling;
+
+import com.biblioteca.prestamos.service.BloqueoTrabajoService;
+import com.biblioteca.prestamos.service.IdempotenciaService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdempotenciaScheduler {
+
+    private final IdempotenciaService idempotenciaService;
+    private final BloqueoTrabajoService bloqueoTrabajoService;
+
+    @Scheduled(cron = "0 15 * * * *") // Ejecutar cada hora, en una sola instancia
+    public void purgarRespuestasExpiradas() {
+        try {
+            String hora = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).toString();
+            bloqueoTrabajoService.ejecutar("idempotencia-purga", hora, 1,
+                    arrendamiento -> idempotenciaService.purgarExpiradas());
+        } catch (Exception e) {
+            log.error("Error al purgar respuestas idempotentes: {}", e.getMessage(), e);
+        }
+    }
+
+    // Cada instancia renueva sus propias reservas; debe ir bastante por debajo de bloqueo-segundos
+    @Scheduled(fixedDelayString = "${prestamos.idempotencia.renovacion-ms:10000}")
+    public void renovarReservasEnCurso() {
+        try {
+            idempotenciaService.renovarReservas();
+        } catch (Exception e) {
+            log.error("Error al renovar reservas idempotentes: {}", e.getMessage(), e);
+        }
+    }
+}
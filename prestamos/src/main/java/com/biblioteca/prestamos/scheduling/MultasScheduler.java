@@ -0,0 +1,26 @@
+package com.biblioteca.prestamos.scheduling;
+
+import com.biblioteca.prestamos.service.MultasService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MultasScheduler {
+
+    private final MultasService multasService;
+
+    // El cálculo diario va con el barrido de vencimientos (PrestamoScheduler). Este recálculo
+    // completo está desactivado por defecto ("-"); también se lanza con POST /api/prestamos/multas/recalcular.
+    @Scheduled(cron = "${prestamos.multas.recalculo-cron:-}")
+    public void recalcularMultas() {
+        try {
+            multasService.recalcular();
+        } catch (Exception e) {
+            log.error("Error al recalcular las multas: {}", e.getMessage(), e);
+        }
+    }
+}
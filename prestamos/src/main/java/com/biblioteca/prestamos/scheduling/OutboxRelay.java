@@ -0,0 +1,38 @@
+package com.biblioteca.prestamos.scheduling;
+
+import com.biblioteca.prestamos.service.BloqueoTrabajoService;
+import com.biblioteca.prestamos.service.OutboxService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxRelay {
+
+    private final OutboxService outboxService;
+    private final BloqueoTrabajoService bloqueoTrabajoService;
+
+    @Scheduled(fixedDelayString = "${prestamos.outbox.intervalo-ms:500}")
+    public void publicarEventos() {
+        try {
+            outboxService.publicarPendientes();
+        } catch (Exception e) {
+            log.error("Error al publicar eventos del outbox: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(cron = "0 30 3 * * *") // Ejecutar diariamente a las 3:30 AM, en una sola instancia
+    public void purgarEventos() {
+        try {
+            bloqueoTrabajoService.ejecutar("outbox-purga", LocalDate.now().toString(), 1,
+                    arrendamiento -> outboxService.purgarPublicados());
+        } catch (Exception e) {
+            log.error("Error al purgar eventos del outbox: {}", e.getMessage(), e);
+        }
+    }
+}
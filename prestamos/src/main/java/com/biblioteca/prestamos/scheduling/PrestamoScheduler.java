@@ -1,6 +1,7 @@
 package com.biblioteca.prestamos.scheduling;
 
 import com.biblioteca.prestamos.service.PrestamoService;
+import com.biblioteca.prestamos.service.VencimientosService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -12,15 +13,27 @@ import org.springframework.stereotype.Component;
 public class PrestamoScheduler {
 
     private final PrestamoService prestamoService;
+    private final VencimientosService vencimientosService;
 
-    @Scheduled(cron = "0 0 6 * * *") // Ejecutar diariamente a las 6 AM
+    // La rueda de vencimientos se carga al arrancar y se recarga cada cierto tiempo para recoger
+    // los préstamos creados o renovados desde otras instancias del servicio
+    @Scheduled(initialDelay = 0, fixedDelayString = "${prestamos.vencimientos.recarga-ms:21600000}")
+    public void cargarVencimientos() {
+        try {
+            vencimientosService.cargar();
+            prestamoService.actualizarEstadosAutomaticamente();
+        } catch (Exception e) {
+            log.error("Error al cargar la rueda de vencimientos: {}", e.getMessage(), e);
+        }
+    }
+
+    // Nada más empezar el día: vencen los préstamos cuya fecha prevista fue ayer
+    @Scheduled(cron = "${prestamos.vencimientos.cron:1 0 0 * * *}")
     public void actualizarEstadosPrestamos() {
-        log.info("Iniciando actualización automática de estados de préstamos");
         try {
             prestamoService.actualizarEstadosAutomaticamente();
-            log.info("Actualización de estados completada exitosamente");
         } catch (Exception e) {
             log.error("Error al actualizar estados de préstamos: {}", e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+}
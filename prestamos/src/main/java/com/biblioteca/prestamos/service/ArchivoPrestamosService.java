@@ -0,0 +1,8 @@
+package com.biblioteca.prestamos.service;
+
+public interface ArchivoPrestamosService {
+
+    // Mueve a prestamos_historico los préstamos cerrados hace más de la antigüedad configurada,
+    // en lotes pequeños y con pausas entre ellos; devuelve cuántos movió esta instancia
+    int archivarCerrados();
+}
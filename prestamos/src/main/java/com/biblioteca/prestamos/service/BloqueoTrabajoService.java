@@ -0,0 +1,28 @@
+package com.biblioteca.prestamos.service;
+
+import java.util.function.Consumer;
+
+public interface BloqueoTrabajoService {
+
+    // Partición reclamada: ids de préstamo en [idDesde, idHasta) y token de exclusión, que crece
+    // con cada reclamación de la partición
+    record Arrendamiento(String trabajo, int particion, long token, long idDesde, long idHasta,
+                         Runnable renovador) {
+
+        public boolean contiene(long id) {
+            return id >= idDesde && id < idHasta;
+        }
+
+        // Alarga el arrendamiento en las ejecuciones largas. Dentro de la transacción del trabajo
+        // hace además de barrera: si otra réplica se ha quedado la partición lanza
+        // BloqueoPerdidoException y esa transacción no se confirma.
+        public void renovar() {
+            renovador.run();
+        }
+    }
+
+    // Ejecuta la tarea una sola vez por ejecución (p. ej. la fecha de un trabajo diario) en todo el
+    // clúster. Con varias particiones, cada una es un rango de ids de préstamo y cada réplica
+    // procesa las que consigue reclamar. Devuelve cuántas ha completado esta réplica.
+    int ejecutar(String trabajo, String ejecucion, int particiones, Consumer<Arrendamiento> tarea);
+}
@@ -0,0 +1,24 @@
+package com.biblioteca.prestamos.service;
+
+import java.util.Optional;
+
+public interface IdempotenciaService {
+
+    Optional<RespuestaGuardada> buscar(String clave);
+
+    // false si otra petición con la misma clave está en curso
+    boolean reservar(String clave, String huellaPeticion);
+
+    void completar(String clave, String huellaPeticion, int codigoEstado, String contentType, byte[] cuerpo);
+
+    void liberar(String clave);
+
+    // Alarga el bloqueo de las reservas que esta instancia sigue procesando
+    int renovarReservas();
+
+    int purgarExpiradas();
+
+    record RespuestaGuardada(String huellaPeticion, int codigoEstado, String contentType, byte[] cuerpo,
+                             long expiraEn) {
+    }
+}
@@ -0,0 +1,31 @@
+package com.biblioteca.prestamos.service;
+
+import com.biblioteca.prestamos.controller.dto.CalculoMultasDTO;
+import com.biblioteca.prestamos.controller.dto.MultaDTO;
+import com.biblioteca.prestamos.controller.dto.SaldoMultasDTO;
+
+import java.util.List;
+
+public interface MultasService {
+
+    // Cálculo diario tras el barrido de vencimientos: revisa los préstamos abiertos con retraso y
+    // los cerrados en los últimos prestamos.multas.dias-revision días, y escribe solo las multas
+    // cuyo importe cambia. Una vez al día en todo el clúster, repartido por rangos de ids.
+    CalculoMultasDTO acumular();
+
+    // Vuelve a calcular todas las multas de los préstamos de la tabla caliente con las tarifas y
+    // categorías actuales (p. ej. tras cambiar una tarifa). Cada llamada es una ejecución nueva;
+    // si esta instancia ya tiene un recálculo en marcha lanza RecalculoMultasEnCursoException.
+    CalculoMultasDTO recalcular();
+
+    // Lanza recalcular() en un hilo propio y vuelve enseguida; el resultado solo queda en el log
+    void recalcularEnSegundoPlano();
+
+    // Del agregado saldos_multas, sin sumar las multas
+    SaldoMultasDTO obtenerSaldo(Long usuarioId);
+
+    List<MultaDTO> obtenerMultas(Long usuarioId);
+
+    // Se aplica a partir del siguiente cálculo
+    void asignarCategoria(Long usuarioId, String categoria);
+}
@@ -0,0 +1,18 @@
+package com.biblioteca.prestamos.service;
+
+import com.biblioteca.prestamos.model.entity.Prestamo;
+import com.biblioteca.prestamos.model.enums.TipoEventoStock;
+
+import java.util.List;
+
+public interface OutboxService {
+
+    // Debe llamarse dentro de la transacción que modifica el préstamo
+    void registrarEvento(TipoEventoStock tipo, Prestamo prestamo);
+
+    void registrarEventos(TipoEventoStock tipo, List<Prestamo> prestamos);
+
+    int publicarPendientes();
+
+    int purgarPublicados();
+}
@@ -0,0 +1,17 @@
+package com.biblioteca.prestamos.service;
+
+import com.biblioteca.prestamos.controller.dto.PrestamoResponseDTO;
+import reactor.core.publisher.Flux;
+
+public interface PrestamoLecturaReactivaService {
+
+    Flux<PrestamoResponseDTO> obtenerTodosPrestamos();
+
+    Flux<PrestamoResponseDTO> obtenerPrestamosPorUsuario(Long usuarioId);
+
+    Flux<PrestamoResponseDTO> obtenerPrestamosPorLibro(Long libroId);
+
+    Flux<PrestamoResponseDTO> obtenerPrestamosActivos();
+
+    Flux<PrestamoResponseDTO> obtenerPrestamosVencidos();
+}
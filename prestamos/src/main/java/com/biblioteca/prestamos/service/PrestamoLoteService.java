@@ -0,0 +1,18 @@
+package com.biblioteca.prestamos.service;
+
+import com.biblioteca.prestamos.controller.dto.DevolucionLoteRequestDTO;
+import com.biblioteca.prestamos.controller.dto.PrestamoLoteRequestDTO;
+import com.biblioteca.prestamos.controller.dto.ResultadoLoteDTO;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface PrestamoLoteService {
+
+    ResultadoLoteDTO crearPrestamos(PrestamoLoteRequestDTO request);
+
+    ResultadoLoteDTO registrarDevoluciones(DevolucionLoteRequestDTO request);
+
+    // Igual, pero entrega los resultados de cada tramo en cuanto se confirma su transacción
+    void registrarDevoluciones(DevolucionLoteRequestDTO request, Consumer<List<ResultadoLoteDTO.Item>> alConfirmarTramo);
+}
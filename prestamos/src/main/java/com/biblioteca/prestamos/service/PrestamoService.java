@@ -17,6 +17,11 @@ public interface PrestamoService {
 
     List<PrestamoResponseDTO> obtenerPrestamosPorLibro(Long libroId);
 
+    // Incluyen los préstamos ya archivados en prestamos_historico
+    List<PrestamoResponseDTO> obtenerHistorialPorUsuario(Long usuarioId);
+
+    List<PrestamoResponseDTO> obtenerHistorialPorLibro(Long libroId);
+
     List<PrestamoResponseDTO> obtenerPrestamosActivos();
 
     List<PrestamoResponseDTO> obtenerPrestamosVencidos();
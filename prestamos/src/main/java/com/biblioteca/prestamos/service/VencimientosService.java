@@ -0,0 +1,26 @@
+package com.biblioteca.prestamos.service;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+
+public interface VencimientosService {
+
+    // Programa (o reprograma tras una renovación) el paso a VENCIDO de un préstamo activo.
+    // Dentro de una transacción se aplica al confirmarla.
+    void programar(Long prestamoId, LocalDate fechaDevolucionPrevista);
+
+    void programar(Map<Long, LocalDate> fechasPorPrestamo);
+
+    // Préstamos devueltos, perdidos o eliminados
+    void cancelar(Long prestamoId);
+
+    void cancelar(Collection<Long> prestamoIds);
+
+    // Recorre los préstamos ACTIVO de la base de datos y los programa
+    void cargar();
+
+    // Avanza la rueda hasta hoy y marca VENCIDO los préstamos que han vencido dentro de los rangos
+    // de ids que esta instancia reclama para el día; devuelve cuántos
+    int procesarVencimientos();
+}
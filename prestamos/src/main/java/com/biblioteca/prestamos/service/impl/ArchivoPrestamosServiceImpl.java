@@ -0,0 +1,114 @@
+package com.biblioteca.prestamos.service.impl;
+
+import com.biblioteca.prestamos.repository.PrestamoRepository;
+import com.biblioteca.prestamos.service.ArchivoPrestamosService;
+import com.biblioteca.prestamos.service.BloqueoTrabajoService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Service
+public class ArchivoPrestamosServiceImpl implements ArchivoPrestamosService {
+
+    static final String TRABAJO = "archivo";
+    static final String TRABAJO_PARTICIONES = "archivo-particiones";
+
+    private final PrestamoRepository prestamoRepository;
+    private final BloqueoTrabajoService bloqueoTrabajoService;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter archivados;
+    private final int antiguedadDias;
+    private final int tamanoLote;
+    private final long pausaMs;
+    private final int maxLotes;
+    private final int particiones;
+
+    public ArchivoPrestamosServiceImpl(PrestamoRepository prestamoRepository,
+                                       BloqueoTrabajoService bloqueoTrabajoService,
+                                       TransactionTemplate transactionTemplate,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${prestamos.archivo.antiguedad-dias:365}") int antiguedadDias,
+                                       @Value("${prestamos.archivo.tamano-lote:500}") int tamanoLote,
+                                       @Value("${prestamos.archivo.pausa-ms:200}") long pausaMs,
+                                       @Value("${prestamos.archivo.max-lotes:200}") int maxLotes,
+                                       @Value("${prestamos.archivo.particiones:4}") int particiones) {
+        this.prestamoRepository = prestamoRepository;
+        this.bloqueoTrabajoService = bloqueoTrabajoService;
+        this.transactionTemplate = transactionTemplate;
+        this.archivados = Counter.builder("prestamos.archivo.archivados")
+                .description("Préstamos cerrados movidos a prestamos_historico")
+                .register(meterRegistry);
+        this.antiguedadDias = antiguedadDias;
+        this.tamanoLote = tamanoLote;
+        this.pausaMs = pausaMs;
+        this.maxLotes = maxLotes;
+        this.particiones = particiones;
+    }
+
+    // Sin transacción propia: cada lote confirma por separado para no retener bloqueos
+    // ni inflar el undo log con una única transacción enorme. Una vez al día en todo el clúster:
+    // cada réplica archiva los rangos de ids que consigue reclamar.
+    @Override
+    public int archivarCerrados() {
+        String ejecucion = LocalDate.now().toString();
+        // Las particiones del mes en curso deben existir antes de copiar nada
+        bloqueoTrabajoService.ejecutar(TRABAJO_PARTICIONES, ejecucion, 1, arrendamiento ->
+                prestamoRepository.asegurarParticionesHistorico(YearMonth.now().plusMonths(1)));
+
+        LocalDate horizonte = LocalDate.now().minusDays(antiguedadDias);
+        AtomicInteger total = new AtomicInteger();
+        bloqueoTrabajoService.ejecutar(TRABAJO, ejecucion, particiones, arrendamiento ->
+                total.addAndGet(archivarRango(arrendamiento, horizonte)));
+
+        if (total.get() > 0) {
+            log.info("Archivados {} préstamos cerrados antes de {}", total.get(), horizonte);
+        }
+        return total.get();
+    }
+
+    // Como mucho maxLotes por rango de ids
+    private int archivarRango(BloqueoTrabajoService.Arrendamiento arrendamiento, LocalDate horizonte) {
+        int total = 0;
+        for (int lote = 0; lote < maxLotes; lote++) {
+            Integer movidos = transactionTemplate.execute(status -> {
+                arrendamiento.renovar();
+                List<Long> ids = prestamoRepository.idsArchivables(horizonte,
+                        arrendamiento.idDesde(), arrendamiento.idHasta(), tamanoLote);
+                return prestamoRepository.archivar(ids, LocalDateTime.now());
+            });
+            if (movidos == null || movidos == 0) {
+                break;
+            }
+            total += movidos;
+            archivados.increment(movidos);
+            if (movidos < tamanoLote || !pausar()) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private boolean pausar() {
+        if (pausaMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pausaMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Archivado interrumpido; se continuará en la próxima ejecución");
+            return false;
+        }
+    }
+}
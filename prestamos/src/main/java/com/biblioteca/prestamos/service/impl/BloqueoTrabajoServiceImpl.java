@@ -0,0 +1,112 @@
+package com.biblioteca.prestamos.service.impl;
+
+import com.biblioteca.prestamos.exception.BloqueoPerdidoException;
+import com.biblioteca.prestamos.model.entity.BloqueoTrabajo;
+import com.biblioteca.prestamos.repository.BloqueoTrabajoRepository;
+import com.biblioteca.prestamos.service.BloqueoTrabajoService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+@Slf4j
+@Service
+public class BloqueoTrabajoServiceImpl implements BloqueoTrabajoService {
+
+    private final BloqueoTrabajoRepository bloqueoTrabajoRepository;
+    private final MeterRegistry meterRegistry;
+    private final String propietario;
+    private final long arrendamientoMs;
+
+    public BloqueoTrabajoServiceImpl(BloqueoTrabajoRepository bloqueoTrabajoRepository,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${prestamos.trabajos.propietario:}") String propietario,
+                                     @Value("${prestamos.trabajos.arrendamiento-ms:60000}") long arrendamientoMs) {
+        this.bloqueoTrabajoRepository = bloqueoTrabajoRepository;
+        this.meterRegistry = meterRegistry;
+        // pid@host más un sufijo: dos arranques seguidos del mismo proceso no comparten identidad
+        this.propietario = propietario.isBlank()
+                ? ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8)
+                : propietario;
+        this.arrendamientoMs = arrendamientoMs;
+    }
+
+    @Override
+    public int ejecutar(String trabajo, String ejecucion, int particiones, Consumer<Arrendamiento> tarea) {
+        bloqueoTrabajoRepository.asegurarParticiones(trabajo, particiones);
+
+        long idMinimo = 0;
+        long ancho = 0;
+        if (particiones > 1) {
+            BloqueoTrabajo cabecera = bloqueoTrabajoRepository.abrirEjecucion(trabajo, ejecucion);
+            if (!ejecucion.equals(cabecera.getEjecucion())) {
+                // Otra réplica ya va por una ejecución posterior (relojes desfasados)
+                log.warn("Trabajo {}: se omite la ejecución {}, la vigente es {}",
+                        trabajo, ejecucion, cabecera.getEjecucion());
+                return 0;
+            }
+            idMinimo = cabecera.getIdDesde();
+            ancho = Math.max(1, Math.ceilDiv(cabecera.getIdHasta() - idMinimo + 1, particiones));
+        }
+
+        int completadas = 0;
+        // Cada réplica empieza por una partición distinta para no pelearse por las mismas
+        int inicio = Math.floorMod(propietario.hashCode(), particiones);
+        for (int i = 0; i < particiones; i++) {
+            int particion = (inicio + i) % particiones;
+            Long token = bloqueoTrabajoRepository.reclamar(trabajo, particion, ejecucion, propietario, arrendamientoMs);
+            if (token == null) {
+                continue;
+            }
+
+            // Primera y última partición abiertas: cubren ids fuera del rango de la cabecera
+            long idDesde = particion == 0 ? Long.MIN_VALUE : idMinimo + particion * ancho;
+            long idHasta = particion == particiones - 1 ? Long.MAX_VALUE : idMinimo + (particion + 1) * ancho;
+            Arrendamiento arrendamiento = new Arrendamiento(trabajo, particion, token, idDesde, idHasta,
+                    () -> renovar(trabajo, particion, token));
+            try {
+                tarea.accept(arrendamiento);
+            } catch (RuntimeException e) {
+                // Se suelta ya para que la reintente otra réplica sin esperar a que caduque
+                bloqueoTrabajoRepository.liberar(trabajo, particion, token);
+                contador(trabajo, "fallida").increment();
+                log.error("Error en la partición {} del trabajo {} ({}): {}",
+                        particion, trabajo, ejecucion, e.getMessage(), e);
+                continue;
+            }
+
+            if (bloqueoTrabajoRepository.completar(trabajo, particion, token)) {
+                completadas++;
+                contador(trabajo, "completada").increment();
+            } else {
+                contador(trabajo, "perdida").increment();
+                log.warn("Partición {} del trabajo {} terminada con el arrendamiento caducado (token {})",
+                        particion, trabajo, token);
+            }
+        }
+
+        log.debug("Trabajo {} ({}): {} de {} particiones completadas por {}",
+                trabajo, ejecucion, completadas, particiones, propietario);
+        return completadas;
+    }
+
+    private void renovar(String trabajo, int particion, long token) {
+        if (!bloqueoTrabajoRepository.renovar(trabajo, particion, token, arrendamientoMs)) {
+            contador(trabajo, "perdida").increment();
+            throw new BloqueoPerdidoException(trabajo, particion, token);
+        }
+    }
+
+    private Counter contador(String trabajo, String resultado) {
+        return Counter.builder("prestamos.trabajos.particiones")
+                .description("Particiones de trabajos programados procesadas por esta réplica")
+                .tag("trabajo", trabajo)
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,140 @@
+package com.biblioteca.prestamos.service.impl;
+
+import com.biblioteca.prestamos.model.entity.RespuestaIdempotente;
+import com.biblioteca.prestamos.repository.RespuestaIdempotenteRepository;
+import com.biblioteca.prestamos.service.IdempotenciaService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Claves calientes en un LRU acotado en memoria; la tabla respuestas_idempotentes
+// es la fuente de verdad compartida entre instancias y sobrevive a reinicios.
+// Las reservas en curso se renuevan mientras el controlador trabaja: solo una
+// instancia caída deja caducar su bloqueo para que otra retome la clave.
+@Slf4j
+@Service
+public class IdempotenciaServiceImpl implements IdempotenciaService {
+
+    private final RespuestaIdempotenteRepository repository;
+    private final Duration ttl;
+    private final Duration bloqueo;
+    private final Map<String, RespuestaGuardada> enMemoria;
+    private final Set<String> reservadas = ConcurrentHashMap.newKeySet();
+
+    public IdempotenciaServiceImpl(RespuestaIdempotenteRepository repository,
+                                   @Value("${prestamos.idempotencia.ttl-horas:24}") long ttlHoras,
+                                   @Value("${prestamos.idempotencia.bloqueo-segundos:30}") long bloqueoSegundos,
+                                   @Value("${prestamos.idempotencia.max-en-memoria:10000}") int maxEnMemoria) {
+        this.repository = repository;
+        this.ttl = Duration.ofHours(ttlHoras);
+        this.bloqueo = Duration.ofSeconds(bloqueoSegundos);
+        this.enMemoria = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RespuestaGuardada> eldest) {
+                return size() > maxEnMemoria;
+            }
+        });
+    }
+
+    @Override
+    public Optional<RespuestaGuardada> buscar(String clave) {
+        long ahora = System.currentTimeMillis();
+        RespuestaGuardada guardada = enMemoria.get(clave);
+        if (guardada != null) {
+            if (guardada.expiraEn() > ahora) {
+                return Optional.of(guardada);
+            }
+            enMemoria.remove(clave);
+        }
+
+        return repository.findById(clave)
+                .filter(RespuestaIdempotente::isCompletada)
+                .map(this::mapToGuardada)
+                .filter(r -> r.expiraEn() > ahora)
+                .map(r -> {
+                    enMemoria.put(clave, r);
+                    return r;
+                });
+    }
+
+    @Override
+    public boolean reservar(String clave, String huellaPeticion) {
+        LocalDateTime ahora = LocalDateTime.now();
+        Optional<RespuestaIdempotente> existente = repository.findById(clave);
+        if (existente.isPresent()) {
+            if (existente.get().getFechaExpiracion().isAfter(ahora)) {
+                return false;
+            }
+            // Reserva abandonada (p. ej. caída a mitad de petición) o respuesta ya caducada
+            repository.deleteById(clave);
+        }
+
+        try {
+            repository.saveAndFlush(RespuestaIdempotente.builder()
+                    .clave(clave)
+                    .huellaPeticion(huellaPeticion)
+                    .completada(false)
+                    .fechaExpiracion(ahora.plus(bloqueo))
+                    .build());
+            reservadas.add(clave);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Otra instancia insertó la misma clave entre la lectura y la escritura
+            return false;
+        }
+    }
+
+    @Override
+    public void completar(String clave, String huellaPeticion, int codigoEstado, String contentType, byte[] cuerpo) {
+        LocalDateTime expiracion = LocalDateTime.now().plus(ttl);
+        repository.completar(clave, codigoEstado, contentType, cuerpo, expiracion);
+        reservadas.remove(clave);
+        enMemoria.put(clave, new RespuestaGuardada(huellaPeticion, codigoEstado, contentType, cuerpo,
+                aMillis(expiracion)));
+    }
+
+    @Override
+    public void liberar(String clave) {
+        reservadas.remove(clave);
+        repository.liberar(clave);
+    }
+
+    @Override
+    public int renovarReservas() {
+        if (reservadas.isEmpty()) {
+            return 0;
+        }
+        return repository.renovar(Set.copyOf(reservadas), LocalDateTime.now().plus(bloqueo));
+    }
+
+    @Override
+    public int purgarExpiradas() {
+        int eliminadas = repository.eliminarExpiradas(LocalDateTime.now());
+        log.info("Eliminadas {} respuestas idempotentes caducadas", eliminadas);
+        return eliminadas;
+    }
+
+    private RespuestaGuardada mapToGuardada(RespuestaIdempotente respuesta) {
+        return new RespuestaGuardada(
+                respuesta.getHuellaPeticion(),
+                respuesta.getCodigoEstado(),
+                respuesta.getContentType(),
+                respuesta.getCuerpoRespuesta(),
+                aMillis(respuesta.getFechaExpiracion()));
+    }
+
+    private static long aMillis(LocalDateTime fecha) {
+        return fecha.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
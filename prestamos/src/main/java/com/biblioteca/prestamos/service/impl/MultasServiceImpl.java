@@ -0,0 +1,327 @@
+package com.biblioteca.prestamos.service.impl;
+
+import com.biblioteca.prestamos.config.MultasProperties;
+import com.biblioteca.prestamos.controller.dto.CalculoMultasDTO;
+import com.biblioteca.prestamos.controller.dto.MultaDTO;
+import com.biblioteca.prestamos.controller.dto.SaldoMultasDTO;
+import com.biblioteca.prestamos.exception.CategoriaMultaDesconocidaException;
+import com.biblioteca.prestamos.exception.RecalculoMultasEnCursoException;
+import com.biblioteca.prestamos.model.entity.CategoriaUsuario;
+import com.biblioteca.prestamos.model.entity.Multa;
+import com.biblioteca.prestamos.repository.CategoriaUsuarioRepository;
+import com.biblioteca.prestamos.repository.MultaRepository;
+import com.biblioteca.prestamos.repository.MultaRepositoryCustom.CambioSaldo;
+import com.biblioteca.prestamos.repository.MultaRepositoryCustom.PrestamoConRetraso;
+import com.biblioteca.prestamos.repository.SaldoMultasRepository;
+import com.biblioteca.prestamos.service.BloqueoTrabajoService;
+import com.biblioteca.prestamos.service.MultasService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Libro de multas (multas) y saldo por usuario (saldos_multas). Los préstamos con retraso se leen
+// por páginas de ids en cada partición reclamada; cada página se calcula y escribe en su propia
+// transacción, con hasta prestamos.multas.paralelismo páginas a la vez. Solo se escriben las multas
+// cuyo importe cambia y el saldo se corrige con la diferencia, así que repetir un cálculo no cambia
+// nada.
+@Slf4j
+@Service
+@EnableConfigurationProperties(MultasProperties.class)
+public class MultasServiceImpl implements MultasService {
+
+    static final String TRABAJO = "multas";
+    static final String TRABAJO_RECALCULO = "multas-recalculo";
+
+    // Las claves de ejecución ordenan como texto (ver BloqueoTrabajoRepositoryImpl)
+    private static final DateTimeFormatter EJECUCION_RECALCULO = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private static final int INTENTOS_LOTE = 3;
+
+    private final MultaRepository multaRepository;
+    private final SaldoMultasRepository saldoMultasRepository;
+    private final CategoriaUsuarioRepository categoriaUsuarioRepository;
+    private final BloqueoTrabajoService bloqueoTrabajoService;
+    private final TransactionTemplate transactionTemplate;
+    private final MultasProperties properties;
+    private final Counter modificadas;
+
+    // Un recálculo completo a la vez por instancia, venga de la API o del cron
+    private final AtomicBoolean recalculando = new AtomicBoolean();
+
+    public MultasServiceImpl(MultaRepository multaRepository,
+                             SaldoMultasRepository saldoMultasRepository,
+                             CategoriaUsuarioRepository categoriaUsuarioRepository,
+                             BloqueoTrabajoService bloqueoTrabajoService,
+                             TransactionTemplate transactionTemplate,
+                             MultasProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.multaRepository = multaRepository;
+        this.saldoMultasRepository = saldoMultasRepository;
+        this.categoriaUsuarioRepository = categoriaUsuarioRepository;
+        this.bloqueoTrabajoService = bloqueoTrabajoService;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.modificadas = Counter.builder("prestamos.multas.modificadas")
+                .description("Multas creadas o con el importe cambiado")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public CalculoMultasDTO acumular() {
+        LocalDate hoy = LocalDate.now();
+        return calcular(TRABAJO, hoy.toString(), hoy,
+                LocalDateTime.now().minusDays(properties.getDiasRevision()));
+    }
+
+    @Override
+    public CalculoMultasDTO recalcular() {
+        empezarRecalculo();
+        try {
+            return recalcularTodas();
+        } finally {
+            recalculando.set(false);
+        }
+    }
+
+    @Override
+    public void recalcularEnSegundoPlano() {
+        empezarRecalculo();
+        Thread hilo = new Thread(() -> {
+            try {
+                recalcularTodas();
+            } catch (Exception e) {
+                log.error("Error al recalcular las multas: {}", e.getMessage(), e);
+            } finally {
+                recalculando.set(false);
+            }
+        }, "multas-recalculo");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SaldoMultasDTO obtenerSaldo(Long usuarioId) {
+        return saldoMultasRepository.findById(usuarioId)
+                .map(saldo -> SaldoMultasDTO.builder()
+                        .usuarioId(usuarioId)
+                        .importePendiente(saldo.getImportePendiente())
+                        .multasPendientes(saldo.getMultasPendientes())
+                        .actualizadoEn(saldo.getActualizadoEn())
+                        .build())
+                .orElseGet(() -> SaldoMultasDTO.builder()
+                        .usuarioId(usuarioId)
+                        .importePendiente(BigDecimal.ZERO.setScale(2))
+                        .build());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<MultaDTO> obtenerMultas(Long usuarioId) {
+        return multaRepository.findByUsuarioIdOrderByPrestamoIdDesc(usuarioId).stream()
+                .map(multa -> MultaDTO.builder()
+                        .prestamoId(multa.getPrestamoId())
+                        .categoria(multa.getCategoria())
+                        .diasCobrados(multa.getDiasCobrados())
+                        .importe(multa.getImporte())
+                        .calculadaEn(multa.getCalculadaEn())
+                        .build())
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    public void asignarCategoria(Long usuarioId, String categoria) {
+        if (!properties.getTarifas().containsKey(categoria)) {
+            throw new CategoriaMultaDesconocidaException(categoria);
+        }
+        CategoriaUsuario asignada = categoriaUsuarioRepository.findById(usuarioId)
+                .orElseGet(() -> CategoriaUsuario.builder().usuarioId(usuarioId).build());
+        asignada.setCategoria(categoria);
+        categoriaUsuarioRepository.save(asignada);
+        log.info("Usuario {} pasa a la categoría de multas {}", usuarioId, categoria);
+    }
+
+    private void empezarRecalculo() {
+        if (!recalculando.compareAndSet(false, true)) {
+            throw new RecalculoMultasEnCursoException();
+        }
+    }
+
+    private CalculoMultasDTO recalcularTodas() {
+        LocalDateTime ahora = LocalDateTime.now();
+        return calcular(TRABAJO_RECALCULO, EJECUCION_RECALCULO.format(ahora), ahora.toLocalDate(), null);
+    }
+
+    private CalculoMultasDTO calcular(String trabajo, String ejecucion, LocalDate hoy, LocalDateTime cerradosDesde) {
+        long inicio = System.nanoTime();
+        AtomicInteger revisados = new AtomicInteger();
+        AtomicInteger cambiadas = new AtomicInteger();
+        int hilos = Math.max(properties.getParalelismo(), 1);
+        AtomicInteger numeroHilo = new AtomicInteger();
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos, tarea -> {
+            Thread hilo = new Thread(tarea, "multas-" + numeroHilo.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        int particiones;
+        try {
+            particiones = bloqueoTrabajoService.ejecutar(trabajo, ejecucion, properties.getParticiones(),
+                    arrendamiento -> calcularRango(arrendamiento, hoy, cerradosDesde, ejecutor, hilos,
+                            revisados, cambiadas));
+        } finally {
+            ejecutor.shutdownNow();
+        }
+
+        long duracionMs = (System.nanoTime() - inicio) / 1_000_000;
+        if (particiones > 0) {
+            log.info("Multas ({} {}): {} préstamos con retraso revisados y {} multas modificadas en {} ms",
+                    trabajo, ejecucion, revisados.get(), cambiadas.get(), duracionMs);
+        }
+        return CalculoMultasDTO.builder()
+                .particiones(particiones)
+                .revisados(revisados.get())
+                .modificadas(cambiadas.get())
+                .duracionMs(duracionMs)
+                .build();
+    }
+
+    // Lee las páginas en este hilo y las calcula en el ejecutor; el semáforo limita las páginas
+    // leídas pendientes de escribir. Un error en cualquier lote detiene la lectura y se propaga al
+    // final para que la partición se libere y se reintente (los lotes ya escritos no se repiten).
+    private void calcularRango(BloqueoTrabajoService.Arrendamiento arrendamiento, LocalDate hoy,
+                               LocalDateTime cerradosDesde, ExecutorService ejecutor, int hilos,
+                               AtomicInteger revisados, AtomicInteger cambiadas) {
+        Semaphore huecos = new Semaphore(hilos);
+        List<Future<?>> lotes = new ArrayList<>();
+        int tamanoLote = properties.getTamanoLote();
+        long desde = arrendamiento.idDesde();
+        try {
+            while (!hayErrores(lotes)) {
+                List<PrestamoConRetraso> pagina = multaRepository.leerConRetraso(
+                        desde, arrendamiento.idHasta(), hoy, cerradosDesde, tamanoLote);
+                if (pagina.isEmpty()) {
+                    break;
+                }
+                revisados.addAndGet(pagina.size());
+                huecos.acquire();
+                lotes.add(ejecutor.submit(() -> {
+                    try {
+                        cambiadas.addAndGet(calcularLote(pagina, hoy, arrendamiento));
+                    } finally {
+                        huecos.release();
+                    }
+                }));
+                if (pagina.size() < tamanoLote) {
+                    break;
+                }
+                desde = pagina.get(pagina.size() - 1).prestamoId() + 1;
+            }
+            for (Future<?> lote : lotes) {
+                lote.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            lotes.forEach(lote -> lote.cancel(true));
+            throw new IllegalStateException("Cálculo de multas interrumpido", e);
+        } catch (ExecutionException e) {
+            lotes.forEach(lote -> lote.cancel(true));
+            throw e.getCause() instanceof RuntimeException causa
+                    ? causa : new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static boolean hayErrores(List<Future<?>> lotes) {
+        return lotes.stream().anyMatch(lote -> lote.state() == Future.State.FAILED);
+    }
+
+    // Los lotes de una partición tienen ids distintos; solo comparten filas de saldos_multas, que se
+    // actualizan en orden de usuario. Aun así MySQL puede elegir un lote como víctima de un
+    // interbloqueo (huecos de índice al crear saldos): se reintenta entero.
+    private int calcularLote(List<PrestamoConRetraso> pagina, LocalDate hoy,
+                             BloqueoTrabajoService.Arrendamiento arrendamiento) {
+        for (int intento = 1; ; intento++) {
+            try {
+                Integer escritas = transactionTemplate.execute(status -> escribirLote(pagina, hoy, arrendamiento));
+                int total = escritas == null ? 0 : escritas;
+                modificadas.increment(total);
+                return total;
+            } catch (PessimisticLockingFailureException e) {
+                if (intento == INTENTOS_LOTE) {
+                    throw e;
+                }
+                log.debug("Lote de multas reintentado tras un conflicto de bloqueo: {}", e.getMessage());
+            }
+        }
+    }
+
+    private int escribirLote(List<PrestamoConRetraso> pagina, LocalDate hoy,
+                             BloqueoTrabajoService.Arrendamiento arrendamiento) {
+        Map<Long, BigDecimal> actuales = multaRepository.bloquearImportes(
+                pagina.stream().map(PrestamoConRetraso::prestamoId).toList());
+        LocalDateTime ahora = LocalDateTime.now();
+        List<Multa> nuevas = new ArrayList<>();
+        List<Multa> cambiadas = new ArrayList<>();
+        SortedMap<Long, CambioSaldo> saldos = new TreeMap<>();
+
+        for (PrestamoConRetraso prestamo : pagina) {
+            Multa multa = calcularMulta(prestamo, hoy, ahora);
+            BigDecimal actual = actuales.get(prestamo.prestamoId());
+            if (actual == null ? multa.getImporte().signum() == 0 : actual.compareTo(multa.getImporte()) == 0) {
+                continue;
+            }
+            (actual == null ? nuevas : cambiadas).add(multa);
+            BigDecimal anterior = actual == null ? BigDecimal.ZERO : actual;
+            int multas = Integer.compare(multa.getImporte().signum(), 0) - Integer.compare(anterior.signum(), 0);
+            saldos.merge(prestamo.usuarioId(), new CambioSaldo(multa.getImporte().subtract(anterior), multas),
+                    (a, b) -> new CambioSaldo(a.importe().add(b.importe()), a.multas() + b.multas()));
+        }
+
+        multaRepository.insertar(nuevas);
+        multaRepository.actualizar(cambiadas);
+        multaRepository.sumarASaldos(saldos, ahora);
+        // Barrera: si la partición ya es de otra réplica, el lote no se confirma
+        arrendamiento.renovar();
+        return nuevas.size() + cambiadas.size();
+    }
+
+    private Multa calcularMulta(PrestamoConRetraso prestamo, LocalDate hoy, LocalDateTime ahora) {
+        String categoria = properties.categoria(prestamo.categoria());
+        MultasProperties.Tarifa tarifa = properties.tarifa(categoria);
+        LocalDate fin = prestamo.fechaFin() != null ? prestamo.fechaFin() : hoy;
+        int diasCobrados = tarifa == null ? 0 : tarifa.diasCobrados(ChronoUnit.DAYS.between(prestamo.fechaPrevista(), fin));
+        BigDecimal importe = tarifa == null ? BigDecimal.ZERO : tarifa.importe(diasCobrados);
+        return Multa.builder()
+                .prestamoId(prestamo.prestamoId())
+                .usuarioId(prestamo.usuarioId())
+                .categoria(categoria)
+                .diasCobrados(diasCobrados)
+                .importe(importe.setScale(2, RoundingMode.HALF_UP))
+                .calculadaEn(ahora)
+                .build();
+    }
+}
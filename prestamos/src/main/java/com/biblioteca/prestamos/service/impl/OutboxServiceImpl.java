@@ -0,0 +1,170 @@
+package com.biblioteca.prestamos.service.impl;
+
+import com.biblioteca.prestamos.client.LibrosClient;
+import com.biblioteca.prestamos.client.dto.EventoStockDto;
+import com.biblioteca.prestamos.client.dto.EventoStockResultadoDto;
+import com.biblioteca.prestamos.model.entity.EventoOutbox;
+import com.biblioteca.prestamos.model.entity.Prestamo;
+import com.biblioteca.prestamos.model.enums.TipoEventoStock;
+import com.biblioteca.prestamos.repository.EventoOutboxRepository;
+import com.biblioteca.prestamos.repository.PrestamoRepository;
+import com.biblioteca.prestamos.service.OutboxService;
+import feign.FeignException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class OutboxServiceImpl implements OutboxService {
+
+    private final EventoOutboxRepository outboxRepository;
+    private final LibrosClient librosClient;
+    private final PrestamoRepository prestamoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanoLote;
+    private final int retencionDias;
+
+    public OutboxServiceImpl(EventoOutboxRepository outboxRepository,
+                             LibrosClient librosClient,
+                             PrestamoRepository prestamoRepository,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${prestamos.outbox.tamano-lote:100}") int tamanoLote,
+                             @Value("${prestamos.outbox.retencion-dias:7}") int retencionDias) {
+        this.outboxRepository = outboxRepository;
+        this.librosClient = librosClient;
+        this.prestamoRepository = prestamoRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.tamanoLote = tamanoLote;
+        this.retencionDias = retencionDias;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarEvento(TipoEventoStock tipo, Prestamo prestamo) {
+        EventoOutbox evento = EventoOutbox.builder()
+                .eventoId(UUID.randomUUID().toString())
+                .tipo(tipo)
+                .prestamoId(prestamo.getId())
+                .libroId(prestamo.getLibroId())
+                .fechaCreacion(LocalDateTime.now())
+                .build();
+
+        outboxRepository.save(evento);
+        log.debug("Evento {} registrado en outbox para préstamo {}", tipo, prestamo.getId());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarEventos(TipoEventoStock tipo, List<Prestamo> prestamos) {
+        if (prestamos.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime ahora = LocalDateTime.now();
+        outboxRepository.insertarEnLote(prestamos.stream()
+                .map(prestamo -> EventoOutbox.builder()
+                        .eventoId(UUID.randomUUID().toString())
+                        .tipo(tipo)
+                        .prestamoId(prestamo.getId())
+                        .libroId(prestamo.getLibroId())
+                        .fechaCreacion(ahora)
+                        .build())
+                .collect(Collectors.toList()));
+        log.debug("{} eventos {} registrados en outbox", prestamos.size(), tipo);
+    }
+
+    // Sin transacción propia: la llamada a libros no debe retener una conexión del pool
+    @Override
+    public int publicarPendientes() {
+        int publicados = 0;
+        List<EventoOutbox> lote;
+        do {
+            lote = outboxRepository.findByFechaPublicacionIsNullOrderByIdAsc(PageRequest.of(0, tamanoLote));
+            if (lote.isEmpty()) {
+                break;
+            }
+
+            EventoStockResultadoDto resultado;
+            try {
+                resultado = librosClient.aplicarEventosStock(
+                        lote.stream().map(this::mapToDto).collect(Collectors.toList())).getBody();
+            } catch (FeignException e) {
+                // Los eventos siguen pendientes; libros los aplica de forma idempotente en el siguiente intento
+                log.warn("No se pudo publicar el lote de {} eventos: {}", lote.size(), e.getMessage());
+                break;
+            }
+
+            // La compensación y la marca de publicado van en la misma transacción: si falla, el lote
+            // sigue pendiente y libros vuelve a informar de los mismos rechazos en el reenvío
+            List<EventoOutbox> publicado = lote;
+            List<String> rechazados = resultado == null || resultado.getRechazados() == null
+                    ? List.of() : resultado.getRechazados();
+            transactionTemplate.executeWithoutResult(status -> {
+                compensarRechazos(publicado, rechazados);
+                outboxRepository.marcarPublicados(
+                        publicado.stream().map(EventoOutbox::getId).collect(Collectors.toList()),
+                        LocalDateTime.now());
+            });
+            publicados += lote.size();
+        } while (lote.size() == tamanoLote);
+
+        if (publicados > 0) {
+            log.info("Publicados {} eventos de stock al servicio de libros", publicados);
+        }
+        return publicados;
+    }
+
+    // Un LIBRO_PRESTADO rechazado (sin ejemplares, p. ej. otro préstamo se llevó el último entre la
+    // validación y el relay) no descontó stock: el préstamo pasa a RECHAZADO, que ya no admite
+    // devolución, y se descarta la devolución que estuviera pendiente. Así ninguna devolución
+    // posterior suma un ejemplar que nunca salió. Los LIBRO_DEVUELTO rechazados (libro inexistente)
+    // no dejan nada que compensar.
+    private void compensarRechazos(List<EventoOutbox> lote, List<String> rechazados) {
+        if (rechazados.isEmpty()) {
+            return;
+        }
+        Set<String> ids = new HashSet<>(rechazados);
+        List<Long> prestamoIds = lote.stream()
+                .filter(evento -> evento.getTipo() == TipoEventoStock.LIBRO_PRESTADO)
+                .filter(evento -> ids.contains(evento.getEventoId()))
+                .map(EventoOutbox::getPrestamoId)
+                .collect(Collectors.toList());
+        if (prestamoIds.isEmpty()) {
+            log.warn("El servicio de libros rechazó {} devoluciones: {}", rechazados.size(), rechazados);
+            return;
+        }
+        int rechazadosPrestamos = prestamoRepository.marcarRechazados(prestamoIds, LocalDateTime.now());
+        int descartadas = outboxRepository.descartarDevolucionesPendientes(prestamoIds);
+        log.warn("El servicio de libros rechazó los préstamos {}: {} pasan a RECHAZADO, {} devoluciones descartadas",
+                prestamoIds, rechazadosPrestamos, descartadas);
+    }
+
+    @Override
+    public int purgarPublicados() {
+        int eliminados = outboxRepository.eliminarPublicadosAntesDe(LocalDateTime.now().minusDays(retencionDias));
+        log.info("Eliminados {} eventos ya publicados del outbox", eliminados);
+        return eliminados;
+    }
+
+    private EventoStockDto mapToDto(EventoOutbox evento) {
+        return EventoStockDto.builder()
+                .eventoId(evento.getEventoId())
+                .tipo(evento.getTipo())
+                .libroId(evento.getLibroId())
+                .prestamoId(evento.getPrestamoId())
+                .fechaEvento(evento.getFechaCreacion())
+                .build();
+    }
+}
@@ -0,0 +1,89 @@
+package com.biblioteca.prestamos.service.impl;
+
+import com.biblioteca.prestamos.client.LibrosReactivoClient;
+import com.biblioteca.prestamos.client.dto.LibroResponseDto;
+import com.biblioteca.prestamos.controller.dto.PrestamoResponseDTO;
+import com.biblioteca.prestamos.model.enums.EstadoPrestamo;
+import com.biblioteca.prestamos.model.lectura.PrestamoLectura;
+import com.biblioteca.prestamos.repository.PrestamoLecturaRepository;
+import com.biblioteca.prestamos.service.PrestamoLecturaReactivaService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+public class PrestamoLecturaReactivaServiceImpl implements PrestamoLecturaReactivaService {
+
+    private static final String TITULO_NO_DISPONIBLE = "Información no disponible";
+
+    private final PrestamoLecturaRepository prestamoLecturaRepository;
+    private final LibrosReactivoClient librosClient;
+    private final int tamanoLote;
+    private final int lotesEnParalelo;
+
+    public PrestamoLecturaReactivaServiceImpl(PrestamoLecturaRepository prestamoLecturaRepository,
+                                              LibrosReactivoClient librosClient,
+                                              @Value("${prestamos.lectura-reactiva.tamano-lote:100}") int tamanoLote,
+                                              @Value("${prestamos.lectura-reactiva.lotes-en-paralelo:4}") int lotesEnParalelo) {
+        this.prestamoLecturaRepository = prestamoLecturaRepository;
+        this.librosClient = librosClient;
+        this.tamanoLote = tamanoLote;
+        this.lotesEnParalelo = lotesEnParalelo;
+    }
+
+    @Override
+    public Flux<PrestamoResponseDTO> obtenerTodosPrestamos() {
+        return enriquecer(prestamoLecturaRepository.findAll());
+    }
+
+    @Override
+    public Flux<PrestamoResponseDTO> obtenerPrestamosPorUsuario(Long usuarioId) {
+        return enriquecer(prestamoLecturaRepository.findByUsuarioId(usuarioId));
+    }
+
+    @Override
+    public Flux<PrestamoResponseDTO> obtenerPrestamosPorLibro(Long libroId) {
+        return enriquecer(prestamoLecturaRepository.findByLibroId(libroId));
+    }
+
+    @Override
+    public Flux<PrestamoResponseDTO> obtenerPrestamosActivos() {
+        return enriquecer(prestamoLecturaRepository.findByEstado(EstadoPrestamo.ACTIVO));
+    }
+
+    @Override
+    public Flux<PrestamoResponseDTO> obtenerPrestamosVencidos() {
+        return enriquecer(prestamoLecturaRepository.findPrestamosVencidos(LocalDate.now()));
+    }
+
+    // Agrupa las filas en lotes y pide los títulos de cada lote en una sola llamada a libros.
+    // flatMapSequential mantiene el orden y limita los lotes en vuelo, así la demanda del
+    // cliente se propaga hasta la consulta R2DBC.
+    private Flux<PrestamoResponseDTO> enriquecer(Flux<PrestamoLectura> prestamos) {
+        return prestamos
+                .buffer(tamanoLote)
+                .flatMapSequential(lote -> {
+                    List<Long> libroIds = lote.stream()
+                            .map(PrestamoLectura::getLibroId)
+                            .distinct()
+                            .collect(Collectors.toList());
+                    return librosClient.obtenerLibros(libroIds)
+                            .flatMapIterable(libros -> mapearLote(lote, libros));
+                }, lotesEnParalelo);
+    }
+
+    private List<PrestamoResponseDTO> mapearLote(List<PrestamoLectura> lote, Map<Long, LibroResponseDto> libros) {
+        return lote.stream()
+                .map(prestamo -> {
+                    LibroResponseDto libro = libros.get(prestamo.getLibroId());
+                    return PrestamoMapper.mapToResponseDTO(prestamo,
+                            libro != null ? libro.getTitulo() : TITULO_NO_DISPONIBLE);
+                })
+                .collect(Collectors.toList());
+    }
+}
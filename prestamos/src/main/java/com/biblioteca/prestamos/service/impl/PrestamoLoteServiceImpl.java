@@ -0,0 +1,271 @@
+package com.biblioteca.prestamos.service.impl;
+
+import com.biblioteca.prestamos.client.LibrosClient;
+import com.biblioteca.prestamos.client.dto.LibroResponseDto;
+import com.biblioteca.prestamos.controller.dto.DevolucionLoteRequestDTO;
+import com.biblioteca.prestamos.controller.dto.PrestamoLoteRequestDTO;
+import com.biblioteca.prestamos.controller.dto.PrestamoResponseDTO;
+import com.biblioteca.prestamos.controller.dto.ResultadoLoteDTO;
+import com.biblioteca.prestamos.model.entity.Prestamo;
+import com.biblioteca.prestamos.model.enums.EstadoPrestamo;
+import com.biblioteca.prestamos.model.enums.TipoEventoStock;
+import com.biblioteca.prestamos.repository.PrestamoRepository;
+import com.biblioteca.prestamos.service.OutboxService;
+import com.biblioteca.prestamos.service.PrestamoLoteService;
+import com.biblioteca.prestamos.service.VencimientosService;
+import feign.FeignException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PrestamoLoteServiceImpl implements PrestamoLoteService {
+
+    private static final String TITULO_NO_DISPONIBLE = "Información no disponible";
+    private static final int TAMANO_TRAMO_DEVOLUCIONES = 100;
+
+    private final PrestamoRepository prestamoRepository;
+    private final LibrosClient librosClient;
+    private final OutboxService outboxService;
+    private final VencimientosService vencimientosService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public ResultadoLoteDTO crearPrestamos(PrestamoLoteRequestDTO request) {
+        List<PrestamoLoteRequestDTO.Item> items = request.getPrestamos();
+        log.info("Creando lote de {} préstamos", items.size());
+
+        // Una sola llamada a libros para todo el lote y fuera de la transacción
+        List<Long> libroIds = items.stream().map(PrestamoLoteRequestDTO.Item::getLibroId).distinct().toList();
+        List<LibroResponseDto> respuesta = librosClient.obtenerLibrosPorIds(libroIds).getBody();
+        Map<Long, LibroResponseDto> libros = respuesta == null ? Map.of() : respuesta.stream()
+                .collect(Collectors.toMap(LibroResponseDto::getId, Function.identity(), (a, b) -> a));
+
+        ResultadoLoteDTO resultado = transactionTemplate.execute(status -> crearEnTransaccion(request, libros));
+        log.info("Lote procesado: {} creados, {} rechazados", resultado.getCorrectos(), resultado.getRechazados());
+        return resultado;
+    }
+
+    private ResultadoLoteDTO crearEnTransaccion(PrestamoLoteRequestDTO request, Map<Long, LibroResponseDto> libros) {
+        List<PrestamoLoteRequestDTO.Item> items = request.getPrestamos();
+        Set<Long> usuarioIds = items.stream().map(PrestamoLoteRequestDTO.Item::getUsuarioId).collect(Collectors.toSet());
+
+        Map<Long, Long> activosPorUsuario = new HashMap<>();
+        for (Object[] fila : prestamoRepository.contarActivosPorUsuario(usuarioIds)) {
+            activosPorUsuario.put((Long) fila[0], ((Number) fila[1]).longValue());
+        }
+        Set<Long> usuariosConVencidos = new HashSet<>(
+                prestamoRepository.findUsuariosConPrestamosVencidos(usuarioIds, LocalDate.now()));
+
+        // Ejemplares que quedan por repartir dentro del lote
+        Map<Long, Integer> stock = new HashMap<>();
+        libros.forEach((id, libro) -> stock.put(id,
+                libro.getEjemplaresDisponibles() == null ? 0 : libro.getEjemplaresDisponibles()));
+
+        List<ResultadoLoteDTO.Item> resultados = new ArrayList<>(items.size());
+        List<Prestamo> aceptados = new ArrayList<>();
+        List<ResultadoLoteDTO.Item> resultadosAceptados = new ArrayList<>();
+
+        for (int i = 0; i < items.size(); i++) {
+            PrestamoLoteRequestDTO.Item item = items.get(i);
+            String error = validar(item, stock, activosPorUsuario, usuariosConVencidos);
+            if (error != null) {
+                resultados.add(rechazo(i, HttpStatus.BAD_REQUEST, error));
+                continue;
+            }
+
+            stock.merge(item.getLibroId(), -1, Integer::sum);
+            activosPorUsuario.merge(item.getUsuarioId(), 1L, Long::sum);
+
+            Prestamo prestamo = Prestamo.builder()
+                    .libroId(item.getLibroId())
+                    .usuarioId(item.getUsuarioId())
+                    .fechaPrestamo(LocalDate.now())
+                    .fechaDevolucionPrevista(request.getFechaDevolucionPrevista())
+                    .estado(EstadoPrestamo.ACTIVO)
+                    .observaciones(request.getObservaciones())
+                    .build();
+            prestamo.calcularDiasRetraso();
+            aceptados.add(prestamo);
+
+            ResultadoLoteDTO.Item ok = ResultadoLoteDTO.Item.builder().indice(i).exito(true).build();
+            resultados.add(ok);
+            resultadosAceptados.add(ok);
+        }
+
+        prestamoRepository.insertarEnLote(aceptados);
+        outboxService.registrarEventos(TipoEventoStock.LIBRO_PRESTADO, aceptados);
+        vencimientosService.programar(aceptados.stream()
+                .collect(Collectors.toMap(Prestamo::getId, Prestamo::getFechaDevolucionPrevista)));
+
+        for (int i = 0; i < aceptados.size(); i++) {
+            Prestamo prestamo = aceptados.get(i);
+            LibroResponseDto libro = libros.get(prestamo.getLibroId());
+            resultadosAceptados.get(i).setPrestamo(PrestamoMapper.mapToResponseDTO(prestamo,
+                    libro != null ? libro.getTitulo() : TITULO_NO_DISPONIBLE));
+        }
+
+        return ResultadoLoteDTO.builder()
+                .total(items.size())
+                .correctos(aceptados.size())
+                .rechazados(items.size() - aceptados.size())
+                .resultados(resultados)
+                .build();
+    }
+
+    @Override
+    public ResultadoLoteDTO registrarDevoluciones(DevolucionLoteRequestDTO request) {
+        List<ResultadoLoteDTO.Item> resultados = new ArrayList<>(request.getPrestamoIds().size());
+        registrarDevoluciones(request, resultados::addAll);
+        int correctos = (int) resultados.stream().filter(ResultadoLoteDTO.Item::isExito).count();
+        return ResultadoLoteDTO.builder()
+                .total(resultados.size())
+                .correctos(correctos)
+                .rechazados(resultados.size() - correctos)
+                .resultados(resultados)
+                .build();
+    }
+
+    @Override
+    public void registrarDevoluciones(DevolucionLoteRequestDTO request,
+                                      Consumer<List<ResultadoLoteDTO.Item>> alConfirmarTramo) {
+        List<Long> prestamoIds = request.getPrestamoIds();
+        log.info("Registrando lote de {} devoluciones", prestamoIds.size());
+
+        // Cada tramo en su propia transacción: sus resultados son definitivos en cuanto se emiten
+        Set<Long> vistos = new HashSet<>();
+        int correctos = 0;
+        for (int inicio = 0; inicio < prestamoIds.size(); inicio += TAMANO_TRAMO_DEVOLUCIONES) {
+            int desde = inicio;
+            int hasta = Math.min(inicio + TAMANO_TRAMO_DEVOLUCIONES, prestamoIds.size());
+            List<Prestamo> devueltos = new ArrayList<>();
+            List<ResultadoLoteDTO.Item> resultados = transactionTemplate.execute(
+                    status -> devolverEnTransaccion(request, desde, hasta, vistos, devueltos));
+
+            // Títulos en una sola llamada y ya fuera de la transacción; si libros falla no se pierde la devolución
+            Map<Long, LibroResponseDto> libros = obtenerLibrosSinFallar(
+                    devueltos.stream().map(Prestamo::getLibroId).distinct().toList());
+            resultados.stream()
+                    .filter(ResultadoLoteDTO.Item::isExito)
+                    .forEach(item -> {
+                        LibroResponseDto libro = libros.get(item.getPrestamo().getLibroId());
+                        item.getPrestamo().setTituloLibro(libro != null ? libro.getTitulo() : TITULO_NO_DISPONIBLE);
+                    });
+
+            correctos += devueltos.size();
+            alConfirmarTramo.accept(resultados);
+        }
+
+        log.info("Lote de devoluciones procesado: {} correctas, {} rechazadas",
+                correctos, prestamoIds.size() - correctos);
+    }
+
+    private List<ResultadoLoteDTO.Item> devolverEnTransaccion(DevolucionLoteRequestDTO request, int desde, int hasta,
+                                                              Set<Long> vistos, List<Prestamo> devueltos) {
+        List<Long> prestamoIds = request.getPrestamoIds();
+        // Bloqueados desde la lectura: una devolución concurrente o ya ha terminado (y se ve aquí
+        // como no activo) o espera a que este tramo se confirme
+        Map<Long, Prestamo> prestamos = prestamoRepository
+                .findAllByIdParaCerrar(new HashSet<>(prestamoIds.subList(desde, hasta))).stream()
+                .collect(Collectors.toMap(Prestamo::getId, Function.identity()));
+
+        LocalDate hoy = LocalDate.now();
+        List<ResultadoLoteDTO.Item> resultados = new ArrayList<>(hasta - desde);
+
+        for (int i = desde; i < hasta; i++) {
+            Long id = prestamoIds.get(i);
+            Prestamo prestamo = prestamos.get(id);
+            if (!vistos.add(id)) {
+                resultados.add(rechazo(i, HttpStatus.BAD_REQUEST,
+                        String.format("Préstamo con ID %d repetido en el lote", id)));
+                continue;
+            }
+            if (prestamo == null) {
+                resultados.add(rechazo(i, HttpStatus.NOT_FOUND,
+                        String.format("Préstamo con ID %d no encontrado", id)));
+                continue;
+            }
+            if (!prestamo.getEstado().estaAbierto()) {
+                resultados.add(rechazo(i, HttpStatus.CONFLICT,
+                        "El préstamo no está activo. Estado actual: " + prestamo.getEstado()));
+                continue;
+            }
+
+            // La entidad no se modifica: el cambio lo hace la UPDATE masiva, no el dirty checking
+            PrestamoResponseDTO devuelto = PrestamoMapper.mapToResponseDTO(prestamo, null);
+            devuelto.setEstado(EstadoPrestamo.DEVUELTO);
+            devuelto.setFechaDevolucionReal(hoy);
+            devuelto.setVencido(false);
+            if (request.getObservaciones() != null) {
+                devuelto.setObservaciones(request.getObservaciones());
+            }
+            devueltos.add(prestamo);
+            resultados.add(ResultadoLoteDTO.Item.builder().indice(i).exito(true).prestamo(devuelto).build());
+        }
+
+        if (!devueltos.isEmpty()) {
+            Collection<Long> ids = devueltos.stream().map(Prestamo::getId).toList();
+            int actualizados = prestamoRepository.cerrarPrestamosActivos(ids, EstadoPrestamo.DEVUELTO, hoy,
+                    LocalDateTime.now(), request.getObservaciones());
+            if (actualizados != ids.size()) {
+                // No debería ocurrir con las filas bloqueadas; se deshace el tramo antes que registrar eventos de más
+                throw new IllegalStateException("Se cerraron " + actualizados + " de " + ids.size()
+                        + " préstamos bloqueados del lote");
+            }
+            outboxService.registrarEventos(TipoEventoStock.LIBRO_DEVUELTO, devueltos);
+            vencimientosService.cancelar(ids);
+        }
+        return resultados;
+    }
+
+    private static ResultadoLoteDTO.Item rechazo(int indice, HttpStatus codigo, String error) {
+        return ResultadoLoteDTO.Item.builder().indice(indice).exito(false).error(error).codigo(codigo.value()).build();
+    }
+
+    private Map<Long, LibroResponseDto> obtenerLibrosSinFallar(List<Long> libroIds) {
+        if (libroIds.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            List<LibroResponseDto> libros = librosClient.obtenerLibrosPorIds(libroIds).getBody();
+            return libros == null ? Map.of() : libros.stream()
+                    .collect(Collectors.toMap(LibroResponseDto::getId, Function.identity(), (a, b) -> a));
+        } catch (FeignException e) {
+            log.warn("Error al obtener títulos de {} libros: {}", libroIds.size(), e.getMessage());
+            return Map.of();
+        }
+    }
+
+    private String validar(PrestamoLoteRequestDTO.Item item, Map<Long, Integer> stock,
+                           Map<Long, Long> activosPorUsuario, Set<Long> usuariosConVencidos) {
+        Integer disponibles = stock.get(item.getLibroId());
+        if (disponibles == null || disponibles <= 0) {
+            return String.format("El libro con ID %d no está disponible para préstamo", item.getLibroId());
+        }
+        if (usuariosConVencidos.contains(item.getUsuarioId())) {
+            return String.format("El usuario con ID %d tiene préstamos vencidos", item.getUsuarioId());
+        }
+        if (activosPorUsuario.getOrDefault(item.getUsuarioId(), 0L) >= PrestamoServiceImpl.MAX_PRESTAMOS_USUARIO) {
+            return String.format("El usuario %d ha alcanzado el límite de %d préstamos activos",
+                    item.getUsuarioId(), PrestamoServiceImpl.MAX_PRESTAMOS_USUARIO);
+        }
+        return null;
+    }
+}
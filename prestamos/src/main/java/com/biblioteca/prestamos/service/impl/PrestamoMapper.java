@@ -0,0 +1,44 @@
+package com.biblioteca.prestamos.service.impl;
+
+import com.biblioteca.prestamos.controller.dto.PrestamoResponseDTO;
+import com.biblioteca.prestamos.model.entity.Prestamo;
+import com.biblioteca.prestamos.model.lectura.PrestamoLectura;
+
+// Único paso de entidad a respuesta. Usa el constructor de proyección del DTO, que calcula
+// vencido y los días de retraso a fecha de hoy igual que las consultas SELECT new.
+final class PrestamoMapper {
+
+    private PrestamoMapper() {
+    }
+
+    static PrestamoResponseDTO mapToResponseDTO(Prestamo prestamo, String tituloLibro) {
+        PrestamoResponseDTO dto = new PrestamoResponseDTO(
+                prestamo.getId(),
+                prestamo.getLibroId(),
+                prestamo.getUsuarioId(),
+                prestamo.getFechaPrestamo(),
+                prestamo.getFechaDevolucionPrevista(),
+                prestamo.getFechaDevolucionReal(),
+                prestamo.getEstado(),
+                prestamo.getDiasRetraso(),
+                prestamo.getObservaciones());
+        dto.setTituloLibro(tituloLibro);
+        return dto;
+    }
+
+    // Filas de la lectura reactiva (R2DBC): mismo cálculo a fecha de hoy que las lecturas JPA
+    static PrestamoResponseDTO mapToResponseDTO(PrestamoLectura prestamo, String tituloLibro) {
+        PrestamoResponseDTO dto = new PrestamoResponseDTO(
+                prestamo.getId(),
+                prestamo.getLibroId(),
+                prestamo.getUsuarioId(),
+                prestamo.getFechaPrestamo(),
+                prestamo.getFechaDevolucionPrevista(),
+                prestamo.getFechaDevolucionReal(),
+                prestamo.getEstado(),
+                prestamo.getDiasRetraso(),
+                prestamo.getObservaciones());
+        dto.setTituloLibro(tituloLibro);
+        return dto;
+    }
+}
@@ -12,13 +12,17 @@ import com.biblioteca.prestamos.exception.PrestamoNotFoundException;
 import com.biblioteca.prestamos.exception.UsuarioConPrestamosVencidosException;
 import com.biblioteca.prestamos.model.entity.Prestamo;
 import com.biblioteca.prestamos.model.enums.EstadoPrestamo;
+import com.biblioteca.prestamos.model.enums.TipoEventoStock;
+import com.biblioteca.prestamos.observabilidad.FasePrestamoEvent;
 import com.biblioteca.prestamos.repository.PrestamoRepository;
+import com.biblioteca.prestamos.service.MultasService;
+import com.biblioteca.prestamos.service.OutboxService;
 import com.biblioteca.prestamos.service.PrestamoService;
+import com.biblioteca.prestamos.service.VencimientosService;
 import feign.FeignException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
@@ -38,8 +42,11 @@ public class PrestamoServiceImpl implements PrestamoService {
     private final PrestamoRepository prestamoRepository;
     private final LibrosClient librosClient;
     private final UsuariosClient usuariosClient;
+    private final OutboxService outboxService;
+    private final VencimientosService vencimientosService;
+    private final MultasService multasService;
 
-    private static final int MAX_PRESTAMOS_USUARIO = 5;
+    static final int MAX_PRESTAMOS_USUARIO = 5;
 
     // ============ MÉTODOS YA IMPLEMENTADOS ============
     @Override
@@ -48,10 +55,15 @@ public class PrestamoServiceImpl implements PrestamoService {
         log.info("Creando préstamo para libroId: {}, usuarioId: {}",
                 request.getLibroId(), request.getUsuarioId());
 
+        FasePrestamoEvent fase = FasePrestamoEvent.iniciar("crear", "disponibilidad",
+                request.getLibroId(), request.getUsuarioId());
         validarDisponibilidadLibro(request.getLibroId());
+        fase = fase.siguiente("vencidos");
         validarUsuarioSinPrestamosVencidos(request.getUsuarioId());
+        fase = fase.siguiente("limite");
         validarLimitePrestamosUsuario(request.getUsuarioId());
 
+        fase = fase.siguiente("libro");
         LibroResponseDto libro = obtenerLibroInfo(request.getLibroId());
 
         Prestamo prestamo = Prestamo.builder()
@@ -65,12 +77,15 @@ public class PrestamoServiceImpl implements PrestamoService {
 
         prestamo.calcularDiasRetraso();
 
-        actualizarDisponibilidadLibro(request.getLibroId(), false);
-
+        fase = fase.siguiente("guardar");
         Prestamo saved = prestamoRepository.save(prestamo);
+        // El stock de libros se descuenta de forma asíncrona desde el outbox (OutboxRelay)
+        outboxService.registrarEvento(TipoEventoStock.LIBRO_PRESTADO, saved);
+        vencimientosService.programar(saved.getId(), saved.getFechaDevolucionPrevista());
+        fase.conPrestamo(saved.getId(), saved.getLibroId(), saved.getUsuarioId()).commit();
         log.info("Préstamo creado con ID: {}", saved.getId());
 
-        return mapToResponseDTO(saved, libro.getTitulo());
+        return PrestamoMapper.mapToResponseDTO(saved, libro.getTitulo());
     }
 
     @Override
@@ -83,7 +98,7 @@ public class PrestamoServiceImpl implements PrestamoService {
 
         LibroResponseDto libro = obtenerLibroInfo(prestamo.getLibroId());
 
-        return mapToResponseDTO(prestamo, libro.getTitulo());
+        return PrestamoMapper.mapToResponseDTO(prestamo, libro.getTitulo());
     }
 
     @Override
@@ -91,12 +106,7 @@ public class PrestamoServiceImpl implements PrestamoService {
     public List<PrestamoResponseDTO> obtenerPrestamosPorUsuario(Long usuarioId) {
         log.info("Obteniendo préstamos para usuarioId: {}", usuarioId);
 
-        return prestamoRepository.findByUsuarioId(usuarioId).stream()
-                .map(prestamo -> {
-                    LibroResponseDto libro = obtenerLibroInfo(prestamo.getLibroId());
-                    return mapToResponseDTO(prestamo, libro.getTitulo());
-                })
-                .collect(Collectors.toList());
+        return conTitulos(prestamoRepository.listarPorUsuario(usuarioId));
     }
 
     @Override
@@ -109,13 +119,18 @@ public class PrestamoServiceImpl implements PrestamoService {
             request = new DevolucionRequestDTO();
         }
 
+        FasePrestamoEvent fase = FasePrestamoEvent.iniciar("devolver", "buscar", null, null);
         Prestamo prestamo = prestamoRepository.findById(prestamoId)
                 .orElseThrow(() -> new PrestamoNotFoundException(prestamoId));
+        fase.conPrestamo(prestamoId, prestamo.getLibroId(), prestamo.getUsuarioId());
 
-        if (prestamo.getEstado() != EstadoPrestamo.ACTIVO) {
+        if (!prestamo.getEstado().estaAbierto()) {
             throw new IllegalArgumentException("El préstamo no está activo. Estado actual: " + prestamo.getEstado());
         }
 
+        // Retraso definitivo, antes de cerrar el préstamo
+        prestamo.calcularDiasRetraso();
+
         // Usar LocalDate.now() con import correcto
         prestamo.setFechaDevolucionReal(LocalDate.now());
 
@@ -127,52 +142,48 @@ public class PrestamoServiceImpl implements PrestamoService {
             prestamo.setObservaciones(request.getObservaciones());
         }
 
+        fase = fase.siguiente("guardar");
+        Prestamo updated = prestamoRepository.save(prestamo);
+        vencimientosService.cancelar(updated.getId());
+
         // Solo devolver libro si NO está perdido
         if (!libroPerdido) {
-            try {
-                log.info("Devolviendo libro ID: {} al servicio de libros", prestamo.getLibroId());
-                actualizarDisponibilidadLibro(prestamo.getLibroId(), true);
-            } catch (Exception e) {
-                log.error("Error al devolver libro, pero continuando con la devolución local", e);
-                // Continuar aunque falle la comunicación con libros-service
-            }
+            outboxService.registrarEvento(TipoEventoStock.LIBRO_DEVUELTO, updated);
         }
-
-        Prestamo updated = prestamoRepository.save(prestamo);
         log.info("✅ Devolución registrada exitosamente para préstamoId: {}", prestamoId);
 
+        fase = fase.siguiente("libro");
         LibroResponseDto libro = obtenerLibroInfo(updated.getLibroId());
-        return mapToResponseDTO(updated, libro.getTitulo());
+        fase.commit();
+        return PrestamoMapper.mapToResponseDTO(updated, libro.getTitulo());
     }
 
+    // Solo los préstamos que vencen desde el último avance de la rueda, no todos los activos.
+    // Después, las multas del día: las de los préstamos con retraso crecen un día más.
     @Override
-    @Scheduled(cron = "0 0 0 * * *")
-    @Transactional
     public void actualizarEstadosAutomaticamente() {
-        log.info("Actualizando estados de préstamos automáticamente");
-
-        List<Prestamo> prestamosActivos = prestamoRepository
-                .findByUsuarioIdAndEstado(null, EstadoPrestamo.ACTIVO);
+        int vencidos = vencimientosService.procesarVencimientos();
+        log.info("Estados actualizados: {} préstamos vencidos", vencidos);
+        multasService.acumular();
+    }
 
-        for (Prestamo prestamo : prestamosActivos) {
-            prestamo.calcularDiasRetraso();
-            if (prestamo.isVencido()) {
-                prestamo.setEstado(EstadoPrestamo.VENCIDO);
-            }
-        }
+    @Override
+    @Transactional(readOnly = true)
+    public List<PrestamoResponseDTO> obtenerPrestamosPorLibro(Long libroId) {
+        return conTitulos(prestamoRepository.listarPorLibro(libroId));
+    }
 
-        prestamoRepository.saveAll(prestamosActivos);
-        log.info("Estados actualizados para {} préstamos", prestamosActivos.size());
+    @Override
+    @Transactional(readOnly = true)
+    public List<PrestamoResponseDTO> obtenerHistorialPorUsuario(Long usuarioId) {
+        log.info("Obteniendo historial de préstamos para usuarioId: {}", usuarioId);
+        return conTitulos(prestamoRepository.listarConHistoricoPorUsuario(usuarioId));
     }
 
     @Override
-    public List<PrestamoResponseDTO> obtenerPrestamosPorLibro(Long libroId) {
-        return prestamoRepository.findByLibroId(libroId).stream()
-                .map(prestamo -> {
-                    LibroResponseDto libro = obtenerLibroInfo(prestamo.getLibroId());
-                    return mapToResponseDTO(prestamo, libro.getTitulo());
-                })
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<PrestamoResponseDTO> obtenerHistorialPorLibro(Long libroId) {
+        return conTitulos(prestamoRepository.listarConHistoricoPorLibro(libroId));
     }
 
     @Override
@@ -187,12 +198,13 @@ public class PrestamoServiceImpl implements PrestamoService {
         List<Prestamo> activos = new ArrayList<>();
 
         for (Prestamo p : todos) {
-            log.info("Analizando préstamo ID {}: Estado={}, Estado==ACTIVO?={}",
+            // Una línea por fila: en DEBUG y muestreadas (ver logback-spring.xml)
+            log.debug("Analizando préstamo ID {}: Estado={}, Estado==ACTIVO?={}",
                     p.getId(), p.getEstado(), p.getEstado() == EstadoPrestamo.ACTIVO);
 
             if (p.getEstado() == EstadoPrestamo.ACTIVO) {
                 activos.add(p);
-                log.info("  ✅ AÑADIDO como ACTIVO");
+                log.debug("  ✅ AÑADIDO como ACTIVO");
             }
         }
 
@@ -209,24 +221,20 @@ public class PrestamoServiceImpl implements PrestamoService {
         return activos.stream()
                 .map(prestamo -> {
                     LibroResponseDto libro = obtenerLibroInfo(prestamo.getLibroId());
-                    return mapToResponseDTO(prestamo, libro.getTitulo());
+                    return PrestamoMapper.mapToResponseDTO(prestamo, libro.getTitulo());
                 })
                 .collect(Collectors.toList());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<PrestamoResponseDTO> obtenerPrestamosVencidos() {
-        return prestamoRepository.findPrestamosVencidos(LocalDate.now()).stream()
-                .map(prestamo -> {
-                    LibroResponseDto libro = obtenerLibroInfo(prestamo.getLibroId());
-                    return mapToResponseDTO(prestamo, libro.getTitulo());
-                })
-                .collect(Collectors.toList());
+        return conTitulos(prestamoRepository.listarVencidos(LocalDate.now()));
     }
 
     @Override
     public boolean tieneUsuarioPrestamosActivos(Long usuarioId) {
-        return prestamoRepository.countByUsuarioIdAndEstado(usuarioId, EstadoPrestamo.ACTIVO) > 0;
+        return prestamoRepository.countByUsuarioIdAndEstadoIn(usuarioId, EstadoPrestamo.ABIERTOS) > 0;
     }
 
     @Override
@@ -236,7 +244,7 @@ public class PrestamoServiceImpl implements PrestamoService {
 
     @Override
     public long contarPrestamosActivosUsuario(Long usuarioId) {
-        return prestamoRepository.countByUsuarioIdAndEstado(usuarioId, EstadoPrestamo.ACTIVO);
+        return prestamoRepository.countByUsuarioIdAndEstadoIn(usuarioId, EstadoPrestamo.ABIERTOS);
     }
 
     // ============ MÉTODOS NUEVOS QUE FALTAN ============
@@ -245,12 +253,7 @@ public class PrestamoServiceImpl implements PrestamoService {
     @Transactional(readOnly = true)
     public List<PrestamoResponseDTO> obtenerTodosPrestamos() {
         log.info("Obteniendo todos los préstamos");
-        return prestamoRepository.findAll().stream()
-                .map(prestamo -> {
-                    LibroResponseDto libro = obtenerLibroInfo(prestamo.getLibroId());
-                    return mapToResponseDTO(prestamo, libro.getTitulo());
-                })
-                .collect(Collectors.toList());
+        return conTitulos(prestamoRepository.listarTodos());
     }
 
     @Override
@@ -261,14 +264,17 @@ public class PrestamoServiceImpl implements PrestamoService {
         Prestamo prestamo = prestamoRepository.findById(id)
                 .orElseThrow(() -> new PrestamoNotFoundException(id));
 
-        // Validar que no esté devuelto
-        if (prestamo.getEstado() == EstadoPrestamo.DEVUELTO ||
-                prestamo.getEstado() == EstadoPrestamo.PERDIDO) {
+        // Validar que no esté devuelto (ni rechazado por libros)
+        if (!prestamo.getEstado().estaAbierto()) {
             throw new IllegalArgumentException("No se puede modificar un préstamo ya finalizado");
         }
 
         // Actualizar campos
         prestamo.setFechaDevolucionPrevista(request.getFechaDevolucionPrevista());
+        // Una renovación a una fecha que aún no ha pasado reabre el préstamo vencido
+        if (prestamo.getEstado() == EstadoPrestamo.VENCIDO && !prestamo.isVencido()) {
+            prestamo.setEstado(EstadoPrestamo.ACTIVO);
+        }
         if (request.getObservaciones() != null) {
             prestamo.setObservaciones(request.getObservaciones());
         }
@@ -277,9 +283,12 @@ public class PrestamoServiceImpl implements PrestamoService {
         prestamo.calcularDiasRetraso();
 
         Prestamo updated = prestamoRepository.save(prestamo);
+        if (updated.getEstado() == EstadoPrestamo.ACTIVO) {
+            vencimientosService.programar(updated.getId(), updated.getFechaDevolucionPrevista());
+        }
         LibroResponseDto libro = obtenerLibroInfo(updated.getLibroId());
 
-        return mapToResponseDTO(updated, libro.getTitulo());
+        return PrestamoMapper.mapToResponseDTO(updated, libro.getTitulo());
     }
 
     @Override
@@ -290,18 +299,13 @@ public class PrestamoServiceImpl implements PrestamoService {
         Prestamo prestamo = prestamoRepository.findById(id)
                 .orElseThrow(() -> new PrestamoNotFoundException(id));
 
-        // Si el préstamo está activo, devolver el libro al stock
-        if (prestamo.getEstado() == EstadoPrestamo.ACTIVO) {
-            try {
-                librosClient.devolverLibro(prestamo.getLibroId());
-                log.info("Libro devuelto al stock: ID {}", prestamo.getLibroId());
-            } catch (FeignException e) {
-                log.error("Error al devolver libro: {}", e.getMessage());
-                // Continuar con la eliminación aunque falle la devolución
-            }
+        // Si el préstamo sigue abierto, devolver el libro al stock
+        if (prestamo.getEstado().estaAbierto()) {
+            outboxService.registrarEvento(TipoEventoStock.LIBRO_DEVUELTO, prestamo);
         }
 
         prestamoRepository.delete(prestamo);
+        vencimientosService.cancelar(id);
     }
 
     @Override
@@ -315,12 +319,14 @@ public class PrestamoServiceImpl implements PrestamoService {
         long vencidos = prestamoRepository.countByEstado(EstadoPrestamo.VENCIDO);
         long devueltos = prestamoRepository.countByEstado(EstadoPrestamo.DEVUELTO);
         long perdidos = prestamoRepository.countByEstado(EstadoPrestamo.PERDIDO);
+        long rechazados = prestamoRepository.countByEstado(EstadoPrestamo.RECHAZADO);
 
         estadisticas.put("totalPrestamos", total);
         estadisticas.put("prestamosActivos", activos);
         estadisticas.put("prestamosVencidos", vencidos);
         estadisticas.put("prestamosDevueltos", devueltos);
         estadisticas.put("prestamosPerdidos", perdidos);
+        estadisticas.put("prestamosRechazados", rechazados);
         estadisticas.put("fechaConsulta", LocalDate.now());
 
         // Estadísticas adicionales
@@ -447,7 +453,7 @@ public class PrestamoServiceImpl implements PrestamoService {
 
     private void validarLimitePrestamosUsuario(Long usuarioId) {
         long prestamosActivos = prestamoRepository
-                .countByUsuarioIdAndEstado(usuarioId, EstadoPrestamo.ACTIVO);
+                .countByUsuarioIdAndEstadoIn(usuarioId, EstadoPrestamo.ABIERTOS);
 
         if (prestamosActivos >= MAX_PRESTAMOS_USUARIO) {
             throw new IllegalArgumentException(
@@ -468,32 +474,8 @@ public class PrestamoServiceImpl implements PrestamoService {
         }
     }
 
-    private void actualizarDisponibilidadLibro(Long libroId, boolean disponible) {
-        try {
-            if (disponible) {
-                librosClient.devolverLibro(libroId);
-            } else {
-                librosClient.prestarLibro(libroId);
-            }
-        } catch (FeignException e) {
-            log.error("Error al actualizar disponibilidad del libro {}: {}", libroId, e.getMessage());
-            throw new RuntimeException("Error al actualizar disponibilidad del libro", e);
-        }
-    }
-
-    private PrestamoResponseDTO mapToResponseDTO(Prestamo prestamo, String tituloLibro) {
-        return PrestamoResponseDTO.builder()
-                .id(prestamo.getId())
-                .libroId(prestamo.getLibroId())
-                .tituloLibro(tituloLibro)
-                .usuarioId(prestamo.getUsuarioId())
-                .fechaPrestamo(prestamo.getFechaPrestamo())
-                .fechaDevolucionPrevista(prestamo.getFechaDevolucionPrevista())
-                .fechaDevolucionReal(prestamo.getFechaDevolucionReal())
-                .estado(prestamo.getEstado())
-                .diasRetraso(prestamo.getDiasRetraso())
-                .observaciones(prestamo.getObservaciones())
-                .vencido(prestamo.isVencido())
-                .build();
+    private List<PrestamoResponseDTO> conTitulos(List<PrestamoResponseDTO> prestamos) {
+        prestamos.forEach(prestamo -> prestamo.setTituloLibro(obtenerLibroInfo(prestamo.getLibroId()).getTitulo()));
+        return prestamos;
     }
 }
\ No newline at end of file
@@ -0,0 +1,146 @@
+package com.biblioteca.prestamos.service.impl;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Rueda de temporización jerárquica con resolución de un día. El nivel 0 tiene una ranura por
+// día; cada ranura del nivel n abarca tantos días como el nivel n-1 entero. Al empezar el
+// periodo de una ranura de nivel superior sus entradas bajan a niveles inferiores, así que
+// programar, cancelar y cada avance de un día cuestan O(1) más lo que venza ese día.
+// No es thread-safe: la sincronización queda en manos de quien la use.
+public final class RuedaTemporizacion {
+
+    public record Entrada(long id, LocalDate vence) {
+    }
+
+    private final int ranurasPorNivel;
+    private final long[] diasPorRanura;
+    private final List<List<Entrada>>[] niveles;
+    // Vencimientos más allá del último nivel; se revisan cada vuelta completa de la rueda
+    private List<Entrada> desbordadas = new ArrayList<>();
+    // Vencimiento vigente por id: las entradas que ya no coinciden (cancelada o reprogramada) se
+    // descartan al salir de su ranura en vez de buscarlas al cancelar
+    private final Map<Long, Long> programadas = new HashMap<>();
+    private List<Entrada> pendientes = new ArrayList<>();
+    private long hoy;
+
+    @SuppressWarnings("unchecked")
+    public RuedaTemporizacion(int ranurasPorNivel, int numeroNiveles, LocalDate hoy) {
+        if (ranurasPorNivel < 2 || numeroNiveles < 1) {
+            throw new IllegalArgumentException("La rueda necesita al menos un nivel de dos ranuras");
+        }
+        this.ranurasPorNivel = ranurasPorNivel;
+        this.diasPorRanura = new long[numeroNiveles];
+        this.niveles = new List[numeroNiveles];
+        long dias = 1;
+        for (int nivel = 0; nivel < numeroNiveles; nivel++) {
+            diasPorRanura[nivel] = dias;
+            niveles[nivel] = new ArrayList<>(ranurasPorNivel);
+            for (int ranura = 0; ranura < ranurasPorNivel; ranura++) {
+                niveles[nivel].add(new ArrayList<>());
+            }
+            dias = Math.multiplyExact(dias, ranurasPorNivel);
+        }
+        this.hoy = hoy.toEpochDay();
+    }
+
+    // Programa (o reprograma) el id para el día indicado; si ese día ya ha llegado, sale en el
+    // siguiente avanzarHasta
+    public void programar(long id, LocalDate vence) {
+        long dia = vence.toEpochDay();
+        Long anterior = programadas.put(id, dia);
+        if (anterior != null && anterior == dia) {
+            return;
+        }
+        colocar(new Entrada(id, vence), dia);
+    }
+
+    public void cancelar(long id) {
+        programadas.remove(id);
+    }
+
+    public int programadas() {
+        return programadas.size();
+    }
+
+    public LocalDate hoy() {
+        return LocalDate.ofEpochDay(hoy);
+    }
+
+    // Avanza día a día hasta la fecha indicada y devuelve las entradas vigentes que vencen
+    public List<Entrada> avanzarHasta(LocalDate fecha) {
+        List<Entrada> vencidas = new ArrayList<>();
+        long hasta = fecha.toEpochDay();
+        while (hoy < hasta) {
+            hoy++;
+            // Primero los niveles altos: lo que bajen puede caer en la ranura de hoy del nivel 0
+            if (hoy % (diasPorRanura[niveles.length - 1] * ranurasPorNivel) == 0) {
+                List<Entrada> revisar = desbordadas;
+                desbordadas = new ArrayList<>();
+                recolocar(revisar);
+            }
+            for (int nivel = niveles.length - 1; nivel > 0; nivel--) {
+                if (hoy % diasPorRanura[nivel] == 0) {
+                    recolocar(vaciar(nivel, hoy / diasPorRanura[nivel]));
+                }
+            }
+            recoger(vaciar(0, hoy), vencidas);
+        }
+        // Las ya vencidas al programarlas y las que vencían justo el día en que bajaron de nivel
+        recoger(pendientes, vencidas);
+        pendientes = new ArrayList<>();
+        return vencidas;
+    }
+
+    private void colocar(Entrada entrada, long dia) {
+        if (dia <= hoy) {
+            pendientes.add(entrada);
+            return;
+        }
+        for (int nivel = 0; nivel < niveles.length; nivel++) {
+            long inicio = hoy - hoy % diasPorRanura[nivel];
+            // El nivel 0 ya ha consumido la ranura de hoy; cabe lo que quede dentro de una vuelta
+            if (dia < inicio + diasPorRanura[nivel] * ranurasPorNivel) {
+                ranura(nivel, dia / diasPorRanura[nivel]).add(entrada);
+                return;
+            }
+        }
+        desbordadas.add(entrada);
+    }
+
+    private void recolocar(List<Entrada> entradas) {
+        for (Entrada entrada : entradas) {
+            if (vigente(entrada)) {
+                colocar(entrada, entrada.vence().toEpochDay());
+            }
+        }
+    }
+
+    private void recoger(List<Entrada> entradas, List<Entrada> vencidas) {
+        for (Entrada entrada : entradas) {
+            if (vigente(entrada)) {
+                programadas.remove(entrada.id());
+                vencidas.add(entrada);
+            }
+        }
+    }
+
+    private boolean vigente(Entrada entrada) {
+        Long dia = programadas.get(entrada.id());
+        return dia != null && dia == entrada.vence().toEpochDay();
+    }
+
+    private List<Entrada> vaciar(int nivel, long posicion) {
+        List<Entrada> ranura = ranura(nivel, posicion);
+        List<Entrada> entradas = new ArrayList<>(ranura);
+        ranura.clear();
+        return entradas;
+    }
+
+    private List<Entrada> ranura(int nivel, long posicion) {
+        return niveles[nivel].get((int) Math.floorMod(posicion, (long) ranurasPorNivel));
+    }
+}
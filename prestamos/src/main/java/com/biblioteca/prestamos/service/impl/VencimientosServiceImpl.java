@@ -0,0 +1,227 @@
+package com.biblioteca.prestamos.service.impl;
+
+import com.biblioteca.prestamos.observabilidad.BarridoVencimientosEvent;
+import com.biblioteca.prestamos.repository.PrestamoRepository;
+import com.biblioteca.prestamos.service.BloqueoTrabajoService;
+import com.biblioteca.prestamos.service.VencimientosService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Los préstamos ACTIVO se guardan en una rueda de temporización por el día en que pasan a
+// VENCIDO (el siguiente a la fecha prevista). Cada avance de día solo toca los que vencen ese
+// día, agrupados en una UPDATE por fecha prevista, en lugar de recorrer todos los activos.
+// Todas las instancias tienen la rueda completa; al vencer, cada una actualiza solo los rangos de
+// ids que reclama ese día y descarta el resto, que es de otra.
+@Slf4j
+@Service
+public class VencimientosServiceImpl implements VencimientosService {
+
+    static final String TRABAJO = "vencimientos";
+
+    private final PrestamoRepository prestamoRepository;
+    private final BloqueoTrabajoService bloqueoTrabajoService;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter marcados;
+    private final int tamanoLote;
+    private final int particiones;
+
+    // Todo acceso a la rueda va sincronizado sobre ella
+    private final RuedaTemporizacion rueda;
+    // Préstamos programados o cancelados mientras se carga la rueda: prevalece ese cambio
+    private Set<Long> modificadosDuranteCarga;
+
+    public VencimientosServiceImpl(PrestamoRepository prestamoRepository,
+                                   BloqueoTrabajoService bloqueoTrabajoService,
+                                   TransactionTemplate transactionTemplate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${prestamos.vencimientos.ranuras:64}") int ranuras,
+                                   @Value("${prestamos.vencimientos.niveles:3}") int niveles,
+                                   @Value("${prestamos.vencimientos.tamano-lote:1000}") int tamanoLote,
+                                   @Value("${prestamos.vencimientos.particiones:4}") int particiones) {
+        this.prestamoRepository = prestamoRepository;
+        this.bloqueoTrabajoService = bloqueoTrabajoService;
+        this.transactionTemplate = transactionTemplate;
+        this.tamanoLote = tamanoLote;
+        this.particiones = particiones;
+        this.rueda = new RuedaTemporizacion(ranuras, niveles, LocalDate.now());
+        this.marcados = Counter.builder("prestamos.vencimientos.marcados")
+                .description("Préstamos pasados a VENCIDO por la rueda de vencimientos")
+                .register(meterRegistry);
+        Gauge.builder("prestamos.vencimientos.programados", this, VencimientosServiceImpl::programados)
+                .description("Préstamos activos con el vencimiento programado en la rueda")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void programar(Long prestamoId, LocalDate fechaDevolucionPrevista) {
+        programar(Map.of(prestamoId, fechaDevolucionPrevista));
+    }
+
+    @Override
+    public void programar(Map<Long, LocalDate> fechasPorPrestamo) {
+        if (fechasPorPrestamo.isEmpty()) {
+            return;
+        }
+        alConfirmar(() -> {
+            synchronized (rueda) {
+                fechasPorPrestamo.forEach((prestamoId, fecha) -> {
+                    rueda.programar(prestamoId, fecha.plusDays(1));
+                    marcarModificado(prestamoId);
+                });
+            }
+        });
+    }
+
+    @Override
+    public void cancelar(Long prestamoId) {
+        cancelar(List.of(prestamoId));
+    }
+
+    @Override
+    public void cancelar(Collection<Long> prestamoIds) {
+        if (prestamoIds.isEmpty()) {
+            return;
+        }
+        alConfirmar(() -> {
+            synchronized (rueda) {
+                prestamoIds.forEach(prestamoId -> {
+                    rueda.cancelar(prestamoId);
+                    marcarModificado(prestamoId);
+                });
+            }
+        });
+    }
+
+    // No limpia la rueda: lo que ya estaba programado con la misma fecha no se duplica y lo que
+    // sobre (préstamos cerrados desde otra instancia) lo descarta la UPDATE al vencer
+    @Override
+    public void cargar() {
+        long inicio = System.nanoTime();
+        synchronized (rueda) {
+            modificadosDuranteCarga = new HashSet<>();
+        }
+        try {
+            prestamoRepository.recorrerActivos((prestamoId, fecha) -> {
+                synchronized (rueda) {
+                    if (!modificadosDuranteCarga.contains(prestamoId)) {
+                        rueda.programar(prestamoId, fecha.plusDays(1));
+                    }
+                }
+            });
+        } finally {
+            synchronized (rueda) {
+                modificadosDuranteCarga = null;
+            }
+        }
+        log.info("Rueda de vencimientos cargada en {} ms: {} préstamos programados",
+                (System.nanoTime() - inicio) / 1_000_000, programados());
+    }
+
+    @Override
+    public int procesarVencimientos() {
+        BarridoVencimientosEvent evento = new BarridoVencimientosEvent();
+        evento.begin();
+        LocalDate hoy = LocalDate.now();
+        List<RuedaTemporizacion.Entrada> vencidas;
+        synchronized (rueda) {
+            vencidas = rueda.avanzarHasta(hoy);
+        }
+        if (vencidas.isEmpty()) {
+            evento.terminar(0, 0, programados());
+            return 0;
+        }
+
+        AtomicInteger total = new AtomicInteger();
+        bloqueoTrabajoService.ejecutar(TRABAJO, hoy.toString(), particiones, arrendamiento ->
+                total.addAndGet(marcarVencidas(vencidas.stream()
+                        .filter(entrada -> arrendamiento.contiene(entrada.id()))
+                        .toList(), hoy, arrendamiento)));
+
+        evento.terminar(vencidas.size(), total.get(), programados());
+        log.info("Marcados {} préstamos como VENCIDO ({} en la rueda)", total.get(), vencidas.size());
+        return total.get();
+    }
+
+    private int marcarVencidas(List<RuedaTemporizacion.Entrada> vencidas, LocalDate hoy,
+                               BloqueoTrabajoService.Arrendamiento arrendamiento) {
+        // Normalmente todas comparten fecha prevista (ayer); tras una parada puede haber varias
+        Map<LocalDate, List<Long>> porFechaPrevista = new TreeMap<>();
+        vencidas.forEach(entrada -> porFechaPrevista
+                .computeIfAbsent(entrada.vence().minusDays(1), fecha -> new ArrayList<>())
+                .add(entrada.id()));
+
+        LocalDateTime ahora = LocalDateTime.now();
+        List<LocalDate> pendientes = new ArrayList<>(porFechaPrevista.keySet());
+        int total = 0;
+        try {
+            while (!pendientes.isEmpty()) {
+                LocalDate fechaPrevista = pendientes.get(0);
+                int diasRetraso = (int) ChronoUnit.DAYS.between(fechaPrevista, hoy);
+                List<Long> ids = porFechaPrevista.get(fechaPrevista);
+                for (int desde = 0; desde < ids.size(); desde += tamanoLote) {
+                    List<Long> lote = ids.subList(desde, Math.min(desde + tamanoLote, ids.size()));
+                    Integer actualizados = transactionTemplate.execute(status -> {
+                        arrendamiento.renovar();
+                        return prestamoRepository.marcarVencidos(lote, fechaPrevista, diasRetraso, ahora);
+                    });
+                    total += actualizados == null ? 0 : actualizados;
+                }
+                pendientes.remove(0);
+            }
+        } catch (RuntimeException e) {
+            // Se vuelven a programar para el siguiente avance; la UPDATE es idempotente
+            synchronized (rueda) {
+                pendientes.forEach(fecha -> porFechaPrevista.get(fecha)
+                        .forEach(prestamoId -> rueda.programar(prestamoId, fecha.plusDays(1))));
+            }
+            throw e;
+        } finally {
+            marcados.increment(total);
+        }
+        return total;
+    }
+
+    private int programados() {
+        synchronized (rueda) {
+            return rueda.programadas();
+        }
+    }
+
+    private void marcarModificado(Long prestamoId) {
+        if (modificadosDuranteCarga != null) {
+            modificadosDuranteCarga.add(prestamoId);
+        }
+    }
+
+    private static void alConfirmar(Runnable cambio) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cambio.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cambio.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,45 @@
+-- Esquema existente antes de pasar a Flyway (el que generaba ddl-auto=update).
+-- En bases de datos que ya lo tienen, spring.flyway.baseline-on-migrate marca esta versión
+-- como aplicada sin ejecutarla.
+
+CREATE TABLE IF NOT EXISTS prestamos (
+    id                        BIGINT       NOT NULL AUTO_INCREMENT,
+    libro_id                  BIGINT       NOT NULL,
+    usuario_id                BIGINT       NOT NULL,
+    fecha_prestamo            DATE         NOT NULL,
+    fecha_devolucion_prevista DATE         NOT NULL,
+    fecha_devolucion_real     DATE,
+    estado                    VARCHAR(20)  NOT NULL,
+    dias_retraso              INT,
+    observaciones             VARCHAR(500),
+    created_at                DATETIME(6),
+    updated_at                DATETIME(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS outbox_eventos (
+    id                BIGINT      NOT NULL AUTO_INCREMENT,
+    evento_id         VARCHAR(36) NOT NULL,
+    tipo              VARCHAR(30) NOT NULL,
+    prestamo_id       BIGINT      NOT NULL,
+    libro_id          BIGINT      NOT NULL,
+    fecha_creacion    DATETIME(6) NOT NULL,
+    fecha_publicacion DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_outbox_evento_id UNIQUE (evento_id)
+);
+
+CREATE INDEX idx_outbox_pendientes ON outbox_eventos (fecha_publicacion, id);
+
+CREATE TABLE IF NOT EXISTS respuestas_idempotentes (
+    clave             VARCHAR(64)  NOT NULL,
+    huella_peticion   VARCHAR(64)  NOT NULL,
+    completada        BOOLEAN      NOT NULL,
+    codigo_estado     INT,
+    content_type      VARCHAR(100),
+    cuerpo_respuesta  MEDIUMBLOB,
+    fecha_expiracion  DATETIME(6)  NOT NULL,
+    PRIMARY KEY (clave)
+);
+
+CREATE INDEX idx_idempotencia_expiracion ON respuestas_idempotentes (fecha_expiracion);
@@ -0,0 +1,20 @@
+-- Índices para las consultas de PrestamoRepository (y de PrestamoLecturaRepository, que filtra
+-- igual). InnoDB añade el id a cada índice secundario, así que los conteos y las consultas que
+-- solo devuelven columnas del índice no tocan la tabla.
+-- PrestamoRepositoryPlanTest comprueba con EXPLAIN que ninguna de ellas recorre la tabla entera.
+
+-- findByUsuarioId, findByUsuarioIdAndEstado, countByUsuarioIdAndEstado,
+-- contarActivosPorUsuario y findUsuariosConPrestamosVencidos (estas tres, solo con el índice)
+CREATE INDEX idx_prestamos_usuario_estado ON prestamos (usuario_id, estado, fecha_devolucion_prevista);
+
+-- findByLibroId y findByLibroIdAndEstado (isLibroPrestado)
+CREATE INDEX idx_prestamos_libro_estado ON prestamos (libro_id, estado);
+
+-- findByEstado, countByEstado y findPrestamosVencidos
+CREATE INDEX idx_prestamos_estado_vencimiento ON prestamos (estado, fecha_devolucion_prevista);
+
+-- findByFechaPrestamoBetween
+CREATE INDEX idx_prestamos_fecha_prestamo ON prestamos (fecha_prestamo);
+
+-- findPrestamosConRetraso
+CREATE INDEX idx_prestamos_dias_retraso ON prestamos (dias_retraso);
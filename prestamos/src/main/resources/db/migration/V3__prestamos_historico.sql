@@ -0,0 +1,26 @@
+-- Préstamos cerrados (DEVUELTO / PERDIDO) que ArchivoPrestamosService saca de la tabla caliente.
+-- En MySQL la tabla se particiona por meses de fecha_prestamo desde la aplicación
+-- (PrestamoRepositoryImpl.asegurarParticionesHistorico): el particionado exige que fecha_prestamo
+-- forme parte de la clave primaria y las particiones nuevas se crean según pasan los meses.
+
+CREATE TABLE IF NOT EXISTS prestamos_historico (
+    id                        BIGINT       NOT NULL,
+    libro_id                  BIGINT       NOT NULL,
+    usuario_id                BIGINT       NOT NULL,
+    fecha_prestamo            DATE         NOT NULL,
+    fecha_devolucion_prevista DATE         NOT NULL,
+    fecha_devolucion_real     DATE,
+    estado                    VARCHAR(20)  NOT NULL,
+    dias_retraso              INT,
+    observaciones             VARCHAR(500),
+    created_at                DATETIME(6),
+    updated_at                DATETIME(6),
+    fecha_archivado           DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id, fecha_prestamo)
+);
+
+CREATE INDEX idx_historico_usuario ON prestamos_historico (usuario_id, fecha_prestamo);
+CREATE INDEX idx_historico_libro ON prestamos_historico (libro_id, fecha_prestamo);
+
+-- Selección de préstamos cerrados antes del horizonte de archivado
+CREATE INDEX idx_prestamos_estado_devolucion ON prestamos (estado, fecha_devolucion_real);
@@ -0,0 +1,16 @@
+-- Arrendamientos de los trabajos programados (BloqueoTrabajoService): una fila por partición de
+-- cada trabajo. La réplica que reclama una partición sube el token y fija expira_en; la
+-- partición -1 guarda el rango de ids con el que se repartió la ejecución en curso.
+
+CREATE TABLE IF NOT EXISTS bloqueos_trabajo (
+    trabajo      VARCHAR(64)  NOT NULL,
+    particion    INT          NOT NULL,
+    ejecucion    VARCHAR(32),
+    propietario  VARCHAR(128),
+    token        BIGINT       NOT NULL DEFAULT 0,
+    expira_en    DATETIME(3),
+    completado   BOOLEAN      NOT NULL DEFAULT FALSE,
+    id_desde     BIGINT,
+    id_hasta     BIGINT,
+    PRIMARY KEY (trabajo, particion)
+);
@@ -0,0 +1,32 @@
+-- Multas por retraso (MultasService). Una fila por préstamo con el importe a la fecha de cálculo:
+-- mientras el préstamo sigue abierto crece cada día hasta el tope de su tarifa; al cerrarse queda
+-- fijo. Las filas sobreviven al archivado del préstamo.
+CREATE TABLE IF NOT EXISTS multas (
+    prestamo_id   BIGINT         NOT NULL,
+    usuario_id    BIGINT         NOT NULL,
+    categoria     VARCHAR(32)    NOT NULL,
+    dias_cobrados INT            NOT NULL,
+    importe       DECIMAL(10, 2) NOT NULL,
+    calculada_en  DATETIME(6)    NOT NULL,
+    PRIMARY KEY (prestamo_id)
+);
+
+CREATE INDEX idx_multas_usuario ON multas (usuario_id);
+
+-- Saldo pendiente por usuario: suma de sus multas, mantenida con incrementos en la misma
+-- transacción que cada cambio de multas
+CREATE TABLE IF NOT EXISTS saldos_multas (
+    usuario_id        BIGINT         NOT NULL,
+    importe_pendiente DECIMAL(12, 2) NOT NULL,
+    multas_pendientes INT            NOT NULL,
+    actualizado_en    DATETIME(6)    NOT NULL,
+    PRIMARY KEY (usuario_id)
+);
+
+-- Categoría de tarifa de cada usuario; sin fila se aplica prestamos.multas.categoria-por-defecto
+CREATE TABLE IF NOT EXISTS categorias_usuario (
+    usuario_id BIGINT      NOT NULL,
+    categoria  VARCHAR(32) NOT NULL,
+    updated_at DATETIME(6),
+    PRIMARY KEY (usuario_id)
+);
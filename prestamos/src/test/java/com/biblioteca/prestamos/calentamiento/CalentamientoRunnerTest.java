@@ -0,0 +1,60 @@
+package com.biblioteca.prestamos.calentamiento;
+
+import com.biblioteca.comun.calentamiento.CalentamientoProperties;
+import com.biblioteca.comun.calentamiento.Precarga;
+import io.r2dbc.pool.ConnectionPool;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.mock.env.MockEnvironment;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CalentamientoRunnerTest {
+
+    private static final Map<String, List<Long>> IDS = Map.of(
+            "usuario", List.of(10L, 20L, 30L),
+            "libro", List.of(7L));
+
+    @Test
+    void expandir_UnIdDistintoPorRonda() {
+        assertEquals("/api/prestamos/usuario/10/activos",
+                CalentamientoRunner.expandir("/api/prestamos/usuario/{usuario}/activos", IDS, 0));
+        assertEquals("/api/prestamos/usuario/30/activos",
+                CalentamientoRunner.expandir("/api/prestamos/usuario/{usuario}/activos", IDS, 2));
+        assertEquals("/api/prestamos/usuario/10/activos",
+                CalentamientoRunner.expandir("/api/prestamos/usuario/{usuario}/activos", IDS, 3));
+        assertEquals("/x?usuario=20&libro=7", CalentamientoRunner.expandir("/x?usuario={usuario}&libro={libro}", IDS, 1));
+        assertEquals("/api/prestamos/estadisticas", CalentamientoRunner.expandir("/api/prestamos/estadisticas", IDS, 5));
+    }
+
+    @Test
+    void expandir_SinIdsDelTipo_DevuelveNull() {
+        assertNull(CalentamientoRunner.expandir("/api/prestamos/{prestamo}", IDS, 0));
+        assertNull(CalentamientoRunner.expandir("/api/prestamos/{prestamo}", Map.of("prestamo", List.of()), 0));
+    }
+
+    @Test
+    void leerPeticiones_SoloGetSinComentarios() {
+        CalentamientoProperties properties = new CalentamientoProperties();
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        CalentamientoRunner runner = new CalentamientoRunner(properties,
+                beans.getBeanProvider(DataSource.class),
+                beans.getBeanProvider(ConnectionPool.class),
+                beans.getBeanProvider(Precarga.class),
+                new DefaultResourceLoader(), new MockEnvironment());
+
+        List<String> rutas = runner.leerPeticiones();
+
+        assertTrue(rutas.contains("/api/prestamos/{prestamo}"));
+        assertTrue(rutas.stream().allMatch(ruta -> ruta.startsWith("/api/prestamos/")));
+        assertFalse(rutas.contains("/api/prestamos/activos"));
+    }
+}
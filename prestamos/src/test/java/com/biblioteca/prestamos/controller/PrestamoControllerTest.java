@@ -6,11 +6,13 @@ import com.biblioteca.prestamos.controller.dto.DevolucionRequestDTO;
 import com.biblioteca.prestamos.model.enums.EstadoPrestamo;
 import com.biblioteca.prestamos.service.PrestamoService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
@@ -23,11 +25,15 @@ import java.util.List;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(PrestamoController.class)
+// El slice no trae métricas; GlobalExceptionHandler cuenta los errores en un registro
+@Import(SimpleMeterRegistry.class)
 @DisplayName("Pruebas del Controlador de Préstamos")
 class PrestamoControllerTest {
 
@@ -183,6 +189,30 @@ class PrestamoControllerTest {
                 .andExpect(jsonPath("$[1].estado").value("DEVUELTO"));
     }
 
+    @Test
+    @DisplayName("Debería incluir los préstamos archivados si se pide el histórico")
+    void obtenerPrestamosPorUsuario_ConHistorico() throws Exception {
+        // Given
+        PrestamoResponseDTO archivado = PrestamoResponseDTO.builder()
+                .id(7L)
+                .libroId(3L)
+                .usuarioId(1L)
+                .fechaPrestamo(LocalDate.now().minusYears(2))
+                .fechaDevolucionPrevista(LocalDate.now().minusYears(2).plusDays(14))
+                .estado(EstadoPrestamo.DEVUELTO)
+                .build();
+        when(prestamoService.obtenerHistorialPorUsuario(1L))
+                .thenReturn(List.of(prestamoResponseDTO, archivado));
+
+        // When & Then
+        mockMvc.perform(get("/api/prestamos/usuario/1").param("historico", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].id").value(7))
+                .andExpect(jsonPath("$[1].estado").value("DEVUELTO"));
+        verify(prestamoService, never()).obtenerPrestamosPorUsuario(anyLong());
+    }
+
     @Test
     @DisplayName("Debería obtener préstamos activos")
     void obtenerPrestamosActivos_Success() throws Exception {
@@ -0,0 +1,201 @@
+package com.biblioteca.prestamos.filter;
+
+import com.biblioteca.prestamos.service.IdempotenciaService;
+import com.biblioteca.prestamos.service.IdempotenciaService.RespuestaGuardada;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotenciaFilterTest {
+
+    private static final String CUERPO = "{\"usuarioId\":1,\"libroId\":10}";
+
+    @Mock
+    private IdempotenciaService idempotenciaService;
+
+    private IdempotenciaFilter filtro;
+
+    @BeforeEach
+    void setUp() {
+        filtro = new IdempotenciaFilter(idempotenciaService, new ObjectMapper().registerModule(new JavaTimeModule()));
+    }
+
+    @Test
+    void doFilter_PrimeraPeticion_GuardaLaRespuestaYSirveElCuerpoConReadListener() throws Exception {
+        when(idempotenciaService.buscar(anyString())).thenReturn(Optional.empty());
+        when(idempotenciaService.reservar(anyString(), anyString())).thenReturn(true);
+        AtomicBoolean leidoCompleto = new AtomicBoolean();
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                // Lectura no bloqueante, como la haría un controlador asíncrono
+                ServletInputStream entrada = req.getInputStream();
+                ByteArrayOutputStream leido = new ByteArrayOutputStream();
+                entrada.setReadListener(new ReadListener() {
+                    @Override
+                    public void onDataAvailable() throws IOException {
+                        while (entrada.isReady() && !entrada.isFinished()) {
+                            leido.write(entrada.read());
+                        }
+                    }
+
+                    @Override
+                    public void onAllDataRead() {
+                        leidoCompleto.set(CUERPO.equals(leido.toString(StandardCharsets.UTF_8)));
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        fail(t);
+                    }
+                });
+                resp.setStatus(201);
+                resp.setContentType("application/json");
+                resp.getWriter().write("{\"id\":1}");
+            }
+        });
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filtro.doFilter(peticion("clave-1", CUERPO, null), response, chain);
+
+        assertTrue(leidoCompleto.get());
+        assertEquals(201, response.getStatus());
+        assertEquals("{\"id\":1}", response.getContentAsString());
+        verify(idempotenciaService).completar(anyString(), anyString(), eq(201), eq("application/json"),
+                eq("{\"id\":1}".getBytes(StandardCharsets.UTF_8)));
+        verify(idempotenciaService, never()).liberar(anyString());
+    }
+
+    @Test
+    void doFilter_Error_LiberaLaReserva() throws Exception {
+        when(idempotenciaService.buscar(anyString())).thenReturn(Optional.empty());
+        when(idempotenciaService.reservar(anyString(), anyString())).thenReturn(true);
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                resp.setStatus(409);
+            }
+        });
+
+        filtro.doFilter(peticion("clave-1", CUERPO, null), new MockHttpServletResponse(), chain);
+
+        verify(idempotenciaService).liberar(anyString());
+        verify(idempotenciaService, never()).completar(anyString(), anyString(), anyInt(), any(), any());
+    }
+
+    @Test
+    void doFilter_Repetida_DevuelveLaRespuestaGuardadaSinLlegarAlControlador() throws Exception {
+        guardada("application/json");
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filtro.doFilter(peticion("clave-1", CUERPO, "application/json"), response, chain);
+
+        assertEquals(201, response.getStatus());
+        assertEquals("true", response.getHeader(IdempotenciaFilter.CABECERA_REPETIDA));
+        assertEquals("{\"id\":1}", response.getContentAsString());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void doFilter_RepetidaConOtroCuerpo_422() throws Exception {
+        guardada("application/json");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filtro.doFilter(peticion("clave-1", "{\"usuarioId\":2}", null), response, new MockFilterChain());
+
+        assertEquals(422, response.getStatus());
+    }
+
+    @Test
+    void doFilter_RepetidaConAcceptIncompatible_406() throws Exception {
+        guardada("application/json");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filtro.doFilter(peticion("clave-1", CUERPO, "application/xml"), response, new MockFilterChain());
+
+        assertEquals(406, response.getStatus());
+        assertNull(response.getHeader(IdempotenciaFilter.CABECERA_REPETIDA));
+    }
+
+    @Test
+    void doFilter_ClaveEnCurso_409() throws Exception {
+        when(idempotenciaService.buscar(anyString())).thenReturn(Optional.empty());
+        when(idempotenciaService.reservar(anyString(), anyString())).thenReturn(false);
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filtro.doFilter(peticion("clave-1", CUERPO, null), response, chain);
+
+        assertEquals(409, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void doFilter_ConClaveYAcceptNdjson_406SinLlegarAlControlador() throws Exception {
+        MockHttpServletRequest request = peticion("clave-1", "{\"prestamoIds\":[1,2]}", "application/x-ndjson");
+        request.setRequestURI("/api/prestamos/devoluciones/lote");
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filtro.doFilter(request, response, chain);
+
+        // El streaming no se guarda: ni se reserva la clave ni se ejecuta el lote
+        assertEquals(406, response.getStatus());
+        assertNull(chain.getRequest());
+        verifyNoInteractions(idempotenciaService);
+    }
+
+    private void guardada(String contentType) {
+        RespuestaGuardada respuesta = new RespuestaGuardada(sha256(CUERPO), 201, contentType,
+                "{\"id\":1}".getBytes(StandardCharsets.UTF_8), Long.MAX_VALUE);
+        when(idempotenciaService.buscar(anyString())).thenReturn(Optional.of(respuesta));
+    }
+
+    private static MockHttpServletRequest peticion(String clave, String cuerpo, String accept) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/prestamos");
+        request.addHeader(IdempotenciaFilter.CABECERA, clave);
+        if (accept != null) {
+            request.addHeader(HttpHeaders.ACCEPT, accept);
+        }
+        request.setContentType("application/json");
+        request.setContent(cuerpo.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static String sha256(String texto) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(texto.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
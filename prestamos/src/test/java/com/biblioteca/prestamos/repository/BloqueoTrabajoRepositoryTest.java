@@ -0,0 +1,167 @@
+package com.biblioteca.prestamos.repository;
+
+import com.biblioteca.prestamos.exception.BloqueoPerdidoException;
+import com.biblioteca.prestamos.model.entity.Prestamo;
+import com.biblioteca.prestamos.model.enums.EstadoPrestamo;
+import com.biblioteca.prestamos.service.BloqueoTrabajoService;
+import com.biblioteca.prestamos.service.impl.BloqueoTrabajoServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// bloqueos_trabajo sale de las migraciones, igual que en producción
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bloqueos;DB_CLOSE_DELAY=-1;MODE=MySQL",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.properties.hibernate.hbm2ddl.auto=none",
+        "spring.jpa.show-sql=false"
+})
+@DisplayName("Pruebas de los arrendamientos de trabajos programados")
+class BloqueoTrabajoRepositoryTest {
+
+    private static final String TRABAJO = "prueba";
+    private static final long MINUTO = 60_000;
+
+    @Autowired
+    private BloqueoTrabajoRepository bloqueoTrabajoRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    @DisplayName("Mientras dura el arrendamiento ninguna otra réplica debería reclamar la partición")
+    void reclamar_ExclusivoMientrasDuraElArrendamiento() {
+        bloqueoTrabajoRepository.asegurarParticiones(TRABAJO, 1);
+
+        Long token = bloqueoTrabajoRepository.reclamar(TRABAJO, 0, "2026-03-10", "a", MINUTO);
+
+        assertThat(token).isEqualTo(1L);
+        assertThat(bloqueoTrabajoRepository.reclamar(TRABAJO, 0, "2026-03-10", "b", MINUTO)).isNull();
+        assertThat(bloqueoTrabajoRepository.renovar(TRABAJO, 0, token, MINUTO)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Una partición completada no debería repetirse en la misma ejecución")
+    void completar_UnaVezPorEjecucion() {
+        bloqueoTrabajoRepository.asegurarParticiones(TRABAJO, 1);
+        Long token = bloqueoTrabajoRepository.reclamar(TRABAJO, 0, "2026-03-10", "a", MINUTO);
+
+        assertThat(bloqueoTrabajoRepository.completar(TRABAJO, 0, token)).isTrue();
+
+        assertThat(bloqueoTrabajoRepository.reclamar(TRABAJO, 0, "2026-03-10", "b", MINUTO)).isNull();
+        // Una réplica con el reloj atrasado tampoco repite la de ayer
+        assertThat(bloqueoTrabajoRepository.reclamar(TRABAJO, 0, "2026-03-09", "b", MINUTO)).isNull();
+        assertThat(bloqueoTrabajoRepository.reclamar(TRABAJO, 0, "2026-03-11", "b", MINUTO)).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("Un arrendamiento caducado debería pasar a otra réplica con un token mayor")
+    void reclamar_ArrendamientoCaducadoInvalidaElTokenAnterior() {
+        bloqueoTrabajoRepository.asegurarParticiones(TRABAJO, 1);
+        Long caducado = bloqueoTrabajoRepository.reclamar(TRABAJO, 0, "2026-03-10", "a", -MINUTO);
+
+        Long token = bloqueoTrabajoRepository.reclamar(TRABAJO, 0, "2026-03-10", "b", MINUTO);
+
+        assertThat(token).isEqualTo(caducado + 1);
+        assertThat(bloqueoTrabajoRepository.renovar(TRABAJO, 0, caducado, MINUTO)).isFalse();
+        assertThat(bloqueoTrabajoRepository.completar(TRABAJO, 0, caducado)).isFalse();
+        assertThat(bloqueoTrabajoRepository.completar(TRABAJO, 0, token)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Una partición liberada tras un fallo debería poder reclamarse enseguida")
+    void liberar_PermiteReintentarSinEsperar() {
+        bloqueoTrabajoRepository.asegurarParticiones(TRABAJO, 1);
+        Long token = bloqueoTrabajoRepository.reclamar(TRABAJO, 0, "2026-03-10", "a", MINUTO);
+
+        bloqueoTrabajoRepository.liberar(TRABAJO, 0, token);
+
+        assertThat(bloqueoTrabajoRepository.reclamar(TRABAJO, 0, "2026-03-10", "b", MINUTO)).isEqualTo(token + 1);
+    }
+
+    @Test
+    @DisplayName("Las particiones deberían cubrir cada id una sola vez y no repetirse en la ejecución")
+    void ejecutar_ParticionesCubrenTodosLosIdsUnaVez() {
+        List<Long> ids = LongStream.range(0, 10).mapToObj(i -> guardar().getId()).toList();
+        entityManager.flush();
+        BloqueoTrabajoService replicaA = servicio("a");
+        BloqueoTrabajoService replicaB = servicio("b");
+        List<BloqueoTrabajoService.Arrendamiento> arrendamientos = new ArrayList<>();
+
+        int completadas = replicaA.ejecutar(TRABAJO, "2026-03-10", 3, arrendamientos::add);
+
+        assertThat(completadas).isEqualTo(3);
+        assertThat(replicaB.ejecutar(TRABAJO, "2026-03-10", 3, arrendamientos::add)).isZero();
+        assertThat(arrendamientos).extracting(BloqueoTrabajoService.Arrendamiento::particion)
+                .containsExactlyInAnyOrder(0, 1, 2);
+        for (Long id : ids) {
+            assertThat(arrendamientos.stream().filter(a -> a.contiene(id)).count())
+                    .as("Préstamo %d", id).isEqualTo(1);
+        }
+        // Los creados después de abrir la ejecución caen en la última partición
+        assertThat(arrendamientos.stream().filter(a -> a.contiene(ids.get(9) + 1000)).toList())
+                .extracting(BloqueoTrabajoService.Arrendamiento::particion).containsExactly(2);
+    }
+
+    @Test
+    @DisplayName("Una partición fallida debería quedar libre para otra réplica")
+    void ejecutar_TareaFallidaNoSeDaPorCompletada() {
+        BloqueoTrabajoService replicaA = servicio("a");
+        BloqueoTrabajoService replicaB = servicio("b");
+
+        int completadas = replicaA.ejecutar(TRABAJO, "2026-03-10", 1, arrendamiento -> {
+            throw new IllegalStateException("sin conexión");
+        });
+
+        assertThat(completadas).isZero();
+        assertThat(replicaB.ejecutar(TRABAJO, "2026-03-10", 1, arrendamiento -> { })).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Renovar un arrendamiento que ya es de otra réplica debería fallar")
+    void renovar_ArrendamientoPerdido() {
+        BloqueoTrabajoService replica = servicio("a");
+
+        int completadas = replica.ejecutar(TRABAJO, "2026-03-10", 1, arrendamiento -> {
+            // Otra réplica se la queda: primero caduca y luego la reclama
+            bloqueoTrabajoRepository.liberar(TRABAJO, 0, arrendamiento.token());
+            bloqueoTrabajoRepository.reclamar(TRABAJO, 0, "2026-03-10", "b", MINUTO);
+            assertThatThrownBy(arrendamiento::renovar).isInstanceOf(BloqueoPerdidoException.class);
+        });
+
+        assertThat(completadas).isZero();
+    }
+
+    private BloqueoTrabajoService servicio(String propietario) {
+        return new BloqueoTrabajoServiceImpl(bloqueoTrabajoRepository, new SimpleMeterRegistry(), propietario, MINUTO);
+    }
+
+    private Prestamo guardar() {
+        return entityManager.persist(Prestamo.builder()
+                .usuarioId(1L)
+                .libroId(10L)
+                .fechaPrestamo(LocalDate.now())
+                .fechaDevolucionPrevista(LocalDate.now().plusDays(14))
+                .estado(EstadoPrestamo.ACTIVO)
+                .diasRetraso(0)
+                .build());
+    }
+}
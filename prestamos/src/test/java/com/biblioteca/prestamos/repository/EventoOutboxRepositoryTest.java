@@ -0,0 +1,142 @@
+package com.biblioteca.prestamos.repository;
+
+import com.biblioteca.prestamos.client.LibrosClient;
+import com.biblioteca.prestamos.client.dto.EventoStockDto;
+import com.biblioteca.prestamos.client.dto.EventoStockResultadoDto;
+import com.biblioteca.prestamos.model.entity.EventoOutbox;
+import com.biblioteca.prestamos.model.entity.Prestamo;
+import com.biblioteca.prestamos.model.enums.EstadoPrestamo;
+import com.biblioteca.prestamos.model.enums.TipoEventoStock;
+import com.biblioteca.prestamos.service.impl.OutboxServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// outbox_eventos sale de las migraciones, igual que en producción
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox;DB_CLOSE_DELAY=-1;MODE=MySQL",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.properties.hibernate.hbm2ddl.auto=none",
+        "spring.jpa.show-sql=false"
+})
+@DisplayName("Pruebas de la compensación de eventos de stock rechazados")
+class EventoOutboxRepositoryTest {
+
+    @Autowired
+    private EventoOutboxRepository outboxRepository;
+
+    @Autowired
+    private PrestamoRepository prestamoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    @DisplayName("Un préstamo rechazado y devuelto antes del relay no debería sumar un ejemplar")
+    void publicarPendientes_RechazoYDevolucion_SinEjemplarFantasma() {
+        Prestamo prestamo = guardar(EstadoPrestamo.ACTIVO);
+        registrar(TipoEventoStock.LIBRO_PRESTADO, prestamo);
+        // El usuario lo devuelve antes de que el relay publique el préstamo
+        prestamo.setEstado(EstadoPrestamo.DEVUELTO);
+        prestamo.setFechaDevolucionReal(LocalDate.now());
+        registrar(TipoEventoStock.LIBRO_DEVUELTO, prestamo);
+        entityManager.flush();
+
+        // libros no tiene ejemplares: rechaza cualquier LIBRO_PRESTADO
+        List<EventoStockDto> enviados = new ArrayList<>();
+        LibrosClient librosClient = mock(LibrosClient.class);
+        when(librosClient.aplicarEventosStock(anyList())).thenAnswer(inv -> {
+            List<EventoStockDto> lote = inv.getArgument(0);
+            enviados.addAll(lote);
+            return ResponseEntity.ok(EventoStockResultadoDto.builder()
+                    .rechazados(lote.stream()
+                            .filter(evento -> evento.getTipo() == TipoEventoStock.LIBRO_PRESTADO)
+                            .map(EventoStockDto::getEventoId)
+                            .toList())
+                    .build());
+        });
+        OutboxServiceImpl outboxService = new OutboxServiceImpl(outboxRepository, librosClient, prestamoRepository,
+                new TransactionTemplate(transactionManager), 1, 7);
+
+        int publicados = outboxService.publicarPendientes();
+        entityManager.clear();
+
+        // La devolución nunca llega a libros y el préstamo queda rechazado
+        assertThat(publicados).isEqualTo(1);
+        assertThat(enviados).extracting(EventoStockDto::getTipo).containsExactly(TipoEventoStock.LIBRO_PRESTADO);
+        assertThat(outboxRepository.countByFechaPublicacionIsNull()).isZero();
+        assertThat(prestamoRepository.findById(prestamo.getId()))
+                .hasValueSatisfying(p -> assertThat(p.getEstado()).isEqualTo(EstadoPrestamo.RECHAZADO));
+    }
+
+    @Test
+    @DisplayName("La compensación solo debería descartar devoluciones pendientes del préstamo rechazado")
+    void descartarDevolucionesPendientes_SoloDelPrestamo() {
+        Prestamo rechazado = guardar(EstadoPrestamo.DEVUELTO);
+        Prestamo otro = guardar(EstadoPrestamo.DEVUELTO);
+        registrar(TipoEventoStock.LIBRO_PRESTADO, rechazado);
+        registrar(TipoEventoStock.LIBRO_DEVUELTO, rechazado);
+        registrar(TipoEventoStock.LIBRO_DEVUELTO, otro);
+        entityManager.flush();
+
+        assertThat(outboxRepository.descartarDevolucionesPendientes(List.of(rechazado.getId()))).isEqualTo(1);
+        assertThat(prestamoRepository.marcarRechazados(List.of(rechazado.getId()), LocalDateTime.now())).isEqualTo(1);
+        entityManager.clear();
+
+        assertThat(outboxRepository.findAll())
+                .extracting(EventoOutbox::getPrestamoId, EventoOutbox::getTipo)
+                .containsExactlyInAnyOrder(
+                        tuple(rechazado.getId(), TipoEventoStock.LIBRO_PRESTADO),
+                        tuple(otro.getId(), TipoEventoStock.LIBRO_DEVUELTO));
+        assertThat(prestamoRepository.findById(otro.getId()))
+                .hasValueSatisfying(p -> assertThat(p.getEstado()).isEqualTo(EstadoPrestamo.DEVUELTO));
+    }
+
+    private void registrar(TipoEventoStock tipo, Prestamo prestamo) {
+        entityManager.persist(EventoOutbox.builder()
+                .eventoId(UUID.randomUUID().toString())
+                .tipo(tipo)
+                .prestamoId(prestamo.getId())
+                .libroId(prestamo.getLibroId())
+                .fechaCreacion(LocalDateTime.now())
+                .build());
+    }
+
+    private Prestamo guardar(EstadoPrestamo estado) {
+        return entityManager.persist(Prestamo.builder()
+                .usuarioId(1L)
+                .libroId(10L)
+                .fechaPrestamo(LocalDate.now())
+                .fechaDevolucionPrevista(LocalDate.now().plusDays(14))
+                .estado(estado)
+                .diasRetraso(0)
+                .build());
+    }
+}
@@ -0,0 +1,153 @@
+package com.biblioteca.prestamos.repository;
+
+import com.biblioteca.prestamos.model.entity.CategoriaUsuario;
+import com.biblioteca.prestamos.model.entity.Multa;
+import com.biblioteca.prestamos.model.entity.Prestamo;
+import com.biblioteca.prestamos.model.enums.EstadoPrestamo;
+import com.biblioteca.prestamos.repository.MultaRepositoryCustom.CambioSaldo;
+import com.biblioteca.prestamos.repository.MultaRepositoryCustom.PrestamoConRetraso;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// multas y saldos_multas salen de las migraciones, igual que en producción
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:multas;DB_CLOSE_DELAY=-1;MODE=MySQL",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.properties.hibernate.hbm2ddl.auto=none",
+        "spring.jpa.show-sql=false"
+})
+@DisplayName("Pruebas del libro de multas")
+class MultaRepositoryTest {
+
+    private static final LocalDate HOY = LocalDate.now();
+
+    @Autowired
+    private MultaRepository multaRepository;
+
+    @Autowired
+    private SaldoMultasRepository saldoMultasRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    @DisplayName("Debería leer por páginas los préstamos abiertos vencidos y los devueltos tarde")
+    void leerConRetraso_SoloPrestamosConRetraso() {
+        Long vencido = guardar(1L, EstadoPrestamo.VENCIDO, HOY.minusDays(5), null).getId();
+        guardar(1L, EstadoPrestamo.ACTIVO, HOY.plusDays(3), null);
+        guardar(1L, EstadoPrestamo.DEVUELTO, HOY.minusDays(10), HOY.minusDays(12));
+        Long devueltoTarde = guardar(2L, EstadoPrestamo.DEVUELTO, HOY.minusDays(10), HOY.minusDays(4)).getId();
+        Long activo = guardar(2L, EstadoPrestamo.ACTIVO, HOY.minusDays(1), null).getId();
+        entityManager.persist(CategoriaUsuario.builder().usuarioId(2L).categoria("ESTUDIANTE").build());
+        entityManager.flush();
+
+        List<PrestamoConRetraso> primera = multaRepository.leerConRetraso(Long.MIN_VALUE, Long.MAX_VALUE, HOY, null, 2);
+        List<PrestamoConRetraso> segunda = multaRepository.leerConRetraso(
+                primera.get(1).prestamoId() + 1, Long.MAX_VALUE, HOY, null, 2);
+
+        assertThat(primera).extracting(PrestamoConRetraso::prestamoId).containsExactly(vencido, devueltoTarde);
+        assertThat(segunda).extracting(PrestamoConRetraso::prestamoId).containsExactly(activo);
+        assertThat(primera.get(0).fechaFin()).isNull();
+        assertThat(primera.get(0).categoria()).isNull();
+        assertThat(primera.get(1).fechaFin()).isEqualTo(HOY.minusDays(4));
+        assertThat(primera.get(1).categoria()).isEqualTo("ESTUDIANTE");
+        // El rango de la partición acota la lectura
+        assertThat(multaRepository.leerConRetraso(vencido + 1, activo, HOY, null, 10))
+                .extracting(PrestamoConRetraso::prestamoId).containsExactly(devueltoTarde);
+    }
+
+    @Test
+    @DisplayName("Con fecha de revisión debería saltarse los préstamos cerrados hace tiempo")
+    void leerConRetraso_CerradosDesde() {
+        Long antiguo = guardar(1L, EstadoPrestamo.DEVUELTO, HOY.minusDays(60), HOY.minusDays(50)).getId();
+        Long vencido = guardar(1L, EstadoPrestamo.VENCIDO, HOY.minusDays(60), null).getId();
+        entityManager.flush();
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE prestamos SET updated_at = :antes")
+                .setParameter("antes", LocalDateTime.now().minusDays(30))
+                .executeUpdate();
+
+        assertThat(multaRepository.leerConRetraso(Long.MIN_VALUE, Long.MAX_VALUE, HOY,
+                LocalDateTime.now().minusDays(7), 10))
+                .extracting(PrestamoConRetraso::prestamoId).containsExactly(vencido);
+        assertThat(multaRepository.leerConRetraso(Long.MIN_VALUE, Long.MAX_VALUE, HOY, null, 10))
+                .extracting(PrestamoConRetraso::prestamoId).containsExactly(antiguo, vencido);
+    }
+
+    @Test
+    @DisplayName("Debería insertar, actualizar y leer los importes de las multas")
+    void insertarYActualizar() {
+        multaRepository.insertar(List.of(multa(1L, 7L, "1.00"), multa(2L, 7L, "2.50")));
+        multaRepository.actualizar(List.of(multa(1L, 7L, "1.40")));
+
+        assertThat(multaRepository.bloquearImportes(List.of(1L, 2L, 3L)))
+                .containsOnlyKeys(1L, 2L)
+                .containsEntry(1L, new BigDecimal("1.40"))
+                .containsEntry(2L, new BigDecimal("2.50"));
+        assertThat(multaRepository.findByUsuarioIdOrderByPrestamoIdDesc(7L))
+                .extracting(Multa::getPrestamoId).containsExactly(2L, 1L);
+    }
+
+    @Test
+    @DisplayName("Los cambios de saldo deberían sumarse al saldo existente o crearlo")
+    void sumarASaldos_AcumulaLasDiferencias() {
+        TreeMap<Long, CambioSaldo> primero = new TreeMap<>();
+        primero.put(7L, new CambioSaldo(new BigDecimal("3.00"), 2));
+        multaRepository.sumarASaldos(primero, LocalDateTime.now());
+        TreeMap<Long, CambioSaldo> segundo = new TreeMap<>();
+        segundo.put(7L, new CambioSaldo(new BigDecimal("-1.00"), -1));
+        segundo.put(8L, new CambioSaldo(new BigDecimal("0.20"), 1));
+        multaRepository.sumarASaldos(segundo, LocalDateTime.now());
+
+        assertThat(saldoMultasRepository.findById(7L)).hasValueSatisfying(saldo -> {
+            assertThat(saldo.getImportePendiente()).isEqualByComparingTo("2.00");
+            assertThat(saldo.getMultasPendientes()).isEqualTo(1);
+        });
+        assertThat(saldoMultasRepository.findById(8L)).hasValueSatisfying(saldo -> {
+            assertThat(saldo.getImportePendiente()).isEqualByComparingTo("0.20");
+            assertThat(saldo.getMultasPendientes()).isEqualTo(1);
+        });
+    }
+
+    private static Multa multa(Long prestamoId, Long usuarioId, String importe) {
+        return Multa.builder()
+                .prestamoId(prestamoId)
+                .usuarioId(usuarioId)
+                .categoria("GENERAL")
+                .diasCobrados(1)
+                .importe(new BigDecimal(importe))
+                .calculadaEn(LocalDateTime.now())
+                .build();
+    }
+
+    private Prestamo guardar(Long usuarioId, EstadoPrestamo estado, LocalDate fechaPrevista,
+                             LocalDate fechaDevolucionReal) {
+        return entityManager.persist(Prestamo.builder()
+                .usuarioId(usuarioId)
+                .libroId(10L)
+                .fechaPrestamo(fechaPrevista.minusDays(14))
+                .fechaDevolucionPrevista(fechaPrevista)
+                .fechaDevolucionReal(fechaDevolucionReal)
+                .estado(estado)
+                .diasRetraso(0)
+                .build());
+    }
+}
@@ -0,0 +1,142 @@
+package com.biblioteca.prestamos.repository;
+
+import com.biblioteca.prestamos.controller.dto.PrestamoResponseDTO;
+import com.biblioteca.prestamos.model.entity.Prestamo;
+import com.biblioteca.prestamos.model.enums.EstadoPrestamo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+// prestamos_historico solo existe en las migraciones: el esquema lo crea Flyway, no Hibernate
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:archivo;DB_CLOSE_DELAY=-1;MODE=MySQL",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.properties.hibernate.hbm2ddl.auto=none",
+        "spring.jpa.show-sql=false"
+})
+@DisplayName("Pruebas del archivado de préstamos cerrados")
+class PrestamoArchivoRepositoryTest {
+
+    @Autowired
+    private PrestamoRepository prestamoRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Prestamo devueltoAntiguo;
+    private Prestamo perdidoAntiguo;
+    private Prestamo devueltoReciente;
+    private Prestamo activo;
+
+    @BeforeEach
+    void setUp() {
+        LocalDate hace2Anios = LocalDate.now().minusYears(2);
+        devueltoAntiguo = guardar(1L, 10L, hace2Anios, hace2Anios.plusDays(10), EstadoPrestamo.DEVUELTO);
+        perdidoAntiguo = guardar(1L, 11L, hace2Anios.plusMonths(1), hace2Anios.plusMonths(2), EstadoPrestamo.PERDIDO);
+        devueltoReciente = guardar(1L, 12L, LocalDate.now().minusDays(20), LocalDate.now().minusDays(5), EstadoPrestamo.DEVUELTO);
+        activo = guardar(2L, 10L, LocalDate.now().minusDays(3), null, EstadoPrestamo.ACTIVO);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Solo deberían ser archivables los préstamos cerrados antes del horizonte")
+    void idsArchivables_SoloCerradosAntiguos() {
+        List<Long> ids = prestamoRepository.idsArchivables(LocalDate.now().minusDays(365),
+                Long.MIN_VALUE, Long.MAX_VALUE, 10);
+
+        assertThat(ids).containsExactly(devueltoAntiguo.getId(), perdidoAntiguo.getId());
+        assertThat(prestamoRepository.idsArchivables(LocalDate.now().minusDays(365),
+                Long.MIN_VALUE, Long.MAX_VALUE, 1))
+                .containsExactly(devueltoAntiguo.getId());
+    }
+
+    @Test
+    @DisplayName("Cada réplica debería archivar solo su rango de ids")
+    void idsArchivables_SoloDentroDelRango() {
+        LocalDate horizonte = LocalDate.now().minusDays(365);
+
+        assertThat(prestamoRepository.idsArchivables(horizonte, Long.MIN_VALUE, perdidoAntiguo.getId(), 10))
+                .containsExactly(devueltoAntiguo.getId());
+        assertThat(prestamoRepository.idsArchivables(horizonte, perdidoAntiguo.getId(), Long.MAX_VALUE, 10))
+                .containsExactly(perdidoAntiguo.getId());
+    }
+
+    @Test
+    @DisplayName("Debería mover los préstamos al histórico y sacarlos de la tabla caliente")
+    void archivar_MueveAlHistorico() {
+        List<Long> ids = List.of(devueltoAntiguo.getId(), perdidoAntiguo.getId(), activo.getId());
+
+        int movidos = prestamoRepository.archivar(ids, LocalDateTime.now());
+
+        // El activo se ignora aunque venga en la lista
+        assertThat(movidos).isEqualTo(2);
+        assertThat(prestamoRepository.findAll()).extracting(Prestamo::getId)
+                .containsExactlyInAnyOrder(devueltoReciente.getId(), activo.getId());
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM prestamos_historico", Integer.class))
+                .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("El historial debería unir la tabla caliente y el histórico")
+    void listarConHistorico_UneAmbasTablas() {
+        prestamoRepository.archivar(List.of(devueltoAntiguo.getId(), perdidoAntiguo.getId()), LocalDateTime.now());
+
+        List<PrestamoResponseDTO> porUsuario = prestamoRepository.listarConHistoricoPorUsuario(1L);
+        List<PrestamoResponseDTO> porLibro = prestamoRepository.listarConHistoricoPorLibro(10L);
+
+        // Los más recientes primero
+        assertThat(porUsuario).extracting(PrestamoResponseDTO::getId, PrestamoResponseDTO::getEstado)
+                .containsExactly(
+                        tuple(devueltoReciente.getId(), EstadoPrestamo.DEVUELTO),
+                        tuple(perdidoAntiguo.getId(), EstadoPrestamo.PERDIDO),
+                        tuple(devueltoAntiguo.getId(), EstadoPrestamo.DEVUELTO));
+        assertThat(porLibro).extracting(PrestamoResponseDTO::getId)
+                .containsExactly(activo.getId(), devueltoAntiguo.getId());
+        assertThat(prestamoRepository.listarPorUsuario(1L)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Fuera de MySQL no debería intentar particionar")
+    void asegurarParticionesHistorico_SinMySql() {
+        prestamoRepository.asegurarParticionesHistorico(YearMonth.now());
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM prestamos_historico", Integer.class))
+                .isZero();
+    }
+
+    private Prestamo guardar(Long usuarioId, Long libroId, LocalDate fechaPrestamo,
+                             LocalDate fechaDevolucionReal, EstadoPrestamo estado) {
+        return entityManager.persist(Prestamo.builder()
+                .usuarioId(usuarioId)
+                .libroId(libroId)
+                .fechaPrestamo(fechaPrestamo)
+                .fechaDevolucionPrevista(fechaPrestamo.plusDays(14))
+                .fechaDevolucionReal(fechaDevolucionReal)
+                .estado(estado)
+                .diasRetraso(0)
+                .build());
+    }
+}
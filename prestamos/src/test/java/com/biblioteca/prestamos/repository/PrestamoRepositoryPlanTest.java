@@ -0,0 +1,335 @@
+package com.biblioteca.prestamos.repository;
+
+import com.biblioteca.prestamos.model.entity.Prestamo;
+import com.biblioteca.prestamos.model.enums.EstadoPrestamo;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Ejecuta las consultas de PrestamoRepository sobre el esquema de las migraciones Flyway y pasa
+// cada SQL generado por EXPLAIN (H2 en modo MySQL). Falla si alguna recorre la tabla entera o
+// usa un índice sin acotar su primera columna, que en la práctica es recorrerlo entero.
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:planes;DB_CLOSE_DELAY=-1;MODE=MySQL",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.properties.hibernate.hbm2ddl.auto=none",
+        "spring.jpa.show-sql=false"
+})
+@DisplayName("Planes de ejecución de las consultas de préstamos")
+class PrestamoRepositoryPlanTest {
+
+    // /* PUBLIC.PRESTAMOS.tableScan */ o /* PUBLIC.IDX_...: COLUMNA = ?1 AND ... */
+    private static final Pattern ACCESO = Pattern.compile("/\\* PUBLIC\\.([A-Z_0-9]+)(\\.tableScan)?(?::([^*]*))?\\*/");
+
+    @Autowired
+    private PrestamoRepository prestamoRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CapturaSql capturaSql;
+
+    @BeforeEach
+    void setUp() {
+        // Reparto fijo de estados: no depende de cuántos valores tenga el enum
+        EstadoPrestamo[] estados = {EstadoPrestamo.ACTIVO, EstadoPrestamo.DEVUELTO,
+                EstadoPrestamo.VENCIDO, EstadoPrestamo.PERDIDO};
+        List<Prestamo> prestamos = new ArrayList<>();
+        for (long i = 1; i <= 200; i++) {
+            EstadoPrestamo estado = estados[(int) (i % estados.length)];
+            prestamos.add(Prestamo.builder()
+                    .libroId(i)
+                    .usuarioId(i % 20)
+                    .fechaPrestamo(LocalDate.now().minusDays(i % 60))
+                    .fechaDevolucionPrevista(LocalDate.now().minusDays(i % 60).plusDays(14))
+                    .estado(estado)
+                    .diasRetraso((int) (i % 7))
+                    .build());
+        }
+        prestamoRepository.saveAll(prestamos);
+        entityManager.flush();
+        jdbcTemplate.execute("ANALYZE");
+        capturaSql.limpiar();
+    }
+
+    @Test
+    @DisplayName("Las migraciones deben crear los índices de préstamos")
+    void migraciones_CreanIndices() {
+        List<String> indices = jdbcTemplate.queryForList(
+                "SELECT INDEX_NAME FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_NAME = 'PRESTAMOS'", String.class);
+
+        assertThat(indices).contains(
+                "IDX_PRESTAMOS_USUARIO_ESTADO",
+                "IDX_PRESTAMOS_LIBRO_ESTADO",
+                "IDX_PRESTAMOS_ESTADO_VENCIMIENTO",
+                "IDX_PRESTAMOS_FECHA_PRESTAMO",
+                "IDX_PRESTAMOS_DIAS_RETRASO");
+    }
+
+    @Test
+    void findByUsuarioId_UsaIndice() {
+        assertSinRecorridoCompleto(() -> prestamoRepository.findByUsuarioId(3L));
+    }
+
+    @Test
+    void findByUsuarioIdAndEstado_UsaIndice() {
+        assertSinRecorridoCompleto(() -> prestamoRepository.findByUsuarioIdAndEstado(3L, EstadoPrestamo.ACTIVO));
+    }
+
+    @Test
+    void countByUsuarioIdAndEstado_UsaIndice() {
+        assertSinRecorridoCompleto(() -> prestamoRepository.countByUsuarioIdAndEstado(3L, EstadoPrestamo.ACTIVO));
+    }
+
+    @Test
+    void countByUsuarioIdAndEstadoIn_UsaIndice() {
+        assertSinRecorridoCompleto(() -> prestamoRepository.countByUsuarioIdAndEstadoIn(3L, EstadoPrestamo.ABIERTOS));
+    }
+
+    @Test
+    void isLibroPrestado_UsaIndice() {
+        assertSinRecorridoCompleto(() -> prestamoRepository.isLibroPrestado(5L));
+    }
+
+    @Test
+    void findByLibroId_UsaIndice() {
+        assertSinRecorridoCompleto(() -> prestamoRepository.findByLibroId(5L));
+    }
+
+    @Test
+    void findByLibroIdAndEstado_UsaIndice() {
+        assertSinRecorridoCompleto(() -> prestamoRepository.findByLibroIdAndEstado(5L, EstadoPrestamo.ACTIVO));
+    }
+
+    @Test
+    void findByEstado_UsaIndice() {
+        assertSinRecorridoCompleto(() -> prestamoRepository.findByEstado(EstadoPrestamo.PERDIDO));
+    }
+
+    @Test
+    void countByEstado_UsaIndice() {
+        assertSinRecorridoCompleto(() -> prestamoRepository.countByEstado(EstadoPrestamo.ACTIVO));
+    }
+
+    @Test
+    void findPrestamosVencidos_UsaIndice() {
+        assertSinRecorridoCompleto(() -> prestamoRepository.findPrestamosVencidos(LocalDate.now()));
+    }
+
+    @Test
+    void findByFechaPrestamoBetween_UsaIndice() {
+        assertSinRecorridoCompleto(() -> prestamoRepository.findByFechaPrestamoBetween(
+                LocalDate.now().minusDays(3), LocalDate.now()));
+    }
+
+    @Test
+    void findPrestamosConRetraso_UsaIndice() {
+        assertSinRecorridoCompleto(() -> prestamoRepository.findPrestamosConRetraso());
+    }
+
+    @Test
+    void contarActivosPorUsuario_UsaIndice() {
+        assertSinRecorridoCompleto(() -> prestamoRepository.contarActivosPorUsuario(Set.of(1L, 2L, 3L)));
+    }
+
+    @Test
+    void findUsuariosConPrestamosVencidos_UsaIndice() {
+        assertSinRecorridoCompleto(() -> prestamoRepository.findUsuariosConPrestamosVencidos(
+                Set.of(1L, 2L, 3L), LocalDate.now()));
+    }
+
+    @Test
+    void actualizacionesMasivas_UsanIndice() {
+        assertSinRecorridoCompleto(() -> prestamoRepository.marcarVencidos(
+                List.of(1L, 2L), LocalDate.now().minusDays(1), 1, LocalDateTime.now()));
+        assertSinRecorridoCompleto(() -> prestamoRepository.cerrarPrestamosActivos(
+                List.of(1L, 2L), EstadoPrestamo.DEVUELTO, LocalDate.now(), LocalDateTime.now(), null));
+    }
+
+    @Test
+    void marcarVencidos_SoloActivosConEsaFechaPrevista() {
+        LocalDate ayer = LocalDate.now().minusDays(1);
+        Prestamo vencido = guardar(EstadoPrestamo.ACTIVO, ayer);
+        Prestamo renovado = guardar(EstadoPrestamo.ACTIVO, ayer.plusDays(10));
+        Prestamo devuelto = guardar(EstadoPrestamo.DEVUELTO, ayer);
+
+        int marcados = prestamoRepository.marcarVencidos(
+                List.of(vencido.getId(), renovado.getId(), devuelto.getId()), ayer, 1, LocalDateTime.now());
+        entityManager.clear();
+
+        assertThat(marcados).isEqualTo(1);
+        Prestamo actualizado = prestamoRepository.findById(vencido.getId()).orElseThrow();
+        assertThat(actualizado.getEstado()).isEqualTo(EstadoPrestamo.VENCIDO);
+        assertThat(actualizado.getDiasRetraso()).isEqualTo(1);
+        assertThat(prestamoRepository.findById(renovado.getId()).orElseThrow().getEstado())
+                .isEqualTo(EstadoPrestamo.ACTIVO);
+    }
+
+    @Test
+    void cerrarPrestamosActivos_FijaLosDiasDeRetraso() {
+        LocalDate hoy = LocalDate.now();
+        // Vencido hace 30 días, aún sin marcar por la rueda de vencimientos
+        Prestamo atrasado = guardar(EstadoPrestamo.ACTIVO, hoy.minusDays(30));
+        Prestamo marcado = guardar(EstadoPrestamo.VENCIDO, hoy.minusDays(5));
+        Prestamo enPlazo = guardar(EstadoPrestamo.ACTIVO, hoy.plusDays(3));
+
+        int cerrados = prestamoRepository.cerrarPrestamosActivos(
+                List.of(atrasado.getId(), marcado.getId(), enPlazo.getId()),
+                EstadoPrestamo.DEVUELTO, hoy, LocalDateTime.now(), null);
+        entityManager.clear();
+
+        assertThat(cerrados).isEqualTo(3);
+        assertThat(prestamoRepository.findById(atrasado.getId()).orElseThrow().getDiasRetraso()).isEqualTo(30);
+        assertThat(prestamoRepository.findById(marcado.getId()).orElseThrow().getDiasRetraso()).isEqualTo(5);
+        assertThat(prestamoRepository.findById(enPlazo.getId()).orElseThrow().getDiasRetraso()).isZero();
+    }
+
+    @Test
+    void recorrerActivos_SoloPrestamosActivos() {
+        Map<Long, LocalDate> activos = new HashMap<>();
+        prestamoRepository.recorrerActivos(activos::put);
+
+        assertThat(activos).hasSize((int) prestamoRepository.countByEstado(EstadoPrestamo.ACTIVO));
+        prestamoRepository.findByEstado(EstadoPrestamo.ACTIVO).forEach(prestamo ->
+                assertThat(activos).containsEntry(prestamo.getId(), prestamo.getFechaDevolucionPrevista()));
+    }
+
+    @Test
+    void listadosProyectados_UsanIndice() {
+        assertSinRecorridoCompleto(() -> prestamoRepository.listarPorUsuario(3L));
+        assertSinRecorridoCompleto(() -> prestamoRepository.listarPorLibro(5L));
+        assertSinRecorridoCompleto(() -> prestamoRepository.listarVencidos(LocalDate.now()));
+    }
+
+    private void assertSinRecorridoCompleto(Runnable consulta) {
+        capturaSql.limpiar();
+        consulta.run();
+
+        List<String> consultas = capturaSql.sentencias().stream()
+                .map(sql -> sql.stripLeading().toLowerCase())
+                .filter(sql -> sql.startsWith("select") || sql.startsWith("update"))
+                .toList();
+        assertThat(consultas).as("SQL generado").isNotEmpty();
+
+        for (String sql : consultas) {
+            String plan = explain(sql);
+            Matcher acceso = ACCESO.matcher(plan);
+            assertThat(acceso.find()).as("Acceso a prestamos en el plan:%n%s", plan).isTrue();
+            assertThat(acceso.group(2)).as("Recorrido completo en el plan:%n%s", plan).isNull();
+
+            // H2 enumera las condiciones del índice en el orden del WHERE, no en el del índice
+            String indice = acceso.group(1);
+            String condiciones = acceso.group(3);
+            assertThat(condiciones)
+                    .as("El índice %s se usa sin condiciones:%n%s", indice, plan)
+                    .isNotNull();
+            assertThat(condiciones)
+                    .as("El índice %s se usa sin acotar su primera columna:%n%s", indice, plan)
+                    .containsPattern("\\b" + primeraColumna(indice) + "\\b");
+        }
+    }
+
+    private Prestamo guardar(EstadoPrestamo estado, LocalDate fechaDevolucionPrevista) {
+        Prestamo prestamo = prestamoRepository.save(Prestamo.builder()
+                .libroId(900L)
+                .usuarioId(900L)
+                .fechaPrestamo(fechaDevolucionPrevista.minusDays(14))
+                .fechaDevolucionPrevista(fechaDevolucionPrevista)
+                .estado(estado)
+                .diasRetraso(0)
+                .build());
+        entityManager.flush();
+        return prestamo;
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                // El plan no depende de los valores: basta con dar alguno a cada parámetro
+                int parametros = statement.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parametros; i++) {
+                    statement.setObject(i, null);
+                }
+                try (ResultSet resultado = statement.executeQuery()) {
+                    resultado.next();
+                    return resultado.getString(1);
+                }
+            }
+        });
+    }
+
+    private String primeraColumna(String indice) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.INDEX_COLUMNS " +
+                        "WHERE INDEX_NAME = ? AND ORDINAL_POSITION = 1", String.class, indice);
+    }
+
+    @TestConfiguration
+    static class CapturaSqlConfig {
+
+        @Bean
+        CapturaSql capturaSql() {
+            return new CapturaSql();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer inspectorSql(CapturaSql capturaSql) {
+            return propiedades -> propiedades.put(AvailableSettings.STATEMENT_INSPECTOR, capturaSql);
+        }
+    }
+
+    static class CapturaSql implements StatementInspector {
+
+        private final List<String> sentencias = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            sentencias.add(sql);
+            return sql;
+        }
+
+        List<String> sentencias() {
+            return List.copyOf(sentencias);
+        }
+
+        void limpiar() {
+            sentencias.clear();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.biblioteca.prestamos.service;
+
+import com.biblioteca.prestamos.repository.PrestamoRepository;
+import com.biblioteca.prestamos.service.impl.ArchivoPrestamosServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ArchivoPrestamosServiceTest {
+
+    @Mock
+    private PrestamoRepository prestamoRepository;
+
+    @Mock
+    private BloqueoTrabajoService bloqueoTrabajoService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ArchivoPrestamosServiceImpl archivoService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Antigüedad 30 días, lotes de 2, sin pausa, como mucho 3 lotes por ejecución
+        archivoService = new ArchivoPrestamosServiceImpl(prestamoRepository, bloqueoTrabajoService,
+                transactionTemplate, meterRegistry, 30, 2, 0, 3, 4);
+        BloqueosPrueba.unaSolaReplica(bloqueoTrabajoService);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> ((TransactionCallback<?>) inv.getArgument(0)).doInTransaction(null));
+    }
+
+    @Test
+    void archivarCerrados_ArchivaPorLotesHastaAgotar() {
+        when(prestamoRepository.idsArchivables(any(LocalDate.class), anyLong(), anyLong(), eq(2)))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L));
+        when(prestamoRepository.archivar(anyList(), any(LocalDateTime.class)))
+                .thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+
+        int archivados = archivoService.archivarCerrados();
+
+        assertEquals(3, archivados);
+        InOrder orden = inOrder(prestamoRepository);
+        orden.verify(prestamoRepository).asegurarParticionesHistorico(YearMonth.now().plusMonths(1));
+        orden.verify(prestamoRepository).archivar(eq(List.of(1L, 2L)), any(LocalDateTime.class));
+        orden.verify(prestamoRepository).archivar(eq(List.of(3L)), any(LocalDateTime.class));
+        verify(prestamoRepository, times(2)).idsArchivables(LocalDate.now().minusDays(30),
+                Long.MIN_VALUE, Long.MAX_VALUE, 2);
+        assertEquals(3.0, meterRegistry.get("prestamos.archivo.archivados").counter().count());
+    }
+
+    @Test
+    void archivarCerrados_RespetaMaximoDeLotes() {
+        when(prestamoRepository.idsArchivables(any(LocalDate.class), anyLong(), anyLong(), eq(2))).thenReturn(List.of(1L, 2L));
+        when(prestamoRepository.archivar(anyList(), any(LocalDateTime.class))).thenReturn(2);
+
+        int archivados = archivoService.archivarCerrados();
+
+        assertEquals(6, archivados);
+        verify(prestamoRepository, times(3)).archivar(anyList(), any(LocalDateTime.class));
+    }
+
+    @Test
+    void archivarCerrados_SinPendientes() {
+        when(prestamoRepository.idsArchivables(any(LocalDate.class), anyLong(), anyLong(), anyInt())).thenReturn(List.of());
+        when(prestamoRepository.archivar(anyList(), any(LocalDateTime.class))).thenReturn(0);
+
+        assertEquals(0, archivoService.archivarCerrados());
+        verify(prestamoRepository, times(1)).archivar(eq(List.of()), any(LocalDateTime.class));
+    }
+}
@@ -0,0 +1,25 @@
+package com.biblioteca.prestamos.service;
+
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+// Respuestas de BloqueoTrabajoService compartidas por las pruebas de los trabajos por particiones
+final class BloqueosPrueba {
+
+    private BloqueosPrueba() {
+    }
+
+    // Sin más réplicas: cada trabajo reclama una única partición con todo el rango de ids
+    static void unaSolaReplica(BloqueoTrabajoService bloqueoTrabajoService) {
+        when(bloqueoTrabajoService.ejecutar(anyString(), anyString(), anyInt(), any())).thenAnswer(inv -> {
+            Consumer<BloqueoTrabajoService.Arrendamiento> tarea = inv.getArgument(3);
+            tarea.accept(new BloqueoTrabajoService.Arrendamiento(inv.getArgument(0), 0, 1L,
+                    Long.MIN_VALUE, Long.MAX_VALUE, () -> { }));
+            return 1;
+        });
+    }
+}
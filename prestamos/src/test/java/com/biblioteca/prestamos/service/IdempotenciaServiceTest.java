@@ -0,0 +1,112 @@
+package com.biblioteca.prestamos.service;
+
+import com.biblioteca.prestamos.model.entity.RespuestaIdempotente;
+import com.biblioteca.prestamos.repository.RespuestaIdempotenteRepository;
+import com.biblioteca.prestamos.service.IdempotenciaService.RespuestaGuardada;
+import com.biblioteca.prestamos.service.impl.IdempotenciaServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotenciaServiceTest {
+
+    @Mock
+    private RespuestaIdempotenteRepository repository;
+
+    private IdempotenciaServiceImpl idempotenciaService;
+
+    @BeforeEach
+    void setUp() {
+        idempotenciaService = new IdempotenciaServiceImpl(repository, 24, 30, 100);
+    }
+
+    @Test
+    void buscar_RespuestaCompletada_SeCacheaEnMemoria() {
+        when(repository.findById("clave")).thenReturn(Optional.of(RespuestaIdempotente.builder()
+                .clave("clave")
+                .huellaPeticion("huella")
+                .completada(true)
+                .codigoEstado(201)
+                .contentType("application/json")
+                .cuerpoRespuesta("{\"id\":1}".getBytes())
+                .fechaExpiracion(LocalDateTime.now().plusHours(1))
+                .build()));
+
+        Optional<RespuestaGuardada> primera = idempotenciaService.buscar("clave");
+        Optional<RespuestaGuardada> segunda = idempotenciaService.buscar("clave");
+
+        assertTrue(primera.isPresent());
+        assertEquals(201, primera.get().codigoEstado());
+        assertTrue(segunda.isPresent());
+        verify(repository, times(1)).findById("clave");
+    }
+
+    @Test
+    void buscar_PeticionEnCurso_NoDevuelveRespuesta() {
+        when(repository.findById("clave")).thenReturn(Optional.of(RespuestaIdempotente.builder()
+                .clave("clave")
+                .huellaPeticion("huella")
+                .completada(false)
+                .fechaExpiracion(LocalDateTime.now().plusSeconds(30))
+                .build()));
+
+        assertTrue(idempotenciaService.buscar("clave").isEmpty());
+    }
+
+    @Test
+    void reservar_ClaveEnCurso_DevuelveFalse() {
+        when(repository.findById("clave")).thenReturn(Optional.of(RespuestaIdempotente.builder()
+                .clave("clave")
+                .huellaPeticion("huella")
+                .fechaExpiracion(LocalDateTime.now().plusSeconds(30))
+                .build()));
+
+        assertFalse(idempotenciaService.reservar("clave", "huella"));
+        verify(repository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void reservar_InsercionConcurrente_DevuelveFalse() {
+        when(repository.findById("clave")).thenReturn(Optional.empty());
+        when(repository.saveAndFlush(any(RespuestaIdempotente.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicada"));
+
+        assertFalse(idempotenciaService.reservar("clave", "huella"));
+    }
+
+    @Test
+    void completar_GuardaEnTablaYEnMemoria() {
+        idempotenciaService.completar("clave", "huella", 200, "application/json", new byte[]{1});
+
+        verify(repository).completar(eq("clave"), eq(200), eq("application/json"), any(), any());
+        assertTrue(idempotenciaService.buscar("clave").isPresent());
+        verify(repository, never()).findById(anyString());
+    }
+
+    @Test
+    void renovarReservas_SoloLasQueSiguenEnCurso() {
+        when(repository.findById(anyString())).thenReturn(Optional.empty());
+        assertTrue(idempotenciaService.reservar("en-curso", "huella"));
+        assertTrue(idempotenciaService.reservar("terminada", "huella"));
+        idempotenciaService.completar("terminada", "huella", 201, "application/json", new byte[]{1});
+
+        idempotenciaService.renovarReservas();
+
+        verify(repository).renovar(eq(Set.of("en-curso")), any());
+        idempotenciaService.liberar("en-curso");
+        assertEquals(0, idempotenciaService.renovarReservas());
+        verify(repository, times(1)).renovar(any(), any());
+    }
+}
@@ -0,0 +1,270 @@
+package com.biblioteca.prestamos.service;
+
+import com.biblioteca.prestamos.config.MultasProperties;
+import com.biblioteca.prestamos.controller.dto.CalculoMultasDTO;
+import com.biblioteca.prestamos.exception.CategoriaMultaDesconocidaException;
+import com.biblioteca.prestamos.exception.RecalculoMultasEnCursoException;
+import com.biblioteca.prestamos.model.entity.Multa;
+import com.biblioteca.prestamos.repository.CategoriaUsuarioRepository;
+import com.biblioteca.prestamos.repository.MultaRepository;
+import com.biblioteca.prestamos.repository.MultaRepositoryCustom.CambioSaldo;
+import com.biblioteca.prestamos.repository.MultaRepositoryCustom.PrestamoConRetraso;
+import com.biblioteca.prestamos.repository.SaldoMultasRepository;
+import com.biblioteca.prestamos.service.impl.MultasServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MultasServiceTest {
+
+    private static final LocalDate HOY = LocalDate.now();
+
+    @Mock
+    private MultaRepository multaRepository;
+
+    @Mock
+    private SaldoMultasRepository saldoMultasRepository;
+
+    @Mock
+    private CategoriaUsuarioRepository categoriaUsuarioRepository;
+
+    @Mock
+    private BloqueoTrabajoService bloqueoTrabajoService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private MultasProperties properties;
+    private MultasServiceImpl multasService;
+
+    // Estado de multas y saldos_multas que simulan los mocks
+    private final Map<Long, BigDecimal> importes = new TreeMap<>();
+    private final Map<Long, CambioSaldo> saldos = new TreeMap<>();
+
+    @BeforeEach
+    void setUp() {
+        properties = new MultasProperties();
+        properties.getTarifas().put("GENERAL", tarifa("0.20", 2, "10.00"));
+        properties.getTarifas().put("ESTUDIANTE", tarifa("0.10", 0, null));
+        // Lotes de 2 y 2 en paralelo: con 5 préstamos hay 3 páginas
+        properties.setTamanoLote(2);
+        properties.setParalelismo(2);
+        multasService = new MultasServiceImpl(multaRepository, saldoMultasRepository, categoriaUsuarioRepository,
+                bloqueoTrabajoService, transactionTemplate, properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void acumular_DescuentaGraciaYRespetaElTope() {
+        BloqueosPrueba.unaSolaReplica(bloqueoTrabajoService);
+        transaccionesEnLinea();
+        simularMultasYSaldos();
+        // GENERAL: 0,20 al día a partir del tercer día de retraso, 10 como mucho
+        assertEquals(new BigDecimal("0.00"), importe(null, HOY.minusDays(2), null));
+        assertEquals(new BigDecimal("0.20"), importe(null, HOY.minusDays(3), null));
+        assertEquals(new BigDecimal("2.00"), importe(null, HOY.minusDays(12), null));
+        assertEquals(new BigDecimal("10.00"), importe(null, HOY.minusDays(200), null));
+        // Cerrado: cuenta hasta la devolución, no hasta hoy
+        assertEquals(new BigDecimal("1.00"), importe(null, HOY.minusDays(100), HOY.minusDays(93)));
+        // ESTUDIANTE: sin gracia ni tope; una categoría sin tarifa usa la de por defecto
+        assertEquals(new BigDecimal("20.00"), importe("ESTUDIANTE", HOY.minusDays(200), null));
+        assertEquals(new BigDecimal("0.20"), importe("JUBILADO", HOY.minusDays(3), null));
+    }
+
+    @Test
+    void acumular_EscribeSoloLoQueCambiaYAjustaElSaldo() {
+        BloqueosPrueba.unaSolaReplica(bloqueoTrabajoService);
+        transaccionesEnLinea();
+        simularMultasYSaldos();
+        List<PrestamoConRetraso> conRetraso = List.of(
+                prestamo(1, 100, HOY.minusDays(12), null),        // 2,00 nueva
+                prestamo(2, 100, HOY.minusDays(1), null),         // en gracia: sin multa
+                prestamo(3, 200, HOY.minusDays(30), null),        // 5,60 nueva
+                prestamo(4, 200, HOY.minusDays(30), HOY.minusDays(25)), // 0,60 cerrada
+                prestamo(5, 300, HOY.minusDays(8), null));        // 1,20 nueva
+        paginas(conRetraso);
+
+        CalculoMultasDTO primero = multasService.acumular();
+
+        assertEquals(5, primero.getRevisados());
+        assertEquals(4, primero.getModificadas());
+        assertEquals(new BigDecimal("2.00"), importes.get(1L));
+        assertNull(importes.get(2L));
+        assertEquals(saldo("2.00", 1), saldos.get(100L));
+        assertEquals(saldo("6.20", 2), saldos.get(200L));
+        assertEquals(saldo("1.20", 1), saldos.get(300L));
+
+        // Repetirlo no cambia nada; un día más solo cambia las abiertas
+        assertEquals(0, multasService.acumular().getModificadas());
+        paginas(List.of(
+                prestamo(1, 100, HOY.minusDays(13), null),
+                prestamo(2, 100, HOY.minusDays(2), null),
+                prestamo(3, 200, HOY.minusDays(31), null),
+                prestamo(4, 200, HOY.minusDays(31), HOY.minusDays(26)),
+                prestamo(5, 300, HOY.minusDays(9), null)));
+
+        assertEquals(3, multasService.acumular().getModificadas());
+        assertEquals(saldo("2.20", 1), saldos.get(100L));
+        assertEquals(saldo("6.40", 2), saldos.get(200L));
+        verify(bloqueoTrabajoService, times(3)).ejecutar(eq("multas"), eq(HOY.toString()), eq(4), any());
+    }
+
+    @Test
+    void recalcular_ConTarifaMasBarataRebajaElSaldo() {
+        BloqueosPrueba.unaSolaReplica(bloqueoTrabajoService);
+        transaccionesEnLinea();
+        simularMultasYSaldos();
+        paginas(List.of(prestamo(1, 100, HOY.minusDays(12), null), prestamo(2, 100, HOY.minusDays(52), null)));
+        multasService.recalcular();
+        assertEquals(saldo("12.00", 2), saldos.get(100L));
+
+        properties.getTarifas().get("GENERAL").setImporteDiario(BigDecimal.ZERO);
+        CalculoMultasDTO resultado = multasService.recalcular();
+
+        assertEquals(2, resultado.getModificadas());
+        assertEquals(saldo("0.00", 0), saldos.get(100L));
+        // Sin fecha de cierre: todos los cerrados, no solo los recientes
+        verify(multaRepository, atLeastOnce()).leerConRetraso(anyLong(), anyLong(), eq(HOY), isNull(), eq(2));
+    }
+
+    @Test
+    void recalcularEnSegundoPlano_UnoALaVezPorInstancia() throws Exception {
+        CountDownLatch empezado = new CountDownLatch(1);
+        CountDownLatch seguir = new CountDownLatch(1);
+        when(bloqueoTrabajoService.ejecutar(eq("multas-recalculo"), anyString(), anyInt(), any())).thenAnswer(inv -> {
+            empezado.countDown();
+            seguir.await();
+            return 0;
+        });
+
+        multasService.recalcularEnSegundoPlano();
+        assertTrue(empezado.await(5, TimeUnit.SECONDS));
+
+        assertThrows(RecalculoMultasEnCursoException.class, () -> multasService.recalcularEnSegundoPlano());
+        assertThrows(RecalculoMultasEnCursoException.class, () -> multasService.recalcular());
+        seguir.countDown();
+
+        // Al terminar el hilo se puede volver a lanzar
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            try {
+                assertEquals(0, multasService.recalcular().getParticiones());
+                break;
+            } catch (RecalculoMultasEnCursoException e) {
+                assertTrue(System.nanoTime() < limite, "El recálculo en segundo plano no termina");
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    @Test
+    void asignarCategoria_SinTarifa_Rechaza() {
+        assertThrows(CategoriaMultaDesconocidaException.class, () -> multasService.asignarCategoria(1L, "VIP"));
+        verify(categoriaUsuarioRepository, never()).save(any());
+    }
+
+    @Test
+    void obtenerSaldo_SinMultas_Cero() {
+        when(saldoMultasRepository.findById(7L)).thenReturn(java.util.Optional.empty());
+
+        assertEquals(new BigDecimal("0.00"), multasService.obtenerSaldo(7L).getImportePendiente());
+        assertEquals(0, multasService.obtenerSaldo(7L).getMultasPendientes());
+    }
+
+    // Multa de un único préstamo calculada desde cero
+    private BigDecimal importe(String categoria, LocalDate fechaPrevista, LocalDate fechaFin) {
+        importes.clear();
+        paginas(List.of(new PrestamoConRetraso(1L, 1L, fechaPrevista, fechaFin, categoria)));
+        multasService.acumular();
+        return importes.getOrDefault(1L, new BigDecimal("0.00"));
+    }
+
+    // leerConRetraso devuelve, ordenados por id, como mucho "limite" préstamos desde el id pedido
+    private void paginas(List<PrestamoConRetraso> conRetraso) {
+        when(multaRepository.leerConRetraso(anyLong(), anyLong(), any(), any(), anyInt())).thenAnswer(inv -> {
+            long desde = inv.getArgument(0);
+            int limite = inv.getArgument(4);
+            return conRetraso.stream().filter(p -> p.prestamoId() >= desde).limit(limite).toList();
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private void simularMultasYSaldos() {
+        when(multaRepository.bloquearImportes(any())).thenAnswer(inv -> {
+            synchronized (importes) {
+                Map<Long, BigDecimal> actuales = new TreeMap<>();
+                ((Collection<Long>) inv.getArgument(0)).forEach(id -> {
+                    if (importes.containsKey(id)) {
+                        actuales.put(id, importes.get(id));
+                    }
+                });
+                return actuales;
+            }
+        });
+        Consumer<List<Multa>> escribir = multas -> {
+            synchronized (importes) {
+                multas.forEach(multa -> importes.put(multa.getPrestamoId(), multa.getImporte()));
+            }
+        };
+        doAnswer(inv -> {
+            escribir.accept(inv.getArgument(0));
+            return null;
+        }).when(multaRepository).insertar(any());
+        doAnswer(inv -> {
+            escribir.accept(inv.getArgument(0));
+            return null;
+        }).when(multaRepository).actualizar(any());
+        doAnswer(inv -> {
+            SortedMap<Long, CambioSaldo> cambios = inv.getArgument(0);
+            synchronized (saldos) {
+                cambios.forEach((usuario, cambio) -> saldos.merge(usuario, cambio,
+                        (a, b) -> new CambioSaldo(a.importe().add(b.importe()), a.multas() + b.multas())));
+            }
+            return null;
+        }).when(multaRepository).sumarASaldos(any(), any());
+    }
+
+    private void transaccionesEnLinea() {
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> ((TransactionCallback<?>) inv.getArgument(0)).doInTransaction(null));
+    }
+
+    private static PrestamoConRetraso prestamo(long id, long usuarioId, LocalDate fechaPrevista, LocalDate fechaFin) {
+        return new PrestamoConRetraso(id, usuarioId, fechaPrevista, fechaFin, null);
+    }
+
+    private static CambioSaldo saldo(String importe, int multas) {
+        return new CambioSaldo(new BigDecimal(importe), multas);
+    }
+
+    private static MultasProperties.Tarifa tarifa(String importeDiario, int diasGracia, String tope) {
+        MultasProperties.Tarifa tarifa = new MultasProperties.Tarifa();
+        tarifa.setImporteDiario(new BigDecimal(importeDiario));
+        tarifa.setDiasGracia(diasGracia);
+        tarifa.setTope(tope == null ? null : new BigDecimal(tope));
+        return tarifa;
+    }
+}
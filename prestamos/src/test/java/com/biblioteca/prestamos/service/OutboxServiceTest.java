@@ -0,0 +1,128 @@
+package com.biblioteca.prestamos.service;
+
+import com.biblioteca.prestamos.client.LibrosClient;
+import com.biblioteca.prestamos.client.dto.EventoStockResultadoDto;
+import com.biblioteca.prestamos.model.entity.EventoOutbox;
+import com.biblioteca.prestamos.model.enums.TipoEventoStock;
+import com.biblioteca.prestamos.repository.EventoOutboxRepository;
+import com.biblioteca.prestamos.repository.PrestamoRepository;
+import com.biblioteca.prestamos.service.impl.OutboxServiceImpl;
+import feign.FeignException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxServiceTest {
+
+    @Mock
+    private EventoOutboxRepository outboxRepository;
+
+    @Mock
+    private LibrosClient librosClient;
+
+    @Mock
+    private PrestamoRepository prestamoRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private OutboxServiceImpl outboxService;
+
+    @BeforeEach
+    void setUp() {
+        outboxService = new OutboxServiceImpl(outboxRepository, librosClient, prestamoRepository,
+                transactionTemplate, 2, 7);
+    }
+
+    @Test
+    void publicarPendientes_PublicaLotesHastaVaciar() {
+        transaccionesEnLinea();
+        when(outboxRepository.findByFechaPublicacionIsNullOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(evento(1L), evento(2L)), List.of(evento(3L)));
+        when(librosClient.aplicarEventosStock(anyList()))
+                .thenReturn(ResponseEntity.ok(EventoStockResultadoDto.builder().aplicados(2).build()));
+
+        int publicados = outboxService.publicarPendientes();
+
+        assertEquals(3, publicados);
+        verify(librosClient, times(2)).aplicarEventosStock(anyList());
+        verify(outboxRepository).marcarPublicados(eq(List.of(1L, 2L)), any(LocalDateTime.class));
+        verify(outboxRepository).marcarPublicados(eq(List.of(3L)), any(LocalDateTime.class));
+    }
+
+    @Test
+    void publicarPendientes_PrestamoRechazado_CompensaYDescartaSuDevolucion() {
+        transaccionesEnLinea();
+        EventoOutbox devolucion = evento(3L);
+        devolucion.setTipo(TipoEventoStock.LIBRO_DEVUELTO);
+        when(outboxRepository.findByFechaPublicacionIsNullOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(evento(1L), devolucion), List.of());
+        when(librosClient.aplicarEventosStock(anyList()))
+                .thenReturn(ResponseEntity.ok(EventoStockResultadoDto.builder()
+                        .aplicados(0).rechazados(List.of("evento-1", "evento-3")).build()));
+
+        int publicados = outboxService.publicarPendientes();
+
+        assertEquals(2, publicados);
+        // Solo el préstamo rechazado; la devolución rechazada no descontó nada
+        verify(prestamoRepository).marcarRechazados(eq(List.of(1L)), any(LocalDateTime.class));
+        verify(outboxRepository).descartarDevolucionesPendientes(List.of(1L));
+        verify(outboxRepository).marcarPublicados(eq(List.of(1L, 3L)), any(LocalDateTime.class));
+    }
+
+    @Test
+    void publicarPendientes_ErrorLibros_DejaEventosPendientes() {
+        when(outboxRepository.findByFechaPublicacionIsNullOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(evento(1L)));
+        when(librosClient.aplicarEventosStock(anyList()))
+                .thenThrow(mock(FeignException.ServiceUnavailable.class));
+
+        int publicados = outboxService.publicarPendientes();
+
+        assertEquals(0, publicados);
+        verify(outboxRepository, never()).marcarPublicados(anyCollection(), any());
+    }
+
+    @Test
+    void publicarPendientes_SinEventos_NoLlamaALibros() {
+        when(outboxRepository.findByFechaPublicacionIsNullOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of());
+
+        assertEquals(0, outboxService.publicarPendientes());
+        verifyNoInteractions(librosClient);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void transaccionesEnLinea() {
+        doAnswer(inv -> {
+            ((Consumer<TransactionStatus>) inv.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private EventoOutbox evento(Long id) {
+        return EventoOutbox.builder()
+                .id(id)
+                .eventoId("evento-" + id)
+                .tipo(TipoEventoStock.LIBRO_PRESTADO)
+                .prestamoId(id)
+                .libroId(1L)
+                .fechaCreacion(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,96 @@
+package com.biblioteca.prestamos.service;
+
+import com.biblioteca.prestamos.client.LibrosReactivoClient;
+import com.biblioteca.prestamos.client.dto.LibroResponseDto;
+import com.biblioteca.prestamos.model.enums.EstadoPrestamo;
+import com.biblioteca.prestamos.model.lectura.PrestamoLectura;
+import com.biblioteca.prestamos.repository.PrestamoLecturaRepository;
+import com.biblioteca.prestamos.service.impl.PrestamoLecturaReactivaServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PrestamoLecturaReactivaServiceTest {
+
+    @Mock
+    private PrestamoLecturaRepository prestamoLecturaRepository;
+
+    @Mock
+    private LibrosReactivoClient librosClient;
+
+    private PrestamoLecturaReactivaService prestamoLecturaService;
+
+    @BeforeEach
+    void setUp() {
+        prestamoLecturaService = new PrestamoLecturaReactivaServiceImpl(
+                prestamoLecturaRepository, librosClient, 2, 1);
+    }
+
+    private PrestamoLectura prestamo(long id, long libroId) {
+        return PrestamoLectura.builder()
+                .id(id)
+                .libroId(libroId)
+                .usuarioId(1L)
+                .fechaPrestamo(LocalDate.now())
+                .fechaDevolucionPrevista(LocalDate.now().plusDays(14))
+                .estado(EstadoPrestamo.ACTIVO)
+                .diasRetraso(0)
+                .build();
+    }
+
+    @Test
+    void obtenerPrestamosPorUsuario_PideLibrosPorLotes() {
+        when(prestamoLecturaRepository.findByUsuarioId(1L)).thenReturn(Flux.just(
+                prestamo(1L, 10L), prestamo(2L, 10L), prestamo(3L, 20L)));
+        when(librosClient.obtenerLibros(List.of(10L))).thenReturn(Mono.just(Map.of(
+                10L, LibroResponseDto.builder().id(10L).titulo("Rayuela").build())));
+        when(librosClient.obtenerLibros(List.of(20L))).thenReturn(Mono.just(Map.of()));
+
+        StepVerifier.create(prestamoLecturaService.obtenerPrestamosPorUsuario(1L))
+                .expectNextMatches(dto -> dto.getId() == 1L && "Rayuela".equals(dto.getTituloLibro()))
+                .expectNextMatches(dto -> dto.getId() == 2L && "Rayuela".equals(dto.getTituloLibro()))
+                .expectNextMatches(dto -> dto.getId() == 3L
+                        && "Información no disponible".equals(dto.getTituloLibro()))
+                .verifyComplete();
+
+        verify(librosClient, times(2)).obtenerLibros(anyCollection());
+    }
+
+    @Test
+    void obtenerPrestamosActivos_SinPrestamos_NoLlamaALibros() {
+        when(prestamoLecturaRepository.findByEstado(EstadoPrestamo.ACTIVO)).thenReturn(Flux.empty());
+
+        StepVerifier.create(prestamoLecturaService.obtenerPrestamosActivos())
+                .verifyComplete();
+
+        verifyNoInteractions(librosClient);
+    }
+
+    @Test
+    void obtenerPrestamosVencidos_CalculaElRetrasoAFechaDeHoy() {
+        // dias_retraso solo se guarda al vencer: la fila trae un valor ya desfasado
+        PrestamoLectura vencido = prestamo(1L, 10L);
+        vencido.setFechaDevolucionPrevista(LocalDate.now().minusDays(6));
+        vencido.setDiasRetraso(1);
+        when(prestamoLecturaRepository.findPrestamosVencidos(any(LocalDate.class))).thenReturn(Flux.just(vencido));
+        when(librosClient.obtenerLibros(List.of(10L))).thenReturn(Mono.just(Map.of()));
+
+        StepVerifier.create(prestamoLecturaService.obtenerPrestamosVencidos())
+                .expectNextMatches(dto -> dto.getDiasRetraso() == 6 && dto.getVencido())
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,209 @@
+package com.biblioteca.prestamos.service;
+
+import com.biblioteca.prestamos.client.LibrosClient;
+import com.biblioteca.prestamos.client.dto.LibroResponseDto;
+import com.biblioteca.prestamos.controller.dto.DevolucionLoteRequestDTO;
+import com.biblioteca.prestamos.controller.dto.PrestamoLoteRequestDTO;
+import com.biblioteca.prestamos.controller.dto.ResultadoLoteDTO;
+import com.biblioteca.prestamos.model.entity.Prestamo;
+import com.biblioteca.prestamos.model.enums.EstadoPrestamo;
+import com.biblioteca.prestamos.model.enums.TipoEventoStock;
+import com.biblioteca.prestamos.repository.PrestamoRepository;
+import com.biblioteca.prestamos.service.impl.PrestamoLoteServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PrestamoLoteServiceTest {
+
+    @Mock
+    private PrestamoRepository prestamoRepository;
+
+    @Mock
+    private LibrosClient librosClient;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private VencimientosService vencimientosService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private PrestamoLoteServiceImpl prestamoLoteService;
+
+    @BeforeEach
+    void setUp() {
+        prestamoLoteService = new PrestamoLoteServiceImpl(prestamoRepository, librosClient, outboxService,
+                vencimientosService, transactionTemplate);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> ((TransactionCallback<?>) inv.getArgument(0)).doInTransaction(null));
+    }
+
+    @Test
+    void crearPrestamos_RepartoStockYLimites() {
+        when(librosClient.obtenerLibrosPorIds(anyList())).thenReturn(ResponseEntity.ok(List.of(
+                LibroResponseDto.builder().id(1L).titulo("Platero y yo").ejemplaresDisponibles(2).build())));
+        // Usuario 3 ya está en el límite, usuario 4 tiene préstamos vencidos
+        when(prestamoRepository.contarActivosPorUsuario(anyCollection()))
+                .thenReturn(List.<Object[]>of(new Object[]{3L, 5L}));
+        when(prestamoRepository.findUsuariosConPrestamosVencidos(anyCollection(), any(LocalDate.class)))
+                .thenReturn(List.of(4L));
+        doAnswer(inv -> {
+            List<Prestamo> prestamos = inv.getArgument(0);
+            long id = 100;
+            for (Prestamo p : prestamos) {
+                p.setId(id++);
+            }
+            return null;
+        }).when(prestamoRepository).insertarEnLote(anyList());
+
+        ResultadoLoteDTO resultado = prestamoLoteService.crearPrestamos(PrestamoLoteRequestDTO.builder()
+                .fechaDevolucionPrevista(LocalDate.now().plusDays(14))
+                .prestamos(List.of(
+                        item(1L, 1L),
+                        item(1L, 3L),
+                        item(1L, 4L),
+                        item(1L, 2L),
+                        item(1L, 5L),
+                        item(9L, 6L)))
+                .build());
+
+        assertEquals(6, resultado.getTotal());
+        assertEquals(2, resultado.getCorrectos());
+        assertEquals(4, resultado.getRechazados());
+        assertTrue(resultado.getResultados().get(0).isExito());
+        assertEquals(100L, resultado.getResultados().get(0).getPrestamo().getId());
+        assertEquals("Platero y yo", resultado.getResultados().get(0).getPrestamo().getTituloLibro());
+        assertFalse(resultado.getResultados().get(1).isExito());
+        assertFalse(resultado.getResultados().get(2).isExito());
+        assertEquals(101L, resultado.getResultados().get(3).getPrestamo().getId());
+        // Sin stock: ya se repartieron los 2 ejemplares
+        assertFalse(resultado.getResultados().get(4).isExito());
+        assertFalse(resultado.getResultados().get(5).isExito());
+        verify(librosClient, times(1)).obtenerLibrosPorIds(anyList());
+        verify(outboxService).registrarEventos(eq(TipoEventoStock.LIBRO_PRESTADO),
+                argThat(prestamos -> prestamos.size() == 2));
+        verify(vencimientosService).programar(argThat((Map<Long, LocalDate> fechas) ->
+                fechas.keySet().equals(Set.of(100L, 101L))));
+    }
+
+    @Test
+    void registrarDevoluciones_ActualizacionMasivaYEventos() {
+        when(prestamoRepository.findAllByIdParaCerrar(anySet())).thenReturn(List.of(
+                prestamo(1L, 10L, EstadoPrestamo.ACTIVO),
+                prestamo(2L, 10L, EstadoPrestamo.VENCIDO),
+                prestamo(3L, 11L, EstadoPrestamo.DEVUELTO)));
+        when(prestamoRepository.cerrarPrestamosActivos(anyCollection(), eq(EstadoPrestamo.DEVUELTO),
+                any(LocalDate.class), any(), isNull())).thenReturn(2);
+        when(librosClient.obtenerLibrosPorIds(List.of(10L))).thenReturn(ResponseEntity.ok(List.of(
+                LibroResponseDto.builder().id(10L).titulo("Marianela").build())));
+
+        ResultadoLoteDTO resultado = prestamoLoteService.registrarDevoluciones(DevolucionLoteRequestDTO.builder()
+                .prestamoIds(List.of(1L, 2L, 3L, 4L, 1L))
+                .build());
+
+        assertEquals(5, resultado.getTotal());
+        assertEquals(2, resultado.getCorrectos());
+        assertEquals(EstadoPrestamo.DEVUELTO, resultado.getResultados().get(0).getPrestamo().getEstado());
+        assertEquals("Marianela", resultado.getResultados().get(1).getPrestamo().getTituloLibro());
+        assertFalse(resultado.getResultados().get(2).isExito());
+        assertFalse(resultado.getResultados().get(3).isExito());
+        assertFalse(resultado.getResultados().get(4).isExito());
+        verify(prestamoRepository, never()).save(any());
+        verify(outboxService).registrarEventos(eq(TipoEventoStock.LIBRO_DEVUELTO),
+                argThat(prestamos -> prestamos.size() == 2));
+        verify(vencimientosService).cancelar(List.of(1L, 2L));
+    }
+
+    @Test
+    void registrarDevoluciones_DevueltoPorOtraPeticion_409PorElemento() {
+        // La devolución concurrente ya se confirmó: la lectura bloqueante lo ve cerrado
+        when(prestamoRepository.findAllByIdParaCerrar(anySet())).thenReturn(List.of(
+                prestamo(1L, 10L, EstadoPrestamo.DEVUELTO),
+                prestamo(2L, 10L, EstadoPrestamo.ACTIVO)));
+        when(prestamoRepository.cerrarPrestamosActivos(anyCollection(), any(), any(), any(), any())).thenReturn(1);
+        when(librosClient.obtenerLibrosPorIds(anyList())).thenReturn(ResponseEntity.ok(List.of()));
+
+        ResultadoLoteDTO resultado = prestamoLoteService.registrarDevoluciones(
+                DevolucionLoteRequestDTO.builder().prestamoIds(List.of(1L, 2L, 3L)).build());
+
+        assertFalse(resultado.getResultados().get(0).isExito());
+        assertEquals(409, resultado.getResultados().get(0).getCodigo());
+        assertTrue(resultado.getResultados().get(1).isExito());
+        assertEquals(404, resultado.getResultados().get(2).getCodigo());
+        verify(outboxService).registrarEventos(eq(TipoEventoStock.LIBRO_DEVUELTO),
+                argThat(prestamos -> prestamos.size() == 1));
+    }
+
+    @Test
+    void registrarDevoluciones_CierreIncompleto_DeshaceElTramo() {
+        when(prestamoRepository.findAllByIdParaCerrar(anySet()))
+                .thenReturn(List.of(prestamo(1L, 10L, EstadoPrestamo.ACTIVO)));
+        when(prestamoRepository.cerrarPrestamosActivos(anyCollection(), any(), any(), any(), any())).thenReturn(0);
+
+        assertThrows(IllegalStateException.class, () -> prestamoLoteService.registrarDevoluciones(
+                DevolucionLoteRequestDTO.builder().prestamoIds(List.of(1L)).build()));
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void registrarDevoluciones_EntregaCadaTramoAlConfirmarse() {
+        when(prestamoRepository.findAllByIdParaCerrar(anySet())).thenAnswer(inv -> {
+            Set<Long> ids = inv.getArgument(0);
+            return ids.stream().map(id -> prestamo(id, 10L, EstadoPrestamo.ACTIVO)).toList();
+        });
+        when(prestamoRepository.cerrarPrestamosActivos(anyCollection(), any(), any(), any(), any()))
+                .thenAnswer(inv -> ((Collection<?>) inv.getArgument(0)).size());
+        when(librosClient.obtenerLibrosPorIds(anyList())).thenReturn(ResponseEntity.ok(List.of()));
+        // El 1 se repite en el segundo tramo
+        List<Long> ids = new ArrayList<>(LongStream.rangeClosed(1, 150).boxed().toList());
+        ids.add(1L);
+        List<List<ResultadoLoteDTO.Item>> tramos = new ArrayList<>();
+
+        prestamoLoteService.registrarDevoluciones(DevolucionLoteRequestDTO.builder().prestamoIds(ids).build(),
+                tramos::add);
+
+        assertEquals(2, tramos.size());
+        assertEquals(100, tramos.get(0).size());
+        assertEquals(51, tramos.get(1).size());
+        assertEquals(150, tramos.get(1).get(50).getIndice());
+        assertEquals(400, tramos.get(1).get(50).getCodigo());
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(outboxService, times(2)).registrarEventos(eq(TipoEventoStock.LIBRO_DEVUELTO), anyList());
+    }
+
+    private Prestamo prestamo(Long id, Long libroId, EstadoPrestamo estado) {
+        return Prestamo.builder()
+                .id(id)
+                .libroId(libroId)
+                .usuarioId(1L)
+                .fechaPrestamo(LocalDate.now().minusDays(7))
+                .fechaDevolucionPrevista(LocalDate.now().plusDays(7))
+                .estado(estado)
+                .build();
+    }
+
+    private PrestamoLoteRequestDTO.Item item(Long libroId, Long usuarioId) {
+        return PrestamoLoteRequestDTO.Item.builder().libroId(libroId).usuarioId(usuarioId).build();
+    }
+}
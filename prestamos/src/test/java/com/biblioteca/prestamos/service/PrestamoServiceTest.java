@@ -8,6 +8,7 @@ import com.biblioteca.prestamos.controller.dto.DevolucionRequestDTO;
 import com.biblioteca.prestamos.exception.LibroNoDisponibleException;
 import com.biblioteca.prestamos.model.entity.Prestamo;
 import com.biblioteca.prestamos.model.enums.EstadoPrestamo;
+import com.biblioteca.prestamos.model.enums.TipoEventoStock;
 import com.biblioteca.prestamos.repository.PrestamoRepository;
 import com.biblioteca.prestamos.service.impl.PrestamoServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
@@ -19,6 +20,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -35,6 +37,12 @@ class PrestamoServiceTest {
     @Mock
     private LibrosClient librosClient;
 
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private VencimientosService vencimientosService;
+
     @InjectMocks
     private PrestamoServiceImpl prestamoService;
 
@@ -77,7 +85,7 @@ class PrestamoServiceTest {
                 .thenReturn(ResponseEntity.ok(true));
         when(librosClient.obtenerLibro(anyLong()))
                 .thenReturn(ResponseEntity.ok(libroResponseDto));
-        when(prestamoRepository.countByUsuarioIdAndEstado(anyLong(), any()))
+        when(prestamoRepository.countByUsuarioIdAndEstadoIn(anyLong(), any()))
                 .thenReturn(0L);
         when(prestamoRepository.save(any(Prestamo.class)))
                 .thenReturn(prestamo);
@@ -87,8 +95,10 @@ class PrestamoServiceTest {
         assertNotNull(result);
         assertEquals(1L, result.getId());
         assertEquals("Libro de Prueba", result.getTituloLibro());
-        verify(librosClient).prestarLibro(anyLong());
         verify(prestamoRepository).save(any(Prestamo.class));
+        verify(outboxService).registrarEvento(TipoEventoStock.LIBRO_PRESTADO, prestamo);
+        verify(vencimientosService).programar(1L, prestamo.getFechaDevolucionPrevista());
+        verify(librosClient, never()).prestarLibro(anyLong());
     }
 
     @Test
@@ -115,6 +125,22 @@ class PrestamoServiceTest {
         assertEquals("Libro de Prueba", result.getTituloLibro());
     }
 
+    @Test
+    void obtenerTodosPrestamos_UsaProyeccionYCompletaTitulo() {
+        PrestamoResponseDTO vencido = new PrestamoResponseDTO(2L, 1L, 1L, LocalDate.now().minusDays(20),
+                LocalDate.now().minusDays(6), null, EstadoPrestamo.ACTIVO, 0, null);
+        when(prestamoRepository.listarTodos()).thenReturn(List.of(vencido));
+        when(librosClient.obtenerLibro(1L))
+                .thenReturn(ResponseEntity.ok(libroResponseDto));
+
+        List<PrestamoResponseDTO> result = prestamoService.obtenerTodosPrestamos();
+
+        assertEquals(1, result.size());
+        assertEquals("Libro de Prueba", result.get(0).getTituloLibro());
+        assertTrue(result.get(0).getVencido());
+        verify(prestamoRepository, never()).findAll();
+    }
+
     @Test
     void registrarDevolucion_Success() {
         DevolucionRequestDTO devolucionRequest = DevolucionRequestDTO.builder()
@@ -134,7 +160,43 @@ class PrestamoServiceTest {
         assertNotNull(result);
         assertEquals(EstadoPrestamo.DEVUELTO, result.getEstado());
         assertNotNull(result.getFechaDevolucionReal());
-        verify(librosClient).devolverLibro(anyLong());
+        verify(outboxService).registrarEvento(TipoEventoStock.LIBRO_DEVUELTO, prestamo);
+        verify(vencimientosService).cancelar(1L);
+        verify(librosClient, never()).devolverLibro(anyLong());
+    }
+
+    @Test
+    void registrarDevolucion_PrestamoVencido_GuardaRetrasoFinal() {
+        prestamo.setFechaDevolucionPrevista(LocalDate.now().minusDays(4));
+        prestamo.setEstado(EstadoPrestamo.VENCIDO);
+        prestamo.setDiasRetraso(1);
+
+        when(prestamoRepository.findById(anyLong()))
+                .thenReturn(Optional.of(prestamo));
+        when(prestamoRepository.save(any(Prestamo.class)))
+                .thenAnswer(inv -> inv.getArgument(0));
+        when(librosClient.obtenerLibro(anyLong()))
+                .thenReturn(ResponseEntity.ok(libroResponseDto));
+
+        PrestamoResponseDTO result = prestamoService.registrarDevolucion(1L, new DevolucionRequestDTO());
+
+        assertEquals(EstadoPrestamo.DEVUELTO, result.getEstado());
+        assertEquals(4, result.getDiasRetraso());
+        assertFalse(result.getVencido());
+        verify(vencimientosService).cancelar(1L);
+    }
+
+    @Test
+    void registrarDevolucion_PrestamoRechazadoPorLibros_NoDevuelveEjemplar() {
+        prestamo.setEstado(EstadoPrestamo.RECHAZADO);
+        when(prestamoRepository.findById(anyLong()))
+                .thenReturn(Optional.of(prestamo));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> prestamoService.registrarDevolucion(1L, new DevolucionRequestDTO()));
+
+        verify(outboxService, never()).registrarEvento(any(), any());
+        verify(prestamoRepository, never()).save(any());
     }
 
     @Test
@@ -149,7 +211,7 @@ class PrestamoServiceTest {
 
     @Test
     void contarPrestamosActivosUsuario_ReturnsCount() {
-        when(prestamoRepository.countByUsuarioIdAndEstado(anyLong(), any()))
+        when(prestamoRepository.countByUsuarioIdAndEstadoIn(anyLong(), any()))
                 .thenReturn(3L);
 
         long result = prestamoService.contarPrestamosActivosUsuario(1L);
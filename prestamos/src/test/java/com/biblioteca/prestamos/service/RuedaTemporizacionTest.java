@@ -0,0 +1,113 @@
+package com.biblioteca.prestamos.service;
+
+import com.biblioteca.prestamos.service.impl.RuedaTemporizacion;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RuedaTemporizacionTest {
+
+    private static final LocalDate HOY = LocalDate.of(2026, 3, 10);
+
+    @Test
+    void avanzarHasta_VenceElDiaExacto() {
+        RuedaTemporizacion rueda = new RuedaTemporizacion(8, 2, HOY);
+        rueda.programar(1L, HOY.plusDays(3));
+
+        assertTrue(rueda.avanzarHasta(HOY.plusDays(2)).isEmpty());
+        assertEquals(List.of(1L), ids(rueda.avanzarHasta(HOY.plusDays(3))));
+        assertEquals(0, rueda.programadas());
+    }
+
+    @Test
+    void avanzarHasta_CascadaEntreNivelesYDesbordamiento() {
+        // 4 ranuras y 2 niveles: 16 días antes de desbordar
+        RuedaTemporizacion rueda = new RuedaTemporizacion(4, 2, HOY);
+        Map<Long, LocalDate> vencimientos = Map.of(
+                1L, HOY.plusDays(1),
+                2L, HOY.plusDays(5),
+                3L, HOY.plusDays(15),
+                4L, HOY.plusDays(40),
+                5L, HOY.plusDays(200));
+        vencimientos.forEach(rueda::programar);
+
+        for (int dia = 1; dia <= 200; dia++) {
+            LocalDate fecha = HOY.plusDays(dia);
+            List<Long> esperados = vencimientos.entrySet().stream()
+                    .filter(e -> e.getValue().equals(fecha))
+                    .map(Map.Entry::getKey)
+                    .toList();
+            assertEquals(esperados, ids(rueda.avanzarHasta(fecha)), "Día " + fecha);
+        }
+        assertEquals(0, rueda.programadas());
+    }
+
+    @Test
+    void programar_ReprogramarYCancelarDescartanLaEntradaAnterior() {
+        RuedaTemporizacion rueda = new RuedaTemporizacion(8, 2, HOY);
+        rueda.programar(1L, HOY.plusDays(2));
+        rueda.programar(2L, HOY.plusDays(2));
+        rueda.programar(1L, HOY.plusDays(30));
+        rueda.cancelar(2L);
+
+        assertTrue(rueda.avanzarHasta(HOY.plusDays(29)).isEmpty());
+        List<RuedaTemporizacion.Entrada> vencidas = rueda.avanzarHasta(HOY.plusDays(30));
+        assertEquals(List.of(new RuedaTemporizacion.Entrada(1L, HOY.plusDays(30))), vencidas);
+    }
+
+    @Test
+    void programar_YaVencidoSaleEnElSiguienteAvance() {
+        RuedaTemporizacion rueda = new RuedaTemporizacion(8, 2, HOY);
+        rueda.programar(1L, HOY.minusDays(5));
+        rueda.programar(2L, HOY);
+
+        assertEquals(List.of(1L, 2L), ids(rueda.avanzarHasta(HOY)));
+        assertTrue(rueda.avanzarHasta(HOY).isEmpty());
+    }
+
+    @Test
+    void avanzarHasta_SaltoDeVariosDiasCoincideConOrdenacionDirecta() {
+        RuedaTemporizacion rueda = new RuedaTemporizacion(16, 2, HOY);
+        Map<Long, LocalDate> vigentes = new HashMap<>();
+        Random aleatorio = new Random(41);
+        for (long id = 1; id <= 2000; id++) {
+            LocalDate vence = HOY.plusDays(aleatorio.nextInt(400));
+            rueda.programar(id, vence);
+            vigentes.put(id, vence);
+        }
+
+        LocalDate fecha = HOY;
+        while (!vigentes.isEmpty()) {
+            fecha = fecha.plusDays(1 + aleatorio.nextInt(10));
+            LocalDate hasta = fecha;
+            List<Long> esperados = vigentes.entrySet().stream()
+                    .filter(e -> !e.getValue().isAfter(hasta))
+                    .map(Map.Entry::getKey)
+                    .sorted()
+                    .toList();
+            List<Long> vencidos = new ArrayList<>(ids(rueda.avanzarHasta(fecha)));
+            vencidos.sort(null);
+
+            assertEquals(esperados, vencidos, "Hasta " + fecha);
+            esperados.forEach(vigentes::remove);
+        }
+    }
+
+    @Test
+    void constructor_RuedaSinRanuras_Falla() {
+        assertThrows(IllegalArgumentException.class, () -> new RuedaTemporizacion(1, 2, HOY));
+    }
+
+    private static List<Long> ids(List<RuedaTemporizacion.Entrada> entradas) {
+        return entradas.stream().map(RuedaTemporizacion.Entrada::id).toList();
+    }
+}
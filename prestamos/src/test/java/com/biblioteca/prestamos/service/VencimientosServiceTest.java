@@ -0,0 +1,177 @@
+package com.biblioteca.prestamos.service;
+
+import com.biblioteca.prestamos.repository.PrestamoRepository;
+import com.biblioteca.prestamos.service.impl.VencimientosServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VencimientosServiceTest {
+
+    private static final LocalDate HOY = LocalDate.now();
+
+    @Mock
+    private PrestamoRepository prestamoRepository;
+
+    @Mock
+    private BloqueoTrabajoService bloqueoTrabajoService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private VencimientosServiceImpl vencimientosService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        vencimientosService = new VencimientosServiceImpl(prestamoRepository, bloqueoTrabajoService,
+                transactionTemplate, meterRegistry, 8, 2, 2, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void procesarVencimientos_UnaActualizacionPorFechaPrevistaYLote() {
+        enTransaccion();
+        when(prestamoRepository.marcarVencidos(anyCollection(), any(LocalDate.class), anyInt(),
+                any(LocalDateTime.class))).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+        vencimientosService.programar(Map.of(
+                1L, HOY.minusDays(1),
+                2L, HOY.minusDays(1),
+                3L, HOY.minusDays(1),
+                4L, HOY.minusDays(3),
+                5L, HOY.plusDays(7)));
+
+        int marcados = vencimientosService.procesarVencimientos();
+
+        assertEquals(4, marcados);
+        // Lotes de 2: los tres que vencieron ayer van en dos UPDATE, el de hace tres días en otra
+        verify(prestamoRepository, times(2)).marcarVencidos(anyCollection(), eq(HOY.minusDays(1)), eq(1),
+                any(LocalDateTime.class));
+        verify(prestamoRepository).marcarVencidos(eq(List.of(4L)), eq(HOY.minusDays(3)), eq(3),
+                any(LocalDateTime.class));
+        assertEquals(4.0, meterRegistry.get("prestamos.vencimientos.marcados").counter().count());
+        assertEquals(1.0, meterRegistry.get("prestamos.vencimientos.programados").gauge().value());
+        assertEquals(0, vencimientosService.procesarVencimientos());
+    }
+
+    @Test
+    void procesarVencimientos_SinVencidosNoTocaLaBaseDeDatos() {
+        vencimientosService.programar(1L, HOY);
+        vencimientosService.programar(2L, HOY.plusDays(30));
+
+        assertEquals(0, vencimientosService.procesarVencimientos());
+        verifyNoInteractions(prestamoRepository, transactionTemplate);
+    }
+
+    @Test
+    void procesarVencimientos_SiFallaLaActualizacionSeReintenta() {
+        enTransaccion();
+        when(prestamoRepository.marcarVencidos(anyCollection(), any(LocalDate.class), anyInt(),
+                any(LocalDateTime.class))).thenThrow(new IllegalStateException("sin conexión")).thenReturn(1);
+        vencimientosService.programar(1L, HOY.minusDays(2));
+
+        assertThrows(IllegalStateException.class, () -> vencimientosService.procesarVencimientos());
+        assertEquals(1, vencimientosService.procesarVencimientos());
+    }
+
+    @Test
+    void procesarVencimientos_SoloLosDelRangoReclamado() {
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> ((TransactionCallback<?>) inv.getArgument(0)).doInTransaction(null));
+        when(prestamoRepository.marcarVencidos(anyCollection(), any(LocalDate.class), anyInt(),
+                any(LocalDateTime.class))).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+        Runnable renovador = mock(Runnable.class);
+        // Esta réplica solo consigue la partición de los ids [10, 20)
+        when(bloqueoTrabajoService.ejecutar(eq("vencimientos"), eq(HOY.toString()), eq(4), any())).thenAnswer(inv -> {
+            Consumer<BloqueoTrabajoService.Arrendamiento> tarea = inv.getArgument(3);
+            tarea.accept(new BloqueoTrabajoService.Arrendamiento("vencimientos", 1, 7L, 10, 20, renovador));
+            return 1;
+        });
+        vencimientosService.programar(Map.of(5L, HOY.minusDays(1), 12L, HOY.minusDays(1), 25L, HOY.minusDays(1)));
+
+        assertEquals(1, vencimientosService.procesarVencimientos());
+        verify(prestamoRepository).marcarVencidos(eq(List.of(12L)), eq(HOY.minusDays(1)), eq(1),
+                any(LocalDateTime.class));
+        // La barrera del arrendamiento va dentro de la transacción de la UPDATE
+        verify(renovador).run();
+        // Los de otras particiones son de otra réplica
+        assertEquals(0.0, meterRegistry.get("prestamos.vencimientos.programados").gauge().value());
+    }
+
+    @Test
+    void cancelar_PrestamoDevueltoNoVence() {
+        vencimientosService.programar(1L, HOY.minusDays(1));
+        vencimientosService.cancelar(1L);
+
+        assertEquals(0, vencimientosService.procesarVencimientos());
+        verifyNoInteractions(prestamoRepository);
+    }
+
+    @Test
+    void programar_EsperaALaConfirmacionDeLaTransaccion() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        vencimientosService.programar(1L, HOY.plusDays(5));
+
+        assertEquals(0.0, meterRegistry.get("prestamos.vencimientos.programados").gauge().value());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(1.0, meterRegistry.get("prestamos.vencimientos.programados").gauge().value());
+    }
+
+    @Test
+    void cargar_NoPisaLosCambiosHechosDuranteLaCarga() {
+        enTransaccion();
+        when(prestamoRepository.marcarVencidos(anyCollection(), any(LocalDate.class), anyInt(),
+                any(LocalDateTime.class))).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+        // Mientras se recorren los activos, el préstamo 1 se renueva y el 2 se devuelve
+        doAnswer(inv -> {
+            BiConsumer<Long, LocalDate> consumidor = inv.getArgument(0);
+            vencimientosService.programar(1L, HOY.plusDays(10));
+            vencimientosService.cancelar(2L);
+            consumidor.accept(1L, HOY.minusDays(1));
+            consumidor.accept(2L, HOY.minusDays(1));
+            consumidor.accept(3L, HOY.minusDays(1));
+            return null;
+        }).when(prestamoRepository).recorrerActivos(any());
+
+        vencimientosService.cargar();
+
+        assertEquals(1, vencimientosService.procesarVencimientos());
+        verify(prestamoRepository).marcarVencidos(eq(List.of(3L)), eq(HOY.minusDays(1)), eq(1),
+                any(LocalDateTime.class));
+    }
+
+    private void enTransaccion() {
+        BloqueosPrueba.unaSolaReplica(bloqueoTrabajoService);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> ((TransactionCallback<?>) inv.getArgument(0)).doInTransaction(null));
+    }
+}
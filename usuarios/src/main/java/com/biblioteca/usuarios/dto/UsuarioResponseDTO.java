@@ -1,9 +1,13 @@
 // UsuarioResponseDTO.java
 package com.biblioteca.usuarios.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class UsuarioResponseDTO {
     private Long id;
     private String nombreCompleto;
@@ -1,6 +1,8 @@
 // GlobalExceptionHandler.java
 package com.biblioteca.usuarios.exception;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -11,8 +13,11 @@ import java.util.HashMap;
 import java.util.Map;
 
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
+    private final MeterRegistry meterRegistry;
+
     @ExceptionHandler(UsuarioNotFoundException.class)
     public ResponseEntity<Map<String, Object>> handleUsuarioNotFound(UsuarioNotFoundException ex) {
         Map<String, Object> response = new HashMap<>();
@@ -20,6 +25,7 @@ public class GlobalExceptionHandler {
         response.put("status", HttpStatus.NOT_FOUND.value());
         response.put("error", "Usuario no encontrado");
         response.put("message", ex.getMessage());
+        contarError(ex, HttpStatus.NOT_FOUND);
         return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
     }
 
@@ -30,6 +36,14 @@ public class GlobalExceptionHandler {
         response.put("status", HttpStatus.CONFLICT.value());
         response.put("error", "Email duplicado");
         response.put("message", ex.getMessage());
+        contarError(ex, HttpStatus.CONFLICT);
         return new ResponseEntity<>(response, HttpStatus.CONFLICT);
     }
-}
\ No newline at end of file
+
+    // biblioteca.errores{excepcion, estado}: la tasa de cada tipo de error sale de /actuator/metrics
+    private void contarError(Exception ex, HttpStatus status) {
+        meterRegistry.counter("biblioteca.errores",
+                "excepcion", ex.getClass().getSimpleName(),
+                "estado", String.valueOf(status.value())).increment();
+    }
+}
@@ -7,10 +7,17 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.Builder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 @Entity
 @Table(name = "usuarios",
         uniqueConstraints = @UniqueConstraint(columnNames = "email"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "usuarios")
+@NaturalIdCache(region = "usuarios-email")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -27,6 +34,7 @@ public class Usuario {
 
     @Email(message = "Debe ser un email válido")
     @NotBlank(message = "El email es obligatorio")
+    @NaturalId(mutable = true)
     @Column(nullable = false, unique = true)
     private String email;
 
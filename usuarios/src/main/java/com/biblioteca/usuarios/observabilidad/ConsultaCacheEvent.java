@@ -0,0 +1,38 @@
+package com.biblioteca.usuarios.observabilidad;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// Una búsqueda por id en la caché de segundo nivel. Sin grabación activa begin/commit no cuestan nada.
+@Name("com.biblioteca.usuarios.ConsultaCache")
+@Label("Consulta de caché")
+@Category({"Biblioteca", "Usuarios"})
+@Description("Consulta a una caché en memoria y si la respuesta estaba en ella")
+public class ConsultaCacheEvent extends Event {
+
+    @Label("Caché")
+    String cache;
+
+    @Label("Usuario")
+    long id;
+
+    @Label("Acierto")
+    boolean acierto;
+
+    public static ConsultaCacheEvent iniciar(String cache, Long id) {
+        ConsultaCacheEvent evento = new ConsultaCacheEvent();
+        evento.cache = cache;
+        evento.id = id == null ? 0 : id;
+        evento.begin();
+        return evento;
+    }
+
+    public boolean terminar(boolean acierto) {
+        this.acierto = acierto;
+        commit();
+        return acierto;
+    }
+}
@@ -1,13 +1,18 @@
 package com.biblioteca.usuarios.repository;
 
+import com.biblioteca.usuarios.dto.UsuarioResponseDTO;
 import com.biblioteca.usuarios.model.entity.Usuario;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
+import java.util.List;
 
 @Repository
-public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
-    Optional<Usuario> findByEmail(String email);
-    boolean existsByEmail(String email);
-}
\ No newline at end of file
+public interface UsuarioRepository extends JpaRepository<Usuario, Long>, UsuarioRepositoryCustom {
+
+    // Listado proyectado directamente al DTO: no crea entidades gestionadas
+    @Query("SELECT new com.biblioteca.usuarios.dto.UsuarioResponseDTO(u.id, u.nombreCompleto, u.email, u.activo) " +
+            "FROM Usuario u")
+    List<UsuarioResponseDTO> listarTodos();
+}
@@ -0,0 +1,19 @@
+package com.biblioteca.usuarios.repository;
+
+import com.biblioteca.usuarios.model.entity.Usuario;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public interface UsuarioRepositoryCustom {
+
+    // Búsquedas por natural-id: pasan por la caché email -> id y después por la de entidades
+    @Transactional(readOnly = true)
+    Optional<Usuario> findByEmail(String email);
+
+    @Transactional(readOnly = true)
+    boolean existsByEmail(String email);
+
+    // Si el usuario está en la caché de segundo nivel, sin consultar la base de datos
+    boolean enCache(Long id);
+}
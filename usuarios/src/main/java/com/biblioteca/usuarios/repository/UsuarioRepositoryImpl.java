@@ -0,0 +1,32 @@
+package com.biblioteca.usuarios.repository;
+
+import com.biblioteca.usuarios.model.entity.Usuario;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+// Fragmento de UsuarioRepository con las búsquedas por email resueltas como natural-id
+class UsuarioRepositoryImpl implements UsuarioRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Usuario> findByEmail(String email) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Usuario.class)
+                .loadOptional(email);
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return findByEmail(email).isPresent();
+    }
+
+    @Override
+    public boolean enCache(Long id) {
+        return entityManager.getEntityManagerFactory().getCache().contains(Usuario.class, id);
+    }
+}
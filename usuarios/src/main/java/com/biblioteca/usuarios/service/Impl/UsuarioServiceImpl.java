@@ -5,6 +5,7 @@ import com.biblioteca.usuarios.dto.UsuarioResponseDTO;
 import com.biblioteca.usuarios.exception.EmailDuplicadoException;
 import com.biblioteca.usuarios.exception.UsuarioNotFoundException;
 import com.biblioteca.usuarios.model.entity.Usuario;
+import com.biblioteca.usuarios.observabilidad.ConsultaCacheEvent;
 import com.biblioteca.usuarios.repository.UsuarioRepository;
 import com.biblioteca.usuarios.service.UsuarioService;
 import lombok.RequiredArgsConstructor;
@@ -12,7 +13,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -38,16 +39,14 @@ public class UsuarioServiceImpl implements UsuarioService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<UsuarioResponseDTO> obtenerTodosUsuarios() {
-        return usuarioRepository.findAll()
-                .stream()
-                .map(this::mapToResponseDTO)
-                .collect(Collectors.toList());
+        return usuarioRepository.listarTodos();
     }
 
     @Override
     public UsuarioResponseDTO obtenerUsuarioPorId(Long id) {
-        Usuario usuario = usuarioRepository.findById(id)
+        Usuario usuario = buscarUsuario(id)
                 .orElseThrow(() -> new UsuarioNotFoundException("Usuario no encontrado con ID: " + id));
         return mapToResponseDTO(usuario);
     }
@@ -125,16 +124,26 @@ public class UsuarioServiceImpl implements UsuarioService {
 
     @Override
     public boolean existeUsuario(Long id) {
-        return usuarioRepository.existsById(id);
+        // findById pasa por la caché de segundo nivel; existsById siempre consulta la base de datos
+        return buscarUsuario(id).isPresent();
     }
 
     @Override
     public boolean usuarioActivo(Long id) {
-        return usuarioRepository.findById(id)
+        return buscarUsuario(id)
                 .map(Usuario::isActivo)
                 .orElse(false);
     }
 
+    // Las consultas de prestamos-service: mirar la caché solo si hay una grabación JFR activa
+    private Optional<Usuario> buscarUsuario(Long id) {
+        ConsultaCacheEvent consulta = ConsultaCacheEvent.iniciar("usuarios", id);
+        boolean enCache = consulta.isEnabled() && usuarioRepository.enCache(id);
+        Optional<Usuario> usuario = usuarioRepository.findById(id);
+        consulta.terminar(enCache);
+        return usuario;
+    }
+
     // Helper method
     private UsuarioResponseDTO mapToResponseDTO(Usuario usuario) {
         UsuarioResponseDTO dto = new UsuarioResponseDTO();
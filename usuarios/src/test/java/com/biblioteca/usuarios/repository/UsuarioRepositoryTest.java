@@ -1,19 +1,27 @@
 package com.biblioteca.usuarios.repository;
 
+import com.biblioteca.usuarios.dto.UsuarioResponseDTO;
 import com.biblioteca.usuarios.model.entity.Usuario;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 @DataJpaTest
 @ActiveProfiles("test")
 class UsuarioRepositoryTest {
 
+    @Autowired
+    private EntityManager entityManager;
+
     @Autowired
     private UsuarioRepository usuarioRepository;
 
@@ -115,4 +123,31 @@ class UsuarioRepositoryTest {
         // Then
         assertThat(count).isEqualTo(2);
     }
-}
\ No newline at end of file
+
+    @Test
+    void listarTodos_ReturnsDtosWithoutManagedEntities() {
+        // Given
+        usuarioRepository.save(Usuario.builder()
+                .nombreCompleto("User 1")
+                .email("user1@email.com")
+                .activo(true)
+                .build());
+        usuarioRepository.save(Usuario.builder()
+                .nombreCompleto("User 2")
+                .email("user2@email.com")
+                .activo(false)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        List<UsuarioResponseDTO> usuarios = usuarioRepository.listarTodos();
+
+        // Then
+        assertThat(usuarios).extracting(UsuarioResponseDTO::getEmail, UsuarioResponseDTO::isActivo)
+                .containsExactlyInAnyOrder(
+                        tuple("user1@email.com", true),
+                        tuple("user2@email.com", false));
+        assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+}
@@ -87,8 +87,9 @@ class UsuarioServiceTest {
 
     @Test
     void obtenerTodosUsuarios_Success() {
-        List<Usuario> usuarios = Arrays.asList(usuario);
-        when(usuarioRepository.findAll()).thenReturn(usuarios);
+        List<UsuarioResponseDTO> usuarios = Arrays.asList(
+                new UsuarioResponseDTO(1L, "Ana García", "ana@email.com", true));
+        when(usuarioRepository.listarTodos()).thenReturn(usuarios);
 
         List<UsuarioResponseDTO> result = usuarioService.obtenerTodosUsuarios();
 
@@ -96,7 +97,8 @@ class UsuarioServiceTest {
         assertEquals(1, result.size());
         assertEquals("Ana García", result.get(0).getNombreCompleto());
 
-        verify(usuarioRepository, times(1)).findAll();
+        verify(usuarioRepository, times(1)).listarTodos();
+        verify(usuarioRepository, never()).findAll();
     }
 
     @Test
@@ -191,12 +193,12 @@ class UsuarioServiceTest {
 
     @Test
     void existeUsuario_Success() {
-        when(usuarioRepository.existsById(1L)).thenReturn(true);
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
 
         boolean result = usuarioService.existeUsuario(1L);
 
         assertTrue(result);
-        verify(usuarioRepository, times(1)).existsById(1L);
+        verify(usuarioRepository, times(1)).findById(1L);
     }
 
     @Test